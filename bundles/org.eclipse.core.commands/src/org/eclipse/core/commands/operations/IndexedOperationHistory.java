@@ -0,0 +1,1479 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.commands.operations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.util.Tracing;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * <p>
+ * An implementation of IOperationHistory with the same linear undo and redo
+ * model as {@link DefaultOperationHistory}, which indexes the undo and redo
+ * histories by undo context.
+ * </p>
+ * <p>
+ * Every operation is kept in a stack of each of its undo contexts, and a
+ * sequence number assigned when the operation is added orders the operations
+ * of different contexts. Finding the operation available for undo or redo in a
+ * context therefore only looks at the top of the stacks of the matching
+ * contexts, and enforcing a limit only removes operations from the bottom of
+ * the stack of the limited context, instead of scanning the operations of all
+ * contexts.
+ * </p>
+ * <p>
+ * The index is built from the contexts an operation has when it is added to
+ * the history. Contexts removed from an operation are noticed when its stacks
+ * are next visited, but clients which add contexts to an operation that is
+ * already in the history must call {@link #operationChanged(IUndoableOperation)}
+ * so that the operation is found in its new contexts.
+ * </p>
+ * <p>
+ * The index relies on {@link AbstractOperation#hasContext(IUndoContext)},
+ * which answers whether one of the contexts of the operation matches. Other
+ * implementations of IUndoableOperation may answer differently, so while such
+ * an operation is in the undo or redo history, that history is searched by
+ * asking each of its operations, like the DefaultOperationHistory does.
+ * </p>
+ * <p>
+ * Like the DefaultOperationHistory, this history may be used from any thread,
+ * and notifications or approval requests occur on the thread that initiated
+ * the request.
+ * </p>
+ * <p>
+ * This implementation is not intended to be subclassed.
+ * </p>
+ *
+ * @see org.eclipse.core.commands.operations.IOperationHistory
+ * @see org.eclipse.core.commands.operations.DefaultOperationHistory
+ *
+ * @since 3.9
+ */
+public final class IndexedOperationHistory implements IOperationHistory {
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	/**
+	 * An operation of an {@link OperationStack}.
+	 */
+	private static final class Entry {
+		final IUndoableOperation operation;
+
+		/** the position of the operation in its stack */
+		long sequence;
+
+		/** the neighbours of the entry in the stack */
+		Entry previous, next;
+
+		/** the nodes of the entry in the stacks of its contexts */
+		Node[] nodes = NO_NODES;
+
+		Entry(IUndoableOperation operation) {
+			this.operation = operation;
+		}
+	}
+
+	/**
+	 * An operation in the stack of one of its contexts.
+	 */
+	private static final class Node {
+		final Entry entry;
+
+		/** the stack of the node, or <code>null</code> once removed */
+		ContextStack stack;
+
+		Node previous, next;
+
+		Node(Entry entry, ContextStack stack) {
+			this.entry = entry;
+			this.stack = stack;
+		}
+	}
+
+	static final Node[] NO_NODES = new Node[0];
+
+	/**
+	 * The operations of an {@link OperationStack} which have a context, oldest
+	 * first.
+	 */
+	private static final class ContextStack {
+		final IUndoContext context;
+
+		Node first, last;
+
+		int size;
+
+		ContextStack(IUndoContext context) {
+			this.context = context;
+		}
+
+		/*
+		 * Answer whether operations with this context are in the history of
+		 * the other context, using the same rules as
+		 * AbstractOperation#hasContext.
+		 */
+		boolean matches(IUndoContext other) {
+			return context == other || other.matches(context) || context.matches(other);
+		}
+
+		/*
+		 * Answer whether the context was removed from the operation of the
+		 * node after it was added to the history.
+		 */
+		boolean isStale(Node node) {
+			IUndoContext[] contexts = node.entry.operation.getContexts();
+			for (int i = 0; i < contexts.length; i++) {
+				if (contexts[i] == context) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		Node insert(Entry entry) {
+			Node node = new Node(entry, this);
+			// entries are added on top, except for replacements
+			Node before = last;
+			while (before != null && before.entry.sequence > entry.sequence) {
+				before = before.previous;
+			}
+			node.previous = before;
+			node.next = before == null ? first : before.next;
+			if (node.previous == null) {
+				first = node;
+			} else {
+				node.previous.next = node;
+			}
+			if (node.next == null) {
+				last = node;
+			} else {
+				node.next.previous = node;
+			}
+			size++;
+			return node;
+		}
+
+		void unlink(Node node) {
+			if (node.previous == null) {
+				first = node.next;
+			} else {
+				node.previous.next = node.next;
+			}
+			if (node.next == null) {
+				last = node.previous;
+			} else {
+				node.next.previous = node.previous;
+			}
+			node.previous = node.next = null;
+			node.stack = null;
+			size--;
+		}
+
+		/*
+		 * Remove the nodes whose operation no longer has the context.
+		 */
+		void prune() {
+			Node node = first;
+			while (node != null) {
+				Node next = node.next;
+				if (isStale(node)) {
+					unlink(node);
+				}
+				node = next;
+			}
+		}
+	}
+
+	private static final Comparator<Entry> SEQUENCE_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return Long.compare(e1.sequence, e2.sequence);
+		}
+	};
+
+	/**
+	 * The undo or the redo history. An operation is contained at most once.
+	 */
+	private static final class OperationStack {
+		private final Map<IUndoableOperation, Entry> entries = new IdentityHashMap<>();
+
+		private final Map<IUndoContext, ContextStack> contextStacks = new IdentityHashMap<>();
+
+		private Entry first, last;
+
+		private long sequence;
+
+		/** the number of operations which are not AbstractOperations */
+		private int customOperations;
+
+		boolean contains(IUndoableOperation operation) {
+			return entries.containsKey(operation);
+		}
+
+		void push(IUndoableOperation operation) {
+			remove(operation);
+			Entry entry = new Entry(operation);
+			entry.sequence = ++sequence;
+			link(entry, null);
+			entries.put(operation, entry);
+			index(entry);
+		}
+
+		boolean remove(IUndoableOperation operation) {
+			Entry entry = entries.remove(operation);
+			if (entry == null) {
+				return false;
+			}
+			unindex(entry);
+			unlink(entry);
+			return true;
+		}
+
+		/*
+		 * Replace the operation by the replacements at its position in the
+		 * stack. Answer false if the operation is not in the stack.
+		 */
+		boolean replace(IUndoableOperation operation, IUndoableOperation[] replacements) {
+			Entry entry = entries.remove(operation);
+			if (entry == null) {
+				return false;
+			}
+			unindex(entry);
+			for (int i = 0; i < replacements.length; i++) {
+				remove(replacements[i]);
+			}
+			Entry next = entry.next;
+			unlink(entry);
+			Entry[] added = new Entry[replacements.length];
+			for (int i = 0; i < replacements.length; i++) {
+				added[i] = new Entry(replacements[i]);
+				link(added[i], next);
+				entries.put(replacements[i], added[i]);
+			}
+			// replacing is rare, so simply renumber the whole stack
+			sequence = 0;
+			for (Entry e = first; e != null; e = e.next) {
+				e.sequence = ++sequence;
+			}
+			for (int i = 0; i < added.length; i++) {
+				index(added[i]);
+			}
+			return true;
+		}
+
+		/*
+		 * Update the index after the contexts of the operation changed.
+		 */
+		void contextsChanged(IUndoableOperation operation) {
+			Entry entry = entries.get(operation);
+			if (entry != null) {
+				unindex(entry);
+				index(entry);
+			}
+		}
+
+		/*
+		 * Answer the most recent operation with the context.
+		 */
+		IUndoableOperation top(IUndoContext context) {
+			if (!isIndexed(context)) {
+				for (Entry entry = last; entry != null; entry = entry.previous) {
+					if (entry.operation.hasContext(context)) {
+						return entry.operation;
+					}
+				}
+				return null;
+			}
+			Entry top = null;
+			for (Iterator<ContextStack> iterator = contextStacks.values().iterator(); iterator.hasNext();) {
+				ContextStack stack = iterator.next();
+				if (!stack.matches(context)) {
+					continue;
+				}
+				Node node = stack.last;
+				while (node != null && stack.isStale(node)) {
+					stack.unlink(node);
+					node = stack.last;
+				}
+				if (node == null) {
+					iterator.remove();
+				} else if (top == null || node.entry.sequence > top.sequence) {
+					top = node.entry;
+				}
+			}
+			return top == null ? null : top.operation;
+		}
+
+		/*
+		 * Answer the operations with the context, oldest first.
+		 */
+		List<IUndoableOperation> filter(IUndoContext context) {
+			List<IUndoableOperation> filtered = new ArrayList<>();
+			if (!isIndexed(context)) {
+				for (Entry entry = first; entry != null; entry = entry.next) {
+					if (entry.operation.hasContext(context)) {
+						filtered.add(entry.operation);
+					}
+				}
+				return filtered;
+			}
+			List<Entry> matching = new ArrayList<>();
+			int stacks = 0;
+			for (Iterator<ContextStack> iterator = contextStacks.values().iterator(); iterator.hasNext();) {
+				ContextStack stack = iterator.next();
+				if (!stack.matches(context)) {
+					continue;
+				}
+				stack.prune();
+				if (stack.size == 0) {
+					iterator.remove();
+					continue;
+				}
+				stacks++;
+				for (Node node = stack.first; node != null; node = node.next) {
+					matching.add(node.entry);
+				}
+			}
+			if (stacks > 1) {
+				// an operation may be in several of the stacks
+				Collections.sort(matching, SEQUENCE_ORDER);
+			}
+			Entry previous = null;
+			for (Entry entry : matching) {
+				if (entry != previous) {
+					filtered.add(entry.operation);
+				}
+				previous = entry;
+			}
+			return filtered;
+		}
+
+		/*
+		 * Answer the oldest operations with the context which exceed the
+		 * given number of operations.
+		 */
+		List<IUndoableOperation> getExcess(IUndoContext context, int max) {
+			ContextStack single = null;
+			if (isIndexed(context)) {
+				for (ContextStack stack : contextStacks.values()) {
+					if (stack.matches(context)) {
+						if (single != null) {
+							single = null;
+							break;
+						}
+						single = stack;
+					}
+				}
+			}
+			if (single != null) {
+				// the common case, only the bottom of one stack is visited
+				if (single.size <= max) {
+					return Collections.emptyList();
+				}
+				List<IUndoableOperation> excess = new ArrayList<>();
+				Node node = single.first;
+				while (node != null && single.size - excess.size() > max) {
+					Node next = node.next;
+					if (single.isStale(node)) {
+						single.unlink(node);
+					} else {
+						excess.add(node.entry.operation);
+					}
+					node = next;
+				}
+				if (single.size == 0) {
+					contextStacks.remove(single.context);
+				}
+				return excess;
+			}
+			List<IUndoableOperation> filtered = filter(context);
+			if (filtered.size() <= max) {
+				return Collections.emptyList();
+			}
+			return new ArrayList<>(filtered.subList(0, filtered.size() - max));
+		}
+
+		/*
+		 * Answer whether the operations with the context can be found in the
+		 * context stacks rather than by asking each operation.
+		 */
+		private boolean isIndexed(IUndoContext context) {
+			return context != GLOBAL_UNDO_CONTEXT && customOperations == 0;
+		}
+
+		private void link(Entry entry, Entry next) {
+			entry.next = next;
+			entry.previous = next == null ? last : next.previous;
+			if (entry.previous == null) {
+				first = entry;
+			} else {
+				entry.previous.next = entry;
+			}
+			if (next == null) {
+				last = entry;
+			} else {
+				next.previous = entry;
+			}
+		}
+
+		private void unlink(Entry entry) {
+			if (entry.previous == null) {
+				first = entry.next;
+			} else {
+				entry.previous.next = entry.next;
+			}
+			if (entry.next == null) {
+				last = entry.previous;
+			} else {
+				entry.next.previous = entry.previous;
+			}
+			entry.previous = entry.next = null;
+		}
+
+		private void index(Entry entry) {
+			IUndoContext[] contexts = entry.operation.getContexts();
+			entry.nodes = new Node[contexts.length];
+			for (int i = 0; i < contexts.length; i++) {
+				ContextStack stack = contextStacks.get(contexts[i]);
+				if (stack == null) {
+					stack = new ContextStack(contexts[i]);
+					contextStacks.put(contexts[i], stack);
+				}
+				entry.nodes[i] = stack.insert(entry);
+			}
+			if (!(entry.operation instanceof AbstractOperation)) {
+				customOperations++;
+			}
+		}
+
+		private void unindex(Entry entry) {
+			for (int i = 0; i < entry.nodes.length; i++) {
+				ContextStack stack = entry.nodes[i].stack;
+				if (stack != null) {
+					stack.unlink(entry.nodes[i]);
+					if (stack.size == 0) {
+						contextStacks.remove(stack.context);
+					}
+				}
+			}
+			entry.nodes = NO_NODES;
+			if (!(entry.operation instanceof AbstractOperation)) {
+				customOperations--;
+			}
+		}
+	}
+
+	/**
+	 * the list of {@link IOperationApprover}s
+	 */
+	private ListenerList<IOperationApprover> approvers = new ListenerList<>(ListenerList.IDENTITY);
+
+	/**
+	 * a map of undo limits per context
+	 */
+	private Map<IUndoContext, Integer> limits = Collections.synchronizedMap(new HashMap<IUndoContext, Integer>());
+
+	/**
+	 * the list of {@link IOperationHistoryListener}s
+	 */
+	private ListenerList<IOperationHistoryListener> listeners = new ListenerList<>(ListenerList.IDENTITY);
+
+	/**
+	 * the operations available for redo, guarded by undoRedoHistoryLock
+	 */
+	private final OperationStack redoHistory = new OperationStack();
+
+	/**
+	 * the operations available for undo, guarded by undoRedoHistoryLock
+	 */
+	private final OperationStack undoHistory = new OperationStack();
+
+	/**
+	 * a lock that is used to synchronize access between the undo and redo
+	 * history
+	 */
+	private final Object undoRedoHistoryLock = new Object();
+
+	/**
+	 * An operation that is "absorbing" all other operations while it is open.
+	 * When this is not null, other operations added or executed are added to
+	 * this composite.
+	 *
+	 */
+	private ICompositeOperation openComposite;
+
+	/**
+	 * a lock that is used to synchronize access to the open composite.
+	 */
+	final Object openCompositeLock = new Object();
+
+	/**
+	 * Create an instance of IndexedOperationHistory.
+	 */
+	public IndexedOperationHistory() {
+		super();
+	}
+
+	@Override
+	public void add(IUndoableOperation operation) {
+		Assert.isNotNull(operation);
+
+		/*
+		 * If we are in the middle of executing an open batching operation, and
+		 * this is not that operation, then we need only add the context of the
+		 * new operation to the batch. The operation itself is disposed since we
+		 * will never undo or redo it. We consider it to be triggered by the
+		 * batching operation and assume that its undo will be triggered by the
+		 * batching operation undo.
+		 */
+		synchronized (openCompositeLock) {
+			if (openComposite != null && openComposite != operation) {
+				openComposite.add(operation);
+				return;
+			}
+		}
+
+		if (checkLimit(undoHistory, operation)) {
+			synchronized (undoRedoHistoryLock) {
+				undoHistory.push(operation);
+			}
+			notifyAdd(operation);
+
+			// flush redo stack for related contexts
+			IUndoContext[] contexts = operation.getContexts();
+			for (int i = 0; i < contexts.length; i++) {
+				flushRedo(contexts[i]);
+			}
+		} else {
+			// Dispose the operation since we will not have a reference to it.
+			operation.dispose();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Add the specified approver to the list of operation approvers consulted
+	 * by the operation history before an undo or redo is allowed to proceed.
+	 * This method has no effect if the instance being added is already in the
+	 * list.
+	 * </p>
+	 * <p>
+	 * Operation approvers must be prepared to receive these the operation
+	 * approval messages from a background thread. Any UI access occurring
+	 * inside the implementation must be properly synchronized using the
+	 * techniques specified by the client's widget library.
+	 * </p>
+	 *
+	 * @param approver
+	 *            the IOperationApprover to be added as an approver.
+	 *
+	 */
+
+	@Override
+	public void addOperationApprover(IOperationApprover approver) {
+		approvers.add(approver);
+	}
+
+	/**
+	 * <p>
+	 * Add the specified listener to the list of operation history listeners
+	 * that are notified about changes in the history or operations that are
+	 * executed, undone, or redone. This method has no effect if the instance
+	 * being added is already in the list.
+	 * </p>
+	 * <p>
+	 * Operation history listeners must be prepared to receive notifications
+	 * from a background thread. Any UI access occurring inside the
+	 * implementation must be properly synchronized using the techniques
+	 * specified by the client's widget library.
+	 * </p>
+	 *
+	 * @param listener
+	 *            the IOperationHistoryListener to be added as a listener.
+	 *
+	 * @see org.eclipse.core.commands.operations.IOperationHistoryListener
+	 * @see org.eclipse.core.commands.operations.OperationHistoryEvent
+	 */
+	@Override
+	public void addOperationHistoryListener(IOperationHistoryListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public boolean canRedo(IUndoContext context) {
+		// null context is allowed and passed through
+		IUndoableOperation operation = getRedoOperation(context);
+		return (operation != null && operation.canRedo());
+	}
+
+	@Override
+	public boolean canUndo(IUndoContext context) {
+		// null context is allowed and passed through
+		IUndoableOperation operation = getUndoOperation(context);
+		return (operation != null && operation.canUndo());
+	}
+
+	/**
+	 * Check the limit of the given history before adding an operation. In
+	 * theory the redo limit should never be reached, because the redo items
+	 * are transferred from the undo history, which has the same limit. The redo
+	 * history is cleared whenever a new operation is added. We check for
+	 * completeness since implementations may change over time.
+	 *
+	 * Return a boolean indicating whether the operation should be added.
+	 */
+	private boolean checkLimit(OperationStack history, IUndoableOperation operation) {
+		IUndoContext[] contexts = operation.getContexts();
+		for (int i = 0; i < contexts.length; i++) {
+			int limit = getLimit(contexts[i]);
+			if (limit > 0) {
+				forceLimit(history, contexts[i], limit - 1);
+			} else {
+				// this context has a 0 limit
+				operation.removeContext(contexts[i]);
+			}
+		}
+		return operation.getContexts().length > 0;
+	}
+
+	@Override
+	public void dispose(IUndoContext context, boolean flushUndo, boolean flushRedo, boolean flushContext) {
+		// dispose of any limit that was set for the context if it is not to be
+		// used again.
+		if (flushContext) {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_DISPOSE) {
+				Tracing.printTrace("OPERATIONHISTORY", "Flushing context " + context); //$NON-NLS-1$//$NON-NLS-2$
+			}
+			flushUndo(context);
+			flushRedo(context);
+			limits.remove(context);
+			return;
+		}
+		if (flushUndo) {
+			flushUndo(context);
+		}
+		if (flushRedo) {
+			flushRedo(context);
+		}
+
+	}
+
+	/**
+	 * Perform the redo. All validity checks have already occurred.
+	 *
+	 * @param monitor
+	 * @param operation
+	 */
+	private IStatus doRedo(IProgressMonitor monitor, IAdaptable info, IUndoableOperation operation)
+			throws ExecutionException {
+
+		IStatus status = getRedoApproval(operation, info);
+		if (status.isOK()) {
+			notifyAboutToRedo(operation);
+			try {
+				status = operation.redo(monitor, info);
+			} catch (OperationCanceledException e) {
+				status = Status.CANCEL_STATUS;
+			} catch (ExecutionException e) {
+				notifyNotOK(operation);
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"ExecutionException while redoing " + operation); //$NON-NLS-1$
+				}
+				throw e;
+			} catch (Exception e) {
+				notifyNotOK(operation);
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"Exception while redoing " + operation); //$NON-NLS-1$
+				}
+				throw new ExecutionException("While redoing the operation, an exception occurred", e); //$NON-NLS-1$
+			}
+		}
+
+		// if successful, the operation is removed from the redo history and
+		// placed back in the undo history.
+		if (status.isOK()) {
+			boolean addedToUndo = true;
+			synchronized (undoRedoHistoryLock) {
+				redoHistory.remove(operation);
+				if (checkLimit(undoHistory, operation)) {
+					undoHistory.push(operation);
+				} else {
+					addedToUndo = false;
+				}
+			}
+			// dispose the operation since we could not add it to the
+			// stack and will no longer have a reference to it.
+			if (!addedToUndo) {
+				operation.dispose();
+			}
+
+			// notify listeners must happen after history is updated
+			notifyRedone(operation);
+		} else {
+			notifyNotOK(operation, status);
+		}
+
+		return status;
+	}
+
+	/**
+	 * Perform the undo. All validity checks have already occurred.
+	 *
+	 * @param monitor
+	 * @param operation
+	 */
+	private IStatus doUndo(IProgressMonitor monitor, IAdaptable info, IUndoableOperation operation)
+			throws ExecutionException {
+		IStatus status = getUndoApproval(operation, info);
+		if (status.isOK()) {
+			notifyAboutToUndo(operation);
+			try {
+				status = operation.undo(monitor, info);
+			} catch (OperationCanceledException e) {
+				status = Status.CANCEL_STATUS;
+			} catch (ExecutionException e) {
+				notifyNotOK(operation);
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"ExecutionException while undoing " + operation); //$NON-NLS-1$
+				}
+				throw e;
+			} catch (Exception e) {
+				notifyNotOK(operation);
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"Exception while undoing " + operation); //$NON-NLS-1$
+				}
+				throw new ExecutionException(
+						"While undoing the operation, an exception occurred", e); //$NON-NLS-1$
+			}
+		}
+		// if successful, the operation is removed from the undo history and
+		// placed in the redo history.
+		if (status.isOK()) {
+			boolean addedToRedo = true;
+			synchronized (undoRedoHistoryLock) {
+				undoHistory.remove(operation);
+				if (checkLimit(redoHistory, operation)) {
+					redoHistory.push(operation);
+				} else {
+					addedToRedo = false;
+				}
+			}
+			// dispose the operation since we could not add it to the
+			// stack and will no longer have a reference to it.
+			if (!addedToRedo) {
+				operation.dispose();
+			}
+			// notification occurs after the undo and redo histories are
+			// adjusted
+			notifyUndone(operation);
+		} else {
+			notifyNotOK(operation, status);
+		}
+		return status;
+	}
+
+	@Override
+	public IStatus execute(IUndoableOperation operation, IProgressMonitor monitor, IAdaptable info)
+			throws ExecutionException {
+		Assert.isNotNull(operation);
+
+		// error if operation is invalid
+		if (!operation.canExecute()) {
+			return IOperationHistory.OPERATION_INVALID_STATUS;
+		}
+
+		// check with the operation approvers
+		IStatus status = getExecuteApproval(operation, info);
+		if (!status.isOK()) {
+			// not approved. No notifications are sent, just return the status.
+			return status;
+		}
+
+		/*
+		 * If we are in the middle of an open composite, then we will add this
+		 * operation to the open operation rather than add the operation to the
+		 * history. We will still execute it.
+		 */
+		boolean merging = false;
+		synchronized (openCompositeLock) {
+			if (openComposite != null) {
+				// the composite shouldn't be executed explicitly while it is
+				// still
+				// open
+				if (openComposite == operation) {
+					return IOperationHistory.OPERATION_INVALID_STATUS;
+				}
+				openComposite.add(operation);
+				merging = true;
+			}
+		}
+
+		/*
+		 * Execute the operation
+		 */
+		if (!merging) {
+			notifyAboutToExecute(operation);
+		}
+		try {
+			status = operation.execute(monitor, info);
+		} catch (OperationCanceledException e) {
+			status = Status.CANCEL_STATUS;
+		} catch (ExecutionException e) {
+			notifyNotOK(operation);
+			throw e;
+		} catch (Exception e) {
+			notifyNotOK(operation);
+			throw new ExecutionException(
+					"While executing the operation, an exception occurred", e); //$NON-NLS-1$
+		}
+
+		// if successful, the notify listeners are notified and the operation is
+		// added to the history
+		if (!merging) {
+			if (status.isOK()) {
+				notifyDone(operation);
+				add(operation);
+			} else {
+				notifyNotOK(operation, status);
+				// dispose the operation since we did not add it to the stack
+				// and will no longer have a reference to it.
+				operation.dispose();
+			}
+		}
+		// all other severities are not interpreted. Simply return the status.
+		return status;
+	}
+
+	/*
+	 * Filter the specified history to include only the specified undo context.
+	 */
+	private IUndoableOperation[] filter(OperationStack history, IUndoContext context) {
+		List<IUndoableOperation> filtered;
+		synchronized (undoRedoHistoryLock) {
+			filtered = history.filter(context);
+		}
+		return filtered.toArray(new IUndoableOperation[filtered.size()]);
+	}
+
+	/*
+	 * Flush the given history of all operations that have the given context.
+	 */
+	private void flush(OperationStack history, IUndoContext context) {
+		synchronized (undoRedoHistoryLock) {
+
+			// Get all operations that have the context (or one that matches)
+			List<IUndoableOperation> filtered = history.filter(context);
+			for (int i = 0; i < filtered.size(); i++) {
+				IUndoableOperation operation = filtered.get(i);
+				if (context == GLOBAL_UNDO_CONTEXT || operation.getContexts().length == 1) {
+					// remove the operation if it only has the context or we are
+					// flushing all
+					history.remove(operation);
+					internalRemove(operation);
+				} else {
+					// remove the reference to the context.
+					// See https://bugs.eclipse.org/bugs/show_bug.cgi?id=161786
+					// It is not enough to simply remove the context. There could
+					// be one or more contexts that match the one we are trying to
+					// dispose.
+					IUndoContext[] contexts = operation.getContexts();
+					for (int j = 0; j < contexts.length; j++) {
+						if (contexts[j].matches(context)) {
+							operation.removeContext(contexts[j]);
+						}
+					}
+					if (operation.getContexts().length == 0) {
+						history.remove(operation);
+						internalRemove(operation);
+					} else {
+						history.contextsChanged(operation);
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Flush the redo stack of all operations that have the given context.
+	 */
+	private void flushRedo(IUndoContext context) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_DISPOSE) {
+			Tracing.printTrace("OPERATIONHISTORY", "Flushing redo history for " + context); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		flush(redoHistory, context);
+	}
+
+	/*
+	 * Flush the undo stack of all operations that have the given context.
+	 */
+	private void flushUndo(IUndoContext context) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_DISPOSE) {
+			Tracing.printTrace("OPERATIONHISTORY", "Flushing undo history for " + context); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		flush(undoHistory, context);
+
+		/*
+		 * There may be an open composite. If it has this context, then the
+		 * context must be removed. If it has only this context or we are
+		 * flushing all operations, then null it out and notify that we are
+		 * ending it. We don't remove it since it was never added.
+		 */
+		ICompositeOperation endedComposite = null;
+		synchronized (openCompositeLock) {
+			if (openComposite != null) {
+				if (openComposite.hasContext(context)) {
+					if (context == GLOBAL_UNDO_CONTEXT || openComposite.getContexts().length == 1) {
+						endedComposite = openComposite;
+						openComposite = null;
+					} else {
+						openComposite.removeContext(context);
+					}
+				}
+			}
+		}
+		// notify outside of the synchronized block.
+		if (endedComposite != null) {
+			notifyNotOK(endedComposite);
+		}
+	}
+
+	/*
+	 * Force the given history to contain max or less operations with the
+	 * given context.
+	 */
+	private void forceLimit(OperationStack history, IUndoContext context, int max) {
+		synchronized (undoRedoHistoryLock) {
+			List<IUndoableOperation> excess = history.getExcess(context, max);
+			for (int i = 0; i < excess.size(); i++) {
+				IUndoableOperation removed = excess.get(i);
+				if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
+					/*
+					 * remove the operation if we are enforcing a global limit
+					 * or if the operation only has the specified context
+					 */
+					history.remove(removed);
+					internalRemove(removed);
+				} else {
+					/*
+					 * if the operation has multiple contexts and we've reached
+					 * the limit for only one of them, then just remove the
+					 * context, not the operation.
+					 */
+					removed.removeContext(context);
+					history.contextsChanged(removed);
+				}
+			}
+		}
+	}
+
+	@Override
+	public int getLimit(IUndoContext context) {
+		if (!limits.containsKey(context)) {
+			return DEFAULT_LIMIT;
+		}
+		return (limits.get(context)).intValue();
+	}
+
+	/*
+	 * Consult the IOperationApprovers to see if the proposed redo should be
+	 * allowed.
+	 */
+	private IStatus getRedoApproval(IUndoableOperation operation, IAdaptable info) {
+
+		for (IOperationApprover approver : approvers) {
+			IStatus approval = approver.proceedRedoing(operation, this, info);
+			if (!approval.isOK()) {
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_APPROVAL) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"Redo not approved by " + approver //$NON-NLS-1$
+									+ "for operation " + operation //$NON-NLS-1$
+									+ " approved by " + approval); //$NON-NLS-1$
+				}
+				return approval;
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	@Override
+	public IUndoableOperation[] getRedoHistory(IUndoContext context) {
+		Assert.isNotNull(context);
+		return filter(redoHistory, context);
+	}
+
+	@Override
+	public IUndoableOperation getRedoOperation(IUndoContext context) {
+		Assert.isNotNull(context);
+		synchronized (undoRedoHistoryLock) {
+			return redoHistory.top(context);
+		}
+	}
+
+	/*
+	 * Consult the IOperationApprovers to see if the proposed undo should be
+	 * allowed.
+	 */
+	private IStatus getUndoApproval(IUndoableOperation operation, IAdaptable info) {
+
+		for (IOperationApprover approver : approvers) {
+			IStatus approval = approver.proceedUndoing(operation, this, info);
+			if (!approval.isOK()) {
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_APPROVAL) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"Undo not approved by " + approver //$NON-NLS-1$
+									+ "for operation " + operation //$NON-NLS-1$
+									+ " with status " + approval); //$NON-NLS-1$
+				}
+				return approval;
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	@Override
+	public IUndoableOperation[] getUndoHistory(IUndoContext context) {
+		Assert.isNotNull(context);
+		return filter(undoHistory, context);
+	}
+
+	@Override
+	public IUndoableOperation getUndoOperation(IUndoContext context) {
+		Assert.isNotNull(context);
+		synchronized (undoRedoHistoryLock) {
+			return undoHistory.top(context);
+		}
+	}
+
+	/*
+	 * Consult the IOperationApprovers to see if the proposed execution should
+	 * be allowed.
+	 *
+	 * @since 3.2
+	 */
+	private IStatus getExecuteApproval(IUndoableOperation operation, IAdaptable info) {
+
+		for (IOperationApprover tmp : approvers) {
+			if (tmp instanceof IOperationApprover2) {
+				IOperationApprover2 approver = (IOperationApprover2) tmp;
+				IStatus approval = approver.proceedExecuting(operation, this, info);
+				if (!approval.isOK()) {
+					if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_APPROVAL) {
+						Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+								"Execute not approved by " + approver //$NON-NLS-1$
+										+ "for operation " + operation //$NON-NLS-1$
+										+ " with status " + approval); //$NON-NLS-1$
+					}
+					return approval;
+				}
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	/*
+	 * Remove the operation by disposing it and notifying listeners.
+	 */
+	private void internalRemove(IUndoableOperation operation) {
+		operation.dispose();
+		notifyRemoved(operation);
+	}
+
+	/*
+	 * Notify listeners of an operation event.
+	 */
+	private void notifyListeners(final OperationHistoryEvent event) {
+		if (event.getOperation() instanceof IAdvancedUndoableOperation) {
+			final IAdvancedUndoableOperation advancedOp = (IAdvancedUndoableOperation) event.getOperation();
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void handleException(Throwable exception) {
+					if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+						Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+								"Exception during notification callback " + exception); //$NON-NLS-1$
+					}
+				}
+
+				@Override
+				public void run() throws Exception {
+					advancedOp.aboutToNotify(event);
+				}
+			});
+		}
+		for (final IOperationHistoryListener listener : listeners) {
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void handleException(Throwable exception) {
+					if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+						Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+								"Exception during notification callback " + exception); //$NON-NLS-1$
+					}
+				}
+
+				@Override
+				public void run() throws Exception {
+					listener.historyNotification(event);
+				}
+			});
+		}
+	}
+
+	private void notifyAboutToExecute(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "ABOUT_TO_EXECUTE " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.ABOUT_TO_EXECUTE, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation is about to redo.
+	 */
+	private void notifyAboutToRedo(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "ABOUT_TO_REDO " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.ABOUT_TO_REDO, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation is about to undo.
+	 */
+	private void notifyAboutToUndo(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "ABOUT_TO_UNDO " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.ABOUT_TO_UNDO, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation has been added.
+	 */
+	private void notifyAdd(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "OPERATION_ADDED " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.OPERATION_ADDED, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation is done executing.
+	 */
+	private void notifyDone(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "DONE " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.DONE, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation did not succeed after an attempt to
+	 * execute, undo, or redo was made.
+	 */
+	private void notifyNotOK(IUndoableOperation operation) {
+		notifyNotOK(operation, null);
+	}
+
+	/*
+	 * Notify listeners that an operation did not succeed after an attempt to
+	 * execute, undo, or redo was made. Include the status associated with the
+	 * attempt.
+	 *
+	 * @since 3.2
+	 */
+	private void notifyNotOK(IUndoableOperation operation, IStatus status) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "OPERATION_NOT_OK " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.OPERATION_NOT_OK, this, operation, status));
+	}
+
+	/*
+	 * Notify listeners that an operation was redone.
+	 */
+	private void notifyRedone(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "REDONE " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.REDONE, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation has been removed from the history.
+	 */
+	private void notifyRemoved(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "OPERATION_REMOVED " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.OPERATION_REMOVED, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation has been undone.
+	 */
+	private void notifyUndone(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "UNDONE " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.UNDONE, this, operation));
+	}
+
+	/*
+	 * Notify listeners that an operation has been undone.
+	 */
+	private void notifyChanged(IUndoableOperation operation) {
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_NOTIFICATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "OPERATION_CHANGED " + operation); //$NON-NLS-1$//$NON-NLS-2$
+		}
+
+		notifyListeners(new OperationHistoryEvent(OperationHistoryEvent.OPERATION_CHANGED, this, operation));
+	}
+
+	@Override
+	public IStatus redo(IUndoContext context, IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+		Assert.isNotNull(context);
+		IUndoableOperation operation = getRedoOperation(context);
+
+		// info if there is no operation
+		if (operation == null) {
+			return IOperationHistory.NOTHING_TO_REDO_STATUS;
+		}
+
+		// error if operation is invalid
+		if (!operation.canRedo()) {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				Tracing.printTrace("OPERATIONHISTORY", "Redo operation not valid - " + operation); //$NON-NLS-1$//$NON-NLS-2$
+			}
+
+			return IOperationHistory.OPERATION_INVALID_STATUS;
+		}
+
+		return doRedo(monitor, info, operation);
+	}
+
+	@Override
+	public IStatus redoOperation(IUndoableOperation operation, IProgressMonitor monitor, IAdaptable info)
+			throws ExecutionException {
+		Assert.isNotNull(operation);
+		IStatus status;
+		if (operation.canRedo()) {
+			status = doRedo(monitor, info, operation);
+		} else {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				Tracing.printTrace("OPERATIONHISTORY", "Redo operation not valid - " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			status = IOperationHistory.OPERATION_INVALID_STATUS;
+		}
+		return status;
+	}
+
+	@Override
+	public void removeOperationApprover(IOperationApprover approver) {
+		approvers.remove(approver);
+	}
+
+	@Override
+	public void removeOperationHistoryListener(IOperationHistoryListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void replaceOperation(IUndoableOperation operation, IUndoableOperation[] replacements) {
+		OperationStack history = null;
+		synchronized (undoRedoHistoryLock) {
+			// check the undo history first.
+			if (undoHistory.replace(operation, replacements)) {
+				history = undoHistory;
+			} else if (redoHistory.replace(operation, replacements)) {
+				history = redoHistory;
+			}
+			if (history != null) {
+				// recheck all the limits. We do this at the end so the
+				// position of the replacements doesn't change during
+				// replacement
+				for (int i = 0; i < replacements.length; i++) {
+					IUndoContext[] contexts = replacements[i].getContexts();
+					for (int j = 0; j < contexts.length; j++) {
+						forceLimit(history, contexts[j], getLimit(contexts[j]));
+					}
+				}
+			}
+		}
+		// send listener notifications after we release the lock on the history
+		if (history != null) {
+			internalRemove(operation);
+			for (int i = 0; i < replacements.length; i++) {
+				notifyAdd(replacements[i]);
+			}
+		}
+	}
+
+	@Override
+	public void setLimit(IUndoContext context, int limit) {
+		Assert.isTrue(limit >= 0);
+		/*
+		 * The limit checking methods interpret a null context as a global limit
+		 * to be enforced. We do not wish to support a global limit in this
+		 * implementation, so we throw an exception for a null context. The rest
+		 * of the implementation can handle a null context, so subclasses can
+		 * override this if a global limit is desired.
+		 */
+		Assert.isNotNull(context);
+		limits.put(context, Integer.valueOf(limit));
+		synchronized (undoRedoHistoryLock) {
+			forceLimit(undoHistory, context, limit);
+			forceLimit(redoHistory, context, limit);
+		}
+
+	}
+
+	@Override
+	public IStatus undo(IUndoContext context, IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+		Assert.isNotNull(context);
+		IUndoableOperation operation = getUndoOperation(context);
+
+		// info if there is no operation
+		if (operation == null) {
+			return IOperationHistory.NOTHING_TO_UNDO_STATUS;
+		}
+
+		// error if operation is invalid
+		if (!operation.canUndo()) {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				Tracing.printTrace("OPERATIONHISTORY", "Undo operation not valid - " + operation); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return IOperationHistory.OPERATION_INVALID_STATUS;
+		}
+
+		return doUndo(monitor, info, operation);
+	}
+
+	@Override
+	public IStatus undoOperation(IUndoableOperation operation, IProgressMonitor monitor, IAdaptable info)
+			throws ExecutionException {
+		Assert.isNotNull(operation);
+		IStatus status;
+		if (operation.canUndo()) {
+			status = doUndo(monitor, info, operation);
+		} else {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				Tracing.printTrace("OPERATIONHISTORY", "Undo operation not valid - " + operation); //$NON-NLS-1$//$NON-NLS-2$
+			}
+			status = IOperationHistory.OPERATION_INVALID_STATUS;
+		}
+		return status;
+	}
+
+	@Override
+	public void openOperation(ICompositeOperation operation, int mode) {
+		synchronized (openCompositeLock) {
+			if (openComposite != null && openComposite != operation) {
+				// unexpected nesting of operations.
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+					Tracing.printTrace("OPERATIONHISTORY", //$NON-NLS-1$
+							"Open operation called while another operation is open.  old: " //$NON-NLS-1$
+									+ openComposite + "; new:  " + operation); //$NON-NLS-1$
+				}
+
+				throw new IllegalStateException(
+						"Cannot open an operation while one is already open"); //$NON-NLS-1$
+			}
+			openComposite = operation;
+		}
+		if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_OPENOPERATION) {
+			Tracing.printTrace("OPERATIONHISTORY", "Opening operation " + openComposite); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		if (mode == EXECUTE) {
+			notifyAboutToExecute(openComposite);
+		}
+	}
+
+	@Override
+	public void closeOperation(boolean operationOK, boolean addToHistory, int mode) {
+		ICompositeOperation endedComposite = null;
+
+		synchronized (openCompositeLock) {
+			if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_UNEXPECTED) {
+				if (openComposite == null) {
+					Tracing.printTrace("OPERATIONHISTORY", "Attempted to close operation when none was open"); //$NON-NLS-1$//$NON-NLS-2$
+					return;
+				}
+			}
+			// notifications will occur outside the synchonized block
+			if (openComposite != null) {
+				if (DefaultOperationHistory.DEBUG_OPERATION_HISTORY_OPENOPERATION) {
+					Tracing.printTrace("OPERATIONHISTORY", "Closing operation " + openComposite); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				endedComposite = openComposite;
+				openComposite = null;
+			}
+		}
+		// any mode other than EXECUTE was triggered by a request to undo or
+		// redo something already in the history, so undo and redo
+		// notification will occur at the end of that sequence.
+		if (endedComposite != null) {
+			if (operationOK) {
+				if (mode == EXECUTE) {
+					notifyDone(endedComposite);
+				}
+				if (addToHistory) {
+					add(endedComposite);
+				}
+			} else {
+				if (mode == EXECUTE) {
+					notifyNotOK(endedComposite);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void operationChanged(IUndoableOperation operation) {
+		boolean contained;
+		synchronized (undoRedoHistoryLock) {
+			contained = undoHistory.contains(operation) || redoHistory.contains(operation);
+			undoHistory.contextsChanged(operation);
+			redoHistory.contextsChanged(operation);
+		}
+		if (contained) {
+			notifyChanged(operation);
+		}
+	}
+}
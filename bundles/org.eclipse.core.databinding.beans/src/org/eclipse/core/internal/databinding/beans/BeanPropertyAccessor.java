@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Reads and writes a bean property through method handles which are resolved
+ * once per property, instead of going through {@link Method#invoke} on every
+ * access.
+ * <p>
+ * Accessors are cached per declaring class, so all property objects created
+ * for the same bean property share one accessor. If a method cannot be
+ * unreflected, the accessor falls back to reflection. Errors are handled the
+ * same way {@link BeanPropertyHelper} always did: problems with the bean or
+ * the value are logged, exceptions thrown by the accessor methods are
+ * rethrown wrapped in a {@link RuntimeException}.
+ * </p>
+ *
+ * @since 1.4
+ */
+public final class BeanPropertyAccessor {
+
+	private static final MethodType READ_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType WRITE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ClassValue<Map<String, BeanPropertyAccessor>> ACCESSORS = new ClassValue<Map<String, BeanPropertyAccessor>>() {
+		@Override
+		protected Map<String, BeanPropertyAccessor> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final PropertyDescriptor propertyDescriptor;
+
+	private final Method readMethod;
+
+	private final Method writeMethod;
+
+	private final MethodHandle readHandle;
+
+	private final MethodHandle writeHandle;
+
+	/**
+	 * The boxed type of the write method parameter
+	 */
+	private final Class<?> writeType;
+
+	private BeanPropertyAccessor(PropertyDescriptor propertyDescriptor) {
+		this.propertyDescriptor = propertyDescriptor;
+		this.readMethod = propertyDescriptor.getReadMethod();
+		this.writeMethod = propertyDescriptor.getWriteMethod();
+		this.readHandle = readMethod == null ? null : unreflect(readMethod, READ_TYPE);
+		this.writeHandle = writeMethod == null ? null : unreflect(writeMethod, WRITE_TYPE);
+		this.writeType = writeMethod == null ? null : box(writeMethod.getParameterTypes()[0]);
+	}
+
+	/**
+	 * Returns the accessor for the given property.
+	 *
+	 * @param propertyDescriptor
+	 *            the property to access
+	 * @return the accessor, shared with other properties using the same
+	 *         methods
+	 */
+	public static BeanPropertyAccessor getAccessor(PropertyDescriptor propertyDescriptor) {
+		Method readMethod = propertyDescriptor.getReadMethod();
+		Method writeMethod = propertyDescriptor.getWriteMethod();
+		Method method = readMethod != null ? readMethod : writeMethod;
+		if (method == null) {
+			return new BeanPropertyAccessor(propertyDescriptor);
+		}
+		Map<String, BeanPropertyAccessor> accessors = ACCESSORS.get(method.getDeclaringClass());
+		String name = propertyDescriptor.getName();
+		BeanPropertyAccessor accessor = accessors.get(name);
+		if (accessor != null && equals(accessor.readMethod, readMethod)
+				&& equals(accessor.writeMethod, writeMethod)) {
+			return accessor;
+		}
+		// a descriptor using other methods than the cached one (e.g. of a
+		// subclass overriding only the write method) replaces it
+		accessor = new BeanPropertyAccessor(propertyDescriptor);
+		accessors.put(name, accessor);
+		return accessor;
+	}
+
+	/**
+	 * @return the property accessed
+	 */
+	public PropertyDescriptor getPropertyDescriptor() {
+		return propertyDescriptor;
+	}
+
+	/**
+	 * Returns the contents of the property for the given bean.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @return the contents of the property, or <code>null</code> if it could
+	 *         not be read
+	 */
+	public Object read(Object source) {
+		try {
+			if (readMethod == null) {
+				throw new IllegalArgumentException(propertyDescriptor.getName()
+						+ " property does not have a read method."); //$NON-NLS-1$
+			}
+			if (readHandle == null) {
+				return readMethod.invoke(source);
+			}
+			checkSource(readMethod, source);
+			try {
+				return readHandle.invokeExact(source);
+			} catch (Throwable t) {
+				/*
+				 * Everything thrown after the checks above is thrown by the
+				 * read method itself.
+				 */
+				throw new InvocationTargetException(t);
+			}
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (Exception e) {
+			Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE_DATABINDING, IStatus.OK,
+					"Could not read value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
+			return null;
+		}
+	}
+
+	/**
+	 * Sets the contents of the property on the given bean.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @param value
+	 *            the new value of the property
+	 */
+	public void write(Object source, Object value) {
+		try {
+			if (writeMethod == null) {
+				throw new IllegalArgumentException("Missing public setter method for " //$NON-NLS-1$
+						+ propertyDescriptor.getName() + " property"); //$NON-NLS-1$
+			}
+			if (writeHandle == null || value == null || !writeType.isInstance(value)) {
+				// reflection takes care of widening conversions and reports
+				// mismatching values
+				writeMethod.invoke(source, new Object[] { value });
+				return;
+			}
+			checkSource(writeMethod, source);
+			try {
+				writeHandle.invokeExact(source, value);
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (Exception e) {
+			Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE_DATABINDING, IStatus.OK,
+					"Could not change value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Performs the checks {@link Method#invoke} would do, so that the method
+	 * handles only fail for exceptions thrown by the methods themselves.
+	 */
+	private static void checkSource(Method method, Object source) {
+		if (source == null) {
+			throw new NullPointerException();
+		}
+		if (!method.getDeclaringClass().isInstance(source)) {
+			throw new IllegalArgumentException("object is not an instance of declaring class"); //$NON-NLS-1$
+		}
+	}
+
+	private static MethodHandle unreflect(Method method, MethodType type) {
+		try {
+			if (!method.isAccessible()) {
+				method.setAccessible(true);
+			}
+			return MethodHandles.lookup().unreflect(method).asType(type);
+		} catch (RuntimeException | IllegalAccessException e) {
+			// fall back to reflection, which reports the problem on access
+			return null;
+		}
+	}
+
+	private static Class<?> box(Class<?> type) {
+		if (!type.isPrimitive())
+			return type;
+		if (type == int.class)
+			return Integer.class;
+		if (type == boolean.class)
+			return Boolean.class;
+		if (type == long.class)
+			return Long.class;
+		if (type == double.class)
+			return Double.class;
+		if (type == float.class)
+			return Float.class;
+		if (type == char.class)
+			return Character.class;
+		if (type == byte.class)
+			return Byte.class;
+		if (type == short.class)
+			return Short.class;
+		return Void.class;
+	}
+
+	private static boolean equals(Method method1, Method method2) {
+		return method1 == null ? method2 == null : method1.equals(method2);
+	}
+}
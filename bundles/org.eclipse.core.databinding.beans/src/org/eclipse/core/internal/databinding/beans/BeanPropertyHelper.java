@@ -18,21 +18,28 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.databinding.observable.value.IObservableValue;
-import org.eclipse.core.databinding.util.Policy;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 
 /**
  * @since 1.2
  *
  */
 public class BeanPropertyHelper {
+	/**
+	 * Property descriptors by name, introspected once per class
+	 */
+	private static final ClassValue<Map<String, PropertyDescriptor>> PROPERTY_DESCRIPTORS = new ClassValue<Map<String, PropertyDescriptor>>() {
+		@Override
+		protected Map<String, PropertyDescriptor> computeValue(Class<?> type) {
+			return introspect(type);
+		}
+	};
+
 	/**
 	 * Sets the contents of the given property on the given source object to the
 	 * given value.
@@ -46,31 +53,7 @@ public class BeanPropertyHelper {
 	 */
 	public static void writeProperty(Object source,
 			PropertyDescriptor propertyDescriptor, Object value) {
-		try {
-			Method writeMethod = propertyDescriptor.getWriteMethod();
-			if (null == writeMethod) {
-				throw new IllegalArgumentException(
-						"Missing public setter method for " //$NON-NLS-1$
-								+ propertyDescriptor.getName() + " property"); //$NON-NLS-1$
-			}
-			if (!writeMethod.isAccessible()) {
-				writeMethod.setAccessible(true);
-			}
-			writeMethod.invoke(source, new Object[] { value });
-		} catch (InvocationTargetException e) {
-			/*
-			 * InvocationTargetException wraps any exception thrown by the
-			 * invoked method.
-			 */
-			throw new RuntimeException(e.getCause());
-		} catch (Exception e) {
-			Policy.getLog()
-					.log(new Status(
-							IStatus.WARNING,
-							Policy.JFACE_DATABINDING,
-							IStatus.OK,
-							"Could not change value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
-		}
+		BeanPropertyAccessor.getAccessor(propertyDescriptor).write(source, value);
 	}
 
 	/**
@@ -84,31 +67,7 @@ public class BeanPropertyHelper {
 	 */
 	public static Object readProperty(Object source,
 			PropertyDescriptor propertyDescriptor) {
-		try {
-			Method readMethod = propertyDescriptor.getReadMethod();
-			if (readMethod == null) {
-				throw new IllegalArgumentException(propertyDescriptor.getName()
-						+ " property does not have a read method."); //$NON-NLS-1$
-			}
-			if (!readMethod.isAccessible()) {
-				readMethod.setAccessible(true);
-			}
-			return readMethod.invoke(source);
-		} catch (InvocationTargetException e) {
-			/*
-			 * InvocationTargetException wraps any exception thrown by the
-			 * invoked method.
-			 */
-			throw new RuntimeException(e.getCause());
-		} catch (Exception e) {
-			Policy.getLog()
-					.log(new Status(
-							IStatus.WARNING,
-							Policy.JFACE_DATABINDING,
-							IStatus.OK,
-							"Could not read value of " + source + "." + propertyDescriptor.getName(), e)); //$NON-NLS-1$ //$NON-NLS-2$
-			return null;
-		}
+		return BeanPropertyAccessor.getAccessor(propertyDescriptor).read(source);
 	}
 
 	/**
@@ -135,44 +94,51 @@ public class BeanPropertyHelper {
 	 */
 	public static PropertyDescriptor getPropertyDescriptor(Class<?> beanClass,
 			String propertyName) {
+		Map<String, PropertyDescriptor> propertyDescriptors = PROPERTY_DESCRIPTORS
+				.get(beanClass);
+		if (propertyDescriptors == null) {
+			// cannot introspect, give up
+			return null;
+		}
+		PropertyDescriptor descriptor = propertyDescriptors.get(propertyName);
+		if (descriptor != null) {
+			return descriptor;
+		}
+		throw new IllegalArgumentException(
+				"Could not find property with name " + propertyName + " in class " + beanClass); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the property descriptors of the given class by name, or
+	 * <code>null</code> if the class cannot be introspected.
+	 */
+	private static Map<String, PropertyDescriptor> introspect(Class<?> beanClass) {
+		PropertyDescriptor[] propertyDescriptors;
 		if (!beanClass.isInterface()) {
-			BeanInfo beanInfo;
 			try {
-				beanInfo = Introspector.getBeanInfo(beanClass);
+				propertyDescriptors = Introspector.getBeanInfo(beanClass)
+						.getPropertyDescriptors();
 			} catch (IntrospectionException e) {
-				// cannot introspect, give up
 				return null;
 			}
-			PropertyDescriptor[] propertyDescriptors = beanInfo
-					.getPropertyDescriptors();
-			for (int i = 0; i < propertyDescriptors.length; i++) {
-				PropertyDescriptor descriptor = propertyDescriptors[i];
-				if (descriptor.getName().equals(propertyName)) {
-					return descriptor;
-				}
-			}
 		} else {
+			List<PropertyDescriptor> pds = new ArrayList<PropertyDescriptor>();
 			try {
-				PropertyDescriptor propertyDescriptors[];
-				List<PropertyDescriptor> pds = new ArrayList<PropertyDescriptor>();
 				getInterfacePropertyDescriptors(pds, beanClass);
-				if (pds.size() > 0) {
-					propertyDescriptors = pds
-							.toArray(new PropertyDescriptor[pds.size()]);
-					PropertyDescriptor descriptor;
-					for (int i = 0; i < propertyDescriptors.length; i++) {
-						descriptor = propertyDescriptors[i];
-						if (descriptor.getName().equals(propertyName))
-							return descriptor;
-					}
-				}
 			} catch (IntrospectionException e) {
-				// cannot introspect, give up
 				return null;
 			}
+			propertyDescriptors = pds.toArray(new PropertyDescriptor[pds.size()]);
 		}
-		throw new IllegalArgumentException(
-				"Could not find property with name " + propertyName + " in class " + beanClass); //$NON-NLS-1$ //$NON-NLS-2$
+		Map<String, PropertyDescriptor> result = new HashMap<String, PropertyDescriptor>();
+		for (int i = 0; i < propertyDescriptors.length; i++) {
+			PropertyDescriptor descriptor = propertyDescriptors[i];
+			// the first descriptor wins, like in a linear search
+			if (!result.containsKey(descriptor.getName())) {
+				result.put(descriptor.getName(), descriptor);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -29,6 +29,7 @@ import org.eclipse.core.databinding.observable.list.ListDiffEntry;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.observable.set.SetDiff;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
+import org.eclipse.core.internal.databinding.observable.ListDiffComputer;
 import org.eclipse.core.internal.databinding.observable.Util;
 
 /**
@@ -36,6 +37,13 @@ import org.eclipse.core.internal.databinding.observable.Util;
  *
  */
 public class Diffs {
+	/**
+	 * Combined size of the old and new list above which
+	 * {@link #computeListDiff(List, List)} switches from the quadratic EMF
+	 * derived algorithm to the hash based {@link ListDiffComputer}.
+	 */
+	private static final int LARGE_LIST_DIFF_THRESHOLD = 256;
+
 	private static final class UnmodifiableListDiff<E> extends ListDiff<E> {
 		private ListDiff<? extends E> toWrap;
 
@@ -216,6 +224,10 @@ public class Diffs {
 	/**
 	 * Returns a {@link ListDiff} describing the change between the specified
 	 * old and new list states.
+	 * <p>
+	 * For large lists the differences are computed in
+	 * <code>O((N + M) log(N + M))</code> time. Moved elements are reported as
+	 * a removal immediately followed by an addition of the same element.
 	 *
 	 * @param <E>
 	 *            the list element type
@@ -228,8 +240,13 @@ public class Diffs {
 	 * @since 1.6
 	 */
 	public static <E> ListDiff<E> computeListDiff(List<? extends E> oldList, List<? extends E> newList) {
-		List<ListDiffEntry<E>> diffEntries = new ArrayList<>();
-		createListDiffs(new ArrayList<E>(oldList), newList, diffEntries);
+		List<ListDiffEntry<E>> diffEntries;
+		if (oldList.size() + newList.size() > LARGE_LIST_DIFF_THRESHOLD) {
+			diffEntries = ListDiffComputer.computeListDiffEntries(oldList, newList);
+		} else {
+			diffEntries = new ArrayList<>();
+			createListDiffs(new ArrayList<E>(oldList), newList, diffEntries);
+		}
 		ListDiff<E> listDiff = createListDiff(diffEntries);
 		return listDiff;
 	}
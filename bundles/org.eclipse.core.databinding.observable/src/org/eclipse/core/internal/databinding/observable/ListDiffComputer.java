@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes list differences in <code>O((N + M) log(N + M))</code> time, where N
+ * and M are the sizes of the old and new list.
+ * <p>
+ * Elements of the new list are matched to elements of the old list through a
+ * hash lookup (equal elements are matched in order of occurrence). The longest
+ * increasing subsequence of the matched old indices is kept in place, all
+ * other matched elements are reported as moves (a removal immediately
+ * followed by an addition of the same element). Unmatched old elements are
+ * removed before and unmatched new elements are added after the moves.
+ * Positions of the entries are computed with a binary indexed tree, so the
+ * resulting entries can be applied sequentially to the old list just like the
+ * entries produced by {@link Diffs#computeListDiff(List, List)} for small
+ * lists.
+ * </p>
+ *
+ * @since 1.6
+ */
+public class ListDiffComputer {
+
+	private static final int UNMATCHED = -1;
+
+	/**
+	 * Computes the list diff entries which transform the old list into the
+	 * new list.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @return the differences between oldList and newList
+	 */
+	public static <E> List<ListDiffEntry<E>> computeListDiffEntries(List<? extends E> oldList,
+			List<? extends E> newList) {
+		Object[] oldElements = oldList.toArray();
+		Object[] newElements = newList.toArray();
+
+		// Skip the common prefix and suffix, they never produce entries
+		int prefix = 0;
+		int maxPrefix = Math.min(oldElements.length, newElements.length);
+		while (prefix < maxPrefix && Util.equals(oldElements[prefix], newElements[prefix])) {
+			prefix++;
+		}
+		int oldEnd = oldElements.length;
+		int newEnd = newElements.length;
+		while (oldEnd > prefix && newEnd > prefix && Util.equals(oldElements[oldEnd - 1], newElements[newEnd - 1])) {
+			oldEnd--;
+			newEnd--;
+		}
+
+		int oldCount = oldEnd - prefix;
+		int newCount = newEnd - prefix;
+		List<ListDiffEntry<E>> entries = new ArrayList<>();
+		if (oldCount == 0 && newCount == 0) {
+			return entries;
+		}
+
+		// Match every new element to the first unmatched equal old element
+		int[] newToOld = match(oldElements, prefix, oldCount, newElements, prefix, newCount);
+		boolean[] oldMatched = new boolean[oldCount];
+		for (int i = 0; i < newCount; i++) {
+			if (newToOld[i] != UNMATCHED) {
+				oldMatched[newToOld[i]] = true;
+			}
+		}
+
+		// Matched elements on the longest increasing subsequence stay in place
+		boolean[] newKept = longestIncreasingSubsequence(newToOld);
+
+		// Remove the old elements which do not appear in the new list. Going
+		// backwards keeps the positions of the remaining removals valid.
+		for (int i = oldCount - 1; i >= 0; i--) {
+			if (!oldMatched[i]) {
+				entries.add(createEntry(prefix + i, false, oldElements[prefix + i]));
+			}
+		}
+
+		// Each new index gets a slot. Matched old elements which have to move
+		// get an initial slot right after the slot of the closest preceding
+		// kept element, so that the slot order always equals the list order.
+		int[] oldToNew = new int[oldCount];
+		int movedCount = 0;
+		for (int i = 0; i < newCount; i++) {
+			if (newToOld[i] != UNMATCHED) {
+				oldToNew[newToOld[i]] = i;
+				if (!newKept[i]) {
+					movedCount++;
+				}
+			}
+		}
+		int[] movedPerBucket = new int[newCount + 1];
+		int[] bucketOfOld = new int[oldCount];
+		int bucket = 0;
+		for (int i = 0; i < oldCount; i++) {
+			if (!oldMatched[i]) {
+				continue;
+			}
+			int newIndex = oldToNew[i];
+			if (newKept[newIndex]) {
+				bucket = newIndex + 1;
+			} else {
+				bucketOfOld[i] = bucket;
+				movedPerBucket[bucket]++;
+			}
+		}
+
+		int[] newSlot = new int[newCount];
+		int[] nextMovedSlot = new int[newCount + 1];
+		int slot = 0;
+		for (int b = 0; b <= newCount; b++) {
+			if (b > 0) {
+				newSlot[b - 1] = slot++;
+			}
+			nextMovedSlot[b] = slot;
+			slot += movedPerBucket[b];
+		}
+
+		int[] tree = new int[newCount + movedCount + 1];
+		int[] oldSlot = new int[oldCount];
+		for (int i = 0; i < oldCount; i++) {
+			if (!oldMatched[i]) {
+				continue;
+			}
+			int newIndex = oldToNew[i];
+			if (newKept[newIndex]) {
+				oldSlot[i] = newSlot[newIndex];
+			} else {
+				oldSlot[i] = nextMovedSlot[bucketOfOld[i]]++;
+			}
+			add(tree, oldSlot[i], 1);
+		}
+
+		// Move elements into their final slot first and insert the new
+		// elements afterwards. The slots keep the positions right in any
+		// order, but this way the removal and addition of a moved element are
+		// always adjacent and never paired with an unrelated addition.
+		for (int i = 0; i < newCount; i++) {
+			int oldIndex = newToOld[i];
+			if (newKept[i] || oldIndex == UNMATCHED) {
+				continue;
+			}
+			Object element = newElements[prefix + i];
+			int from = count(tree, oldSlot[oldIndex]);
+			add(tree, oldSlot[oldIndex], -1);
+			int to = count(tree, newSlot[i]);
+			add(tree, newSlot[i], 1);
+			if (from != to) {
+				entries.add(createEntry(prefix + from, false, element));
+				entries.add(createEntry(prefix + to, true, element));
+			}
+		}
+		for (int i = 0; i < newCount; i++) {
+			if (newToOld[i] == UNMATCHED) {
+				entries.add(createEntry(prefix + count(tree, newSlot[i]), true, newElements[prefix + i]));
+				add(tree, newSlot[i], 1);
+			}
+		}
+		return entries;
+	}
+
+	private static int[] match(Object[] oldElements, int oldOffset, int oldCount, Object[] newElements,
+			int newOffset, int newCount) {
+		// Chains equal old elements through an index array instead of
+		// allocating a list per distinct element
+		Map<Object, int[]> firstAndLast = new HashMap<>();
+		int[] nextEqual = new int[oldCount];
+		for (int i = 0; i < oldCount; i++) {
+			nextEqual[i] = UNMATCHED;
+			Object element = oldElements[oldOffset + i];
+			int[] chain = firstAndLast.get(element);
+			if (chain == null) {
+				firstAndLast.put(element, new int[] { i, i });
+			} else {
+				nextEqual[chain[1]] = i;
+				chain[1] = i;
+			}
+		}
+
+		int[] newToOld = new int[newCount];
+		for (int i = 0; i < newCount; i++) {
+			int[] chain = firstAndLast.get(newElements[newOffset + i]);
+			if (chain == null || chain[0] == UNMATCHED) {
+				newToOld[i] = UNMATCHED;
+			} else {
+				newToOld[i] = chain[0];
+				chain[0] = nextEqual[chain[0]];
+			}
+		}
+		return newToOld;
+	}
+
+	private static boolean[] longestIncreasingSubsequence(int[] values) {
+		int length = values.length;
+		int[] tails = new int[length];
+		int[] predecessors = new int[length];
+		int tailCount = 0;
+		for (int i = 0; i < length; i++) {
+			int value = values[i];
+			if (value == UNMATCHED) {
+				continue;
+			}
+			int low = 0;
+			int high = tailCount;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (values[tails[mid]] < value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			predecessors[i] = low > 0 ? tails[low - 1] : UNMATCHED;
+			tails[low] = i;
+			if (low == tailCount) {
+				tailCount++;
+			}
+		}
+
+		boolean[] result = new boolean[length];
+		if (tailCount > 0) {
+			for (int i = tails[tailCount - 1]; i != UNMATCHED; i = predecessors[i]) {
+				result[i] = true;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the given delta to the binary indexed tree at the given slot.
+	 */
+	private static void add(int[] tree, int slot, int delta) {
+		for (int i = slot + 1; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Returns the number of occupied slots before the given slot.
+	 */
+	private static int count(int[] tree, int slot) {
+		int result = 0;
+		for (int i = slot; i > 0; i -= i & -i) {
+			result += tree[i];
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> ListDiffEntry<E> createEntry(int position, boolean isAddition, Object element) {
+		return Diffs.createListDiffEntry(position, isAddition, (E) element);
+	}
+}
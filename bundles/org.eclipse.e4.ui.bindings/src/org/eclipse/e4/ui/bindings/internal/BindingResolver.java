@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * The perfect and partial matches of all trigger sequences bound in the tables
+ * of a {@link ContextSet}, precomputed so that looking up a sequence is a
+ * single hash lookup instead of a lookup in every table.
+ * <p>
+ * A resolver is immutable. It is valid until the lookups of any table change,
+ * see {@link BindingTable#getModificationCount()}, or the tables or schemes of
+ * its manager change.
+ * </p>
+ */
+final class BindingResolver {
+
+	private static final class Resolution {
+		Binding perfectMatch;
+		boolean partialMatch;
+		Collection<Binding> partialMatches;
+	}
+
+	private final BindingTableManager manager;
+
+	private final int modificationCount;
+
+	private final Map<TriggerSequence, Resolution> resolutions;
+
+	/**
+	 * @param manager
+	 *            the manager which computed the perfect matches
+	 * @param modificationCount
+	 *            the table modification count the resolver is built for
+	 * @param tables
+	 *            the tables of the context set, most specific context first
+	 */
+	BindingResolver(BindingTableManager manager, int modificationCount, Collection<BindingTable> tables) {
+		this.manager = manager;
+		this.modificationCount = modificationCount;
+		Map<TriggerSequence, Resolution> map = new HashMap<TriggerSequence, Resolution>();
+		for (BindingTable table : tables) {
+			for (TriggerSequence sequence : table.getPerfectMatchSequences()) {
+				Resolution resolution = getResolution(map, sequence);
+				if (resolution.perfectMatch == null) {
+					resolution.perfectMatch = manager.findPerfectMatch(tables, sequence);
+				}
+			}
+			for (TriggerSequence sequence : table.getPartialMatchSequences()) {
+				Resolution resolution = getResolution(map, sequence);
+				resolution.partialMatch = true;
+				Collection<Binding> partialMatches = table.getPartialMatches(sequence);
+				if (partialMatches != null && !partialMatches.isEmpty()) {
+					if (resolution.partialMatches == null) {
+						resolution.partialMatches = new ArrayList<Binding>();
+					}
+					resolution.partialMatches.addAll(partialMatches);
+				}
+			}
+		}
+		for (Resolution resolution : map.values()) {
+			if (resolution.partialMatches != null) {
+				resolution.partialMatches = Collections.unmodifiableCollection(resolution.partialMatches);
+			}
+		}
+		this.resolutions = map;
+	}
+
+	private static Resolution getResolution(Map<TriggerSequence, Resolution> map, TriggerSequence sequence) {
+		Resolution resolution = map.get(sequence);
+		if (resolution == null) {
+			resolution = new Resolution();
+			map.put(sequence, resolution);
+		}
+		return resolution;
+	}
+
+	/**
+	 * @return whether the resolver still reflects the tables of the manager
+	 */
+	boolean isValid(BindingTableManager owner, int currentModificationCount) {
+		return manager == owner && modificationCount == currentModificationCount;
+	}
+
+	Binding getPerfectMatch(TriggerSequence sequence) {
+		Resolution resolution = resolutions.get(sequence);
+		return resolution == null ? null : resolution.perfectMatch;
+	}
+
+	boolean isPartialMatch(TriggerSequence sequence) {
+		Resolution resolution = resolutions.get(sequence);
+		return resolution != null && resolution.partialMatch;
+	}
+
+	/**
+	 * @return the partial matches, in the order of the tables, never
+	 *         <code>null</code>
+	 */
+	Collection<Binding> getPartialMatches(TriggerSequence sequence) {
+		Resolution resolution = resolutions.get(sequence);
+		if (resolution == null || resolution.partialMatches == null) {
+			return Collections.emptyList();
+		}
+		return resolution.partialMatches;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,8 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
 import org.eclipse.jface.bindings.Binding;
@@ -122,6 +124,27 @@ public class BindingTable {
 
 	public static final BindingComparator BEST_SEQUENCE = new BindingComparator();
 
+	/**
+	 * Counts the changes of the lookups of all tables, so that results
+	 * computed from them can be reused until the next change.
+	 */
+	private static final AtomicInteger MODIFICATION_COUNT = new AtomicInteger();
+
+	/**
+	 * @return the number of changes to the lookups of all tables so far
+	 */
+	static int getModificationCount() {
+		return MODIFICATION_COUNT.get();
+	}
+
+	/**
+	 * Record a change which affects lookups across tables, e.g. a table being
+	 * added.
+	 */
+	static void lookupChanged() {
+		MODIFICATION_COUNT.incrementAndGet();
+	}
+
 	private Context tableId;
 	private ArrayList<Binding> bindings = new ArrayList<Binding>();
 	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<TriggerSequence, Binding>();
@@ -192,6 +215,7 @@ public class BindingTable {
 	}
 
 	private void addBindingSimple(Binding binding) {
+		lookupChanged();
 		bindings.add(binding);
 		bindingsByTrigger.put(binding.getTriggerSequence(), binding);
 
@@ -215,6 +239,7 @@ public class BindingTable {
 	}
 
 	private void removeBindingSimple(Binding binding) {
+		lookupChanged();
 		bindings.remove(binding);
 		bindingsByTrigger.remove(binding.getTriggerSequence());
 		ArrayList<Binding> sequences = bindingsByCommand.get(binding.getParameterizedCommand());
@@ -339,6 +364,20 @@ public class BindingTable {
 		return bindingsByPrefix.get(seq) != null;
 	}
 
+	/**
+	 * @return the sequences with a perfect match
+	 */
+	Set<TriggerSequence> getPerfectMatchSequences() {
+		return Collections.unmodifiableSet(bindingsByTrigger.keySet());
+	}
+
+	/**
+	 * @return the sequences with a partial match
+	 */
+	Set<TriggerSequence> getPartialMatchSequences() {
+		return Collections.unmodifiableSet(bindingsByPrefix.keySet());
+	}
+
 	public Collection<Binding> getBindings() {
 		return Collections.unmodifiableCollection(bindings);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,10 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -29,6 +31,12 @@ import org.eclipse.jface.bindings.TriggerSequence;
 public class BindingTableManager {
 	private static final String BINDING_TABLE_PREFIX = "bindingTable:"; //$NON-NLS-1$
 
+	/**
+	 * The number of resolvers kept for context sets other than the current
+	 * ones
+	 */
+	private static final int MAX_RESOLVERS = 16;
+
 	@Inject
 	private IEclipseContext eclipseContext;
 
@@ -36,6 +44,17 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	// the resolvers of recently used context sets, shared by equal sets
+	private final Map<ContextSet, BindingResolver> resolvers = new LinkedHashMap<ContextSet, BindingResolver>(
+			MAX_RESOLVERS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ContextSet, BindingResolver> eldest) {
+			return size() > MAX_RESOLVERS;
+		}
+	};
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +62,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		BindingTable.lookupChanged();
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +81,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		BindingTable.lookupChanged();
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -120,16 +141,47 @@ public class BindingTableManager {
 	}
 
 	public Binding getPerfectMatch(ContextSet contextSet, TriggerSequence triggerSequence) {
-		Binding result = null;
-		Binding currentResult = null;
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				currentResult = table.getPerfectMatch(triggerSequence);
+		return getResolver(contextSet).getPerfectMatch(triggerSequence);
+	}
+
+	/**
+	 * Returns the resolver for the given context set, building it if the
+	 * tables, bindings or schemes changed since it was last used.
+	 */
+	private BindingResolver getResolver(ContextSet contextSet) {
+		int modificationCount = BindingTable.getModificationCount();
+		BindingResolver resolver = contextSet.resolver;
+		if (resolver != null && resolver.isValid(this, modificationCount)) {
+			return resolver;
+		}
+		resolver = resolvers.get(contextSet);
+		if (resolver == null || !resolver.isValid(this, modificationCount)) {
+			List<BindingTable> tables = new ArrayList<BindingTable>();
+			List<Context> contexts = contextSet.getContexts();
+			ListIterator<Context> it = contexts.listIterator(contexts.size());
+			while (it.hasPrevious()) {
+				BindingTable table = getTable(it.previous().getId());
+				if (table != null) {
+					tables.add(table);
+				}
 			}
+			resolver = new BindingResolver(this, modificationCount, tables);
+			resolvers.put(contextSet, resolver);
+		}
+		contextSet.resolver = resolver;
+		return resolver;
+	}
+
+	/**
+	 * @param tables
+	 *            the tables to search, most specific context first
+	 * @return the binding for the sequence in the most specific table, unless
+	 *         another table binds it in a more active scheme
+	 */
+	Binding findPerfectMatch(Collection<BindingTable> tables, TriggerSequence triggerSequence) {
+		Binding result = null;
+		for (BindingTable table : tables) {
+			Binding currentResult = table.getPerfectMatch(triggerSequence);
 			if (currentResult != null) {
 				if (isMostActiveScheme(currentResult)) {
 					return currentResult;
@@ -203,35 +255,11 @@ public class BindingTableManager {
 	}
 
 	public boolean isPartialMatch(ContextSet contextSet, TriggerSequence sequence) {
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				if (table.isPartialMatch(sequence)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return getResolver(contextSet).isPartialMatch(sequence);
 	}
 
 	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
-		ArrayList<Binding> bindings = new ArrayList<Binding>();
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				Collection<Binding> partialMatches = table.getPartialMatches(sequence);
-				if (partialMatches != null) {
-					bindings.addAll(partialMatches);
-				}
-			}
-		}
-		return bindings;
+		return new ArrayList<Binding>(getResolver(contextSet).getPartialMatches(sequence));
 	}
 
 	/**
@@ -240,6 +268,7 @@ public class BindingTableManager {
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		BindingTable.lookupChanged();
 	}
 
 	/*
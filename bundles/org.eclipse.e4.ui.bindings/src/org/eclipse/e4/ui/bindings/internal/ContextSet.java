@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -72,6 +72,9 @@ public class ContextSet {
 
 	private List<Context> contexts;
 
+	// the lookups of the contexts, maintained by BindingTableManager
+	BindingResolver resolver;
+
 	public ContextSet(Collection<Context> c) {
 		contexts = new ArrayList<Context>(c);
 		Collections.sort(contexts, CONTEXT_COMP);
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSAndConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSChildSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSConditionalSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSDescendantSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSDirectAdjacentSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * An index over the style rules of all style sheets of a document. Every
+ * selector is put into a bucket keyed by the id, the class or the element name
+ * of its rightmost compound selector, so only the selectors which can possibly
+ * match an element have to be evaluated for it. Selectors without such a key
+ * (e.g. <code>*</code> or pseudo elements) are evaluated for every element.
+ */
+final class CSSRuleIndex {
+
+	/**
+	 * A selector of a style rule together with its position in the document.
+	 */
+	static final class IndexedSelector {
+		final ExtendedSelector selector;
+		final CSSStyleDeclaration style;
+		final int order;
+
+		IndexedSelector(ExtendedSelector selector, CSSStyleDeclaration style, int order) {
+			this.selector = selector;
+			this.style = style;
+			this.order = order;
+		}
+	}
+
+	private static final Comparator<IndexedSelector> ORDER_COMPARATOR = (s1, s2) -> Integer.compare(s1.order,
+			s2.order);
+
+	private final Map<String, List<IndexedSelector>> idSelectors = new HashMap<>();
+	private final Map<String, List<IndexedSelector>> classSelectors = new HashMap<>();
+	private final Map<String, List<IndexedSelector>> typeSelectors = new HashMap<>();
+	private final List<IndexedSelector> universalSelectors = new ArrayList<>();
+
+	/*
+	 * The rule lists and their sizes at the time the index was built, used to
+	 * detect rules deleted from a style sheet after it was added
+	 */
+	private final CSSRuleList[] ruleLists;
+	private final int[] ruleCounts;
+
+	CSSRuleIndex(StyleSheetList styleSheetList) {
+		int l = styleSheetList.getLength();
+		ruleLists = new CSSRuleList[l];
+		ruleCounts = new int[l];
+		int order = 0;
+		for (int i = 0; i < l; i++) {
+			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
+			CSSRuleList rules = styleSheet.getCssRules();
+			int rulesSize = rules.getLength();
+			ruleLists[i] = rules;
+			ruleCounts[i] = rulesSize;
+			for (int j = 0; j < rulesSize; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE || !(rule instanceof ExtendedCSSRule)) {
+					continue;
+				}
+				CSSStyleDeclaration style = ((CSSStyleRule) rule).getStyle();
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				int selectorsSize = selectorList.getLength();
+				for (int k = 0; k < selectorsSize; k++) {
+					Selector selector = selectorList.item(k);
+					if (selector instanceof ExtendedSelector) {
+						add(new IndexedSelector((ExtendedSelector) selector, style, order++));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the index still reflects the rules of the given style
+	 * sheets.
+	 */
+	boolean isValid(StyleSheetList styleSheetList) {
+		int l = styleSheetList.getLength();
+		if (l != ruleLists.length) {
+			return false;
+		}
+		for (int i = 0; i < l; i++) {
+			CSSRuleList rules = ((CSSStyleSheet) styleSheetList.item(i)).getCssRules();
+			if (rules != ruleLists[i] || rules.getLength() != ruleCounts[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the selectors which may match the given element, in document
+	 * order.
+	 */
+	List<IndexedSelector> getCandidates(Element element) {
+		List<IndexedSelector> candidates = new ArrayList<>(universalSelectors);
+		int buckets = universalSelectors.isEmpty() ? 0 : 1;
+
+		String id;
+		String cssClass;
+		if (element instanceof CSSStylableElement) {
+			CSSStylableElement stylableElement = (CSSStylableElement) element;
+			id = stylableElement.getCSSId();
+			cssClass = stylableElement.getCSSClass();
+		} else {
+			id = element.getAttribute("id");
+			cssClass = element.getAttribute("class");
+		}
+		buckets += addAll(candidates, idSelectors, id);
+		if (cssClass != null && !classSelectors.isEmpty()) {
+			List<String> classNames = splitClassNames(cssClass);
+			for (String className : classNames) {
+				buckets += addAll(candidates, classSelectors, className);
+			}
+		}
+		String name = element.getPrefix() == null ? element.getNodeName() : element.getLocalName();
+		buckets += addAll(candidates, typeSelectors, name);
+
+		if (buckets > 1) {
+			Collections.sort(candidates, ORDER_COMPARATOR);
+		}
+		return candidates;
+	}
+
+	private static int addAll(List<IndexedSelector> candidates, Map<String, List<IndexedSelector>> selectors,
+			String key) {
+		if (key == null) {
+			return 0;
+		}
+		List<IndexedSelector> bucket = selectors.get(key);
+		if (bucket == null) {
+			return 0;
+		}
+		candidates.addAll(bucket);
+		return 1;
+	}
+
+	/**
+	 * Splits the class attribute the same way {@link CSSClassConditionImpl}
+	 * matches it, ignoring duplicates.
+	 */
+	private static List<String> splitClassNames(String cssClass) {
+		List<String> classNames = new ArrayList<>(2);
+		int length = cssClass.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			if (i == length || Character.isSpaceChar(cssClass.charAt(i))) {
+				if (start != -1) {
+					String className = cssClass.substring(start, i);
+					if (!classNames.contains(className)) {
+						classNames.add(className);
+					}
+					start = -1;
+				}
+			} else if (start == -1) {
+				start = i;
+			}
+		}
+		return classNames;
+	}
+
+	private void add(IndexedSelector indexedSelector) {
+		Selector subject = getSubject(indexedSelector.selector);
+		String key;
+		if (subject.getClass() == CSSConditionalSelectorImpl.class) {
+			CSSConditionalSelectorImpl conditionalSelector = (CSSConditionalSelectorImpl) subject;
+			Condition condition = conditionalSelector.getCondition();
+			key = getConditionKey(condition, CSSIdConditionImpl.class);
+			if (key != null) {
+				put(idSelectors, key, indexedSelector);
+				return;
+			}
+			key = getConditionKey(condition, CSSClassConditionImpl.class);
+			if (key != null) {
+				put(classSelectors, key, indexedSelector);
+				return;
+			}
+			subject = conditionalSelector.getSimpleSelector();
+		}
+		if (subject.getClass() == CSSElementSelectorImpl.class) {
+			key = ((CSSElementSelectorImpl) subject).getLocalName();
+			if (key != null) {
+				put(typeSelectors, key, indexedSelector);
+				return;
+			}
+		}
+		universalSelectors.add(indexedSelector);
+	}
+
+	/**
+	 * Returns the rightmost compound selector, which has to match the element
+	 * itself.
+	 */
+	private static Selector getSubject(Selector selector) {
+		Selector subject = selector;
+		while (true) {
+			Class<?> type = subject.getClass();
+			if (type == CSSDescendantSelectorImpl.class || type == CSSChildSelectorImpl.class) {
+				subject = ((DescendantSelector) subject).getSimpleSelector();
+			} else if (type == CSSDirectAdjacentSelectorImpl.class) {
+				subject = ((SiblingSelector) subject).getSiblingSelector();
+			} else {
+				return subject;
+			}
+		}
+	}
+
+	private static String getConditionKey(Condition condition, Class<?> conditionType) {
+		if (condition.getClass() == conditionType) {
+			return ((AttributeCondition) condition).getValue();
+		}
+		if (condition.getClass() == CSSAndConditionImpl.class) {
+			CSSAndConditionImpl andCondition = (CSSAndConditionImpl) condition;
+			String key = getConditionKey(andCondition.getFirstCondition(), conditionType);
+			if (key == null) {
+				key = getConditionKey(andCondition.getSecondCondition(), conditionType);
+			}
+			return key;
+		}
+		return null;
+	}
+
+	private static void put(Map<String, List<IndexedSelector>> selectors, String key,
+			IndexedSelector indexedSelector) {
+		List<IndexedSelector> bucket = selectors.get(key);
+		if (bucket == null) {
+			bucket = new ArrayList<>(2);
+			selectors.put(key, bucket);
+		}
+		bucket.add(indexedSelector);
+	}
+}
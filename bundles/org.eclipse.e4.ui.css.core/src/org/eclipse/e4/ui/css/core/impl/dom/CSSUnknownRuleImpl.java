@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2017 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,10 +18,17 @@ import org.w3c.dom.css.CSSUnknownRule;
 
 public class CSSUnknownRuleImpl extends CSSRuleImpl implements CSSUnknownRule {
 
+	private final String atRule;
+
 	public CSSUnknownRuleImpl(CSSStyleSheet parentStyleSheet, CSSRule parentRule,
 			String atRule) {
 		super(parentStyleSheet, parentRule);
-		// TODO Auto-generated constructor stub
+		this.atRule = atRule;
+	}
+
+	@Override
+	public String getCssText() {
+		return atRule;
 	}
 
 	@Override
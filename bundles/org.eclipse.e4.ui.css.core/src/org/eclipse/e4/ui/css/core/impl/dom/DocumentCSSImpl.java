@@ -43,6 +43,11 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	 */
 	private Map<Integer, List<?>> styleDeclarationMap;
 
+	/**
+	 * index of the style rules, built lazily
+	 */
+	private CSSRuleIndex ruleIndex;
+
 	@Override
 	public StyleSheetList getStyleSheets() {
 		return styleSheetList;
@@ -56,12 +61,25 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	@Override
 	public void addStyleSheet(StyleSheet styleSheet) {
 		styleSheetList.addStyleSheet(styleSheet);
+		this.ruleIndex = null;
 	}
 
 	@Override
 	public void removeAllStyleSheets() {
 		styleSheetList.removeAllStyleSheets();
 		this.styleDeclarationMap = null;
+		this.ruleIndex = null;
+	}
+
+	/**
+	 * Returns the index of the style rules of all style sheets, rebuilding it
+	 * if the style sheets changed since it was last built.
+	 */
+	CSSRuleIndex getRuleIndex() {
+		if (ruleIndex == null || !ruleIndex.isValid(styleSheetList)) {
+			ruleIndex = new CSSRuleIndex(styleSheetList);
+		}
+		return ruleIndex;
 	}
 
 	@Override
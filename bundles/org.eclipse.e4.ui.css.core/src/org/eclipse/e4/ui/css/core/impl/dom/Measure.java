@@ -23,6 +23,13 @@ public class Measure extends CSSValueImpl {
 		this.value = value;
 	}
 
+	/**
+	 * @return the lexical unit this value was created from
+	 */
+	public LexicalUnit getLexicalUnit() {
+		return value;
+	}
+
 	/**
 	 * Return a float representation of the receiver's value.
 	 * @param valueType a short representing the value type, see {@link CSSValue#getCssValueType()}
@@ -115,6 +115,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	 */
 	private ViewCSS viewCSS;
 
+	/**
+	 * Cache of the styles computed by {@link #viewCSS}.
+	 */
+	private ComputedStyleCache computedStyleCache;
+
 	/**
 	 * {@link IElementProvider} used to retrieve w3c Element linked to the
 	 * widget.
@@ -147,6 +152,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 	private boolean parseImport;
 
+	/**
+	 * URLs of the style sheets imported by the last style sheet parsed.
+	 */
+	private List<URL> importedStyleSheets = new ArrayList<>();
+
 	private ResourceRegistryKeyFactory keyFactory;
 
 	public AbstractCSSEngine() {
@@ -156,6 +166,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public AbstractCSSEngine(ExtendedDocumentCSS documentCSS) {
 		this.documentCSS = documentCSS;
 		this.viewCSS = new ViewCSSImpl(documentCSS);
+		this.computedStyleCache = new ComputedStyleCache(viewCSS, documentCSS);
 		keyFactory = new ResourceRegistryKeyFactory();
 	}
 
@@ -179,6 +190,9 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public StyleSheet parseStyleSheet(InputSource source) throws IOException {
 		// Check that CharacterStream or ByteStream is not null
 		checkInputSource(source);
+		if (!parseImport) {
+			importedStyleSheets = new ArrayList<>();
+		}
 		CSSParser parser = makeCSSParser();
 		CSSStyleSheet styleSheet = parser.parseStyleSheet(source);
 
@@ -213,6 +227,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 					}
 				}
 			}
+			importedStyleSheets.add(url);
 			InputStream stream = null;
 			try {
 				stream = url.openStream();
@@ -243,10 +258,34 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		s.setRuleList(masterList);
 		if (!parseImport) {
 			documentCSS.addStyleSheet(s);
+			computedStyleCache.clear();
 		}
 		return s;
 	}
 
+	/**
+	 * Returns the URLs of the style sheets imported, directly or indirectly,
+	 * by the last style sheet parsed with {@link #parseStyleSheet(InputSource)}.
+	 *
+	 * @return the imported style sheets, never <code>null</code>
+	 */
+	public List<URL> getImportedStyleSheets() {
+		return importedStyleSheets;
+	}
+
+	/**
+	 * Adds a style sheet which was not created by parsing, e.g. one restored
+	 * by {@link StyleSheetSerializer}. Imports must have been resolved
+	 * already.
+	 *
+	 * @param styleSheet
+	 *            the style sheet to add
+	 */
+	public void addStyleSheet(CSSStyleSheet styleSheet) {
+		documentCSS.addStyleSheet(styleSheet);
+		computedStyleCache.clear();
+	}
+
 	/**
 	 * Return true if <code>source</code> is valid and false otherwise.
 	 *
@@ -375,7 +414,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 			/*
 			 * Compute new Style to apply.
 			 */
-			CSSStyleDeclaration style = viewCSS.getComputedStyle(elt, null);
+			CSSStyleDeclaration style = computedStyleCache.getComputedStyle(elt, null);
 			if (computeDefaultStyle) {
 				if (applyStylesToChildNodes) {
 					this.computeDefaultStyle = computeDefaultStyle;
@@ -394,7 +433,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 				// there are static pseudo instances definied, loop for it and
 				// apply styles for each pseudo instance.
 				for (String pseudoInstance : pseudoInstances) {
-					CSSStyleDeclaration styleWithPseudoInstance = viewCSS
+					CSSStyleDeclaration styleWithPseudoInstance = computedStyleCache
 							.getComputedStyle(elt, pseudoInstance);
 					if (computeDefaultStyle) {
 						/*
@@ -1035,6 +1074,17 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return viewCSS;
 	}
 
+	/**
+	 * Returns the cache of the styles computed while applying styles. Its hit
+	 * and miss counters can be used to check how many elements share their
+	 * computed style.
+	 *
+	 * @return the computed style cache
+	 */
+	public ComputedStyleCache getComputedStyleCache() {
+		return computedStyleCache;
+	}
+
 	@Override
 	public void dispose() {
 		reset();
@@ -1058,6 +1108,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public void reset() {
 		// Remove All Style Sheets
 		documentCSS.removeAllStyleSheets();
+		computedStyleCache.clear();
 	}
 
 	/*--------------- Resources Registry -----------------*/
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.DocumentCSS;
+import org.w3c.dom.css.ViewCSS;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * A bounded cache of computed style declarations.
+ * <p>
+ * Elements are identified by a signature made of everything the selectors of
+ * the current style sheets can look at: the element name, id and classes, the
+ * attributes and pseudo classes used in the style sheets, and the same
+ * information for the ancestors if descendant or child selectors are used.
+ * Elements with the same signature share the same computed style declaration,
+ * which must therefore be treated as read only.
+ * </p>
+ * <p>
+ * If the style sheets use selectors whose result cannot be derived from the
+ * signature (e.g. sibling selectors), the cache is bypassed.
+ * </p>
+ */
+public class ComputedStyleCache {
+
+	private static final int DEFAULT_MAX_SIZE = 2048;
+
+	private static final char SEPARATOR = '\u0000';
+
+	/**
+	 * Marker for a cached <code>null</code> style
+	 */
+	private static final Object NO_STYLE = new Object();
+
+	private final ViewCSS viewCSS;
+
+	private final DocumentCSS documentCSS;
+
+	private final Map<String, Object> styles;
+
+	private long hitCount;
+
+	private long missCount;
+
+	/*
+	 * Features of the style sheets used to build the signatures, computed
+	 * lazily after each invalidation
+	 */
+	private boolean initialized;
+
+	private boolean cacheable;
+
+	private boolean ancestorsUsed;
+
+	private String[] attributes;
+
+	private String[] pseudoClasses;
+
+	/**
+	 * Creates a cache for the styles computed by the given view.
+	 *
+	 * @param viewCSS
+	 *            the view which computes the styles
+	 * @param documentCSS
+	 *            the document holding the style sheets used by the view
+	 */
+	public ComputedStyleCache(ViewCSS viewCSS, DocumentCSS documentCSS) {
+		this(viewCSS, documentCSS, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a cache for the styles computed by the given view.
+	 *
+	 * @param viewCSS
+	 *            the view which computes the styles
+	 * @param documentCSS
+	 *            the document holding the style sheets used by the view
+	 * @param maxSize
+	 *            the maximum number of cached styles
+	 */
+	public ComputedStyleCache(ViewCSS viewCSS, DocumentCSS documentCSS, final int maxSize) {
+		this.viewCSS = viewCSS;
+		this.documentCSS = documentCSS;
+		this.styles = new LinkedHashMap<String, Object>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the computed style of the given element, either from the cache
+	 * or from the view.
+	 *
+	 * @param element
+	 *            the element
+	 * @param pseudoElement
+	 *            the pseudo element or pseudo instance, may be
+	 *            <code>null</code>
+	 * @return the computed style or <code>null</code> if no rule matches
+	 */
+	public CSSStyleDeclaration getComputedStyle(Element element, String pseudoElement) {
+		if (!initialized) {
+			initialize();
+		}
+		if (!cacheable || !(element instanceof CSSStylableElement)) {
+			return viewCSS.getComputedStyle(element, pseudoElement);
+		}
+
+		String signature = getSignature(element, pseudoElement);
+		Object style = styles.get(signature);
+		if (style != null) {
+			hitCount++;
+			return style == NO_STYLE ? null : (CSSStyleDeclaration) style;
+		}
+		missCount++;
+		CSSStyleDeclaration computedStyle = viewCSS.getComputedStyle(element, pseudoElement);
+		styles.put(signature, computedStyle == null ? NO_STYLE : computedStyle);
+		return computedStyle;
+	}
+
+	/**
+	 * Removes all cached styles. Must be called whenever the style sheets
+	 * change.
+	 */
+	public void clear() {
+		styles.clear();
+		initialized = false;
+	}
+
+	/**
+	 * @return the number of styles served from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of styles which had to be computed
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+
+	private String getSignature(Element element, String pseudoElement) {
+		StringBuilder signature = new StringBuilder(64);
+		signature.append(pseudoElement);
+		appendElement(signature, element);
+		if (ancestorsUsed) {
+			for (Node node = element.getParentNode(); node != null; node = node.getParentNode()) {
+				signature.append(SEPARATOR).append('/');
+				if (node.getNodeType() == Node.ELEMENT_NODE) {
+					appendElement(signature, (Element) node);
+				}
+			}
+		}
+		return signature.toString();
+	}
+
+	private void appendElement(StringBuilder signature, Element element) {
+		signature.append(SEPARATOR).append(element.getNamespaceURI());
+		signature.append(SEPARATOR).append(element.getPrefix() == null ? element.getNodeName() : element.getLocalName());
+		if (element instanceof CSSStylableElement) {
+			CSSStylableElement stylableElement = (CSSStylableElement) element;
+			signature.append(SEPARATOR).append(stylableElement.getCSSId());
+			signature.append(SEPARATOR).append(stylableElement.getCSSClass());
+			for (String pseudoClass : pseudoClasses) {
+				signature.append(SEPARATOR);
+				signature.append(stylableElement.isPseudoInstanceOf(pseudoClass) ? '1' : '0');
+				signature.append(stylableElement.isStaticPseudoInstance(pseudoClass) ? '1' : '0');
+			}
+		} else {
+			signature.append(SEPARATOR).append(element.getAttribute("id"));
+			signature.append(SEPARATOR).append(element.getAttribute("class"));
+		}
+		for (String attribute : attributes) {
+			signature.append(SEPARATOR);
+			if (element.hasAttribute(attribute)) {
+				signature.append('=').append(element.getAttribute(attribute));
+			}
+		}
+	}
+
+	/**
+	 * Collects the attributes and pseudo classes used by the selectors of the
+	 * style sheets.
+	 */
+	private void initialize() {
+		Set<String> attributeSet = new LinkedHashSet<>();
+		Set<String> pseudoClassSet = new LinkedHashSet<>();
+		cacheable = true;
+		ancestorsUsed = false;
+		StyleSheetList styleSheets = documentCSS.getStyleSheets();
+		int l = styleSheets.getLength();
+		for (int i = 0; i < l && cacheable; i++) {
+			CSSRuleList rules = ((CSSStyleSheet) styleSheets.item(i)).getCssRules();
+			int rulesSize = rules.getLength();
+			for (int j = 0; j < rulesSize && cacheable; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE) {
+					continue;
+				}
+				if (!(rule instanceof ExtendedCSSRule)) {
+					cacheable = false;
+					break;
+				}
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				for (int k = 0; k < selectorList.getLength() && cacheable; k++) {
+					cacheable = collect(selectorList.item(k), attributeSet, pseudoClassSet);
+				}
+			}
+		}
+		attributes = attributeSet.toArray(new String[attributeSet.size()]);
+		pseudoClasses = pseudoClassSet.toArray(new String[pseudoClassSet.size()]);
+		initialized = true;
+	}
+
+	private boolean collect(Selector selector, Set<String> attributeSet, Set<String> pseudoClassSet) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			return true;
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			return collect(conditionalSelector.getSimpleSelector(), attributeSet, pseudoClassSet)
+					&& collect(conditionalSelector.getCondition(), attributeSet, pseudoClassSet);
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			ancestorsUsed = true;
+			DescendantSelector descendantSelector = (DescendantSelector) selector;
+			return collect(descendantSelector.getAncestorSelector(), attributeSet, pseudoClassSet)
+					&& collect(descendantSelector.getSimpleSelector(), attributeSet, pseudoClassSet);
+		default:
+			// e.g. sibling selectors depend on more than the signature
+			return false;
+		}
+	}
+
+	private boolean collect(Condition condition, Set<String> attributeSet, Set<String> pseudoClassSet) {
+		switch (condition.getConditionType()) {
+		case Condition.SAC_ID_CONDITION:
+		case Condition.SAC_CLASS_CONDITION:
+			return true;
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			attributeSet.add(((AttributeCondition) condition).getLocalName());
+			return true;
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+			pseudoClassSet.add(((AttributeCondition) condition).getValue());
+			return true;
+		case Condition.SAC_AND_CONDITION:
+			CombinatorCondition combinatorCondition = (CombinatorCondition) condition;
+			return collect(combinatorCondition.getFirstCondition(), attributeSet, pseudoClassSet)
+					&& collect(combinatorCondition.getSecondCondition(), attributeSet, pseudoClassSet);
+		default:
+			return false;
+		}
+	}
+}
@@ -0,0 +1,595 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.e4.ui.css.core.dom.CSSProperty;
+import org.eclipse.e4.ui.css.core.dom.CSSPropertyList;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSPropertyImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSRuleListImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSStyleDeclarationImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSStyleRuleImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSStyleSheetImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSUnknownRuleImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSValueFactory;
+import org.eclipse.e4.ui.css.core.impl.dom.CSSValueListImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.Measure;
+import org.eclipse.e4.ui.css.core.impl.dom.RGBColorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSSelectorFactoryImpl;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionFactory;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.LangCondition;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorFactory;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.css.sac.SimpleSelector;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.CSSValue;
+import org.w3c.dom.css.CSSValueList;
+
+/**
+ * Writes parsed style sheets in a compact binary form and reads them back
+ * without going through the CSS parser.
+ * <p>
+ * Only the constructs created by the parser of {@link CSSEngineImpl} are
+ * supported: style rules, unknown rules, the selectors and conditions of
+ * {@link CSSSelectorFactoryImpl} and {@link CSSEngineImpl#CONDITIONFACTORY_INSTANCE}
+ * and the values created by {@link CSSValueFactory}. Anything else makes
+ * {@link #write(CSSStyleSheet, DataOutput)} fail with an {@link IOException},
+ * in which case the style sheet has to be parsed every time.
+ * </p>
+ */
+public class StyleSheetSerializer {
+
+	/**
+	 * Version of the binary format, to be increased on every change.
+	 */
+	public static final int FORMAT_VERSION = 3;
+
+	private static final byte STYLE_RULE = 1;
+	private static final byte UNKNOWN_RULE = 2;
+
+	private final SelectorFactory selectorFactory;
+
+	private final ConditionFactory conditionFactory;
+
+	/**
+	 * Creates a serializer which recreates selectors and conditions with the
+	 * factories used by {@link CSSEngineImpl}.
+	 */
+	public StyleSheetSerializer() {
+		this(CSSSelectorFactoryImpl.INSTANCE, CSSEngineImpl.CONDITIONFACTORY_INSTANCE);
+	}
+
+	public StyleSheetSerializer(SelectorFactory selectorFactory, ConditionFactory conditionFactory) {
+		this.selectorFactory = selectorFactory;
+		this.conditionFactory = conditionFactory;
+	}
+
+	/*--------------- Write -----------------*/
+
+	/**
+	 * Writes the given style sheet.
+	 *
+	 * @param styleSheet
+	 *            the style sheet to write
+	 * @param out
+	 *            the output to write to
+	 * @throws IOException
+	 *             if writing fails or if the style sheet contains constructs
+	 *             which cannot be serialized
+	 */
+	public void write(CSSStyleSheet styleSheet, DataOutput out) throws IOException {
+		CSSRuleList rules = styleSheet.getCssRules();
+		int length = rules.getLength();
+		out.writeInt(length);
+		for (int i = 0; i < length; i++) {
+			CSSRule rule = rules.item(i);
+			if (rule instanceof CSSStyleRuleImpl) {
+				out.writeByte(STYLE_RULE);
+				writeStyleRule((CSSStyleRuleImpl) rule, out);
+			} else if (rule instanceof CSSUnknownRuleImpl) {
+				out.writeByte(UNKNOWN_RULE);
+				writeNullableString(rule.getCssText(), out);
+			} else {
+				throw new IOException("Unsupported rule: " + rule); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void writeStyleRule(CSSStyleRuleImpl rule, DataOutput out) throws IOException {
+		SelectorList selectors = rule.getSelectorList();
+		int length = selectors.getLength();
+		out.writeInt(length);
+		for (int i = 0; i < length; i++) {
+			writeSelector(selectors.item(i), out);
+		}
+
+		CSSPropertyList properties = rule.getCSSPropertyList();
+		length = properties.getLength();
+		out.writeInt(length);
+		for (int i = 0; i < length; i++) {
+			CSSProperty property = properties.item(i);
+			out.writeUTF(property.getName());
+			out.writeBoolean(property.isImportant());
+			writeValue(property.getValue(), out);
+		}
+	}
+
+	private void writeSelector(Selector selector, DataOutput out) throws IOException {
+		short type = selector.getSelectorType();
+		out.writeShort(type);
+		switch (type) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			ElementSelector elementSelector = (ElementSelector) selector;
+			writeNullableString(elementSelector.getNamespaceURI(), out);
+			writeNullableString(elementSelector.getLocalName(), out);
+			break;
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			writeSelector(conditionalSelector.getSimpleSelector(), out);
+			writeCondition(conditionalSelector.getCondition(), out);
+			break;
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			DescendantSelector descendantSelector = (DescendantSelector) selector;
+			writeSelector(descendantSelector.getAncestorSelector(), out);
+			writeSelector(descendantSelector.getSimpleSelector(), out);
+			break;
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			SiblingSelector siblingSelector = (SiblingSelector) selector;
+			out.writeShort(siblingSelector.getNodeType());
+			writeSelector(siblingSelector.getSelector(), out);
+			writeSelector(siblingSelector.getSiblingSelector(), out);
+			break;
+		default:
+			throw new IOException("Unsupported selector: " + selector); //$NON-NLS-1$
+		}
+	}
+
+	private void writeCondition(Condition condition, DataOutput out) throws IOException {
+		// class conditions report themselves as attribute conditions, but
+		// match any of the classes of an element
+		short type = condition instanceof CSSClassConditionImpl ? Condition.SAC_CLASS_CONDITION
+				: condition.getConditionType();
+		out.writeShort(type);
+		switch (type) {
+		case Condition.SAC_AND_CONDITION:
+			CombinatorCondition combinatorCondition = (CombinatorCondition) condition;
+			writeCondition(combinatorCondition.getFirstCondition(), out);
+			writeCondition(combinatorCondition.getSecondCondition(), out);
+			break;
+		case Condition.SAC_ID_CONDITION:
+		case Condition.SAC_CLASS_CONDITION:
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			AttributeCondition attributeCondition = (AttributeCondition) condition;
+			writeNullableString(attributeCondition.getNamespaceURI(), out);
+			writeNullableString(attributeCondition.getLocalName(), out);
+			out.writeBoolean(attributeCondition.getSpecified());
+			writeNullableString(attributeCondition.getValue(), out);
+			break;
+		case Condition.SAC_LANG_CONDITION:
+			writeNullableString(((LangCondition) condition).getLang(), out);
+			break;
+		default:
+			throw new IOException("Unsupported condition: " + condition); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes a property value as the chain of lexical units it was created
+	 * from, see {@link CSSValueFactory#newValue(LexicalUnit)}.
+	 */
+	private void writeValue(CSSValue value, DataOutput out) throws IOException {
+		if (value instanceof CSSValueListImpl) {
+			CSSValueList list = (CSSValueList) value;
+			int length = list.getLength();
+			out.writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writePrimitiveValue(list.item(i), out);
+			}
+		} else {
+			out.writeInt(1);
+			writePrimitiveValue(value, out);
+		}
+	}
+
+	private void writePrimitiveValue(CSSValue value, DataOutput out) throws IOException {
+		if (value instanceof Measure) {
+			writeLexicalUnit(((Measure) value).getLexicalUnit(), out);
+		} else if (value instanceof RGBColorImpl) {
+			// rgb(red, green, blue)
+			RGBColorImpl color = (RGBColorImpl) value;
+			out.writeShort(LexicalUnit.SAC_RGBCOLOR);
+			writeNullableString("rgb", out); //$NON-NLS-1$
+			out.writeInt(5);
+			writePrimitiveValue(color.getRed(), out);
+			out.writeShort(LexicalUnit.SAC_OPERATOR_COMMA);
+			writePrimitiveValue(color.getGreen(), out);
+			out.writeShort(LexicalUnit.SAC_OPERATOR_COMMA);
+			writePrimitiveValue(color.getBlue(), out);
+		} else {
+			throw new IOException("Unsupported value: " + value); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes a single lexical unit including its parameters and sub values,
+	 * but not the units following it.
+	 */
+	private void writeLexicalUnit(LexicalUnit unit, DataOutput out) throws IOException {
+		short type = unit.getLexicalUnitType();
+		out.writeShort(type);
+		switch (type) {
+		case LexicalUnit.SAC_INTEGER:
+			out.writeInt(unit.getIntegerValue());
+			break;
+		case LexicalUnit.SAC_REAL:
+		case LexicalUnit.SAC_PERCENTAGE:
+		case LexicalUnit.SAC_EM:
+		case LexicalUnit.SAC_EX:
+		case LexicalUnit.SAC_PIXEL:
+		case LexicalUnit.SAC_INCH:
+		case LexicalUnit.SAC_CENTIMETER:
+		case LexicalUnit.SAC_MILLIMETER:
+		case LexicalUnit.SAC_POINT:
+		case LexicalUnit.SAC_PICA:
+		case LexicalUnit.SAC_DEGREE:
+		case LexicalUnit.SAC_GRADIAN:
+		case LexicalUnit.SAC_RADIAN:
+		case LexicalUnit.SAC_MILLISECOND:
+		case LexicalUnit.SAC_SECOND:
+		case LexicalUnit.SAC_HERTZ:
+		case LexicalUnit.SAC_KILOHERTZ:
+		case LexicalUnit.SAC_DIMENSION:
+			out.writeFloat(unit.getFloatValue());
+			writeNullableString(unit.getDimensionUnitText(), out);
+			break;
+		case LexicalUnit.SAC_IDENT:
+		case LexicalUnit.SAC_STRING_VALUE:
+		case LexicalUnit.SAC_URI:
+		case LexicalUnit.SAC_ATTR:
+		case LexicalUnit.SAC_UNICODERANGE:
+			writeNullableString(unit.getStringValue(), out);
+			break;
+		case LexicalUnit.SAC_FUNCTION:
+		case LexicalUnit.SAC_RGBCOLOR:
+		case LexicalUnit.SAC_RECT_FUNCTION:
+		case LexicalUnit.SAC_COUNTER_FUNCTION:
+		case LexicalUnit.SAC_COUNTERS_FUNCTION:
+			writeNullableString(unit.getFunctionName(), out);
+			writeLexicalUnits(unit.getParameters(), out);
+			break;
+		case LexicalUnit.SAC_SUB_EXPRESSION:
+			writeLexicalUnits(unit.getSubValues(), out);
+			break;
+		default:
+			// operators and inherit carry no value
+			break;
+		}
+	}
+
+	private void writeLexicalUnits(LexicalUnit first, DataOutput out) throws IOException {
+		int count = 0;
+		for (LexicalUnit unit = first; unit != null; unit = unit.getNextLexicalUnit()) {
+			count++;
+		}
+		out.writeInt(count);
+		for (LexicalUnit unit = first; unit != null; unit = unit.getNextLexicalUnit()) {
+			writeLexicalUnit(unit, out);
+		}
+	}
+
+	private static void writeNullableString(String value, DataOutput out) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/*--------------- Read -----------------*/
+
+	/**
+	 * Reads a style sheet written by {@link #write(CSSStyleSheet, DataOutput)}.
+	 *
+	 * @param in
+	 *            the input to read from
+	 * @return the style sheet
+	 * @throws IOException
+	 *             if reading fails or the data is corrupt
+	 */
+	public CSSStyleSheet read(DataInput in) throws IOException {
+		CSSStyleSheetImpl styleSheet = new CSSStyleSheetImpl();
+		CSSRuleListImpl rules = new CSSRuleListImpl();
+		int length = in.readInt();
+		for (int i = 0; i < length; i++) {
+			byte type = in.readByte();
+			switch (type) {
+			case STYLE_RULE:
+				rules.add(readStyleRule(styleSheet, in));
+				break;
+			case UNKNOWN_RULE:
+				rules.add(new CSSUnknownRuleImpl(styleSheet, null, readNullableString(in)));
+				break;
+			default:
+				throw new IOException("Corrupt style sheet data"); //$NON-NLS-1$
+			}
+		}
+		styleSheet.setRuleList(rules);
+		return styleSheet;
+	}
+
+	private CSSRule readStyleRule(CSSStyleSheet styleSheet, DataInput in) throws IOException {
+		int length = in.readInt();
+		List<Selector> selectors = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			selectors.add(readSelector(in));
+		}
+		CSSStyleRuleImpl rule = new CSSStyleRuleImpl(styleSheet, null, new SelectorListImpl(selectors));
+
+		CSSStyleDeclarationImpl style = new CSSStyleDeclarationImpl(rule);
+		length = in.readInt();
+		for (int i = 0; i < length; i++) {
+			String name = in.readUTF();
+			boolean important = in.readBoolean();
+			style.addProperty(new CSSPropertyImpl(name, readValue(in), important));
+		}
+		rule.setStyle(style);
+		return rule;
+	}
+
+	private Selector readSelector(DataInput in) throws IOException {
+		short type = in.readShort();
+		switch (type) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			return selectorFactory.createElementSelector(readNullableString(in), readNullableString(in));
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			return selectorFactory.createPseudoElementSelector(readNullableString(in), readNullableString(in));
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			SimpleSelector simpleSelector = (SimpleSelector) readSelector(in);
+			return selectorFactory.createConditionalSelector(simpleSelector, readCondition(in));
+		case Selector.SAC_DESCENDANT_SELECTOR:
+			Selector ancestor = readSelector(in);
+			return selectorFactory.createDescendantSelector(ancestor, (SimpleSelector) readSelector(in));
+		case Selector.SAC_CHILD_SELECTOR:
+			Selector parent = readSelector(in);
+			return selectorFactory.createChildSelector(parent, (SimpleSelector) readSelector(in));
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			short nodeType = in.readShort();
+			Selector child = readSelector(in);
+			return selectorFactory.createDirectAdjacentSelector(nodeType, child, (SimpleSelector) readSelector(in));
+		default:
+			throw new IOException("Corrupt style sheet data"); //$NON-NLS-1$
+		}
+	}
+
+	private Condition readCondition(DataInput in) throws IOException {
+		short type = in.readShort();
+		if (type == Condition.SAC_AND_CONDITION) {
+			Condition first = readCondition(in);
+			return conditionFactory.createAndCondition(first, readCondition(in));
+		}
+		if (type == Condition.SAC_LANG_CONDITION) {
+			return conditionFactory.createLangCondition(readNullableString(in));
+		}
+
+		String namespaceURI = readNullableString(in);
+		String localName = readNullableString(in);
+		boolean specified = in.readBoolean();
+		String value = readNullableString(in);
+		switch (type) {
+		case Condition.SAC_ID_CONDITION:
+			return conditionFactory.createIdCondition(value);
+		case Condition.SAC_CLASS_CONDITION:
+			return conditionFactory.createClassCondition(namespaceURI, value);
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+			return conditionFactory.createPseudoClassCondition(namespaceURI, value);
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+			return conditionFactory.createAttributeCondition(localName, namespaceURI, specified, value);
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+			return conditionFactory.createOneOfAttributeCondition(localName, namespaceURI, specified, value);
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			return conditionFactory.createBeginHyphenAttributeCondition(localName, namespaceURI, specified, value);
+		default:
+			throw new IOException("Corrupt style sheet data"); //$NON-NLS-1$
+		}
+	}
+
+	private CSSValue readValue(DataInput in) throws IOException {
+		SerializedLexicalUnit first = readLexicalUnits(in);
+		if (first == null) {
+			throw new IOException("Corrupt style sheet data"); //$NON-NLS-1$
+		}
+		return CSSValueFactory.newValue(first);
+	}
+
+	private SerializedLexicalUnit readLexicalUnit(DataInput in, SerializedLexicalUnit previous) throws IOException {
+		short type = in.readShort();
+		SerializedLexicalUnit unit = new SerializedLexicalUnit(type, previous);
+		switch (type) {
+		case LexicalUnit.SAC_INTEGER:
+			unit.integerValue = in.readInt();
+			break;
+		case LexicalUnit.SAC_REAL:
+		case LexicalUnit.SAC_PERCENTAGE:
+		case LexicalUnit.SAC_EM:
+		case LexicalUnit.SAC_EX:
+		case LexicalUnit.SAC_PIXEL:
+		case LexicalUnit.SAC_INCH:
+		case LexicalUnit.SAC_CENTIMETER:
+		case LexicalUnit.SAC_MILLIMETER:
+		case LexicalUnit.SAC_POINT:
+		case LexicalUnit.SAC_PICA:
+		case LexicalUnit.SAC_DEGREE:
+		case LexicalUnit.SAC_GRADIAN:
+		case LexicalUnit.SAC_RADIAN:
+		case LexicalUnit.SAC_MILLISECOND:
+		case LexicalUnit.SAC_SECOND:
+		case LexicalUnit.SAC_HERTZ:
+		case LexicalUnit.SAC_KILOHERTZ:
+		case LexicalUnit.SAC_DIMENSION:
+			unit.floatValue = in.readFloat();
+			unit.dimensionUnitText = readNullableString(in);
+			break;
+		case LexicalUnit.SAC_IDENT:
+		case LexicalUnit.SAC_STRING_VALUE:
+		case LexicalUnit.SAC_URI:
+		case LexicalUnit.SAC_ATTR:
+		case LexicalUnit.SAC_UNICODERANGE:
+			unit.stringValue = readNullableString(in);
+			break;
+		case LexicalUnit.SAC_FUNCTION:
+		case LexicalUnit.SAC_RGBCOLOR:
+		case LexicalUnit.SAC_RECT_FUNCTION:
+		case LexicalUnit.SAC_COUNTER_FUNCTION:
+		case LexicalUnit.SAC_COUNTERS_FUNCTION:
+			unit.functionName = readNullableString(in);
+			unit.parameters = readLexicalUnits(in);
+			break;
+		case LexicalUnit.SAC_SUB_EXPRESSION:
+			unit.subValues = readLexicalUnits(in);
+			break;
+		default:
+			break;
+		}
+		return unit;
+	}
+
+	private SerializedLexicalUnit readLexicalUnits(DataInput in) throws IOException {
+		int count = in.readInt();
+		SerializedLexicalUnit first = null;
+		SerializedLexicalUnit previous = null;
+		for (int i = 0; i < count; i++) {
+			previous = readLexicalUnit(in, previous);
+			if (first == null) {
+				first = previous;
+			}
+		}
+		return first;
+	}
+
+	private static String readNullableString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * A {@link SelectorList} backed by a list.
+	 */
+	private static class SelectorListImpl implements SelectorList {
+		private final List<Selector> selectors;
+
+		SelectorListImpl(List<Selector> selectors) {
+			this.selectors = selectors;
+		}
+
+		@Override
+		public int getLength() {
+			return selectors.size();
+		}
+
+		@Override
+		public Selector item(int index) {
+			return selectors.get(index);
+		}
+	}
+
+	/**
+	 * A {@link LexicalUnit} restored from its serialized form.
+	 */
+	private static class SerializedLexicalUnit implements LexicalUnit {
+		private final short type;
+		private final SerializedLexicalUnit previous;
+		private SerializedLexicalUnit next;
+		int integerValue;
+		float floatValue;
+		String dimensionUnitText;
+		String stringValue;
+		String functionName;
+		SerializedLexicalUnit parameters;
+		SerializedLexicalUnit subValues;
+
+		SerializedLexicalUnit(short type, SerializedLexicalUnit previous) {
+			this.type = type;
+			this.previous = previous;
+			if (previous != null) {
+				previous.next = this;
+			}
+		}
+
+		@Override
+		public short getLexicalUnitType() {
+			return type;
+		}
+
+		@Override
+		public LexicalUnit getNextLexicalUnit() {
+			return next;
+		}
+
+		@Override
+		public LexicalUnit getPreviousLexicalUnit() {
+			return previous;
+		}
+
+		@Override
+		public int getIntegerValue() {
+			return integerValue;
+		}
+
+		@Override
+		public float getFloatValue() {
+			return floatValue;
+		}
+
+		@Override
+		public String getDimensionUnitText() {
+			return dimensionUnitText;
+		}
+
+		@Override
+		public String getFunctionName() {
+			return functionName;
+		}
+
+		@Override
+		public LexicalUnit getParameters() {
+			return parameters;
+		}
+
+		@Override
+		public String getStringValue() {
+			return stringValue;
+		}
+
+		@Override
+		public LexicalUnit getSubValues() {
+			return subValues;
+		}
+	}
+}
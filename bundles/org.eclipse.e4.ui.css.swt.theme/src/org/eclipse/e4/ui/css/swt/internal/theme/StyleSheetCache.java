@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.swt.internal.theme;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSheetSerializer;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Stores parsed style sheets in their binary form, see
+ * {@link StyleSheetSerializer}, so they don't have to be parsed again on the
+ * next start.
+ * <p>
+ * Every cache file records the bundle contributing the style sheet, with its
+ * version, and the modification time of the style sheet and of all the style
+ * sheets it imports. A cache file is only used if none of them changed,
+ * otherwise the style sheet is parsed and the cache file replaced.
+ * </p>
+ */
+class StyleSheetCache {
+
+	private static final int MAGIC = 0x45344353; // "E4CS"
+
+	/**
+	 * Version of the cache file header, to be increased on every change.
+	 */
+	private static final int VERSION = 2;
+
+	private static final String FILE_EXTENSION = ".bin"; //$NON-NLS-1$
+
+	private final File directory;
+
+	private final StyleSheetSerializer serializer = new StyleSheetSerializer();
+
+	/**
+	 * @param directory
+	 *            the directory holding the cache files, created on demand
+	 */
+	StyleSheetCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the serialized style sheet cached for the given URL.
+	 *
+	 * @param url
+	 *            the resolved URL of the style sheet
+	 * @param contributor
+	 *            the symbolic name and version of the bundle contributing the
+	 *            style sheet, or an empty string
+	 * @return the serialized style sheet, or <code>null</code> if there is
+	 *         none, or the contributor, the style sheet or one of its imports
+	 *         changed
+	 */
+	byte[] load(URL url, String contributor) {
+		File file = getFile(url);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION
+					|| in.readInt() != StyleSheetSerializer.FORMAT_VERSION || !url.toString().equals(in.readUTF())
+					|| !contributor.equals(in.readUTF())) {
+				return null;
+			}
+			int dependencies = in.readInt();
+			for (int i = 0; i < dependencies; i++) {
+				String dependency = in.readUTF();
+				long lastModified = in.readLong();
+				if (getLastModified(dependency) != lastModified) {
+					return null;
+				}
+			}
+			return readFully(in);
+		} catch (IOException e) {
+			// unreadable or outdated cache files are replaced on store
+			return null;
+		}
+	}
+
+	/**
+	 * Restores a style sheet returned by {@link #load(URL, String)}. Every call
+	 * creates a new style sheet, so the result can be handed to a single
+	 * engine.
+	 *
+	 * @param data
+	 *            the serialized style sheet
+	 * @return the style sheet
+	 * @throws IOException
+	 *             if the data is corrupt
+	 */
+	CSSStyleSheet restore(byte[] data) throws IOException {
+		return serializer.read(new DataInputStream(new ByteArrayInputStream(data)));
+	}
+
+	/**
+	 * Stores the given parsed style sheet.
+	 *
+	 * @param url
+	 *            the resolved URL of the style sheet
+	 * @param contributor
+	 *            the symbolic name and version of the bundle contributing the
+	 *            style sheet, or an empty string
+	 * @param styleSheet
+	 *            the style sheet parsed from the URL
+	 * @param imports
+	 *            the URLs of the style sheets imported while parsing
+	 */
+	void store(URL url, String contributor, CSSStyleSheet styleSheet, List<URL> imports) {
+		// URLs are compared as strings, URL.equals() may resolve host names
+		Set<String> dependencies = new LinkedHashSet<>();
+		dependencies.add(url.toString());
+		for (URL dependency : imports) {
+			dependencies.add(dependency.toString());
+		}
+		List<Long> lastModified = new ArrayList<>(dependencies.size());
+		for (String dependency : dependencies) {
+			long time = getLastModified(dependency);
+			if (time == 0) {
+				// changes could not be detected
+				return;
+			}
+			lastModified.add(time);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(StyleSheetSerializer.FORMAT_VERSION);
+			out.writeUTF(url.toString());
+			out.writeUTF(contributor);
+			out.writeInt(dependencies.size());
+			int i = 0;
+			for (String dependency : dependencies) {
+				out.writeUTF(dependency);
+				out.writeLong(lastModified.get(i++));
+			}
+			serializer.write(styleSheet, out);
+		} catch (IOException e) {
+			// the style sheet uses constructs which cannot be cached
+			return;
+		}
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			return;
+		}
+		File file = getFile(url);
+		File tempFile = new File(directory, file.getName() + ".tmp"); //$NON-NLS-1$
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+			bytes.writeTo(out);
+		} catch (IOException e) {
+			tempFile.delete();
+			return;
+		}
+		file.delete();
+		if (!tempFile.renameTo(file)) {
+			tempFile.delete();
+		}
+	}
+
+	private File getFile(URL url) {
+		String name = url.toString();
+		return new File(directory, Integer.toHexString(name.hashCode()) + '_' + name.length() + FILE_EXTENSION);
+	}
+
+	private static long getLastModified(String dependency) {
+		try {
+			URL url = new URL(dependency);
+			if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+				return new File(url.getFile()).lastModified();
+			}
+			URLConnection connection = url.openConnection();
+			return connection.getLastModified();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+}
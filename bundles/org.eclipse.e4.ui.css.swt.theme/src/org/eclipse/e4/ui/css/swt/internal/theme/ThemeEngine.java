@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 Tom Schindl and others.
+ * Copyright (c) 2010, 2017 Tom Schindl and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -41,6 +41,7 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.e4.ui.css.core.engine.CSSElementContext;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
 import org.eclipse.e4.ui.css.core.util.impl.resources.FileResourcesLocatorImpl;
 import org.eclipse.e4.ui.css.core.util.impl.resources.OSGiResourceLocator;
 import org.eclipse.e4.ui.css.core.util.resources.IResourceLocator;
@@ -59,6 +60,8 @@ import org.osgi.service.prefs.BackingStoreException;
 import org.w3c.css.sac.InputSource;
 import org.w3c.dom.Element;
 import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.stylesheets.StyleSheet;
 
 public class ThemeEngine implements IThemeEngine {
 	private List<Theme> themes = new ArrayList<>();
@@ -76,6 +79,12 @@ public class ThemeEngine implements IThemeEngine {
 	private HashMap<String, List<String>> modifiedStylesheets = new HashMap<>();
 	private HashMap<String, List<IResourceLocator>> sourceLocators = new HashMap<>();
 
+	/**
+	 * Parsed style sheets from previous sessions, <code>null</code> if there
+	 * is no place to store them.
+	 */
+	private StyleSheetCache styleSheetCache;
+
 	private static final String THEMEID_KEY = "themeid";
 
 	public static final String THEME_PLUGIN_ID = "org.eclipse.e4.ui.css.swt.theme";
@@ -102,6 +111,9 @@ public class ThemeEngine implements IThemeEngine {
 		if (!modDir.exists()) {
 			modDir.mkdirs();
 		}
+		if (e4CSSPath != null) {
+			styleSheetCache = new StyleSheetCache(new File(modDir, "cache")); //$NON-NLS-1$
+		}
 
 		//Check for old css files
 		File oldModDir= new File(
@@ -419,13 +431,25 @@ public class ThemeEngine implements IThemeEngine {
 				InputStream stream = null;
 				try {
 					url = FileLocator.resolve(new URL(stylesheet.toString()));
+					String contributor = getContributor(stylesheet);
+					byte[] cached = styleSheetCache != null ? styleSheetCache.load(url, contributor) : null;
+					boolean stored = false;
 					for (CSSEngine engine : cssEngines) {
+						if (cached != null && addCachedStyleSheet(engine, cached)) {
+							continue;
+						}
 						try {
 							stream = url.openStream();
 							InputSource source = new InputSource();
 							source.setByteStream(stream);
 							source.setURI(url.toString());
-							engine.parseStyleSheet(source);
+							StyleSheet styleSheet = engine.parseStyleSheet(source);
+							if (styleSheetCache != null && cached == null && !stored
+									&& engine instanceof AbstractCSSEngine && styleSheet instanceof CSSStyleSheet) {
+								styleSheetCache.store(url, contributor, (CSSStyleSheet) styleSheet,
+										((AbstractCSSEngine) engine).getImportedStyleSheets());
+								stored = true;
+							}
 						} catch (IOException e) {
 							// TODO Auto-generated catch block
 							e.printStackTrace();
@@ -470,6 +494,46 @@ public class ThemeEngine implements IThemeEngine {
 		}
 	}
 
+	/**
+	 * Returns the symbolic name and version of the bundle contributing the
+	 * given style sheet, or an empty string if it is not contributed by a
+	 * bundle. A cached style sheet is only used for the same contributor, as
+	 * the resolved URL of a bundle entry may not change when the bundle is
+	 * updated.
+	 */
+	private static String getContributor(String stylesheet) {
+		String prefix = "platform:/plugin/"; //$NON-NLS-1$
+		if (!stylesheet.startsWith(prefix)) {
+			return ""; //$NON-NLS-1$
+		}
+		int end = stylesheet.indexOf('/', prefix.length());
+		if (end == -1) {
+			return ""; //$NON-NLS-1$
+		}
+		Bundle bundle = org.eclipse.core.runtime.Platform.getBundle(stylesheet.substring(prefix.length(), end));
+		if (bundle == null) {
+			return ""; //$NON-NLS-1$
+		}
+		return bundle.getSymbolicName() + '_' + bundle.getVersion();
+	}
+
+	/**
+	 * Adds a style sheet restored from the cache to the given engine.
+	 *
+	 * @return <code>false</code> if the style sheet has to be parsed instead
+	 */
+	private boolean addCachedStyleSheet(CSSEngine engine, byte[] cached) {
+		if (!(engine instanceof AbstractCSSEngine)) {
+			return false;
+		}
+		try {
+			((AbstractCSSEngine) engine).addStyleSheet(styleSheetCache.restore(cached));
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Broadcast theme-change event using OSGi Event Admin.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 BestSolution.at and others.
+ * Copyright (c) 2011, 2017 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,4 +36,19 @@ public abstract class UISynchronize {
 	 *            the runnable to execute
 	 */
 	public abstract void asyncExec(Runnable runnable);
+
+	/**
+	 * Returns whether the given thread is the UI-Thread, in which case
+	 * runnables may be executed directly instead of through
+	 * {@link #syncExec(Runnable)}. The default implementation returns
+	 * <code>false</code>.
+	 *
+	 * @param thread
+	 *            the thread to check
+	 * @return <code>true</code> if the given thread is the UI-Thread
+	 * @since 1.2
+	 */
+	public boolean isUIThread(Thread thread) {
+		return false;
+	}
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2010, 2015 BestSolution.at and others.
+ * Copyright (c) 2010, 2017 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,7 @@ import org.eclipse.e4.emf.xpath.XPathContextFactory;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.fragment.MStringModelFragment;
+import org.eclipse.e4.ui.model.internal.ElementIdIndex;
 import org.eclipse.e4.ui.model.internal.ModelUtils;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
@@ -325,8 +326,7 @@ public class StringModelFragmentImpl extends ModelFragmentImpl implements MStrin
 		}
 	}
 
-	private void mergeXPath(MApplication application, List<MApplicationElement> ret, String xPath) {
-
+	private List<MApplicationElement> findElements(MApplication application, String xPath) {
 		XPathContextFactory<EObject> f = EcoreXPathContextFactory.newInstance();
 		XPathContext xpathContext = f.newContext((EObject) application);
 		Iterator<Object> i = xpathContext.iterate(xPath);
@@ -344,6 +344,18 @@ public class StringModelFragmentImpl extends ModelFragmentImpl implements MStrin
 			// custom xpath functions will throw exceptions
 			ex.printStackTrace();
 		}
+		return targetElements;
+	}
+
+	private void mergeXPath(MApplication application, List<MApplicationElement> ret, String xPath) {
+		// plain id selections are resolved through the index, which returns
+		// each target once in containment order, while the xpath evaluation
+		// returns an element reached through a reference (e.g. the one of a
+		// placeholder) once more
+		List<MApplicationElement> targetElements = ElementIdIndex.selectById(application, xPath);
+		if (targetElements == null) {
+			targetElements = findElements(application, xPath);
+		}
 		for (MApplicationElement targetElement : targetElements) {
 			EStructuralFeature feature = ((EObject) targetElement).eClass().getEStructuralFeature(getFeaturename());
 			if (feature != null) {
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.model.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * Maintains an elementId to element index for the containment tree of an
+ * {@link MApplication}. The index is installed lazily on the application the
+ * first time it is requested and is kept up to date as elements are added to
+ * or removed from the tree and as their elementIds change.
+ * <p>
+ * Only elements contained in the application are indexed; elements which are
+ * not (yet) part of the application's containment tree are not found.
+ * </p>
+ */
+public class ElementIdIndex extends EContentAdapter {
+
+	/**
+	 * XPaths selecting elements by id only, e.g.
+	 * <code>//*[@elementId='a' or @elementId='b']</code>
+	 */
+	private static final Pattern patternIdSelection = Pattern.compile("\\s*//\\*\\[(.*)\\]\\s*"); //$NON-NLS-1$
+
+	private static final Pattern patternIdTerm = Pattern
+			.compile("\\s*@elementId\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*(?:or(?=\\s)|$)"); //$NON-NLS-1$
+
+	private final Map<String, List<MApplicationElement>> elements = new HashMap<String, List<MApplicationElement>>();
+
+	/**
+	 * Returns the index for the application that contains the given element,
+	 * installing it on first use.
+	 *
+	 * @param element
+	 *            an element of the application model
+	 * @return the index, or <code>null</code> if the element is not contained
+	 *         in an application
+	 */
+	public static ElementIdIndex getIndex(MApplicationElement element) {
+		EObject root = EcoreUtil.getRootContainer((EObject) element);
+		if (!(root instanceof MApplication)) {
+			return null;
+		}
+		ElementIdIndex index = (ElementIdIndex) EcoreUtil.getExistingAdapter(root, ElementIdIndex.class);
+		if (index == null) {
+			index = new ElementIdIndex();
+			root.eAdapters().add(index);
+		}
+		return index;
+	}
+
+	/**
+	 * Resolves an xpath which only selects elements by id through the index of
+	 * the application instead of evaluating it on the whole model.
+	 * <p>
+	 * The elements are returned in the order of the containment tree of the
+	 * application. Unlike the evaluation of the xpath, which also follows
+	 * references such as the one of a placeholder, each element is only
+	 * returned once.
+	 * </p>
+	 *
+	 * @param application
+	 *            the application to select the elements from
+	 * @param xPath
+	 *            the xpath
+	 * @return the selected elements, or <code>null</code> if the xpath is not
+	 *         a plain id selection
+	 * @see #getSelectedIds(String)
+	 */
+	public static List<MApplicationElement> selectById(MApplication application, String xPath) {
+		List<String> ids = getSelectedIds(xPath);
+		if (ids == null) {
+			return null;
+		}
+		ElementIdIndex index = getIndex(application);
+		if (index == null) {
+			return null;
+		}
+		List<MApplicationElement> selected = new ArrayList<MApplicationElement>();
+		for (String id : ids) {
+			for (MApplicationElement element : index.get(id)) {
+				// '//*' does not select the root
+				if (element != application && !selected.contains(element)) {
+					selected.add(element);
+				}
+			}
+		}
+		if (selected.size() > 1) {
+			sortInTreeOrder((EObject) application, selected);
+		}
+		return selected;
+	}
+
+	private static void sortInTreeOrder(EObject root, List<MApplicationElement> elements) {
+		final Map<MApplicationElement, int[]> paths = new HashMap<MApplicationElement, int[]>();
+		for (MApplicationElement element : elements) {
+			paths.put(element, getContentPath(root, (EObject) element));
+		}
+		Collections.sort(elements, new Comparator<MApplicationElement>() {
+			@Override
+			public int compare(MApplicationElement e1, MApplicationElement e2) {
+				return ElementIdIndex.compare(paths.get(e1), paths.get(e2));
+			}
+		});
+	}
+
+	/**
+	 * Returns the ids selected by an xpath of the form
+	 * <code>//*[@elementId='a' or @elementId="b"]</code>.
+	 *
+	 * @param xPath
+	 *            the xpath
+	 * @return the ids, or <code>null</code> if the xpath selects anything but
+	 *         the elements with one of a list of ids
+	 */
+	public static List<String> getSelectedIds(String xPath) {
+		Matcher selection = patternIdSelection.matcher(xPath);
+		if (!selection.matches()) {
+			return null;
+		}
+		String predicate = selection.group(1);
+		Matcher term = patternIdTerm.matcher(predicate);
+		List<String> ids = new ArrayList<String>();
+		int start = 0;
+		do {
+			term.region(start, predicate.length());
+			if (!term.lookingAt()) {
+				return null;
+			}
+			ids.add(term.group(1) != null ? term.group(1) : term.group(2));
+			start = term.end();
+		} while (start < predicate.length());
+		return ids;
+	}
+
+	/**
+	 * Returns all indexed elements with the given id, in no particular order.
+	 *
+	 * @param id
+	 *            the elementId
+	 * @return the elements, never <code>null</code>
+	 */
+	public List<MApplicationElement> get(String id) {
+		List<MApplicationElement> list = elements.get(id);
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Returns the same element as {@link ModelUtils#findElementById}: the first
+	 * element with the given id found in a pre-order walk of the
+	 * {@link MApplicationElement} contents of <code>searchRoot</code>.
+	 *
+	 * @param searchRoot
+	 *            the element to search from, contained in the indexed
+	 *            application
+	 * @param id
+	 *            the elementId
+	 * @return the element or <code>null</code>
+	 */
+	public MApplicationElement find(MApplicationElement searchRoot, String id) {
+		List<MApplicationElement> candidates = elements.get(id);
+		if (candidates == null) {
+			return null;
+		}
+		MApplicationElement result = null;
+		int[] resultPath = null;
+		for (MApplicationElement candidate : candidates) {
+			int[] path = getPath((EObject) searchRoot, (EObject) candidate);
+			if (path != null && (resultPath == null || compare(path, resultPath) < 0)) {
+				result = candidate;
+				resultPath = path;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the position of <code>element</code> below <code>root</code> as
+	 * the list of content indices leading to it, or <code>null</code> if it
+	 * cannot be reached from <code>root</code> through
+	 * {@link MApplicationElement}s only.
+	 */
+	private static int[] getPath(EObject root, EObject element) {
+		List<Integer> indices = new ArrayList<Integer>();
+		EObject current = element;
+		while (current != root) {
+			EObject container = current.eContainer();
+			if (!(container instanceof MApplicationElement)) {
+				return null;
+			}
+			indices.add(Integer.valueOf(container.eContents().indexOf(current)));
+			current = container;
+		}
+		int[] path = new int[indices.size()];
+		for (int i = 0; i < path.length; i++) {
+			path[i] = indices.get(path.length - 1 - i).intValue();
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the position of <code>element</code> in the containment tree of
+	 * <code>root</code> as the list of content indices leading to it.
+	 */
+	private static int[] getContentPath(EObject root, EObject element) {
+		List<Integer> indices = new ArrayList<Integer>();
+		for (EObject current = element; current != root
+				&& current.eContainer() != null; current = current.eContainer()) {
+			indices.add(Integer.valueOf(current.eContainer().eContents().indexOf(current)));
+		}
+		int[] path = new int[indices.size()];
+		for (int i = 0; i < path.length; i++) {
+			path[i] = indices.get(path.length - 1 - i).intValue();
+		}
+		return path;
+	}
+
+	/**
+	 * Compares two paths in pre-order, an ancestor sorting before its
+	 * descendants.
+	 */
+	private static int compare(int[] path1, int[] path2) {
+		int length = Math.min(path1.length, path2.length);
+		for (int i = 0; i < length; i++) {
+			if (path1[i] != path2[i]) {
+				return path1[i] < path2[i] ? -1 : 1;
+			}
+		}
+		return path1.length - path2.length;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ElementIdIndex.class;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (notification.getFeature() == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID
+				&& !notification.isTouch()) {
+			MApplicationElement element = (MApplicationElement) notification.getNotifier();
+			remove(notification.getOldStringValue(), element);
+			add(notification.getNewStringValue(), element);
+		}
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		if (target instanceof MApplicationElement) {
+			add(((MApplicationElement) target).getElementId(), (MApplicationElement) target);
+		}
+		super.setTarget(target);
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		if (target instanceof MApplicationElement) {
+			remove(((MApplicationElement) target).getElementId(), (MApplicationElement) target);
+		}
+		super.unsetTarget(target);
+	}
+
+	private void add(String id, MApplicationElement element) {
+		if (id == null || id.length() == 0) {
+			return;
+		}
+		List<MApplicationElement> list = elements.get(id);
+		if (list == null) {
+			list = new ArrayList<MApplicationElement>(1);
+			elements.put(id, list);
+		}
+		list.add(element);
+	}
+
+	private void remove(String id, MApplicationElement element) {
+		if (id == null || id.length() == 0) {
+			return;
+		}
+		List<MApplicationElement> list = elements.get(id);
+		if (list != null && list.remove(element) && list.isEmpty()) {
+			elements.remove(id);
+		}
+	}
+}
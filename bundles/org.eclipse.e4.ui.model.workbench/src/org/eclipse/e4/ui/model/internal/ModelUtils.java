@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,6 +61,19 @@ public class ModelUtils {
 		if (id == null || id.length() == 0) {
 			return null;
 		}
+		// is it me?
+		if (id.equals(element.getElementId())) {
+			return element;
+		}
+		// Use the application's index rather than walking the whole tree
+		ElementIdIndex index = ElementIdIndex.getIndex(element);
+		if (index != null) {
+			return index.find(element, id);
+		}
+		return findElementByIdRecursive(element, id);
+	}
+
+	private static MApplicationElement findElementByIdRecursive(MApplicationElement element, String id) {
 		// is it me?
 		if (id.equals(element.getElementId())) {
 			return element;
@@ -71,7 +84,7 @@ public class ModelUtils {
 			if (!(childElement instanceof MApplicationElement)) {
 				continue;
 			}
-			MApplicationElement result = findElementById((MApplicationElement) childElement, id);
+			MApplicationElement result = findElementByIdRecursive((MApplicationElement) childElement, id);
 			if (result != null) {
 				return result;
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,19 +23,31 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.e4.ui.services.internal.events.TopicDispatcher.Subscription;
+import org.eclipse.osgi.framework.log.FrameworkLog;
+import org.eclipse.osgi.framework.log.FrameworkLogEntry;
+import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
 import org.osgi.framework.FrameworkUtil;
-import org.osgi.framework.ServiceRegistration;
-import org.osgi.service.event.Event;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventConstants;
 import org.osgi.service.event.EventHandler;
 
+/**
+ * An {@link IEventBroker} which delivers events to the handlers subscribed
+ * through any broker directly, see {@link TopicDispatcher}. Events are only
+ * passed to the {@link EventAdmin} if an {@link EventHandler} service is
+ * registered for their topic.
+ */
 public class EventBroker implements IEventBroker {
 
 	// TBD synchronization
-	private Map<EventHandler, Collection<ServiceRegistration<?>>> registrations = new HashMap<>();
+	private Map<EventHandler, Collection<Subscription>> registrations = new HashMap<>();
 
 	@Inject
 	@Optional
@@ -44,30 +56,38 @@ public class EventBroker implements IEventBroker {
 	@Inject
 	EventAdmin eventAdmin;
 
-	BundleContext bundleContext = FrameworkUtil.getBundle(getClass()).getBundleContext();
+	@Inject
+	@Optional
+	Logger logger;
+
+	private final TopicDispatcher dispatcher = TopicDispatcher.getDefault();
 
 	@Override
 	public boolean send(String topic, Object data) {
-		Event event = constructEvent(topic, data);
-		eventAdmin.sendEvent(event);
+		dispatcher.send(topic, constructEventProperties(topic, data), eventAdmin);
 		return true;
 	}
 
 	@Override
 	public boolean post(String topic, Object data) {
-		Event event = constructEvent(topic, data);
-		eventAdmin.postEvent(event);
+		dispatcher.post(topic, constructEventProperties(topic, data), eventAdmin);
 		return true;
 	}
 
+	/**
+	 * @param topic
+	 *            the topic of an event
+	 * @return <code>false</code> if no handler would receive an event with the
+	 *         given topic, in which case the event does not have to be sent
+	 */
+	public boolean hasSubscribers(String topic) {
+		return dispatcher.hasSubscribers(topic);
+	}
+
 	@SuppressWarnings("unchecked")
-	private Event constructEvent(String topic, Object data) {
-		Event event;
+	private Map<String, Object> constructEventProperties(String topic, Object data) {
 		if (data instanceof Map<?, ?>) {
 			Map<String, Object> map = (Map<String, Object>)data;
-			if(map.containsKey(EventConstants.EVENT_TOPIC) && map.containsKey(IEventBroker.DATA)) {
-				return new Event(topic, map);
-			}
 			Map<String, Object> eventMap = new HashMap<>(map);
 			if (!eventMap.containsKey(EventConstants.EVENT_TOPIC)) {
 				eventMap.put(EventConstants.EVENT_TOPIC, topic);
@@ -75,12 +95,9 @@ public class EventBroker implements IEventBroker {
 			if (!eventMap.containsKey(IEventBroker.DATA)) {
 				eventMap.put(IEventBroker.DATA, data);
 			}
-			event = new Event(topic, eventMap);
+			return eventMap;
 		} else if (data instanceof Dictionary<?, ?>) {
 			Dictionary<String, Object> d = (Dictionary<String, Object>) data;
-			if (d.get(EventConstants.EVENT_TOPIC) != null && d.get(IEventBroker.DATA) != null) {
-				return new Event(topic, d);
-			}
 			Map<String, Object> map = convertToMap(d);
 			if (map.get(EventConstants.EVENT_TOPIC) == null) {
 				map.put(EventConstants.EVENT_TOPIC, topic);
@@ -88,16 +105,14 @@ public class EventBroker implements IEventBroker {
 			if (map.get(IEventBroker.DATA) == null) {
 				map.put(IEventBroker.DATA, map);
 			}
-			event = new Event(topic, map);
-		} else {
-			Dictionary<String, Object> d = new Hashtable<>(2);
-			d.put(EventConstants.EVENT_TOPIC, topic);
-			if (data != null) {
-				d.put(IEventBroker.DATA, data);
-			}
-			event = new Event(topic, d);
+			return map;
 		}
-		return event;
+		Map<String, Object> map = new HashMap<>(4);
+		map.put(EventConstants.EVENT_TOPIC, topic);
+		if (data != null) {
+			map.put(IEventBroker.DATA, data);
+		}
+		return map;
 	}
 
 	private static <K, V> Map<K, V> convertToMap(Dictionary<K, V> source) {
@@ -116,41 +131,68 @@ public class EventBroker implements IEventBroker {
 
 	@Override
 	public boolean subscribe(String topic, String filter, EventHandler eventHandler, boolean headless) {
-		String[] topics = new String[] {topic};
-		Dictionary<String, Object> d = new Hashtable<>();
-		d.put(EventConstants.EVENT_TOPIC, topics);
+		Filter eventFilter = null;
 		if (filter != null) {
-			d.put(EventConstants.EVENT_FILTER, filter);
+			try {
+				eventFilter = FrameworkUtil.createFilter(filter);
+			} catch (InvalidSyntaxException e) {
+				logError(e, topic);
+				return false;
+			}
 		}
 		EventHandler wrappedHandler = new UIEventHandler(eventHandler, headless ? null : uiSync);
-		ServiceRegistration<?> registration = bundleContext.registerService(EventHandler.class.getName(),
-				wrappedHandler, d);
-		Collection<ServiceRegistration<?>> handled = registrations.get(eventHandler);
+		Subscription subscription = dispatcher.subscribe(topic, eventFilter, wrappedHandler, this);
+		Collection<Subscription> handled = registrations.get(eventHandler);
 		if (handled == null) {
 			registrations.put(eventHandler, handled = new ArrayList<>());
 		}
-		handled.add(registration);
+		handled.add(subscription);
 		return true;
 	}
 
 	@Override
 	public boolean unsubscribe(EventHandler eventHandler) {
-		Collection<ServiceRegistration<?>> handled = registrations.remove(eventHandler);
+		Collection<Subscription> handled = registrations.remove(eventHandler);
 		if (handled == null || handled.isEmpty())
 			return false;
-		for (ServiceRegistration<?> r : handled) {
-			r.unregister();
+		for (Subscription s : handled) {
+			dispatcher.unsubscribe(s);
 		}
 		return true;
 	}
 
+	void logError(Throwable t, String topic) {
+		String message = "Exception while dispatching event " + topic; //$NON-NLS-1$
+		if (logger != null) {
+			logger.error(t, message);
+			return;
+		}
+		// the logger is optional, the exception must not get lost without it
+		Bundle bundle = FrameworkUtil.getBundle(EventBroker.class);
+		BundleContext bundleContext = bundle == null ? null : bundle.getBundleContext();
+		ServiceReference<FrameworkLog> reference = bundleContext == null ? null
+				: bundleContext.getServiceReference(FrameworkLog.class);
+		FrameworkLog log = reference == null ? null : bundleContext.getService(reference);
+		if (log != null) {
+			try {
+				log.log(new FrameworkLogEntry(bundle.getSymbolicName(), FrameworkLogEntry.ERROR, 0, message, 0, t,
+						null));
+			} finally {
+				bundleContext.ungetService(reference);
+			}
+		} else {
+			System.err.println(message);
+			t.printStackTrace();
+		}
+	}
+
 	@PreDestroy
 	void dispose() {
-		Collection<Collection<ServiceRegistration<?>>> values = new ArrayList<>(registrations.values());
+		Collection<Collection<Subscription>> values = new ArrayList<>(registrations.values());
 		registrations.clear();
-		for (Collection<ServiceRegistration<?>> handled : values) {
-			for (ServiceRegistration<?> registration : handled) {
-				registration.unregister();
+		for (Collection<Subscription> handled : values) {
+			for (Subscription subscription : handled) {
+				dispatcher.unsubscribe(subscription);
 			}
 		}
 	}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTrackerCustomizer;
+
+/**
+ * A {@link ServiceTrackerCustomizer} which keeps the topics of all registered
+ * {@link EventHandler} services, so that publishers can skip building events
+ * nobody would receive.
+ * <p>
+ * The handler services are never retrieved, only the
+ * {@link EventConstants#EVENT_TOPIC} property of their registration is read.
+ * The handler which forwards events to the subscribers of the
+ * {@link EventBroker} is not tracked.
+ * The answer for a topic is cached until a handler is registered, modified or
+ * unregistered.
+ * </p>
+ */
+final class EventSubscriberIndex implements ServiceTrackerCustomizer<EventHandler, String[]> {
+
+	private static final String WILDCARD = "*"; //$NON-NLS-1$
+
+	private static final String WILDCARD_SUFFIX = "/*"; //$NON-NLS-1$
+
+	/** The topics of every tracked handler registration, guarded by this. */
+	private final Map<ServiceReference<EventHandler>, String[]> handlerTopics = new HashMap<>();
+
+	/** Whether a topic has subscribers, cleared whenever a handler changes. */
+	private final ConcurrentMap<String, Boolean> subscribed = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns whether an {@link EventHandler} is registered for the given topic,
+	 * either directly or by a wildcard topic like <code>org/eclipse/*</code>.
+	 * Handler filters are not taken into account, so the handlers may still
+	 * ignore the event.
+	 *
+	 * @param topic
+	 *            the topic of an event
+	 * @return <code>false</code> if no handler would receive an event with the
+	 *         given topic
+	 */
+	public boolean hasSubscribers(String topic) {
+		Boolean result = subscribed.get(topic);
+		if (result != null) {
+			return result.booleanValue();
+		}
+		synchronized (this) {
+			result = Boolean.valueOf(computeHasSubscribers(topic));
+			subscribed.put(topic, result);
+		}
+		return result.booleanValue();
+	}
+
+	private boolean computeHasSubscribers(String topic) {
+		for (String[] topics : handlerTopics.values()) {
+			for (String handlerTopic : topics) {
+				if (matches(handlerTopic, topic)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean matches(String handlerTopic, String topic) {
+		if (handlerTopic.equals(topic) || handlerTopic.equals(WILDCARD)) {
+			return true;
+		}
+		// org/eclipse/* matches org/eclipse/a and org/eclipse/a/b
+		return handlerTopic.endsWith(WILDCARD_SUFFIX)
+				&& topic.startsWith(handlerTopic.substring(0, handlerTopic.length() - 1));
+	}
+
+	@Override
+	public String[] addingService(ServiceReference<EventHandler> reference) {
+		if (reference.getProperty(TopicDispatcher.BRIDGE_PROPERTY) != null) {
+			return null;
+		}
+		String[] topics = getTopics(reference);
+		if (topics == null) {
+			// handlers without a topic receive no events
+			return null;
+		}
+		synchronized (this) {
+			handlerTopics.put(reference, topics);
+			subscribed.clear();
+		}
+		return topics;
+	}
+
+	@Override
+	public void modifiedService(ServiceReference<EventHandler> reference, String[] service) {
+		String[] topics = getTopics(reference);
+		synchronized (this) {
+			if (topics == null) {
+				handlerTopics.remove(reference);
+			} else {
+				handlerTopics.put(reference, topics);
+			}
+			subscribed.clear();
+		}
+	}
+
+	@Override
+	public void removedService(ServiceReference<EventHandler> reference, String[] service) {
+		synchronized (this) {
+			handlerTopics.remove(reference);
+			subscribed.clear();
+		}
+	}
+
+	private static String[] getTopics(ServiceReference<EventHandler> reference) {
+		Object property = reference.getProperty(EventConstants.EVENT_TOPIC);
+		if (property instanceof String) {
+			return new String[] { (String) property };
+		}
+		if (property instanceof String[]) {
+			return (String[]) property;
+		}
+		if (property instanceof Collection<?>) {
+			Collection<?> collection = (Collection<?>) property;
+			String[] topics = new String[collection.size()];
+			int i = 0;
+			for (Object topic : collection) {
+				topics[i++] = String.valueOf(topic);
+			}
+			return topics;
+		}
+		return null;
+	}
+}
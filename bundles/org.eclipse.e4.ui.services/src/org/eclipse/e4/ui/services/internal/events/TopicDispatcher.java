@@ -0,0 +1,524 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.services.internal.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.Filter;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.SynchronousBundleListener;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTracker;
+
+/**
+ * Delivers the events of all {@link EventBroker}s to their subscribers
+ * without registering an OSGi service per subscriber.
+ * <p>
+ * Subscriptions are kept in a trie of topic segments, where every node holds
+ * the subscribers of its exact topic and those of its wildcard topic, e.g.
+ * <code>org/eclipse/*</code>. Events are still forwarded to the
+ * {@link EventAdmin} if an {@link EventHandler} service is registered for
+ * their topic, and a single bridge handler delivers the events published
+ * directly through the {@link EventAdmin} to the subscribers of the brokers.
+ * A new topic is added to the bridge before <code>subscribe</code> returns, so
+ * that no event published through the {@link EventAdmin} after subscribing is
+ * lost. Topics without subscribers are removed shortly after, so that a burst
+ * of unsubscriptions only updates the registration once.
+ * </p>
+ * <p>
+ * The dispatcher closes its service tracker and unregisters the bridge when
+ * its bundle is stopped.
+ * </p>
+ */
+final class TopicDispatcher {
+
+	/**
+	 * The service property which marks the bridge handler.
+	 */
+	static final String BRIDGE_PROPERTY = "org.eclipse.e4.ui.services.events.bridge"; //$NON-NLS-1$
+
+	/**
+	 * The event property which marks the events which were already delivered
+	 * to the subscribers of the brokers before being forwarded to the
+	 * {@link EventAdmin}.
+	 */
+	static final String FORWARDED_PROPERTY = "org.eclipse.e4.ui.services.events.forwarded"; //$NON-NLS-1$
+
+	private static final char TOPIC_SEP = '/';
+
+	private static final String WILDCARD = "*"; //$NON-NLS-1$
+
+	/**
+	 * The delay in milliseconds after which topics without subscribers are
+	 * removed from the bridge.
+	 */
+	private static final long BRIDGE_UPDATE_DELAY = 50;
+
+	private static TopicDispatcher instance;
+
+	private final Node root = new Node();
+
+	private final BundleContext bundleContext;
+
+	private final EventSubscriberIndex externalSubscribers;
+
+	private final ServiceTracker<EventHandler, String[]> externalTracker;
+
+	/**
+	 * The number of subscriptions per topic the bridge is registered for,
+	 * guarded by this.
+	 */
+	private final Map<String, Integer> bridgeTopics = new LinkedHashMap<>();
+
+	/**
+	 * The topics the bridge is registered for, guarded by this.
+	 */
+	private Set<String> registeredTopics = Collections.emptySet();
+
+	private ServiceRegistration<EventHandler> bridgeRegistration;
+
+	private boolean bridgeUpdatePending;
+
+	private boolean disposed;
+
+	private ScheduledExecutorService asyncExecutor;
+
+	/**
+	 * A node of the subscription trie.
+	 */
+	private static final class Node {
+		final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>();
+		final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+		final List<Subscription> wildcardSubscriptions = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * A subscription of a handler to a topic.
+	 */
+	static final class Subscription {
+		final String topic;
+		final Filter filter;
+		final EventHandler handler;
+		final EventBroker broker;
+		volatile boolean disposed;
+
+		Subscription(String topic, Filter filter, EventHandler handler, EventBroker broker) {
+			this.topic = topic;
+			this.filter = filter;
+			this.handler = handler;
+			this.broker = broker;
+		}
+
+		void deliver(Event event) {
+			if (disposed || (filter != null && !event.matches(filter))) {
+				return;
+			}
+			try {
+				handler.handleEvent(event);
+			} catch (RuntimeException e) {
+				// like the EventAdmin, do not let one handler break the others
+				broker.logError(e, event.getTopic());
+			}
+		}
+	}
+
+	private final EventHandler bridge = new EventHandler() {
+		@Override
+		public void handleEvent(Event event) {
+			if (event.getProperty(FORWARDED_PROPERTY) == null) {
+				deliver(getSubscriptions(event.getTopic()), event);
+			}
+		}
+	};
+
+	/**
+	 * @return the dispatcher shared by all brokers
+	 */
+	static synchronized TopicDispatcher getDefault() {
+		if (instance == null) {
+			Bundle bundle = FrameworkUtil.getBundle(TopicDispatcher.class);
+			instance = new TopicDispatcher(bundle == null ? null : bundle.getBundleContext());
+		}
+		return instance;
+	}
+
+	private TopicDispatcher(final BundleContext bundleContext) {
+		this.bundleContext = bundleContext;
+		if (bundleContext != null) {
+			externalSubscribers = new EventSubscriberIndex();
+			externalTracker = new ServiceTracker<>(bundleContext, EventHandler.class, externalSubscribers);
+			// handlers of all bundles receive events, whatever their class space
+			externalTracker.open(true);
+			bundleContext.addBundleListener(new SynchronousBundleListener() {
+				@Override
+				public void bundleChanged(BundleEvent event) {
+					if (event.getType() == BundleEvent.STOPPING && event.getBundle() == bundleContext.getBundle()) {
+						dispose();
+					}
+				}
+			});
+		} else {
+			externalSubscribers = null;
+			externalTracker = null;
+		}
+	}
+
+	/**
+	 * Closes the service tracker, unregisters the bridge and drops the shared
+	 * dispatcher, so that it no longer refers to the bundle context. Events
+	 * are still delivered to the subscribers of the brokers.
+	 */
+	private void dispose() {
+		synchronized (TopicDispatcher.class) {
+			if (instance == this) {
+				instance = null;
+			}
+		}
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			disposed = true;
+			if (bridgeRegistration != null) {
+				try {
+					bridgeRegistration.unregister();
+				} catch (IllegalStateException e) {
+					// already unregistered
+				}
+				bridgeRegistration = null;
+			}
+			if (asyncExecutor != null) {
+				// events which were already posted are still delivered
+				asyncExecutor.shutdown();
+				asyncExecutor = null;
+			}
+		}
+		externalTracker.close();
+	}
+
+	/**
+	 * Subscribes the handler to the topic.
+	 *
+	 * @param topic
+	 *            the topic, possibly ending with a wildcard
+	 * @param filter
+	 *            the filter of the events, or <code>null</code>
+	 * @param handler
+	 *            the handler
+	 * @param broker
+	 *            the broker of the subscription, used for logging
+	 * @return the subscription
+	 */
+	synchronized Subscription subscribe(String topic, Filter filter, EventHandler handler, EventBroker broker) {
+		Subscription subscription = new Subscription(topic, filter, handler, broker);
+		if (WILDCARD.equals(topic)) {
+			root.wildcardSubscriptions.add(subscription);
+		} else if (topic.endsWith(TOPIC_SEP + WILDCARD)) {
+			getNode(topic.substring(0, topic.length() - 2)).wildcardSubscriptions.add(subscription);
+		} else {
+			getNode(topic).subscriptions.add(subscription);
+		}
+		Integer count = bridgeTopics.get(topic);
+		bridgeTopics.put(topic, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+		if (count == null && !registeredTopics.contains(topic)) {
+			updateBridge();
+		}
+		return subscription;
+	}
+
+	/**
+	 * Removes a subscription. Events which are already being delivered are no
+	 * longer passed to its handler.
+	 *
+	 * @param subscription
+	 *            the subscription
+	 */
+	synchronized void unsubscribe(Subscription subscription) {
+		if (subscription.disposed) {
+			return;
+		}
+		subscription.disposed = true;
+		String topic = subscription.topic;
+		if (WILDCARD.equals(topic)) {
+			root.wildcardSubscriptions.remove(subscription);
+		} else if (topic.endsWith(TOPIC_SEP + WILDCARD)) {
+			removeSubscription(topic.substring(0, topic.length() - 2), subscription, true);
+		} else {
+			removeSubscription(topic, subscription, false);
+		}
+		Integer count = bridgeTopics.get(topic);
+		if (count != null) {
+			if (count.intValue() > 1) {
+				bridgeTopics.put(topic, Integer.valueOf(count.intValue() - 1));
+			} else {
+				bridgeTopics.remove(topic);
+				scheduleBridgeUpdate();
+			}
+		}
+	}
+
+	/**
+	 * Removes the subscription from the node of the topic, and removes the
+	 * nodes of the path to it which no longer have subscriptions or children.
+	 * Guarded by this.
+	 */
+	private void removeSubscription(String topic, Subscription subscription, boolean wildcard) {
+		List<Node> path = new ArrayList<>();
+		List<String> segments = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf(TOPIC_SEP, start);
+			String segment = end == -1 ? topic.substring(start) : topic.substring(start, end);
+			node = node.children.get(segment);
+			if (node == null) {
+				return;
+			}
+			path.add(node);
+			segments.add(segment);
+			if (end == -1) {
+				break;
+			}
+			start = end + 1;
+		}
+		(wildcard ? node.wildcardSubscriptions : node.subscriptions).remove(subscription);
+		for (int i = path.size() - 1; i > 0; i--) {
+			Node child = path.get(i);
+			if (!child.subscriptions.isEmpty() || !child.wildcardSubscriptions.isEmpty()
+					|| !child.children.isEmpty()) {
+				return;
+			}
+			path.get(i - 1).children.remove(segments.get(i - 1), child);
+		}
+	}
+
+	/**
+	 * Returns the node of the topic, creating it and the nodes of the path to
+	 * it if needed. Guarded by this.
+	 */
+	private Node getNode(String topic) {
+		Node node = root;
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf(TOPIC_SEP, start);
+			String segment = end == -1 ? topic.substring(start) : topic.substring(start, end);
+			Node child = node.children.get(segment);
+			if (child == null) {
+				child = new Node();
+				Node existing = node.children.putIfAbsent(segment, child);
+				if (existing != null) {
+					child = existing;
+				}
+			}
+			node = child;
+			if (end == -1) {
+				return node;
+			}
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Schedules the removal of the topics without subscribers from the bridge,
+	 * unless it is already pending. Guarded by this.
+	 */
+	private void scheduleBridgeUpdate() {
+		if (bundleContext == null || disposed || bridgeUpdatePending) {
+			return;
+		}
+		bridgeUpdatePending = true;
+		getAsyncExecutor().schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (TopicDispatcher.this) {
+					bridgeUpdatePending = false;
+					updateBridge();
+				}
+			}
+		}, BRIDGE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Registers the bridge for the subscribed topics, so that events published
+	 * directly through the {@link EventAdmin} reach the subscribers of the
+	 * brokers.
+	 */
+	private synchronized void updateBridge() {
+		if (bundleContext == null || disposed || registeredTopics.equals(bridgeTopics.keySet())) {
+			return;
+		}
+		try {
+			if (bridgeTopics.isEmpty()) {
+				if (bridgeRegistration != null) {
+					bridgeRegistration.unregister();
+					bridgeRegistration = null;
+				}
+				registeredTopics = Collections.emptySet();
+				return;
+			}
+			Hashtable<String, Object> properties = new Hashtable<>();
+			properties.put(EventConstants.EVENT_TOPIC, bridgeTopics.keySet().toArray(new String[bridgeTopics.size()]));
+			properties.put(BRIDGE_PROPERTY, Boolean.TRUE);
+			if (bridgeRegistration == null) {
+				bridgeRegistration = bundleContext.registerService(EventHandler.class, bridge, properties);
+			} else {
+				bridgeRegistration.setProperties(properties);
+			}
+			registeredTopics = new HashSet<>(bridgeTopics.keySet());
+		} catch (IllegalStateException e) {
+			// the bundle is being stopped
+		}
+	}
+
+	/**
+	 * Returns the subscriptions which receive an event with the given topic.
+	 */
+	private List<Subscription> getSubscriptions(String topic) {
+		List<Subscription> result = Collections.emptyList();
+		Node node = root;
+		int start = 0;
+		while (true) {
+			// the wildcard of a node matches all topics below it
+			result = addAll(result, node.wildcardSubscriptions);
+			int end = topic.indexOf(TOPIC_SEP, start);
+			node = node.children.get(end == -1 ? topic.substring(start) : topic.substring(start, end));
+			if (node == null) {
+				return result;
+			}
+			if (end == -1) {
+				return addAll(result, node.subscriptions);
+			}
+			start = end + 1;
+		}
+	}
+
+	private static List<Subscription> addAll(List<Subscription> result, List<Subscription> subscriptions) {
+		if (subscriptions.isEmpty()) {
+			return result;
+		}
+		if (result.isEmpty()) {
+			return subscriptions;
+		}
+		List<Subscription> merged = new ArrayList<>(result.size() + subscriptions.size());
+		merged.addAll(result);
+		merged.addAll(subscriptions);
+		return merged;
+	}
+
+	/**
+	 * @param topic
+	 *            the topic of an event
+	 * @return <code>false</code> if neither a subscriber of a broker nor an
+	 *         {@link EventHandler} service would receive an event with the
+	 *         given topic
+	 */
+	boolean hasSubscribers(String topic) {
+		return !getSubscriptions(topic).isEmpty() || hasExternalSubscribers(topic);
+	}
+
+	private boolean hasExternalSubscribers(String topic) {
+		return externalSubscribers != null && externalSubscribers.hasSubscribers(topic);
+	}
+
+	/**
+	 * Delivers an event synchronously to the subscribers of the brokers and,
+	 * if there are any, to the {@link EventHandler} services of its topic.
+	 *
+	 * @param topic
+	 *            the topic
+	 * @param properties
+	 *            the properties of the event, modified by this method
+	 * @param eventAdmin
+	 *            the event admin to forward the event to, may be
+	 *            <code>null</code>
+	 */
+	void send(String topic, Map<String, Object> properties, EventAdmin eventAdmin) {
+		boolean forward = eventAdmin != null && hasExternalSubscribers(topic);
+		if (forward) {
+			properties.put(FORWARDED_PROPERTY, Boolean.TRUE);
+		}
+		Event event = new Event(topic, properties);
+		deliver(getSubscriptions(topic), event);
+		if (forward) {
+			eventAdmin.sendEvent(event);
+		}
+	}
+
+	/**
+	 * Delivers an event asynchronously to the subscribers of the brokers and,
+	 * if there are any, to the {@link EventHandler} services of its topic.
+	 * Events posted by a thread are delivered in order.
+	 *
+	 * @param topic
+	 *            the topic
+	 * @param properties
+	 *            the properties of the event, modified by this method
+	 * @param eventAdmin
+	 *            the event admin to forward the event to, may be
+	 *            <code>null</code>
+	 */
+	void post(String topic, Map<String, Object> properties, EventAdmin eventAdmin) {
+		boolean forward = eventAdmin != null && hasExternalSubscribers(topic);
+		if (forward) {
+			properties.put(FORWARDED_PROPERTY, Boolean.TRUE);
+		}
+		final Event event = new Event(topic, properties);
+		final List<Subscription> subscriptions = getSubscriptions(topic);
+		if (!subscriptions.isEmpty()) {
+			getAsyncExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					deliver(subscriptions, event);
+				}
+			});
+		}
+		if (forward) {
+			eventAdmin.postEvent(event);
+		}
+	}
+
+	private synchronized ScheduledExecutorService getAsyncExecutor() {
+		if (asyncExecutor == null) {
+			asyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Event Broker Dispatcher"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return asyncExecutor;
+	}
+
+	private static void deliver(List<Subscription> subscriptions, Event event) {
+		for (Subscription subscription : subscriptions) {
+			subscription.deliver(event);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,7 +16,8 @@ import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
 /**
- * The helper will properly place UI-aware consumers on the main thread.
+ * The helper will properly place UI-aware consumers on the main thread. Events
+ * sent from the main thread are passed to the consumer directly.
  */
 public class UIEventHandler implements EventHandler {
 
@@ -30,7 +31,7 @@ public class UIEventHandler implements EventHandler {
 
 	@Override
 	public void handleEvent(final Event event) {
-		if (uiSync == null)
+		if (uiSync == null || uiSync.isUIThread(Thread.currentThread()))
 			eventHandler.handleEvent(event);
 		else {
 			uiSync.syncExec(new Runnable() {
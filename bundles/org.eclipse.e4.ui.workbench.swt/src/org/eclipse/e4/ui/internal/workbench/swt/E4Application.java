@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -219,6 +219,11 @@ public class E4Application implements IApplication {
 					display.asyncExec(runnable);
 				}
 			}
+
+			@Override
+			public boolean isUIThread(Thread thread) {
+				return display != null && !display.isDisposed() && display.getThread() == thread;
+			}
 		});
 		appContext.set(IApplicationContext.class, applicationContext);
 
@@ -367,6 +372,11 @@ public class E4Application implements IApplication {
 				.map(value -> Boolean.parseBoolean(value)).orElse(Boolean.FALSE);
 		eclipseContext.set(IWorkbench.CLEAR_PERSISTED_STATE, clearPersistedState);
 
+		// Cache of the assembled model
+		Boolean modelAssemblyCache = getArgValue(E4Workbench.MODEL_ASSEMBLY_CACHE, appContext, true)
+				.map(value -> Boolean.parseBoolean(value)).orElse(Boolean.FALSE);
+		eclipseContext.set(E4Workbench.MODEL_ASSEMBLY_CACHE, modelAssemblyCache);
+
 		String resourceHandler = getArgValue(IWorkbench.MODEL_RESOURCE_HANDLER, appContext, false)
 				.orElse("bundleclass://org.eclipse.e4.ui.workbench/" + ResourceHandler.class.getName());
 
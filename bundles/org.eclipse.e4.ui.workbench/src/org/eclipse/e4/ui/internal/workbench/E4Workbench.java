@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 BestSolution.at and others.
+ * Copyright (c) 2008, 2017 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -76,6 +76,14 @@ public class E4Workbench implements IWorkbench {
 	public static final String FORCED_PERSPECTIVE_ID = "forcedPerspetiveId"; //$NON-NLS-1$
 
 	public static final String NO_SAVED_MODEL_FOUND = "NO_SAVED_MODEL_FOUND"; //$NON-NLS-1$
+	/**
+	 * The argument for whether the assembled application model should be
+	 * cached and reused while the model contributions do not change, see
+	 * {@link ModelAssemblyCache} <br>
+	 * <br>
+	 * Value is: <code>modelAssemblyCache</code>
+	 */
+	public static final String MODEL_ASSEMBLY_CACHE = "modelAssemblyCache"; //$NON-NLS-1$
 	/**
 	 * The argument for the whether to forcefully show the location in the window title (set on the
 	 * command line)<br>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 BestSolution.at and others.
+ * Copyright (c) 2010, 2017 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -70,7 +70,7 @@ public class ModelAssembler {
 	@Inject
 	private IExtensionRegistry registry;
 
-	final private static String extensionPointID = "org.eclipse.e4.workbench.model"; //$NON-NLS-1$
+	final static String extensionPointID = "org.eclipse.e4.workbench.model"; //$NON-NLS-1$
 
 	// private static final String ALWAYS = "always"; //$NON-NLS-1$
 	private static final String INITIAL = "initial"; //$NON-NLS-1$
@@ -213,13 +213,7 @@ public class ModelAssembler {
 
 		URI uri;
 		try {
-			// check if the attrURI is already a platform URI
-			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
-			}
+			uri = createFragmentURI(bundleName, attrURI);
 		} catch (RuntimeException e) {
 			logger.warn(e, "Invalid location \"" + attrURI + "\" of model extension \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			return null;
@@ -247,6 +241,24 @@ public class ModelAssembler {
 		return (MModelFragments) extensionRoot;
 	}
 
+	/**
+	 * Returns the URI of the fragment declared by a model extension.
+	 *
+	 * @param bundleName
+	 *            the name of the contributing bundle
+	 * @param attrURI
+	 *            the <code>uri</code> attribute of the extension
+	 * @return the URI of the fragment
+	 */
+	static URI createFragmentURI(String bundleName, String attrURI) {
+		// check if the attrURI is already a platform URI
+		if (URIHelper.isPlatformURI(attrURI)) {
+			return URI.createURI(attrURI);
+		}
+		String path = bundleName + '/' + attrURI;
+		return URI.createPlatformPluginURI(path, false);
+	}
+
 	/**
 	 * Contributes the given {@link MModelFragment} to the application model.
 	 *
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.osgi.framework.Bundle;
+
+/**
+ * Stores the application model as assembled by the {@link ModelAssembler} from
+ * the initial application model, the contributed fragments and the
+ * processors, so that later starts with the same contributions can load it
+ * instead of assembling the model again.
+ * <p>
+ * The cache is keyed by the initial application model, the bundles
+ * contributing to the <strong>org.eclipse.e4.workbench.model</strong>
+ * extension point with their versions, the extensions themselves and the
+ * contents of the contributed fragments. Processors are not run when the model
+ * is loaded from the cache, so the cache can only be used by applications
+ * whose processors make the same changes on every start.
+ * </p>
+ */
+public class ModelAssemblyCache {
+
+	private static final String FILE_PREFIX = "assembled-"; //$NON-NLS-1$
+	private static final String FILE_SUFFIX = ".xmi"; //$NON-NLS-1$
+
+	private final File location;
+	private final String key;
+
+	/**
+	 * @param location
+	 *            the directory holding the cache
+	 * @param key
+	 *            the key of the current contributions, see
+	 *            {@link #computeKey(IExtensionRegistry, URI, URIConverter)}
+	 */
+	public ModelAssemblyCache(File location, String key) {
+		this.location = location;
+		this.key = key;
+	}
+
+	/**
+	 * Computes the key of the contributions to the application model.
+	 *
+	 * @param registry
+	 *            the extension registry
+	 * @param applicationModelURI
+	 *            the URI of the initial application model
+	 * @param converter
+	 *            the converter used to read the models
+	 * @return the key
+	 */
+	public static String computeKey(IExtensionRegistry registry, URI applicationModelURI, URIConverter converter) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		update(digest, applicationModelURI.toString());
+		updateContents(digest, applicationModelURI, converter);
+
+		IExtensionPoint extPoint = registry.getExtensionPoint(ModelAssembler.extensionPointID);
+		IExtension[] extensions = new ExtensionsSort().sort(extPoint.getExtensions());
+		for (IExtension extension : extensions) {
+			String bundleName = extension.getContributor().getName();
+			update(digest, bundleName);
+			Bundle bundle = Activator.getDefault().getBundleForName(bundleName);
+			update(digest, bundle == null ? null : bundle.getVersion().toString());
+			for (IConfigurationElement ce : extension.getConfigurationElements()) {
+				update(digest, ce.getName());
+				String[] attributes = ce.getAttributeNames();
+				Arrays.sort(attributes);
+				for (String attribute : attributes) {
+					update(digest, attribute);
+					update(digest, ce.getAttribute(attribute));
+				}
+				for (IConfigurationElement child : ce.getChildren()) {
+					update(digest, child.getName());
+					update(digest, child.getAttribute("id")); //$NON-NLS-1$
+					update(digest, child.getAttribute("contextKey")); //$NON-NLS-1$
+				}
+				String attrURI = ce.getAttribute("uri"); //$NON-NLS-1$
+				if ("fragment".equals(ce.getName()) && attrURI != null) { //$NON-NLS-1$
+					try {
+						updateContents(digest, ModelAssembler.createFragmentURI(bundleName, attrURI), converter);
+					} catch (RuntimeException e) {
+						// the assembler skips invalid locations as well
+						update(digest, null);
+					}
+				}
+			}
+		}
+
+		StringBuilder result = new StringBuilder();
+		for (byte b : digest.digest()) {
+			result.append(Character.forDigit((b >> 4) & 0xF, 16));
+			result.append(Character.forDigit(b & 0xF, 16));
+		}
+		return result.toString();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		// separate the values so that e.g. "ab", "c" differs from "a", "bc"
+		digest.update((byte) 0);
+	}
+
+	private static void updateContents(MessageDigest digest, URI uri, URIConverter converter) {
+		byte[] buffer = new byte[8192];
+		try (InputStream in = converter.createInputStream(uri)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			// a missing model is part of the key as well
+		}
+		digest.update((byte) 0);
+	}
+
+	private File getFile() {
+		return new File(location, FILE_PREFIX + key + FILE_SUFFIX);
+	}
+
+	/**
+	 * Loads the cached application model into a new resource of the given
+	 * resource set.
+	 *
+	 * @param resourceSet
+	 *            the resource set
+	 * @return the resource, or <code>null</code> if no model is cached for the
+	 *         current contributions
+	 * @throws IOException
+	 *             if the cached model cannot be read, in which case it is
+	 *             removed from the cache
+	 */
+	public Resource load(ResourceSet resourceSet) throws IOException {
+		File file = getFile();
+		if (!file.isFile()) {
+			return null;
+		}
+		Resource resource = resourceSet.createResource(URI.createFileURI(file.getAbsolutePath()));
+		try {
+			resource.load(null);
+		} catch (IOException | RuntimeException e) {
+			resourceSet.getResources().remove(resource);
+			file.delete();
+			throw e;
+		}
+		if (resource.getContents().isEmpty()) {
+			resourceSet.getResources().remove(resource);
+			file.delete();
+			return null;
+		}
+		return resource;
+	}
+
+	/**
+	 * Stores the given application model for the current contributions,
+	 * replacing the models stored for any other contributions.
+	 *
+	 * @param resource
+	 *            the resource holding the assembled application model
+	 * @throws IOException
+	 *             if the model cannot be written
+	 */
+	public void store(Resource resource) throws IOException {
+		if (!location.isDirectory() && !location.mkdirs()) {
+			throw new IOException("Unable to create " + location); //$NON-NLS-1$
+		}
+		File file = getFile();
+		File tmpFile = new File(location, file.getName() + ".tmp"); //$NON-NLS-1$
+		try (OutputStream out = new FileOutputStream(tmpFile)) {
+			resource.save(out, null);
+		}
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			throw new IOException("Unable to write " + file); //$NON-NLS-1$
+		}
+
+		File[] files = location.listFiles();
+		if (files != null) {
+			for (File other : files) {
+				String name = other.getName();
+				if (name.startsWith(FILE_PREFIX) && !other.equals(file)) {
+					other.delete();
+				}
+			}
+		}
+	}
+}
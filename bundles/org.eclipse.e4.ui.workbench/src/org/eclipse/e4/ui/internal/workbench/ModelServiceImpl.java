@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,7 @@ import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
 import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
@@ -49,9 +50,12 @@ import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindowElement;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.impl.UiPackageImpl;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
+import org.eclipse.e4.ui.model.internal.ElementIdIndex;
 import org.eclipse.e4.ui.model.internal.ModelUtils;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
 import org.eclipse.e4.ui.workbench.Selector;
@@ -62,6 +66,7 @@ import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.EPlaceholderResolver;
 import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
@@ -379,6 +384,9 @@ public class ModelServiceImpl implements EModelService {
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
+		if (isUnknownId(searchRoot, id)) {
+			return new ArrayList<>();
+		}
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
 		return findElements(searchRoot, clazz, ANYWHERE, matcher);
 	}
@@ -386,6 +394,9 @@ public class ModelServiceImpl implements EModelService {
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
+		if (isUnknownId(searchRoot, id)) {
+			return new ArrayList<>();
+		}
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
 		return findElements(searchRoot, clazz, searchFlags, matcher);
 	}
@@ -398,6 +409,19 @@ public class ModelServiceImpl implements EModelService {
 		return elements;
 	}
 
+	/**
+	 * Returns whether no element of the application containing
+	 * <code>searchRoot</code> has the given id, in which case a search for it
+	 * cannot match anything.
+	 */
+	private boolean isUnknownId(MUIElement searchRoot, String id) {
+		if (id == null || id.length() == 0) {
+			return false;
+		}
+		ElementIdIndex index = ElementIdIndex.getIndex(searchRoot);
+		return index != null && index.get(id).isEmpty();
+	}
+
 	private <T> List<T> findPerspectiveElements(MUIElement searchRoot, String id,
 			Class<T> clazz,
 			List<String> tagsToMatch) {
@@ -413,6 +437,22 @@ public class ModelServiceImpl implements EModelService {
 			return null;
 		}
 
+		ElementIdIndex index = ElementIdIndex.getIndex(searchRoot);
+		if (index != null) {
+			List<MApplicationElement> candidates = index.get(id);
+			if (candidates.isEmpty()) {
+				return null;
+			}
+			// a unique id needs no search unless it is hidden behind a
+			// placeholder or outside the searched features
+			if (candidates.size() == 1 && candidates.get(0) instanceof MUIElement) {
+				MUIElement candidate = (MUIElement) candidates.get(0);
+				if (isReachableAnywhere(candidate, searchRoot)) {
+					return candidate;
+				}
+			}
+		}
+
 		List<MUIElement> elements = findElements(searchRoot, id, MUIElement.class, null);
 		if (elements.size() > 0) {
 			return elements.get(0);
@@ -420,6 +460,32 @@ public class ModelServiceImpl implements EModelService {
 		return null;
 	}
 
+	/**
+	 * Returns whether an {@link #ANYWHERE} search starting at
+	 * <code>searchRoot</code> reaches <code>element</code> through its
+	 * containment chain alone, i.e. without following placeholders.
+	 *
+	 * @param element
+	 *            the element
+	 * @param searchRoot
+	 *            the root of the search
+	 * @return <code>true</code> if the search reaches the element
+	 */
+	private boolean isReachableAnywhere(MUIElement element, MUIElement searchRoot) {
+		EObject current = (EObject) element;
+		while (current != searchRoot) {
+			EReference feature = current.eContainmentFeature();
+			if (feature != UiPackageImpl.Literals.ELEMENT_CONTAINER__CHILDREN
+					&& feature != BasicPackageImpl.Literals.TRIMMED_WINDOW__TRIM_BARS
+					&& feature != BasicPackageImpl.Literals.WINDOW__WINDOWS
+					&& feature != AdvancedPackageImpl.Literals.PERSPECTIVE__WINDOWS) {
+				return false;
+			}
+			current = current.eContainer();
+		}
+		return true;
+	}
+
 	@Override
 	public int countRenderableChildren(MUIElement element) {
 		if (!(element instanceof MElementContainer<?>)) {
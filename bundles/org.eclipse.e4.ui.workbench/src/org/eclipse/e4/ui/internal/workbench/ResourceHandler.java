@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,11 +22,14 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.eclipse.core.internal.runtime.PlatformURLPluginConnection;
+import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
@@ -177,10 +180,19 @@ public class ResourceHandler implements IModelResourceHandler {
 				resource = null;
 			}
 		}
+		ModelAssemblyCache assemblyCache = null;
+		boolean assembled = false;
 		if (resource == null) {
-			Resource applicationResource = loadResource(applicationDefinitionInstance);
-			MApplication theApp = (MApplication) applicationResource.getContents().get(0);
-			resource = createResourceWithApp(theApp);
+			assemblyCache = createModelAssemblyCache();
+			Resource cachedResource = loadCachedModel(assemblyCache);
+			if (cachedResource != null) {
+				resource = createResourceWithCachedApp(cachedResource);
+				assembled = true;
+			} else {
+				Resource applicationResource = loadResource(applicationDefinitionInstance);
+				MApplication theApp = (MApplication) applicationResource.getContents().get(0);
+				resource = createResourceWithApp(theApp);
+			}
 			context.set(E4Workbench.NO_SAVED_MODEL_FOUND, Boolean.TRUE);
 			initialModel = true;
 		} else {
@@ -192,9 +204,19 @@ public class ResourceHandler implements IModelResourceHandler {
 		MApplication appElement = (MApplication) resource.getContents().get(0);
 
 		this.context.set(MApplication.class, appElement);
-		ModelAssembler contribProcessor = ContextInjectionFactory.make(ModelAssembler.class,
-				context);
-		contribProcessor.processModel(initialModel);
+		if (!assembled) {
+			ModelAssembler contribProcessor = ContextInjectionFactory.make(ModelAssembler.class, context);
+			contribProcessor.processModel(initialModel);
+			if (assemblyCache != null) {
+				try {
+					assemblyCache.store(resource);
+				} catch (IOException | RuntimeException e) {
+					if (logger != null) {
+						logger.error(e, "Unable to cache the assembled application model"); //$NON-NLS-1$
+					}
+				}
+			}
+		}
 
 		if (!hasTopLevelWindows(resource) && logger != null) {
 			logger.error(new Exception(), // log a stack trace to help debug the
@@ -237,6 +259,66 @@ public class ResourceHandler implements IModelResourceHandler {
 		return resourceSetImpl.createResource(URI.createURI("workbench.xmi")); //$NON-NLS-1$
 	}
 
+	/**
+	 * @return the cache of the assembled model for the current model
+	 *         contributions, or <code>null</code> if the cache is not enabled
+	 */
+	private ModelAssemblyCache createModelAssemblyCache() {
+		if (!Boolean.TRUE.equals(context.get(E4Workbench.MODEL_ASSEMBLY_CACHE)) || instanceLocation == null
+				|| instanceLocation.getURL() == null) {
+			return null;
+		}
+		try {
+			String key = ModelAssemblyCache.computeKey(context.get(IExtensionRegistry.class),
+					applicationDefinitionInstance, resourceSetImpl.getURIConverter());
+			return new ModelAssemblyCache(getBaseLocation(), key);
+		} catch (RuntimeException e) {
+			if (logger != null) {
+				logger.error(e, "Unable to use the cache of the assembled application model"); //$NON-NLS-1$
+			}
+			return null;
+		}
+	}
+
+	private Resource loadCachedModel(ModelAssemblyCache assemblyCache) {
+		if (assemblyCache == null) {
+			return null;
+		}
+		try {
+			return assemblyCache.load(resourceSetImpl);
+		} catch (IOException | RuntimeException e) {
+			if (logger != null) {
+				logger.error(e, "Unable to load the cached application model, assembling it again"); //$NON-NLS-1$
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Moves the application of a cached model into a new resource, keeping the
+	 * XML IDs which identify the contributed elements on later starts.
+	 */
+	private Resource createResourceWithCachedApp(Resource cachedResource) {
+		E4XMIResource cached = (E4XMIResource) cachedResource;
+		Map<EObject, String> ids = new HashMap<>();
+		TreeIterator<EObject> it = cached.getAllContents();
+		while (it.hasNext()) {
+			EObject o = it.next();
+			String id = cached.getID(o);
+			if (id != null) {
+				ids.put(o, id);
+			}
+		}
+
+		MApplication theApp = (MApplication) cached.getContents().get(0);
+		E4XMIResource res = (E4XMIResource) createResourceWithApp(theApp);
+		for (Entry<EObject, String> entry : ids.entrySet()) {
+			res.setID(entry.getKey(), entry.getValue());
+		}
+		resourceSetImpl.getResources().remove(cached);
+		return res;
+	}
+
 	private File getWorkbenchSaveLocation() {
 		File workbenchData = new File(getBaseLocation(), "workbench.xmi"); //$NON-NLS-1$
 		return workbenchData;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,11 @@
 package org.eclipse.e4.ui.internal.workbench;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -20,6 +24,7 @@ import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.impl.StringToObjectMapImpl;
 import org.eclipse.e4.ui.model.application.impl.StringToStringMapImpl;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.services.internal.events.EventBroker;
 import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.UIEvents.EventTags;
 import org.eclipse.e4.ui.workbench.UIEvents.EventTypes;
@@ -30,11 +35,65 @@ import org.eclipse.emf.ecore.util.EContentAdapter;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * Notifications are only formatted and sent if an event handler is
+ * registered for their topic. Model changes made between
+ * {@link #beginBatch()} and {@link #endBatch()} are queued and sent when the
+ * outermost batch ends, with consecutive changes of the same single valued
+ * attribute of an element coalesced into one event.
+ * </p>
  */
 public class UIEventPublisher extends EContentAdapter {
 
+	/** The number of EMF notification types, see {@link Notification#MOVE}. */
+	private static final int EVENT_TYPE_COUNT = Notification.MOVE + 1;
+
+	private static final String APPLICATION_ELEMENT_TOPIC_BASE = "org/eclipse/e4/ui/model/application/ApplicationElement/"; //$NON-NLS-1$
+
+	/** The topics of the features, indexed by the EMF notification type. */
+	private static final ConcurrentMap<Object, String[]> topics = new ConcurrentHashMap<>();
+
 	private IEclipseContext context;
 
+	private final ThreadLocal<Batch> batch = new ThreadLocal<>();
+
+	/**
+	 * The events queued by the thread which started a batch. Events of single
+	 * valued attributes are keyed by their element and topic, so that later
+	 * changes replace the queued event.
+	 */
+	private static final class Batch {
+		int depth;
+		final Map<Object, Object[]> events = new LinkedHashMap<>();
+	}
+
+	/**
+	 * The key of a queued SET event.
+	 */
+	private static final class AttributeKey {
+		private final Object element;
+		private final String topic;
+
+		AttributeKey(Object element, String topic) {
+			this.element = element;
+			this.topic = topic;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AttributeKey)) {
+				return false;
+			}
+			AttributeKey other = (AttributeKey) obj;
+			return element == other.element && topic.equals(other.topic);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(element) * 31 + topic.hashCode();
+		}
+	}
+
 	/**
 	 * @param e4Context
 	 */
@@ -42,6 +101,40 @@ public class UIEventPublisher extends EContentAdapter {
 		this.context = e4Context;
 	}
 
+	/**
+	 * Starts queuing the model events of the current thread until the matching
+	 * call of {@link #endBatch()}. Batches may be nested, the events are sent
+	 * when the outermost batch ends. Callers must end the batch in a
+	 * <code>finally</code> block.
+	 */
+	public void beginBatch() {
+		Batch current = batch.get();
+		if (current == null) {
+			current = new Batch();
+			batch.set(current);
+		}
+		current.depth++;
+	}
+
+	/**
+	 * Ends a batch started with {@link #beginBatch()}. When the outermost batch
+	 * ends, the queued events are sent in the order of their last change.
+	 */
+	public void endBatch() {
+		Batch current = batch.get();
+		if (current == null) {
+			throw new IllegalStateException("No batch was started on this thread"); //$NON-NLS-1$
+		}
+		if (--current.depth > 0) {
+			return;
+		}
+		batch.remove();
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		for (Object[] event : current.events.values()) {
+			eventManager.send((String) event[0], event[1]);
+		}
+	}
+
 	@Override
 	public void notifyChanged(Notification notification) {
 		super.notifyChanged(notification);
@@ -50,17 +143,81 @@ public class UIEventPublisher extends EContentAdapter {
 		if (notification.isTouch())
 			return;
 
+		String topic = getTopic(notification);
+		if (topic == null)
+			return;
+
+		IEventBroker eventManager = context.get(IEventBroker.class);
+		if (eventManager instanceof EventBroker && !((EventBroker) eventManager).hasSubscribers(topic))
+			return;
+
 		// Format the EMF event as an E4 UIEvent
 		Map<String, Object> argMap = new HashMap<>();
 
-		String topic = formatData(notification, argMap);
+		topic = formatData(notification, argMap);
 
 		if (topic != null) {
-			IEventBroker eventManager = context.get(IEventBroker.class);
+			Batch current = batch.get();
+			if (current != null) {
+				queue(current, notification, topic, argMap);
+				return;
+			}
 			eventManager.send(topic, argMap);
 		}
 	}
 
+	private void queue(Batch current, Notification notification, String topic, Map<String, Object> argMap) {
+		if (!isSingleValuedAttributeChange(notification)) {
+			current.events.put(new Object(), new Object[] { topic, argMap });
+			return;
+		}
+		AttributeKey key = new AttributeKey(argMap.get(EventTags.ELEMENT), topic);
+		Object[] previous = current.events.remove(key);
+		if (previous != null) {
+			// keep the value from before the first change
+			@SuppressWarnings("unchecked")
+			Map<String, Object> previousArgs = (Map<String, Object>) previous[1];
+			Object oldValue = previousArgs.get(EventTags.OLD_VALUE);
+			if (Objects.equals(oldValue, argMap.get(EventTags.NEW_VALUE))) {
+				// the attribute was changed back
+				return;
+			}
+			if (oldValue == null) {
+				argMap.remove(EventTags.OLD_VALUE);
+			} else {
+				argMap.put(EventTags.OLD_VALUE, oldValue);
+			}
+		}
+		current.events.put(key, new Object[] { topic, argMap });
+	}
+
+	/**
+	 * Returns whether the notification is a SET of a single valued attribute
+	 * of an element. Changes of map entries and list positions are not merged
+	 * as they all share the topic of their feature.
+	 */
+	private static boolean isSingleValuedAttributeChange(Notification notification) {
+		return notification.getEventType() == Notification.SET
+				&& notification.getNotifier() instanceof MApplicationElement
+				&& !((EStructuralFeature) notification.getFeature()).isMany();
+	}
+
+	/**
+	 * Returns the topic of the event for the given notification, or
+	 * <code>null</code> if no event is sent for it.
+	 */
+	private String getTopic(Notification notification) {
+		Object notifier = notification.getNotifier();
+		if (notifier instanceof MApplicationElement) {
+			return getTopic((EStructuralFeature) notification.getFeature(), notification);
+		} else if (notifier instanceof StringToObjectMapImpl) {
+			return getTopic(UIEvents.ApplicationElement.TRANSIENTDATA, notification);
+		} else if (notifier instanceof StringToStringMapImpl) {
+			return getTopic(UIEvents.ApplicationElement.PERSISTEDSTATE, notification);
+		}
+		return null;
+	}
+
 	/**
 	 * Large hack here. Open to better suggestions
 	 *
@@ -115,7 +272,7 @@ public class UIEventPublisher extends EContentAdapter {
 			appElement = (MApplicationElement) notifier;
 			feature = (EStructuralFeature) notification.getFeature();
 			attributeName = feature.getName();
-			topic = getTopic(feature, getEventType(notification));
+			topic = getTopic(feature, notification);
 			switch (notification.getEventType()) {
 			case Notification.MOVE:
 				// for MOVE, oldValue is actually the source position
@@ -165,7 +322,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.TRANSIENTDATA;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getTopic(attributeName, notification);
 
 			// We need to send MapEntries for the old and new values.
 			oldValue = createMapEntry(key, notification.getOldValue());
@@ -188,7 +345,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.PERSISTEDSTATE;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getTopic(attributeName, notification);
 			oldValue = createMapEntry(key, notification.getOldValue());
 			newValue = createMapEntry(key, notification.getNewValue());
 		} else {
@@ -269,16 +426,40 @@ public class UIEventPublisher extends EContentAdapter {
 		};
 	}
 
-	private String getTopic(EStructuralFeature eFeature, String type) {
-		EClass eContainingClass = eFeature.getEContainingClass();
-		return UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
-				+ eContainingClass.getEPackage().getName() + UIEvents.TOPIC_SEP
-				+ eContainingClass.getName() + UIEvents.TOPIC_SEP + eFeature.getName()
-				+ UIEvents.TOPIC_SEP + type;
+	/**
+	 * Returns the topic for the given feature or attribute name and the type of
+	 * the notification. Topics are computed once per notification type.
+	 */
+	private String getTopic(Object feature, Notification notification) {
+		int eventType = notification.getEventType();
+		if (eventType < 0 || eventType >= EVENT_TYPE_COUNT) {
+			return createTopic(feature, getEventType(notification));
+		}
+		String[] featureTopics = topics.get(feature);
+		if (featureTopics == null) {
+			featureTopics = new String[EVENT_TYPE_COUNT];
+			String[] existing = topics.putIfAbsent(feature, featureTopics);
+			if (existing != null) {
+				featureTopics = existing;
+			}
+		}
+		String topic = featureTopics[eventType];
+		if (topic == null) {
+			topic = createTopic(feature, getEventType(notification));
+			featureTopics[eventType] = topic;
+		}
+		return topic;
 	}
 
-	private String getTopic(String attributeName, String type) {
-		String topicBase = "org/eclipse/e4/ui/model/application/ApplicationElement/"; //$NON-NLS-1$
-		return topicBase + attributeName + UIEvents.TOPIC_SEP + type;
+	private String createTopic(Object feature, String type) {
+		if (feature instanceof EStructuralFeature) {
+			EStructuralFeature eFeature = (EStructuralFeature) feature;
+			EClass eContainingClass = eFeature.getEContainingClass();
+			return UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
+					+ eContainingClass.getEPackage().getName() + UIEvents.TOPIC_SEP
+					+ eContainingClass.getName() + UIEvents.TOPIC_SEP + eFeature.getName()
+					+ UIEvents.TOPIC_SEP + type;
+		}
+		return APPLICATION_ELEMENT_TOPIC_BASE + feature + UIEvents.TOPIC_SEP + type;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,16 +32,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
+import org.eclipse.jface.internal.XMLStreamReaders;
 
 /**
  * Concrete implementation of a dialog settings (<code>IDialogSettings</code>)
@@ -255,27 +251,33 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public void load(Reader r) {
-        Document document = null;
-        try {
-            DocumentBuilder parser = DocumentBuilderFactory.newInstance()
-                    .newDocumentBuilder();
-            //		parser.setProcessNamespace(true);
-            document = parser.parse(new InputSource(r));
-
-            //Strip out any comments first
-            Node root = document.getFirstChild();
-            while (root.getNodeType() == Node.COMMENT_NODE) {
-                document.removeChild(root);
-                root = document.getFirstChild();
-            }
-            load(document, (Element) root);
-        } catch (ParserConfigurationException e) {
-            // ignore
-        } catch (IOException e) {
-            // ignore
-        } catch (SAXException e) {
-            // ignore
-        }
+		DialogSettings loaded = null;
+		try {
+			XMLStreamReader parser = XMLStreamReaders.create(r, null);
+			try {
+				// comments before the root are skipped
+				while (parser.hasNext()) {
+					// continue after the root to ignore the document if malformed
+					if (parser.next() == XMLStreamConstants.START_ELEMENT && loaded == null) {
+						loaded = readSection(parser);
+					}
+				}
+			} finally {
+				parser.close();
+			}
+		} catch (XMLStreamException e) {
+			// ignore
+			return;
+		} catch (FactoryConfigurationError e) {
+			// ignore
+			return;
+		}
+		if (loaded != null) {
+			name = loaded.name;
+			items.putAll(loaded.items);
+			arrayItems.putAll(loaded.arrayItems);
+			sections.putAll(loaded.sections);
+		}
     }
 
     @Override
@@ -287,46 +289,66 @@ public class DialogSettings implements IDialogSettings {
         reader.close();
     }
 
-    private void load(Document document, Element root) {
-        name = root.getAttribute(TAG_NAME);
-        NodeList l = root.getElementsByTagName(TAG_ITEM);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                String key = ((Element) l.item(i)).getAttribute(TAG_KEY);
-                String value = ((Element) l.item(i)).getAttribute(TAG_VALUE);
-                items.put(key, value);
-            }
-        }
-        l = root.getElementsByTagName(TAG_LIST);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                Element child = (Element) l.item(i);
-                String key = child.getAttribute(TAG_KEY);
-                NodeList list = child.getElementsByTagName(TAG_ITEM);
-                List<String> valueList = new ArrayList<>();
-                for (int j = 0; j < list.getLength(); j++) {
-                    Element node = (Element) list.item(j);
-                    if (child == node.getParentNode()) {
-                        valueList.add(node.getAttribute(TAG_VALUE));
-                    }
-                }
-                String[] value = new String[valueList.size()];
-                valueList.toArray(value);
-                arrayItems.put(key, value);
-            }
-        }
-        l = root.getElementsByTagName(TAG_SECTION);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                DialogSettings s = new DialogSettings("NoName");//$NON-NLS-1$
-                s.load(document, (Element) n);
-                addSection(s);
-            }
-        }
-    }
+	/**
+	 * Reads the section the parser is positioned on, up to its end tag, without
+	 * building a DOM document.
+	 */
+	private static DialogSettings readSection(XMLStreamReader parser) throws XMLStreamException {
+		DialogSettings section = new DialogSettings(getAttribute(parser, TAG_NAME));
+		while (parser.next() != XMLStreamConstants.END_ELEMENT) {
+			if (parser.getEventType() != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			String tag = parser.getLocalName();
+			if (TAG_ITEM.equals(tag)) {
+				section.items.put(getAttribute(parser, TAG_KEY), getAttribute(parser, TAG_VALUE));
+				skipElement(parser);
+			} else if (TAG_LIST.equals(tag)) {
+				String key = getAttribute(parser, TAG_KEY);
+				List<String> valueList = new ArrayList<>();
+				while (parser.next() != XMLStreamConstants.END_ELEMENT) {
+					if (parser.getEventType() == XMLStreamConstants.START_ELEMENT) {
+						if (TAG_ITEM.equals(parser.getLocalName())) {
+							valueList.add(getAttribute(parser, TAG_VALUE));
+						}
+						skipElement(parser);
+					}
+				}
+				String[] value = new String[valueList.size()];
+				valueList.toArray(value);
+				section.arrayItems.put(key, value);
+			} else if (TAG_SECTION.equals(tag)) {
+				section.addSection(readSection(parser));
+			} else {
+				skipElement(parser);
+			}
+		}
+		return section;
+	}
+
+	/**
+	 * Answers the value of the attribute of the current element, or an empty
+	 * string if it is not set, like a DOM element does.
+	 */
+	private static String getAttribute(XMLStreamReader parser, String attribute) {
+		String value = parser.getAttributeValue(null, attribute);
+		return value == null ? "" : value; //$NON-NLS-1$
+	}
+
+	/**
+	 * Skips the current element, up to its end tag.
+	 */
+	private static void skipElement(XMLStreamReader parser) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = parser.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
 
     @Override
 	public void put(String key, String[] value) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,12 @@
 package org.eclipse.jface.fieldassist;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
@@ -19,9 +25,11 @@ import org.eclipse.jface.bindings.keys.KeyStroke;
 import org.eclipse.jface.dialogs.PopupDialog;
 import org.eclipse.jface.preference.JFacePreferences;
 import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.util.Util;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.events.FocusAdapter;
 import org.eclipse.swt.events.FocusEvent;
 import org.eclipse.swt.events.SelectionEvent;
@@ -55,6 +63,11 @@ import org.eclipse.swt.widgets.Text;
  * <p>
  * This class provides some overridable methods to allow clients to manually
  * control the popup. However, most of the implementation remains private.
+ * <p>
+ * If the proposal provider is an {@link IContentProposalProvider2}, the
+ * proposals are computed in the background and shown as they are reported. A
+ * computation is canceled when the contents of the control change, the control
+ * loses focus or the popup closes.
  *
  * @since 3.2
  */
@@ -769,6 +782,44 @@ public class ContentProposalAdapter {
 			}
 		}
 
+		/*
+		 * Adds the specified proposals, once filtered, to the cached ones and
+		 * to the table. The selection is kept.
+		 */
+		private void addProposals(IContentProposal[] newProposals) {
+			IContentProposal[] added = filterProposals(newProposals, filterText);
+			if (added.length == 0) {
+				return;
+			}
+			int oldSize = proposals.length;
+			if (oldSize == 0) {
+				setProposals(added);
+				return;
+			}
+			IContentProposal[] merged = new IContentProposal[oldSize + added.length];
+			System.arraycopy(proposals, 0, merged, 0, oldSize);
+			System.arraycopy(added, 0, merged, oldSize, added.length);
+			this.proposals = merged;
+
+			if (isValid()) {
+				if (USE_VIRTUAL) {
+					// The new items are provided in the SWT.SetData
+					// event handler.
+					proposalTable.setItemCount(merged.length);
+				} else {
+					proposalTable.setRedraw(false);
+					proposalTable.setItemCount(merged.length);
+					for (int i = oldSize; i < merged.length; i++) {
+						TableItem item = proposalTable.getItem(i);
+						item.setText(getString(merged[i]));
+						item.setImage(getImage(merged[i]));
+						item.setData(merged[i]);
+					}
+					proposalTable.setRedraw(true);
+				}
+			}
+		}
+
 		/*
 		 * Get the string for the specified proposal. Always return a String of
 		 * some kind.
@@ -890,6 +941,7 @@ public class ContentProposalAdapter {
 		 */
 		@Override
 		public boolean close() {
+			cancelProposalComputation();
 			popupCloser.removeListeners();
 			if (infoPopup != null) {
 				infoPopup.close();
@@ -905,49 +957,39 @@ public class ContentProposalAdapter {
 		 */
 		private void showProposalDescription() {
 			// If we do not already have a pending update, then
-			// create a thread now that will show the proposal description
+			// schedule one now that will show the proposal description
 			if (!pendingDescriptionUpdate) {
-				// Create a thread that will sleep for the specified delay
-				// before creating the popup. We do not use Jobs since this
-				// code must be able to run independently of the Eclipse
-				// runtime.
-				Runnable runnable = () -> {
-					pendingDescriptionUpdate = true;
-					try {
-						Thread.sleep(POPUP_DELAY);
-					} catch (InterruptedException e) {
-					}
+				// Wait for the specified delay before creating the popup. We
+				// do not use Jobs since this code must be able to run
+				// independently of the Eclipse runtime.
+				pendingDescriptionUpdate = true;
+				getShell().getDisplay().timerExec(POPUP_DELAY, () -> {
+					pendingDescriptionUpdate = false;
 					if (!isValid()) {
 						return;
 					}
-					getShell().getDisplay().syncExec(() -> {
-						// Query the current selection since we have
-						// been delayed
-						IContentProposal p = getSelectedProposal();
-						if (p != null) {
-							String description = p.getDescription();
-							if (description != null) {
-								if (infoPopup == null) {
-									infoPopup = new InfoPopupDialog(
-											getShell());
-									infoPopup.open();
-									infoPopup
-											.getShell()
-											.addDisposeListener(
-													event -> infoPopup = null);
-								}
-								infoPopup.setContents(p
-										.getDescription());
-							} else if (infoPopup != null) {
-								infoPopup.close();
+					// Query the current selection since we have
+					// been delayed
+					IContentProposal p = getSelectedProposal();
+					if (p != null) {
+						String description = p.getDescription();
+						if (description != null) {
+							if (infoPopup == null) {
+								infoPopup = new InfoPopupDialog(
+										getShell());
+								infoPopup.open();
+								infoPopup
+										.getShell()
+										.addDisposeListener(
+												event -> infoPopup = null);
 							}
-							pendingDescriptionUpdate = false;
-
+							infoPopup.setContents(p
+									.getDescription());
+						} else if (infoPopup != null) {
+							infoPopup.close();
 						}
-					});
-				};
-				Thread t = new Thread(runnable);
-				t.start();
+					}
+				});
 			}
 		}
 
@@ -969,6 +1011,12 @@ public class ContentProposalAdapter {
 		 * caches. Repopulate the popup if it is open.
 		 */
 		private void recomputeProposals(String filterText) {
+			if (proposalProvider instanceof IContentProposalProvider2) {
+				// The proposals shown are replaced once the new ones are
+				// reported, see proposalsComputed
+				startProposalComputation(false);
+				return;
+			}
 			IContentProposal[] allProposals = getProposals();
 			if (allProposals == null)
 				 allProposals = getEmptyProposalArray();
@@ -1035,6 +1083,133 @@ public class ContentProposalAdapter {
 		}
 	}
 
+	/*
+	 * A computation of proposals by an IContentProposalProvider2, run by the
+	 * shared executor. The reported proposals are handed to the user interface
+	 * thread in batches, at most one pending at a time.
+	 */
+	private class ProposalComputation implements IContentProposalCollector, Runnable {
+
+		private final String contents;
+
+		private final int position;
+
+		private final boolean autoActivated;
+
+		private volatile boolean canceled;
+
+		// Guarded by this
+		private List<IContentProposal> reported = new ArrayList<>();
+
+		// Guarded by this
+		private boolean done;
+
+		// Guarded by this
+		private boolean updatePending;
+
+		// The number of proposals handed to the popup, accessed in the UI
+		// thread only
+		private int received;
+
+		ProposalComputation(String contents, int position, boolean autoActivated) {
+			this.contents = contents;
+			this.position = position;
+			this.autoActivated = autoActivated;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (!canceled) {
+					((IContentProposalProvider2) proposalProvider).computeProposals(contents, position, this);
+				}
+			} catch (RuntimeException e) {
+				Policy.logException(e);
+			} finally {
+				synchronized (this) {
+					done = true;
+				}
+				scheduleUpdate();
+			}
+		}
+
+		@Override
+		public void addProposals(IContentProposal[] proposals) {
+			if (canceled || proposals == null || proposals.length == 0) {
+				return;
+			}
+			synchronized (this) {
+				reported.addAll(Arrays.asList(proposals));
+			}
+			scheduleUpdate();
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+
+		void cancel() {
+			canceled = true;
+		}
+
+		private void scheduleUpdate() {
+			synchronized (this) {
+				if (canceled || updatePending) {
+					return;
+				}
+				updatePending = true;
+			}
+			if (control.isDisposed()) {
+				return;
+			}
+			try {
+				control.getDisplay().asyncExec(this::update);
+			} catch (SWTException e) {
+				// The display has been disposed in the meantime
+			}
+		}
+
+		/*
+		 * Return whether the contents and cursor position of the control are
+		 * still those the proposals are computed for.
+		 */
+		private boolean matchesControl() {
+			IControlContentAdapter adapter = getControlContentAdapter();
+			return adapter.getCursorPosition(control) == position
+					&& contents.equals(adapter.getControlContents(control));
+		}
+
+		/*
+		 * Hand the proposals reported since the last update to the adapter.
+		 * Runs in the user interface thread.
+		 */
+		private void update() {
+			IContentProposal[] proposals;
+			boolean finished;
+			synchronized (this) {
+				updatePending = false;
+				proposals = reported.toArray(new IContentProposal[reported.size()]);
+				reported.clear();
+				finished = done;
+			}
+			if (canceled || computation != this || !isValid()) {
+				return;
+			}
+			if (popup == null && !matchesControl()) {
+				// The control changed before the popup could be opened
+				cancelProposalComputation();
+				return;
+			}
+			if (finished) {
+				computation = null;
+			}
+			boolean first = received == 0;
+			received += proposals.length;
+			proposalsComputed(proposals, first, finished && received == 0, autoActivated);
+		}
+	}
+
 	/**
 	 * Flag that controls the printing of debug info.
 	 */
@@ -1119,6 +1294,12 @@ public class ContentProposalAdapter {
 	 */
 	private static final String EMPTY = ""; //$NON-NLS-1$
 
+	/*
+	 * The executor shared by all of the adapters to compute proposals in the
+	 * background. Created when first needed.
+	 */
+	private static ExecutorService proposalExecutor;
+
 	/*
 	 * The object that provides content proposals.
 	 */
@@ -1232,6 +1413,21 @@ public class ContentProposalAdapter {
 	 */
 	private boolean watchModify = false;
 
+	/*
+	 * The computation of proposals running in the background, if any.
+	 */
+	private ProposalComputation computation;
+
+	/*
+	 * Opens the popup once the autoactivation delay has elapsed. Scheduling it
+	 * again restarts the delay.
+	 */
+	private final Runnable delayedAutoActivation = () -> {
+		if (isValid() && !receivedKeyDown) {
+			openProposalPopup(true);
+		}
+	};
+
 	/**
 	 * Construct a content proposal adapter that can assist the user with
 	 * choosing content for the field.
@@ -1696,6 +1892,12 @@ public class ContentProposalAdapter {
 						return;
 					}
 
+					// Escape abandons the proposals requested before the popup
+					// opened
+					if (e.character == SWT.ESC) {
+						cancelProposalComputation();
+					}
+
 					// We were only listening to traverse events for the popup
 					if (e.type == SWT.Traverse) {
 						return;
@@ -1765,6 +1967,11 @@ public class ContentProposalAdapter {
 					// the content change was caused by something other than typing.
 					// See https://bugs.eclipse.org/bugs/show_bug.cgi?id=183650
 					case SWT.Modify:
+						// Proposals requested before the popup opened no longer
+						// match the contents
+						if (popup == null) {
+							cancelProposalComputation();
+						}
 						if (allowsAutoActivate() && watchModify) {
 							if (DEBUG) {
 								dump("Modify event triggers popup open or close", e); //$NON-NLS-1$
@@ -1796,6 +2003,13 @@ public class ContentProposalAdapter {
 							}
 						}
 						break;
+
+				case SWT.FocusOut:
+					// Once the popup is open, it closes itself on focus loss
+					if (popup == null) {
+						cancelProposalComputation();
+					}
+					break;
 				default:
 					break;
 				}
@@ -1829,6 +2043,7 @@ public class ContentProposalAdapter {
 		control.addListener(SWT.KeyDown, controlListener);
 		control.addListener(SWT.Traverse, controlListener);
 		control.addListener(SWT.Modify, controlListener);
+		control.addListener(SWT.FocusOut, controlListener);
 
 		if (DEBUG) {
 			System.out
@@ -1848,7 +2063,11 @@ public class ContentProposalAdapter {
 	 */
 	private void openProposalPopup(boolean autoActivated) {
 		if (isValid()) {
-			if (popup == null) {
+			if (popup == null && proposalProvider instanceof IContentProposalProvider2) {
+				// The popup is opened once proposals are reported
+				recordCursorPosition();
+				startProposalComputation(autoActivated);
+			} else if (popup == null) {
 				// Check whether there are any proposals to be shown.
 				recordCursorPosition(); // must be done before getting proposals
 				IContentProposal[] proposals = getProposals();
@@ -2007,25 +2226,107 @@ public class ContentProposalAdapter {
 		return proposals;
 	}
 
+	/*
+	 * Start computing the proposals in the background, canceling any
+	 * computation in progress.
+	 */
+	private void startProposalComputation(boolean autoActivated) {
+		cancelProposalComputation();
+		if (proposalProvider == null || !isValid()) {
+			return;
+		}
+		if (DEBUG) {
+			System.out.println(">>> computing proposals in the background"); //$NON-NLS-1$
+		}
+		int position = insertionPos;
+		if (position == -1) {
+			position = getControlContentAdapter().getCursorPosition(
+					getControl());
+		}
+		String contents = getControlContentAdapter().getControlContents(
+				getControl());
+		computation = new ProposalComputation(contents, position, autoActivated);
+		getProposalExecutor().execute(computation);
+	}
+
+	/*
+	 * Cancel the computation of proposals in progress, if any.
+	 */
+	private void cancelProposalComputation() {
+		if (computation != null) {
+			computation.cancel();
+			computation = null;
+		}
+	}
+
+	/*
+	 * Proposals have been computed in the background. Open the popup to show
+	 * them, or update the open popup.
+	 *
+	 * @param proposals the proposals reported since the last call
+	 *
+	 * @param first whether these are the first proposals of the computation
+	 *
+	 * @param none whether the computation is complete without any proposal
+	 *
+	 * @param autoActivated whether the popup was autoactivated
+	 */
+	private void proposalsComputed(IContentProposal[] proposals, boolean first,
+			boolean none, boolean autoActivated) {
+		if (popup == null) {
+			if (proposals.length > 0) {
+				if (DEBUG) {
+					System.out.println("POPUP OPENED BY COMPUTED PROPOSALS"); //$NON-NLS-1$
+				}
+				// The cursor position was recorded when the proposals were
+				// requested
+				popup = new ContentProposalPopup(null, proposals);
+				popup.open();
+				popup.getShell().addDisposeListener(event -> popup = null);
+				internalPopupOpened();
+				notifyPopupOpened();
+			} else if (none && !autoActivated) {
+				getControl().getDisplay().beep();
+			}
+		} else if (none) {
+			// See https://bugs.eclipse.org/bugs/show_bug.cgi?id=147377
+			popup.proposals = proposals;
+			popup.close();
+		} else if (first) {
+			// Replace the proposals computed for the previous contents
+			popup.setProposals(popup.filterProposals(proposals, popup.filterText));
+		} else {
+			popup.addProposals(proposals);
+		}
+	}
+
+	/*
+	 * Return the executor used to compute proposals in the background.
+	 */
+	private static synchronized ExecutorService getProposalExecutor() {
+		if (proposalExecutor == null) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 10,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "Content Proposal Computation"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			proposalExecutor = executor;
+		}
+		return proposalExecutor;
+	}
+
 	/**
 	 * Autoactivation has been triggered. Open the popup using any specified
 	 * delay.
 	 */
 	private void autoActivate() {
 		if (autoActivationDelay > 0) {
-			Runnable runnable = () -> {
-				receivedKeyDown = false;
-				try {
-					Thread.sleep(autoActivationDelay);
-				} catch (InterruptedException e) {
-				}
-				if (!isValid() || receivedKeyDown) {
-					return;
-				}
-				getControl().getDisplay().syncExec(() -> openProposalPopup(true));
-			};
-			Thread t = new Thread(runnable);
-			t.start();
+			// A keystroke received in the meantime interrupts the
+			// autoactivation.
+			receivedKeyDown = false;
+			getControl().getDisplay().timerExec(autoActivationDelay, delayedAutoActivation);
 		} else {
 			// Since we do not sleep, we must open the popup
 			// in an async exec. This is necessary because
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.fieldassist;
+
+/**
+ * IContentProposalCollector receives the proposals computed in the background
+ * by an {@link IContentProposalProvider2}. Its methods may be called from any
+ * thread.
+ *
+ * @since 3.13
+ * @noimplement This interface is not intended to be implemented by clients.
+ */
+public interface IContentProposalCollector {
+
+	/**
+	 * Report proposals for the field. The proposals are added to the ones
+	 * already reported. Proposals reported after the collector has been
+	 * canceled are ignored.
+	 *
+	 * @param proposals
+	 *            the array of {@link IContentProposal} that represent valid
+	 *            proposals for the field
+	 */
+	void addProposals(IContentProposal[] proposals);
+
+	/**
+	 * Return whether the proposals are no longer needed, because the contents
+	 * of the field have changed or the popup has been closed.
+	 *
+	 * @return <code>true</code> if the computation should stop, and
+	 *         <code>false</code> otherwise
+	 */
+	boolean isCanceled();
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.fieldassist;
+
+/**
+ * Extends {@link IContentProposalProvider} with the ability to compute the
+ * proposals in the background. A {@link ContentProposalAdapter} using such a
+ * provider does not block the user interface while the proposals are computed,
+ * and shows them in the popup as they are reported.
+ *
+ * @since 3.13
+ *
+ * @see IContentProposalCollector
+ */
+public interface IContentProposalProvider2 extends IContentProposalProvider {
+
+	/**
+	 * Compute the content proposals representing the valid proposals for a
+	 * field, and report them to the collector. The proposals may be reported
+	 * in several batches; the computation is complete when this method
+	 * returns.
+	 * <p>
+	 * This method is called in a background thread and must not access the
+	 * widgets. It should stop as soon as the collector is canceled, which
+	 * happens when the contents of the field change or the popup is closed.
+	 * </p>
+	 *
+	 * @param contents
+	 *            the contents of the text field
+	 * @param position
+	 *            the position of the cursor in the contents
+	 * @param collector
+	 *            the collector to report the proposals to
+	 */
+	void computeProposals(String contents, int position, IContentProposalCollector collector);
+}
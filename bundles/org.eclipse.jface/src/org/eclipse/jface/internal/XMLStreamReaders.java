@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.io.Reader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Creates the StAX readers of dialog settings and mementos.
+ * <p>
+ * Looking the {@link XMLInputFactory} up is expensive, so a single factory is
+ * created on first use and shared. The readers are not namespace aware and do
+ * not coalesce text, so that names are read like the DOM parser reads them.
+ * Implementations which do not support these properties are used with their
+ * defaults.
+ * </p>
+ */
+public final class XMLStreamReaders {
+
+	private static XMLInputFactory inputFactory;
+
+	private XMLStreamReaders() {
+		// not to be instantiated
+	}
+
+	/**
+	 * Creates a reader of the given document.
+	 *
+	 * @param reader
+	 *            the document to read
+	 * @param systemId
+	 *            the system id of the document, or <code>null</code>
+	 * @return the reader
+	 * @throws XMLStreamException
+	 *             if the reader cannot be created
+	 */
+	public static XMLStreamReader create(Reader reader, String systemId) throws XMLStreamException {
+		XMLInputFactory factory = getInputFactory();
+		// factories are not specified to be thread safe
+		synchronized (factory) {
+			return systemId == null ? factory.createXMLStreamReader(reader)
+					: factory.createXMLStreamReader(systemId, reader);
+		}
+	}
+
+	private static synchronized XMLInputFactory getInputFactory() {
+		if (inputFactory == null) {
+			XMLInputFactory factory = XMLInputFactory.newFactory();
+			setProperty(factory, XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+			setProperty(factory, XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+			inputFactory = factory;
+		}
+		return inputFactory;
+	}
+
+	private static void setProperty(XMLInputFactory factory, String name, Object value) {
+		try {
+			factory.setProperty(name, value);
+		} catch (IllegalArgumentException e) {
+			// not supported by this implementation, keep its default
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -100,6 +100,15 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isExpandableCheckFilters = false;
 
+	/**
+	 * The number of child items which are created for a parent before the
+	 * remaining children are put into an {@link ExpandableNode}. A value of 0
+	 * means that the number of child items is not limited.
+	 *
+	 * @see #setItemsLimit
+	 */
+	private int itemsLimit = 0;
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -267,6 +276,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 		}
 
+		// keep the items limit by updating the items of all children
+		if (itemsLimit > 0 && childElements.length > 0
+				&& (getExpandableNodeItem(widget) != null
+						|| getChildren(widget).length + childElements.length > itemsLimit)) {
+			updateChildren(widget, parent, null, false);
+			return;
+		}
+
 		if (childElements.length > 0) {
 			// TODO: Add filtering back?
 			Object[] filtered = filter(parentElementOrTreePath, childElements);
@@ -816,9 +833,14 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 					} else {
 						children = getSortedChildren(parentElement);
 					}
-					for (int i2 = 0; i2 < children.length; i2++) {
+					int count = getShownChildCount(children.length, 0);
+					for (int i2 = 0; i2 < count; i2++) {
 						createTreeItem(widget, children[i2], -1);
 					}
+					if (count < children.length) {
+						createExpandableNodeItem(widget,
+								new ExpandableNode(children, count, itemsLimit));
+					}
 				}
 			});
 		} finally {
@@ -844,12 +866,141 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		updatePlus(item, element);
 	}
 
+	/**
+	 * Returns the number of children of a parent which get an item.
+	 *
+	 * @param childCount
+	 *            the number of sorted and filtered children
+	 * @param shownCount
+	 *            the number of children which had an item before, so that a
+	 *            refresh keeps the pages the user has already opened
+	 * @return the number of children to create items for
+	 */
+	private int getShownChildCount(int childCount, int shownCount) {
+		if (itemsLimit <= 0) {
+			return childCount;
+		}
+		return Math.min(childCount, Math.max(itemsLimit, shownCount));
+	}
+
+	/**
+	 * Appends the placeholder item for the children hidden behind the given
+	 * node. The node is not mapped and not passed to the label provider.
+	 *
+	 * @param parent
+	 *            the parent widget
+	 * @param node
+	 *            the expandable node
+	 */
+	private void createExpandableNodeItem(Widget parent, ExpandableNode node) {
+		Item item = newItem(parent, SWT.NULL, -1);
+		item.setData(node);
+		item.setText(node.getLabel());
+	}
+
+	/**
+	 * Returns the placeholder item of the given parent widget, or
+	 * <code>null</code> if all children of the parent have an item.
+	 *
+	 * @param widget
+	 *            the parent widget
+	 * @return the item of the expandable node, or <code>null</code>
+	 */
+	private Item getExpandableNodeItem(Widget widget) {
+		Item[] items = getChildren(widget);
+		if (items != null && items.length > 0
+				&& items[items.length - 1].getData() instanceof ExpandableNode) {
+			return items[items.length - 1];
+		}
+		return null;
+	}
+
+	/**
+	 * Replaces the given placeholder item by items for the next pages of the
+	 * children hidden behind its node, at least up to the child at the given
+	 * index.
+	 *
+	 * @param nodeItem
+	 *            the item of the expandable node
+	 * @param index
+	 *            the index of the child which must get an item
+	 * @return the first item created
+	 */
+	private Item expandExpandableNode(Item nodeItem, int index) {
+		ExpandableNode node = (ExpandableNode) nodeItem.getData();
+		Object[] children = node.getAllElements();
+		int offset = node.getOffset();
+		int end = offset + node.getLimit();
+		while (end <= index) {
+			end += node.getLimit();
+		}
+		end = Math.min(end, children.length);
+		Item parentItem = getParentItem(nodeItem);
+		Widget parent = parentItem != null ? parentItem : getControl();
+		int firstIndex = getChildren(parent).length - 1;
+		nodeItem.setData(null);
+		nodeItem.dispose();
+		for (int i = offset; i < end; i++) {
+			createTreeItem(parent, children[i], -1);
+		}
+		if (end < children.length) {
+			createExpandableNodeItem(parent,
+					new ExpandableNode(children, end, node.getLimit()));
+		}
+		return getChildren(parent)[firstIndex];
+	}
+
+	/**
+	 * Removes the given elements from the children hidden behind the
+	 * expandable node of the given parent widget, if it has one.
+	 *
+	 * @param widget
+	 *            the parent widget
+	 * @param toRemove
+	 *            the elements to remove
+	 */
+	private void removeHiddenChildren(Widget widget, CustomHashtable toRemove) {
+		Item nodeItem = getExpandableNodeItem(widget);
+		if (nodeItem == null) {
+			return;
+		}
+		ExpandableNode node = (ExpandableNode) nodeItem.getData();
+		Object[] children = node.getAllElements();
+		// the shown children are taken from the items, which may have been
+		// removed as well
+		Item[] items = getChildren(widget);
+		int shownCount = items.length - 1;
+		ArrayList newChildren = new ArrayList(shownCount + children.length - node.getOffset());
+		for (int i = 0; i < shownCount; i++) {
+			newChildren.add(items[i].getData());
+		}
+		for (int i = node.getOffset(); i < children.length; i++) {
+			if (!toRemove.containsKey(children[i])) {
+				newChildren.add(children[i]);
+			}
+		}
+		if (newChildren.size() == shownCount) {
+			nodeItem.setData(null);
+			nodeItem.dispose();
+		} else {
+			ExpandableNode newNode = new ExpandableNode(newChildren.toArray(),
+					shownCount, node.getLimit());
+			nodeItem.setData(newNode);
+			nodeItem.setText(newNode.getLabel());
+		}
+	}
+
 	/**
 	 * The <code>AbstractTreeViewer</code> implementation of this method also
 	 * recurses over children of the corresponding element.
 	 */
 	@Override
 	protected void disassociate(Item item) {
+		if (item.getData() instanceof ExpandableNode) {
+			// expandable nodes are never mapped
+			item.setData(null);
+			return;
+		}
 		super.disassociate(item);
 		// recursively unmapping the items is only required when
 		// the hash map is used. In the other case disposing
@@ -995,6 +1146,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		// If there is a mismatch return false
 		for (int i = 0; i < current.length; i++) {
 			if (current[i].getData() == null
+					|| current[i].getData() instanceof ExpandableNode
 					|| !itemSet.containsKey(current[i].getData())) {
 				return false;
 			}
@@ -1429,7 +1581,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		for (int i = 0; i < items.length; i++) {
 			Widget item = items[i];
 			Object e = item.getData();
-			if (e != null) {
+			if (e != null && !(e instanceof ExpandableNode)) {
 				list.add(e);
 			}
 		}
@@ -1445,6 +1597,11 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		// handle case where an earlier selection listener disposed the control.
 		Control control = getControl();
 		if (control != null && !control.isDisposed()) {
+			if (event.item != null
+					&& event.item.getData() instanceof ExpandableNode) {
+				// the node was already expanded by the first click
+				return;
+			}
 			// If the double-clicked element can be obtained from the event, use
 			// it
 			// otherwise get it from the control. Some controls like List do
@@ -1467,6 +1624,27 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * The <code>AbstractTreeViewer</code> implementation of this method
+	 * replaces a selected {@link ExpandableNode} by the next page of the
+	 * children hidden behind it and selects the first of them.
+	 */
+	@Override
+	protected void handleSelect(SelectionEvent event) {
+		Control control = getControl();
+		if (control != null && !control.isDisposed() && event.item != null
+				&& event.item.getData() instanceof ExpandableNode) {
+			Item nodeItem = (Item) event.item;
+			int offset = ((ExpandableNode) nodeItem.getData()).getOffset();
+			Item first = expandExpandableNode(nodeItem, offset);
+			// the disposed item is no longer part of the widget selection
+			List selection = new ArrayList(Arrays.asList(getSelection(control)));
+			selection.add(first);
+			setSelection(selection);
+		}
+		super.handleSelect(event);
+	}
+
 	/**
 	 * Handles a tree collapse event from the SWT widget.
 	 *
@@ -1785,10 +1963,22 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		for (int i = 0; i < items.length; i++) {
 			Item item = items[i];
 			Object data = item.getData();
-			if (data != null && equals(data, element)) {
+			if (data != null && !(data instanceof ExpandableNode)
+					&& equals(data, element)) {
 				return item;
 			}
 		}
+		// the element may be hidden behind the expandable node
+		if (items.length > 0) {
+			Item last = items[items.length - 1];
+			if (last.getData() instanceof ExpandableNode) {
+				int index = ((ExpandableNode) last.getData()).indexOf(this, element);
+				if (index >= 0) {
+					expandExpandableNode(last, index);
+					return internalFindChild(parent, element);
+				}
+			}
+		}
 		return null;
 	}
 
@@ -1805,6 +1995,9 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 		// compare with node
 		Object data = parent.getData();
+		if (data instanceof ExpandableNode) {
+			return null;
+		}
 		if (data != null) {
 			if (equals(data, element)) {
 				return parent;
@@ -1888,7 +2081,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 				for (int i = 0; i < children.length; i++) {
 					Widget item = children[i];
 					Object data = item.getData();
-					if (data != null) {
+					if (data != null && !(data instanceof ExpandableNode)) {
 						internalRefresh(item, data, doStruct, updateLabels);
 					}
 				}
@@ -1912,7 +2105,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			for (int i = 0; i < children.length; i++) {
 				Widget item = children[i];
 				Object data = item.getData();
-				if (data != null) {
+				if (data != null && !(data instanceof ExpandableNode)) {
 					internalRefreshStruct(item, data, updateLabels);
 				}
 			}
@@ -1952,6 +2145,16 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			} else {
 				// see https://bugs.eclipse.org/bugs/show_bug.cgi?id=210747
 				Object parent = getParentElement(element);
+				if (itemsLimit > 0) {
+					// the element may be hidden behind an expandable node
+					CustomHashtable toRemove = newHashtable(3);
+					toRemove.put(internalToElement(element), element);
+					Widget[] parentWidgets = parent == null || internalIsInputOrEmptyPath(parent)
+							? new Widget[] { getControl() } : internalFindItems(parent);
+					for (int j = 0; j < parentWidgets.length; j++) {
+						removeHiddenChildren(parentWidgets[j], toRemove);
+					}
+				}
 				if (parent != null
 						&& !equals(parent, getRoot())
 						&& !(parent instanceof TreePath && ((TreePath) parent)
@@ -2006,11 +2209,13 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 					Item child = children[j];
 
 					Object data = child.getData();
-					if (data != null && toRemove.containsKey(data)) {
+					if (data != null && !(data instanceof ExpandableNode)
+							&& toRemove.containsKey(data)) {
 						disassociate(child);
 						child.dispose();
 					}
 				}
+				removeHiddenChildren(parentItem, toRemove);
 			}
 		}
 	}
@@ -2031,7 +2236,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		for (int i = 0; i < items.length; i++) {
 			Item item = items[i];
 			Object data = item.getData();
-			if (data != null) {
+			if (data != null && !(data instanceof ExpandableNode)) {
 				// remove the element to avoid an infinite loop
 				// if the same element appears on a child item
 				boolean expanded = expandedElements.remove(data) != null;
@@ -2065,6 +2270,9 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		for (int i = 0; i < items.length; i++) {
 			Item item = items[i];
 			Object data = item.getData();
+			if (data instanceof ExpandableNode) {
+				continue;
+			}
 			TreePath childPath = data == null ? null : currentPath
 					.createChildPath(data);
 			if (data != null && childPath != null) {
@@ -2151,6 +2359,9 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 * @return whether the given element is expandable
 	 */
 	private boolean isExpandable(Item item, TreePath parentPath, Object element) {
+		if (element instanceof ExpandableNode) {
+			return false;
+		}
 		Object elementOrTreePath = element;
 		if (isTreePathContentProvider()) {
 			if (parentPath != null) {
@@ -2634,6 +2845,22 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 		}
 
+		// Remove the expandable node first and update only the children which
+		// get an item. The pages opened before are kept.
+		ExpandableNode expandableNode = null;
+		Item nodeItem = getExpandableNodeItem(widget);
+		int shownCount = 0;
+		if (nodeItem != null) {
+			shownCount = ((ExpandableNode) nodeItem.getData()).getOffset();
+			nodeItem.setData(null);
+			nodeItem.dispose();
+		}
+		int count = getShownChildCount(elementChildren.length, shownCount);
+		if (count < elementChildren.length) {
+			expandableNode = new ExpandableNode(elementChildren, count, itemsLimit);
+			elementChildren = Arrays.copyOf(elementChildren, count);
+		}
+
 		Control tree = getControl();
 
 		// WORKAROUND
@@ -2781,6 +3008,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 			}
 		}
 
+		if (expandableNode != null) {
+			createExpandableNodeItem(widget, expandableNode);
+		}
+
 		// WORKAROUND
 		if (widget == tree && oldCnt == 0 && getItemCount(tree) != 0) {
 			// System.out.println("WORKAROUND setRedraw");
@@ -2950,7 +3181,8 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		ArrayList list = new ArrayList(items.length);
 		for (int i = 0; i < items.length; i++) {
 			Widget item = items[i];
-			if (item.getData() != null) {
+			Object data = item.getData();
+			if (data != null && !(data instanceof ExpandableNode)) {
 				list.add(getTreePathFromItem((Item) item));
 			}
 		}
@@ -3211,4 +3443,50 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Sets the maximum number of child items which are created for a parent
+	 * when it is expanded. The remaining sorted and filtered children are
+	 * represented by a single placeholder item whose data is an
+	 * {@link ExpandableNode}. Selecting the placeholder item replaces it by the
+	 * next <code>limit</code> children, followed by a new placeholder item if
+	 * there are more.
+	 * <p>
+	 * Hidden children are created as needed by {@link #reveal(Object)},
+	 * {@link #setSelection(ISelection, boolean)},
+	 * {@link #setExpandedElements(Object[])} and when the selection is
+	 * preserved during a refresh. A refresh keeps the pages opened before.
+	 * </p>
+	 * <p>
+	 * The limit is ignored by viewers with an {@link ILazyTreeContentProvider}.
+	 * </p>
+	 *
+	 * @param limit
+	 *            the maximum number of child items per parent, or 0 to create
+	 *            items for all children
+	 * @see #getItemsLimit()
+	 * @since 3.13
+	 */
+	public void setItemsLimit(int limit) {
+		Assert.isTrue(limit >= 0, "Items limit must not be negative"); //$NON-NLS-1$
+		if (limit != itemsLimit) {
+			this.itemsLimit = limit;
+			if (getInput() != null) {
+				refresh();
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximum number of child items which are created for a
+	 * parent.
+	 *
+	 * @return the items limit, or 0 if the number of child items is not
+	 *         limited
+	 * @see #setItemsLimit(int)
+	 * @since 3.13
+	 */
+	public int getItemsLimit() {
+		return itemsLimit;
+	}
+
 }
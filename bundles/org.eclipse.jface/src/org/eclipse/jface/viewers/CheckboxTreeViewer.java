@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -139,7 +139,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
             Item item = items[i];
             if (item instanceof TreeItem) {
                 Object data = item.getData();
-                if (data != null) {
+                if (data != null && !(data instanceof ExpandableNode)) {
                     TreeItem ti = (TreeItem) item;
                     ti.setChecked(checked.containsKey(data));
                     ti.setGrayed(grayed.containsKey(data));
@@ -184,7 +184,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
             Item item = items[i];
             if (item instanceof TreeItem) {
                 Object data = item.getData();
-                if (data != null) {
+                if (data != null && !(data instanceof ExpandableNode)) {
                     TreeItem ti = (TreeItem) item;
                     if (ti.getChecked()) {
 						checked.put(data, data);
@@ -283,7 +283,10 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
 	protected void handleSelect(SelectionEvent event) {
 
         lastClickedItem = null;
-        if (event.detail == SWT.CHECK) {
+        if (event.item != null && event.item.getData() instanceof ExpandableNode) {
+            // the placeholder is replaced by the hidden children, it has no check state
+            super.handleSelect(event);
+        } else if (event.detail == SWT.CHECK) {
             TreeItem item = (TreeItem) event.item;
             lastClickedItem = item;
             super.handleSelect(event);
@@ -311,7 +314,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
             Item item = items[i];
             if (item instanceof TreeItem && ((TreeItem) item).getChecked()) {
                 Object data = item.getData();
-                if (data != null) {
+                if (data != null && !(data instanceof ExpandableNode)) {
 					result.add(data);
 				}
             }
@@ -332,7 +335,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
             Item item = items[i];
             if (item instanceof TreeItem && ((TreeItem) item).getGrayed()) {
                 Object data = item.getData();
-                if (data != null) {
+                if (data != null && !(data instanceof ExpandableNode)) {
 					result.add(data);
 				}
             }
@@ -352,7 +355,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         for (int i = 0; i < items.length; i++) {
             TreeItem item = (TreeItem) items[i];
             Object data = item.getData();
-            if (data != null) {
+            if (data != null && !(data instanceof ExpandableNode)) {
                 boolean checked = checkedElements.containsKey(data);
                 if (checked != item.getChecked()) {
                     item.setChecked(checked);
@@ -373,7 +376,7 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         for (int i = 0; i < items.length; i++) {
             TreeItem item = (TreeItem) items[i];
             Object data = item.getData();
-            if (data != null) {
+            if (data != null && !(data instanceof ExpandableNode)) {
                 boolean grayed = grayedElements.containsKey(data);
                 if (grayed != item.getGrayed()) {
                     item.setGrayed(grayed);
@@ -441,7 +444,8 @@ public class CheckboxTreeViewer extends TreeViewer implements ICheckable {
         if (items != null) {
             for (int i = 0; i < items.length; i++) {
                 Item it = items[i];
-                if (it.getData() != null && (it instanceof TreeItem)) {
+                if (it.getData() != null && !(it.getData() instanceof ExpandableNode)
+                        && (it instanceof TreeItem)) {
                     TreeItem treeItem = (TreeItem) it;
                     treeItem.setChecked(state);
                     setCheckedChildren(treeItem, state);
@@ -159,8 +159,7 @@ public abstract class ColumnViewerEditor {
 		ViewerColumn part = viewer.getViewerColumn(cell.getColumnIndex());
 		Object element = cell.getElement();
 
-		if (part != null && part.getEditingSupport() != null
-				&& part.getEditingSupport().canEdit(element)) {
+		if (part != null && canEdit(part.getEditingSupport(), element)) {
 			cellEditor = part.getEditingSupport().getCellEditor(element);
 			if (cellEditor != null) {
 				int timeout = cellEditor.getDoubleClickTimeout();
@@ -555,9 +554,7 @@ public abstract class ColumnViewerEditor {
 		if (newRow != null) {
 			ViewerColumn column = viewer.getViewerColumn(columnIndex);
 			if (column != null
-					&& column.getEditingSupport() != null
-					&& column.getEditingSupport().canEdit(
-							newRow.getItem().getData())) {
+					&& canEdit(column.getEditingSupport(), newRow.getItem().getData())) {
 				rv = newRow.getCell(columnIndex);
 			} else {
 				rv = searchCellAboveBelow(newRow, viewer, columnIndex, above);
@@ -569,8 +566,16 @@ public abstract class ColumnViewerEditor {
 
 	private boolean isCellEditable(ColumnViewer viewer, ViewerCell cell) {
 		ViewerColumn column = viewer.getViewerColumn(cell.getColumnIndex());
-		return column != null && column.getEditingSupport() != null
-				&& column.getEditingSupport().canEdit(cell.getElement());
+		return column != null && canEdit(column.getEditingSupport(), cell.getElement());
+	}
+
+	/**
+	 * Returns whether the element can be edited. The placeholder items of a
+	 * tree viewer with an items limit are never edited.
+	 */
+	private static boolean canEdit(EditingSupport editingSupport, Object element) {
+		return editingSupport != null && !(element instanceof ExpandableNode)
+				&& editingSupport.canEdit(element);
 	}
 
 	private ViewerCell searchPreviousCell(ViewerRow row,
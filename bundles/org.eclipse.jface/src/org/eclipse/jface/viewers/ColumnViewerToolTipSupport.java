@@ -147,6 +147,10 @@ public class ColumnViewerToolTipSupport extends DefaultToolTip {
 		if (row != null) {
 			Object element = row.getItem().getData();
 
+			if (element instanceof ExpandableNode) {
+				return false;
+			}
+
 			ViewerCell cell = row.getCell(point);
 
 			if( cell == null ) {
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.resource.JFaceResources;
+
+/**
+ * The data of the placeholder item which an {@link AbstractTreeViewer} with an
+ * items limit shows after the last child item it created for a parent. The
+ * node holds the sorted and filtered children of the parent which do not have
+ * an item yet. Activating the placeholder item creates items for the next
+ * {@link #getLimit()} of them.
+ * <p>
+ * Expandable nodes are not elements of the viewer: they are neither passed to
+ * the content provider, label provider, filters or comparator, nor part of the
+ * viewer's selection. The viewer does not pass them to owner draw label
+ * providers, tool tip support, editing support or
+ * {@link ViewerDropAdapter#determineTarget(org.eclipse.swt.dnd.DropTargetEvent)}
+ * either. Clients reading the data of the viewer's items directly, for example
+ * in their own SWT listeners, must expect to find them.
+ * </p>
+ *
+ * @see AbstractTreeViewer#setItemsLimit(int)
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @since 3.13
+ */
+public final class ExpandableNode {
+
+	private final Object[] children;
+
+	private final int offset;
+
+	private final int limit;
+
+	/**
+	 * Creates a node for the children starting at the given offset.
+	 *
+	 * @param children
+	 *            all sorted and filtered children of the parent
+	 * @param offset
+	 *            the number of children which have an item
+	 * @param limit
+	 *            the number of children to add when the node is activated
+	 */
+	ExpandableNode(Object[] children, int offset, int limit) {
+		this.children = children;
+		this.offset = offset;
+		this.limit = limit;
+	}
+
+	/**
+	 * Returns the children of the parent which already have an item.
+	 *
+	 * @return the children shown before this node
+	 */
+	public Object[] getAddedElements() {
+		return Arrays.copyOf(children, offset);
+	}
+
+	/**
+	 * Returns the children of the parent which are not shown yet.
+	 *
+	 * @return the children hidden behind this node
+	 */
+	public Object[] getRemainingElements() {
+		return Arrays.copyOfRange(children, offset, children.length);
+	}
+
+	/**
+	 * Returns the number of children of the parent which already have an item.
+	 *
+	 * @return the index of the first child hidden behind this node
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns the number of children which are added when this node is
+	 * activated.
+	 *
+	 * @return the page size
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Returns the label of the placeholder item.
+	 *
+	 * @return the label
+	 */
+	public String getLabel() {
+		int remaining = children.length - offset;
+		return JFaceResources.format("ExpandableNode.showMore", //$NON-NLS-1$
+				Integer.valueOf(Math.min(limit, remaining)), Integer.valueOf(remaining));
+	}
+
+	/**
+	 * Returns all sorted and filtered children of the parent.
+	 */
+	Object[] getAllElements() {
+		return children;
+	}
+
+	/**
+	 * Returns the index of the given element among the children hidden behind
+	 * this node, or <code>-1</code> if it is not one of them.
+	 */
+	int indexOf(AbstractTreeViewer viewer, Object element) {
+		for (int i = offset; i < children.length; i++) {
+			if (viewer.equals(children[i], element)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return getLabel();
+	}
+}
@@ -50,6 +50,10 @@ public abstract class OwnerDrawLabelProvider extends CellLabelProvider {
 				CellLabelProvider provider = column.getLabelProvider();
 				if (provider instanceof OwnerDrawLabelProvider) {
 					Object element = event.item.getData();
+					if (element instanceof ExpandableNode) {
+						// the placeholder item is drawn natively
+						return;
+					}
 					OwnerDrawLabelProvider ownerDrawProvider = (OwnerDrawLabelProvider) provider;
 					switch (event.type) {
 					case SWT.MeasureItem:
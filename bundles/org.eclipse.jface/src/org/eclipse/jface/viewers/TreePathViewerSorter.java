@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,21 @@ import java.util.Arrays;
  */
 public class TreePathViewerSorter extends ViewerSorter {
 
+	/**
+	 * Whether a sorter class uses the default implementations of the parent path
+	 * aware {@link #compare(Viewer, TreePath, Object, Object)} and
+	 * {@link #category(TreePath, Object)}.
+	 */
+	private static final ClassValue<Boolean> DEFAULT_TREE_PATH_COMPARE = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return Boolean.valueOf(isDeclaredBy(type, TreePathViewerSorter.class, "compare", //$NON-NLS-1$
+					Viewer.class, TreePath.class, Object.class, Object.class)
+					&& isDeclaredBy(type, TreePathViewerSorter.class, "category", //$NON-NLS-1$
+							TreePath.class, Object.class));
+		}
+	};
+
 	/**
 	 * Provide a category for the given element that will have the given parent
 	 * path when it is added to the viewer. The provided path is relative to the
@@ -60,6 +75,48 @@ public class TreePathViewerSorter extends ViewerSorter {
 		return compare(viewer, e1, e2);
 	}
 
+	/**
+	 * Returns the key by which the given element that will have the given
+	 * parent path is sorted within its category, or <code>null</code> if
+	 * elements are sorted by {@link #compare(Viewer, TreePath, Object, Object)}.
+	 * The provided path is relative to the viewer input. The parent path will be
+	 * <code>null</code> when the elements are root elements.
+	 * <p>
+	 * If keys are returned for all elements,
+	 * {@link #sort(Viewer, TreePath, Object[])} orders the elements by
+	 * {@link #category(TreePath, Object)} and then by the natural order of their
+	 * keys, see {@link ViewerComparator#getSortKey(Viewer, Object)}.
+	 * </p>
+	 * <p>
+	 * By default, this method calls {@code ViewerComparator#getSortKey(Viewer, Object)}.
+	 * Subclasses may override.
+	 * </p>
+	 *
+	 * @param viewer the viewer
+	 * @param parentPath the parent path for the element
+	 * @param element the element
+	 * @return the sort key of the element, or <code>null</code>
+	 * @since 3.13
+	 */
+	public Comparable<?> getSortKey(Viewer viewer, TreePath parentPath, Object element) {
+		return getSortKey(viewer, element);
+	}
+
+	@Override
+	boolean usesDefaultCompare() {
+		return super.usesDefaultCompare() && DEFAULT_TREE_PATH_COMPARE.get(getClass()).booleanValue();
+	}
+
+	@Override
+	int sortCategory(TreePath parentPath, Object element) {
+		return category(parentPath, element);
+	}
+
+	@Override
+	Comparable<?> sortKey(Viewer viewer, TreePath parentPath, Object element) {
+		return getSortKey(viewer, parentPath, element);
+	}
+
 	/**
      * Returns whether this viewer sorter would be affected
      * by a change to the given property of the given element.
@@ -89,6 +146,8 @@ public class TreePathViewerSorter extends ViewerSorter {
      * The default implementation of this method uses the
      * java.util.Arrays#sort algorithm on the given array,
      * calling {@link #compare(Viewer, TreePath, Object, Object)} to compare elements.
+     * If there are sort keys for the elements, they are compared by category and
+     * key instead, see {@link #getSortKey(Viewer, TreePath, Object)}.
      * </p>
      * <p>
      * Subclasses may reimplement this method to provide a more optimized implementation.
@@ -99,6 +158,8 @@ public class TreePathViewerSorter extends ViewerSorter {
      * @param elements the elements to sort
      */
     public void sort(final Viewer viewer, final TreePath parentPath, Object[] elements) {
-        Arrays.sort(elements, (a, b) -> TreePathViewerSorter.this.compare(viewer, parentPath, a, b));
+		if (!sortByKeys(viewer, parentPath, elements)) {
+			Arrays.sort(elements, (a, b) -> TreePathViewerSorter.this.compare(viewer, parentPath, a, b));
+		}
     }
 }
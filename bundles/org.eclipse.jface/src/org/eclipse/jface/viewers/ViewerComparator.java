@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -38,6 +39,13 @@ import org.eclipse.jface.util.Policy;
  * categorization; and they may override the <code>compare</code> methods
  * to provide a totally different way of sorting elements.
  * </p>
+ * <p>
+ * As long as <code>compare</code> is not overridden, {@link #sort(Viewer, Object[])}
+ * computes the category and the label of each element only once per sort. If the
+ * strings are compared by a {@link Collator}, the labels are compared by their
+ * {@link java.text.CollationKey}s. Subclasses which override <code>compare</code>
+ * can get the same benefit by overriding {@link #getSortKey(Viewer, Object)}.
+ * </p>
  * @see IStructuredContentProvider
  * @see StructuredViewer
  *
@@ -47,6 +55,18 @@ public class ViewerComparator {
 
 	private static final boolean DISABLE_FIX_FOR_364735 = Boolean.getBoolean("eclipse.disable.fix.for.bug364735"); //$NON-NLS-1$
 
+	/**
+	 * Whether a comparator class uses the default implementation of
+	 * {@link #compare(Viewer, Object, Object)}.
+	 */
+	private static final ClassValue<Boolean> DEFAULT_COMPARE = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return Boolean.valueOf(isDeclaredBy(type, ViewerComparator.class, "compare", //$NON-NLS-1$
+					Viewer.class, Object.class, Object.class));
+		}
+	};
+
 	/**
 	 * The comparator to use to sort a viewer's contents.
 	 */
@@ -168,6 +188,62 @@ public class ViewerComparator {
 		return name1;
 	}
 
+	/**
+	 * Returns the key by which the given element is sorted within its category,
+	 * or <code>null</code> if elements are sorted by
+	 * {@link #compare(Viewer, Object, Object)}.
+	 * <p>
+	 * If keys are returned for all elements, {@link #sort(Viewer, Object[])}
+	 * computes the category and the key of each element once and orders the
+	 * elements by category and then by the natural order of their keys, instead
+	 * of calling <code>compare</code> for every comparison. The keys must be
+	 * mutually comparable, and ordering by category and key must be consistent
+	 * with <code>compare</code>, which is still used to insert single elements.
+	 * </p>
+	 * <p>
+	 * The default implementation returns the
+	 * {@link java.text.CollationKey CollationKey} of the element's label if
+	 * <code>compare</code> is not overridden and the strings are compared by a
+	 * {@link Collator}, and <code>null</code> otherwise. Subclasses overriding
+	 * <code>compare</code> may override this method to supply precomputed keys.
+	 * </p>
+	 *
+	 * @param viewer the viewer
+	 * @param element the element
+	 * @return the sort key of the element, or <code>null</code>
+	 * @since 3.13
+	 */
+	public Comparable<?> getSortKey(Viewer viewer, Object element) {
+		if (usesDefaultCompare()) {
+			Comparator<? super String> stringComparator = getComparator();
+			if (stringComparator instanceof Collator) {
+				return ((Collator) stringComparator).getCollationKey(getLabel(viewer, element));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether elements are compared by the default implementation of
+	 * {@link #compare(Viewer, Object, Object)}, i.e. by category and label.
+	 */
+	boolean usesDefaultCompare() {
+		return DEFAULT_COMPARE.get(getClass()).booleanValue();
+	}
+
+	/**
+	 * Returns whether the public method with the given signature of the given class
+	 * is declared by <code>declaringClass</code>, i.e. not overridden by a subclass.
+	 */
+	static boolean isDeclaredBy(Class<?> type, Class<?> declaringClass, String name,
+			Class<?>... parameterTypes) {
+		try {
+			return type.getMethod(name, parameterTypes).getDeclaringClass() == declaringClass;
+		} catch (NoSuchMethodException | SecurityException e) {
+			return false;
+		}
+	}
+
     /**
      * Returns whether this viewer sorter would be affected
      * by a change to the given property of the given element.
@@ -191,7 +267,10 @@ public class ViewerComparator {
 	 * The default implementation of this method uses the
 	 * {@link java.util.Arrays#sort(Object[], Comparator)} algorithm on the
 	 * given array, calling {@link #compare(Viewer, Object, Object)} to compare
-	 * elements.
+	 * elements. If there are sort keys for the elements, or <code>compare</code>
+	 * is not overridden, the elements are decorated with their categories and
+	 * keys or labels first and compared by those instead, see
+	 * {@link #getSortKey(Viewer, Object)}.
      * </p>
      * <p>
      * Subclasses may reimplement this method to provide a more optimized implementation.
@@ -202,7 +281,9 @@ public class ViewerComparator {
      */
 	public void sort(final Viewer viewer, Object[] elements) {
 		try {
-			Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			if (!sortByKeys(viewer, null, elements)) {
+				Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			}
 		} catch (IllegalArgumentException e) {
 			String msg = e.toString()
 					+ "\nWorkaround for comparator violation:\n\tSet system property -Djava.util.Arrays.useLegacyMergeSort=true" //$NON-NLS-1$
@@ -227,4 +308,79 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	/**
+	 * Returns the category of the given element with the given parent path, as
+	 * used together with its sort key.
+	 */
+	int sortCategory(TreePath parentPath, Object element) {
+		return category(element);
+	}
+
+	/**
+	 * Returns the sort key of the given element with the given parent path.
+	 */
+	Comparable<?> sortKey(Viewer viewer, TreePath parentPath, Object element) {
+		return getSortKey(viewer, element);
+	}
+
+	/**
+	 * An element decorated with its category and sort key or label.
+	 */
+	private static final class SortEntry {
+		final Object element;
+		final int category;
+		final Object key;
+
+		SortEntry(Object element, int category, Object key) {
+			this.element = element;
+			this.category = category;
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Sorts the elements by category and sort key, or by category and label if
+	 * there are no sort keys but <code>compare</code> is not overridden. The
+	 * category and the key or label of each element are computed only once.
+	 *
+	 * @return <code>false</code> if the elements have to be sorted by
+	 *         <code>compare</code> instead, in which case they are left unchanged
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	boolean sortByKeys(Viewer viewer, TreePath parentPath, Object[] elements) {
+		if (elements.length < 2) {
+			return false;
+		}
+		SortEntry[] entries = new SortEntry[elements.length];
+		Comparator<SortEntry> entryComparator;
+		Comparable<?> key = sortKey(viewer, parentPath, elements[0]);
+		if (key != null) {
+			for (int i = 0; i < elements.length; i++) {
+				if (i > 0) {
+					key = sortKey(viewer, parentPath, elements[i]);
+					if (key == null) {
+						return false;
+					}
+				}
+				entries[i] = new SortEntry(elements[i], sortCategory(parentPath, elements[i]), key);
+			}
+			entryComparator = (e1, e2) -> e1.category != e2.category ? Integer.compare(e1.category, e2.category)
+					: ((Comparable) e1.key).compareTo(e2.key);
+		} else if (usesDefaultCompare()) {
+			for (int i = 0; i < elements.length; i++) {
+				entries[i] = new SortEntry(elements[i], category(elements[i]), getLabel(viewer, elements[i]));
+			}
+			Comparator<? super String> stringComparator = getComparator();
+			entryComparator = (e1, e2) -> e1.category != e2.category ? Integer.compare(e1.category, e2.category)
+					: stringComparator.compare((String) e1.key, (String) e2.key);
+		} else {
+			return false;
+		}
+		Arrays.sort(entries, entryComparator);
+		for (int i = 0; i < entries.length; i++) {
+			elements[i] = entries[i].element;
+		}
+		return true;
+	}
 }
@@ -189,7 +189,10 @@ public abstract class ViewerDropAdapter extends DropTargetAdapter {
      * @return The target of the drop, may be <code>null</code>.
      */
     protected Object determineTarget(DropTargetEvent event) {
-        return event.item == null ? null : event.item.getData();
+        if (event.item == null || event.item.getData() instanceof ExpandableNode) {
+            return null;
+        }
+        return event.item.getData();
     }
 
     private void doDropValidation(DropTargetEvent event) {
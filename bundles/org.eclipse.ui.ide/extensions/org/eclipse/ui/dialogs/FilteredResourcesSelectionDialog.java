@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -407,6 +407,16 @@ public class FilteredResourcesSelectionDialog extends
 		super.applyFilter();
 	}
 
+	/**
+	 * Resources are matched with immutable search patterns and compared with a
+	 * collator per comparison, so large workspaces can be filtered in
+	 * parallel.
+	 */
+	@Override
+	protected boolean isParallelFilteringSupported() {
+		return true;
+	}
+
 	@Override
 	protected Comparator getItemsComparator() {
 		return (o1, o2) -> {
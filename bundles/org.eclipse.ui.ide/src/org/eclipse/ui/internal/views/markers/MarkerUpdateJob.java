@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -58,36 +58,45 @@ class MarkerUpdateJob extends Job {
 	 * @param monitor
 	 */
 	void buildMarkers(IProgressMonitor monitor) {
-		//check for cancellation before we start
+		if (!gatherMarkers(monitor)) {
+			return;
+		}
+		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		if (monitor.isCanceled()) {
 			return;
 		}
+		builder.setBuilding(false);
+		updateDone();
+	}
+
+	/**
+	 * Gather all markers needed by the view and replace the current ones.
+	 *
+	 * @param monitor
+	 * @return <code>false</code> if cancelled
+	 */
+	boolean gatherMarkers(IProgressMonitor monitor) {
+		//check for cancellation before we start
+		if (monitor.isCanceled()) {
+			return false;
+		}
 		// builder.getUpdateScheduler().cancelQueuedUIUpdates();
 		// builder.getUpdateScheduler().indicateStatus(
 		// MarkerMessages.MarkerView_searching_for_markers, false);
 
 		Collection<MarkerEntry> markerEntries = new LinkedList<>();
-		//this is not incremental clean every time
 		clean = !clean(markerEntries, monitor);
 		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
 		// builder.getUpdateScheduler().indicateStatus(
 		// MarkerMessages.MarkerView_processUpdates, false);
 
 		monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
 		if (!processMarkerEntries(markerEntries, monitor)) {
-			return;
-		}
-		if (monitor.isCanceled()) {
-			return;
-		}
-		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
-		if (monitor.isCanceled()) {
-			return;
+			return false;
 		}
-		builder.setBuilding(false);
-		updateDone();
+		return !monitor.isCanceled();
 	}
 
 	/**
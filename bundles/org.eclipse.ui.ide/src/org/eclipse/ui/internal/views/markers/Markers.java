@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.eclipse.core.resources.IMarker;
@@ -215,9 +216,11 @@ class Markers {
 		int end = 0;
 		for (Entry<MarkerGroupingEntry, Integer> entry : boundaryInfoMap.entrySet()) {
 			end = entry.getValue();
-			markerCategories[i++] = new MarkerCategory(this, start, end,
+			MarkerCategory category = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
+			category.groupingEntry = entry.getKey();
+			markerCategories[i++] = category;
 			start = end + 1;
 		}
 		return markerCategories;
@@ -275,6 +278,160 @@ class Markers {
 		return result;
 	}
 
+	/**
+	 * Apply marker changes to the current entries without gathering all
+	 * markers again. Only the categories which lose or receive entries are
+	 * sorted again, the others keep their entries in order.
+	 *
+	 * @param removed
+	 *            the markers to remove, this includes the changed markers
+	 * @param added
+	 *            the entries to add, this includes the changed markers that
+	 *            are still selected
+	 * @param monitor
+	 * @return <code>false</code> if cancelled, the receiver is not changed
+	 *         then
+	 */
+	synchronized boolean applyUpdates(Set<IMarker> removed, Collection<MarkerEntry> added,
+			IProgressMonitor monitor) {
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			MarkerEntry[] newEntries;
+			MarkerCategory[] newCategories;
+			if (builder.isShowingHierarchy()) {
+				Map<MarkerGroupingEntry, CategoryUpdate> updates = new TreeMap<>(
+						builder.getCategoryGroup().getEntriesComparator());
+				Collection<MarkerEntry> toGroup = added;
+				if (categories.length == 0 && markerEntryArray.length > 0) {
+					// not grouped yet, group all entries
+					toGroup = new ArrayList<>(added);
+					addRemaining(markerEntryArray, 0, markerEntryArray.length - 1, removed, toGroup);
+				}
+				for (int i = 0; i < categories.length; i++) {
+					if (monitor.isCanceled()) {
+						return false;
+					}
+					MarkerCategory category = categories[i];
+					CategoryUpdate update = new CategoryUpdate(category.getName());
+					update.affected = addRemaining(markerEntryArray, category.start, category.end, removed,
+							update.entries);
+					updates.put(category.groupingEntry, update);
+				}
+				if (!groupEntries(toGroup, updates, monitor)) {
+					return false;
+				}
+				int size = 0;
+				for (CategoryUpdate update : updates.values()) {
+					size += update.entries.size();
+				}
+				newEntries = new MarkerEntry[size];
+				List<MarkerCategory> categoryList = new ArrayList<>(updates.size());
+				Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
+				int start = 0;
+				for (Entry<MarkerGroupingEntry, CategoryUpdate> mapEntry : updates.entrySet()) {
+					CategoryUpdate update = mapEntry.getValue();
+					int count = update.entries.size();
+					if (count == 0) {
+						continue;
+					}
+					for (MarkerEntry entry : update.entries) {
+						newEntries[start++] = entry;
+					}
+					int first = start - count;
+					String name = update.name;
+					if (name == null) {
+						name = builder.getCategoryGroup().getMarkerField().getValue(newEntries[first]);
+					}
+					MarkerCategory category = new MarkerCategory(this, first, start - 1, name);
+					category.groupingEntry = mapEntry.getKey();
+					categoryList.add(category);
+					if (update.affected) {
+						MarkerSortUtil.sortStartingKElement(newEntries, comparator, first, start - 1,
+								getShowingLimit(count), monitor);
+						if (monitor.isCanceled()) {
+							return false;
+						}
+					}
+				}
+				newCategories = categoryList.toArray(new MarkerCategory[categoryList.size()]);
+			} else {
+				List<MarkerEntry> entries = new ArrayList<>(markerEntryArray.length + added.size());
+				boolean affected = addRemaining(markerEntryArray, 0, markerEntryArray.length - 1, removed,
+						entries);
+				entries.addAll(added);
+				newEntries = entries.toArray(new MarkerEntry[entries.size()]);
+				if ((affected || !added.isEmpty()) && newEntries.length > 0) {
+					int available = newEntries.length - 1;
+					MarkerSortUtil.sortStartingKElement(newEntries, builder.getComparator(),
+							getShowingLimit(available), monitor);
+					if (monitor.isCanceled()) {
+						return false;
+					}
+				}
+				newCategories = EMPTY_CATEGORY_ARRAY;
+			}
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerCounts = null;
+			markerEntryArray = newEntries;
+			categories = newCategories;
+			return true;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Add the entries from start to end which are neither removed nor stale.
+	 *
+	 * @return <code>true</code> if any entry was left out
+	 */
+	private static boolean addRemaining(MarkerEntry[] entries, int start, int end, Set<IMarker> removed,
+			Collection<MarkerEntry> result) {
+		boolean leftOut = false;
+		for (int i = start; i <= end; i++) {
+			MarkerEntry entry = entries[i];
+			IMarker marker = entry.getMarker();
+			if (marker == null || entry.getStaleState() || removed.contains(marker)) {
+				leftOut = true;
+			} else {
+				result.add(entry);
+			}
+		}
+		return leftOut;
+	}
+
+	/**
+	 * Add the entries to the category updates of their group, creating new
+	 * category updates as needed.
+	 */
+	private boolean groupEntries(Collection<MarkerEntry> entries, Map<MarkerGroupingEntry, CategoryUpdate> updates,
+			IProgressMonitor monitor) {
+		MarkerGroup group = builder.getCategoryGroup();
+		for (MarkerEntry entry : entries) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			IMarker marker = entry.getMarker();
+			try {
+				MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
+				CategoryUpdate update = updates.get(groupingEntry);
+				if (update == null) {
+					update = new CategoryUpdate(null);
+					updates.put(groupingEntry, update);
+				}
+				update.entries.add(entry);
+				update.affected = true;
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns an array of marker counts where getMarkerCounts()[severity] is
 	 * the number of markers in the list with the given severity.
@@ -418,4 +575,17 @@ class Markers {
 		}
 		return true;
 	}
+
+	/**
+	 * The entries of a category while applying updates
+	 */
+	private static class CategoryUpdate {
+		final String name;
+		final List<MarkerEntry> entries = new ArrayList<>();
+		boolean affected;
+
+		CategoryUpdate(String name) {
+			this.name = name;
+		}
+	}
 }
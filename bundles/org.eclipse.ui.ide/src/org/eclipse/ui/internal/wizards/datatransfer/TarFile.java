@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
 import java.util.zip.GZIPInputStream;
 
@@ -24,10 +29,20 @@ import java.util.zip.GZIPInputStream;
  * Reads a .tar or .tar.gz archive file, providing an index enumeration
  * and allows for accessing an InputStream for arbitrary files in the
  * archive.
+ * <p>
+ * Every {@link TarEntry} knows the offset of its header in the uncompressed
+ * archive, so the contents of an uncompressed archive are read directly from
+ * that offset in any order. A compressed archive is read sequentially as long
+ * as its entries are requested in archive order; the first time an entry is
+ * requested which was already passed, the archive is decompressed once into a
+ * temporary file which is then read like an uncompressed archive.
+ * </p>
  *
  * @since 3.1
  */
 public class TarFile {
+	private static final int HEADER_SIZE = 512;
+
 	private File file;
 	private TarInputStream entryEnumerationStream;
 	private TarEntry curEntry;
@@ -35,6 +50,19 @@ public class TarFile {
 
 	private InputStream internalEntryStream;
 
+	private boolean compressed;
+
+	/**
+	 * The uncompressed archive, or <code>null</code> if it is not open yet.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The temporary file holding the decompressed archive, or
+	 * <code>null</code> if the archive has not been decompressed.
+	 */
+	private File spillFile;
+
 	/**
 	 * Create a new TarFile for the given file.
 	 *
@@ -49,6 +77,7 @@ public class TarFile {
 		// First, check if it's a GZIPInputStream.
 		try {
 			in = new GZIPInputStream(in);
+			compressed = true;
 		} catch(IOException e) {
 			//If it is not compressed we close
 			//the old one and recreate
@@ -74,6 +103,14 @@ public class TarFile {
 			entryEnumerationStream.close();
 		if (internalEntryStream != null)
 			internalEntryStream.close();
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+		if (spillFile != null) {
+			spillFile.delete();
+			spillFile = null;
+		}
 	}
 
 	/**
@@ -123,28 +160,107 @@ public class TarFile {
 	 * @throws IOException
 	 */
 	public InputStream getInputStream(TarEntry entry) throws TarException, IOException {
-		if(entryStream == null || !entryStream.skipToEntry(entry)) {
-			if (internalEntryStream != null) {
-				internalEntryStream.close();
+		if (compressed && spillFile == null) {
+			if (entryStream == null) {
+				internalEntryStream = new GZIPInputStream(new FileInputStream(file));
+				entryStream = new TarInputStream(internalEntryStream, entry) {
+					@Override
+					public void close() {
+						// Ignore close() since we want to reuse the stream.
+					}
+				};
+				return entryStream;
 			}
-			internalEntryStream = new FileInputStream(file);
-			// First, check if it's a GZIPInputStream.
-			try {
-				internalEntryStream = new GZIPInputStream(internalEntryStream);
-			} catch(IOException e) {
-				//If it is not compressed we close
-				//the old one and recreate
-				internalEntryStream.close();
-				internalEntryStream = new FileInputStream(file);
+			if (entryStream.skipToEntry(entry)) {
+				return entryStream;
 			}
-			entryStream = new TarInputStream(internalEntryStream, entry) {
-				@Override
-				public void close() {
-					// Ignore close() since we want to reuse the stream.
-				}
-			};
+			// The entry was already passed, so rather than decompressing
+			// the archive from the start again for every such entry, spill
+			// it to disk once and seek from now on.
+			internalEntryStream.close();
+			internalEntryStream = null;
+			entryStream = null;
+			spillFile = decompress();
+		}
+		if (channel == null) {
+			channel = FileChannel.open((spillFile != null ? spillFile : file).toPath(),
+					StandardOpenOption.READ);
+		}
+		return new EntryInputStream(channel, entry.filepos + (long) HEADER_SIZE, entry.getSize());
+	}
+
+	/**
+	 * Decompresses the archive into a temporary file.
+	 *
+	 * @return the temporary file
+	 * @throws IOException
+	 */
+	private File decompress() throws IOException {
+		File tempFile = File.createTempFile("tarfile", ".tar"); //$NON-NLS-1$ //$NON-NLS-2$
+		tempFile.deleteOnExit();
+		try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+			Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+		return tempFile;
+	}
+
+	/**
+	 * Reads the contents of an entry at its offset in the uncompressed
+	 * archive. Closing the stream does not close the shared channel.
+	 */
+	private static class EntryInputStream extends InputStream {
+		private final FileChannel channel;
+		private long position;
+		private long remaining;
+
+		EntryInputStream(FileChannel channel, long position, long size) {
+			this.channel = channel;
+			this.position = position;
+			this.remaining = size;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] data = new byte[1];
+			int size = read(data, 0, 1);
+			if (size < 0) {
+				return size;
+			}
+			return data[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			if (len > remaining) {
+				len = (int) remaining;
+			}
+			int size = channel.read(ByteBuffer.wrap(b, off, len), position);
+			if (size < 0) {
+				throw new IOException("early end of stream"); //$NON-NLS-1$
+			}
+			position += size;
+			remaining -= size;
+			return size;
+		}
+
+		@Override
+		public long skip(long n) {
+			long skipped = Math.max(0, Math.min(n, remaining));
+			position += skipped;
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return (int) Math.min(remaining, Integer.MAX_VALUE);
 		}
-		return entryStream;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2017 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,15 +20,20 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.monitoring.FreezeSignature;
 import org.eclipse.ui.monitoring.IUiFreezeEventLogger;
+import org.eclipse.ui.monitoring.IUiLatencySummaryLogger;
+import org.eclipse.ui.monitoring.LatencyHistogram;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 import org.eclipse.ui.monitoring.StackSample;
 import org.eclipse.ui.monitoring.UiFreezeEvent;
+import org.eclipse.ui.monitoring.UiLatencySummary;
 
 /**
- * Writes {@link UiFreezeEvent}s to the Eclipse error log.
+ * Writes {@link UiFreezeEvent}s and {@link UiLatencySummary UiLatencySummaries} to the Eclipse
+ * error log.
  */
-public class DefaultUiFreezeEventLogger implements IUiFreezeEventLogger {
+public class DefaultUiFreezeEventLogger implements IUiFreezeEventLogger, IUiLatencySummaryLogger {
 	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS"); //$NON-NLS-1$
 	private final long longEventErrorThresholdMillis;
 
@@ -115,6 +120,50 @@ public class DefaultUiFreezeEventLogger implements IUiFreezeEventLogger {
 		MonitoringPlugin.getDefault().getLog().log(loggedEvent);
 	}
 
+	/**
+	 * Converts the given {@link UiLatencySummary} into a {@link MultiStatus} and writes it to
+	 * the log.
+	 *
+	 * @param summary the UI event latency and the UI freezes since monitoring was started
+	 */
+	@Override
+	public void log(UiLatencySummary summary) {
+		String header = NLS.bind(Messages.DefaultUiFreezeEventLogger_latency_summary_header_2,
+				dateFormat.format(new Date(summary.getStartTimestamp())),
+				dateFormat.format(new Date(summary.getEndTimestamp())));
+		MultiStatus loggedSummary =
+				new SeverityMultiStatus(IStatus.INFO, PreferenceConstants.PLUGIN_ID, header, null);
+
+		for (LatencyHistogram histogram : summary.getHistograms()) {
+			String eventType = histogram.getEventType() == LatencyHistogram.OTHER_EVENT_TYPES
+					? Messages.DefaultUiFreezeEventLogger_other_event_types
+					: NLS.bind(Messages.DefaultUiFreezeEventLogger_event_type_1,
+							histogram.getEventType());
+			String text = NLS.bind(Messages.DefaultUiFreezeEventLogger_event_latency_6,
+					new Object[] { eventType, histogram.getTotalCount(),
+							formatMicros(histogram.getPercentile(50)),
+							formatMicros(histogram.getPercentile(90)),
+							formatMicros(histogram.getPercentile(99)),
+							formatMicros(histogram.getMaxDuration()) });
+			loggedSummary.add(new Status(IStatus.INFO, PreferenceConstants.PLUGIN_ID, text));
+		}
+
+		for (FreezeSignature signature : summary.getFreezeSignatures()) {
+			String text = NLS.bind(Messages.DefaultUiFreezeEventLogger_freeze_signature_4,
+					new Object[] { signature.getId(), signature.getCount(),
+							String.format("%.3f", signature.getTotalDuration() / 1000.0), //$NON-NLS-1$
+							String.format("%.3f", signature.getMaxDuration() / 1000.0) }); //$NON-NLS-1$
+			loggedSummary.add(new Status(IStatus.INFO, PreferenceConstants.PLUGIN_ID, text,
+					new StackTrace(signature.getFrames())));
+		}
+
+		MonitoringPlugin.getDefault().getLog().log(loggedSummary);
+	}
+
+	private static String formatMicros(long micros) {
+		return String.format("%.1f", micros / 1000.0); //$NON-NLS-1$
+	}
+
 	private static IStatus createThreadStatus(ThreadInfo thread) {
 		Throwable stackTrace = new StackTrace(thread.getStackTrace());
 		StringBuilder threadText = createThreadMessage(thread);
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.ui.monitoring.LatencyHistogram;
+
+/**
+ * Records the dispatch durations of UI events in a {@link LatencyHistogram} per event type.
+ * <p>
+ * The recording methods are called by the UI thread only and do not allocate. The counters have
+ * a single writer, so they are updated without atomic read-modify-write operations and can be
+ * read by any thread. A snapshot taken while events are recorded may be off by the events being
+ * recorded.
+ * <p>
+ * The time a nested event loop waits for events, e.g. while a modal dialog is open, is not
+ * counted towards the duration of the events dispatched outside of it.
+ */
+public class EventLatencyRecorder {
+	/** The highest event type with an own histogram. */
+	static final int MAX_EVENT_TYPE = 63;
+	private static final int OTHER_SLOT = MAX_EVENT_TYPE + 1;
+	private static final int SLOTS = OTHER_SLOT + 1;
+	private static final int MAX_EVENT_DEPTH = 256;
+	private static final int MAX_EXTERNAL_DISPATCH_DEPTH = 64;
+
+	private final AtomicLongArray counts =
+			new AtomicLongArray(SLOTS * LatencyHistogram.BUCKET_COUNT);
+	private final AtomicLongArray totalDurations = new AtomicLongArray(SLOTS);
+	private final AtomicLongArray maxDurations = new AtomicLongArray(SLOTS);
+
+	// Accessed only by the UI thread.
+	private final long[] eventStartTimes = new long[MAX_EVENT_DEPTH];
+	private int eventDepth;
+	private final long[] externalDispatchStartTimes = new long[MAX_EXTERNAL_DISPATCH_DEPTH];
+	private final int[] externalDispatchEventDepths = new int[MAX_EXTERNAL_DISPATCH_DEPTH];
+	private int externalDispatchDepth;
+
+	/**
+	 * Called when the dispatch of an event starts.
+	 *
+	 * @param nanoTime the current value of {@link System#nanoTime()}
+	 */
+	public void eventStarted(long nanoTime) {
+		if (eventDepth < MAX_EVENT_DEPTH) {
+			eventStartTimes[eventDepth] = nanoTime;
+		}
+		eventDepth++;
+	}
+
+	/**
+	 * Called when the dispatch of an event ends.
+	 *
+	 * @param eventType the SWT event type
+	 * @param nanoTime the current value of {@link System#nanoTime()}
+	 */
+	public void eventEnded(int eventType, long nanoTime) {
+		if (eventDepth == 0) {
+			// The event started before recording did.
+			return;
+		}
+		if (--eventDepth < MAX_EVENT_DEPTH) {
+			record(eventType, (nanoTime - eventStartTimes[eventDepth]) / 1000);
+		}
+	}
+
+	/**
+	 * Called when a nested event loop starts waiting for events.
+	 *
+	 * @param nanoTime the current value of {@link System#nanoTime()}
+	 */
+	public void externalDispatchStarted(long nanoTime) {
+		if (externalDispatchDepth < MAX_EXTERNAL_DISPATCH_DEPTH) {
+			externalDispatchStartTimes[externalDispatchDepth] = nanoTime;
+			externalDispatchEventDepths[externalDispatchDepth] = eventDepth;
+		}
+		externalDispatchDepth++;
+	}
+
+	/**
+	 * Called when a nested event loop stops waiting for events.
+	 *
+	 * @param nanoTime the current value of {@link System#nanoTime()}
+	 */
+	public void externalDispatchEnded(long nanoTime) {
+		if (externalDispatchDepth == 0) {
+			return;
+		}
+		if (--externalDispatchDepth < MAX_EXTERNAL_DISPATCH_DEPTH) {
+			// Events left open in the nested event loop are not recorded.
+			eventDepth = Math.min(eventDepth, externalDispatchEventDepths[externalDispatchDepth]);
+			long waited = nanoTime - externalDispatchStartTimes[externalDispatchDepth];
+			for (int i = Math.min(eventDepth, MAX_EVENT_DEPTH); --i >= 0;) {
+				eventStartTimes[i] += waited;
+			}
+		}
+	}
+
+	/**
+	 * Records the dispatch of an event.
+	 *
+	 * @param eventType the SWT event type
+	 * @param duration the duration in microseconds
+	 */
+	void record(int eventType, long duration) {
+		int slot = eventType >= 0 && eventType <= MAX_EVENT_TYPE ? eventType : OTHER_SLOT;
+		int index = slot * LatencyHistogram.BUCKET_COUNT + LatencyHistogram.getBucket(duration);
+		// Single writer, see class comment.
+		counts.lazySet(index, counts.get(index) + 1);
+		totalDurations.lazySet(slot, totalDurations.get(slot) + duration);
+		if (duration > maxDurations.get(slot)) {
+			maxDurations.lazySet(slot, duration);
+		}
+	}
+
+	/**
+	 * Returns the histograms of all event types recorded so far, ordered by event type.
+	 */
+	public LatencyHistogram[] getHistograms() {
+		List<LatencyHistogram> histograms = new ArrayList<LatencyHistogram>();
+		long[] bucketCounts = new long[LatencyHistogram.BUCKET_COUNT];
+		for (int slot = 0; slot < SLOTS; slot++) {
+			boolean empty = true;
+			for (int i = 0; i < bucketCounts.length; i++) {
+				bucketCounts[i] = counts.get(slot * LatencyHistogram.BUCKET_COUNT + i);
+				empty &= bucketCounts[i] == 0;
+			}
+			if (!empty) {
+				int eventType = slot == OTHER_SLOT ? LatencyHistogram.OTHER_EVENT_TYPES : slot;
+				histograms.add(new LatencyHistogram(eventType, bucketCounts,
+						totalDurations.get(slot), maxDurations.get(slot)));
+			}
+		}
+		// Histograms of other event types go last.
+		return histograms.toArray(new LatencyHistogram[histograms.size()]);
+	}
+}
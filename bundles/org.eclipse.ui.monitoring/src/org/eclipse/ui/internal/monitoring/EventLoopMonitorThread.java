@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2017 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,9 +35,11 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.monitoring.IUiFreezeEventLogger;
+import org.eclipse.ui.monitoring.IUiLatencySummaryLogger;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 import org.eclipse.ui.monitoring.StackSample;
 import org.eclipse.ui.monitoring.UiFreezeEvent;
+import org.eclipse.ui.monitoring.UiLatencySummary;
 
 /**
  * Event loop monitoring thread. Detects events that take long time to process, collects stack
@@ -77,6 +79,11 @@ public class EventLoopMonitorThread extends Thread {
 		public String uiThreadFilter;
 		/** @see org.eclipse.ui.monitoring.PreferenceConstants#NONINTERESTING_THREAD_FILTER */
 		public String noninterestingThreadFilter;
+		/**
+		 * Interval between logged summaries of the UI event latency, zero to not log summaries.
+		 * @see org.eclipse.ui.monitoring.PreferenceConstants#LATENCY_SUMMARY_INTERVAL_MILLIS
+		 */
+		public long latencySummaryInterval;
 
 		/**
 		 * Checks if the values of parameters for UI responsiveness monitoring are valid.
@@ -104,6 +111,11 @@ public class EventLoopMonitorThread extends Thread {
 						NLS.bind(Messages.EventLoopMonitorThread_deadlock_threshold_too_low_error_2,
 								deadlockThreshold, longEventErrorThreshold));
 			}
+			if (latencySummaryInterval < 0) {
+				problems.append(NEW_LINE_AND_BULLET +
+						NLS.bind(Messages.EventLoopMonitorThread_summary_interval_error_1,
+								latencySummaryInterval));
+			}
 
 			if (problems.length() != 0) {
 				throw new IllegalArgumentException(
@@ -164,6 +176,7 @@ public class EventLoopMonitorThread extends Thread {
 					break;  // Ignore events that may be produced during a UI freeze.
 				}
 				nestingLevel++;
+				latencyRecorder.eventStarted(System.nanoTime());
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -179,6 +192,7 @@ public class EventLoopMonitorThread extends Thread {
 					// started listening to SWT events.
 					nestingLevel = 0;
 				}
+				latencyRecorder.eventEnded(event.detail, System.nanoTime());
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -187,6 +201,7 @@ public class EventLoopMonitorThread extends Thread {
 				break;
 			case SWT.PreExternalEventDispatch:
 				saveAndResetNestingLevel();
+				latencyRecorder.externalDispatchStarted(System.nanoTime());
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -195,6 +210,7 @@ public class EventLoopMonitorThread extends Thread {
 				break;
 			case SWT.PostExternalEventDispatch:
 				restoreNestingLevel();
+				latencyRecorder.externalDispatchEnded(System.nanoTime());
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -338,10 +354,15 @@ public class EventLoopMonitorThread extends Thread {
 	private final AtomicBoolean cancelled = new AtomicBoolean(false);
 	private final AtomicReference<LongEventInfo> eventToPublish =
 			new AtomicReference<LongEventInfo>(null);
+	private final EventLatencyRecorder latencyRecorder = new EventLatencyRecorder();
+	private final FreezeSignatureAggregator freezeSignatures = new FreezeSignatureAggregator();
+	private final long startTime;
 
 	// Accessed only by the monitoring thread.
 	private final List<IUiFreezeEventLogger> externalLoggers =
 			new ArrayList<IUiFreezeEventLogger>();
+	private final List<IUiLatencySummaryLogger> summaryLoggers =
+			new ArrayList<IUiLatencySummaryLogger>();
 	private DefaultUiFreezeEventLogger defaultLogger;
 	private final Display display;
 	private final FilterHandler uiThreadFilter;
@@ -355,6 +376,7 @@ public class EventLoopMonitorThread extends Thread {
 	private final long uiThreadId;
 	private final Object sleepMonitor;
 	private final boolean logToErrorLog;
+	private final long latencySummaryInterval;
 	private EventHistory eventHistory;
 	private ThreadMXBean threadMXBean;
 	private boolean dumpLockedMonitors;
@@ -390,9 +412,11 @@ public class EventLoopMonitorThread extends Thread {
 		allThreadsSampleInterval = longEventErrorThreshold * 2 / 3;
 		deadlockThreshold = args.deadlockThreshold;
 		logToErrorLog = args.logToErrorLog;
+		latencySummaryInterval = args.latencySummaryInterval;
 		uiThreadFilter = new FilterHandler(args.uiThreadFilter);
 		noninterestingThreadFilter = new FilterHandler(args.noninterestingThreadFilter);
 		sleepMonitor = new Object();
+		startTime = getTimestamp();
 	}
 
 	/**
@@ -489,6 +513,7 @@ public class EventLoopMonitorThread extends Thread {
 		display.asyncExec(() -> registerDisplayListeners());
 
 		long currTime = getTimestamp();
+		long logSummaryAt = currTime + latencySummaryInterval;
 
 		while (!cancelled.get()) {
 			long sleepFor;
@@ -639,9 +664,27 @@ public class EventLoopMonitorThread extends Thread {
 			}
 
 			lastEventStartOrResumeTime = currEventStartOrResumeTime;
+
+			if (latencySummaryInterval > 0 && currTime >= logSummaryAt) {
+				logSummary(getLatencySummary());
+				logSummaryAt = currTime + latencySummaryInterval;
+			}
+		}
+
+		if (latencySummaryInterval > 0) {
+			logSummary(getLatencySummary());
 		}
 	}
 
+	/**
+	 * Returns the UI event latency and the UI freezes observed since monitoring was started.
+	 * May be called on any thread.
+	 */
+	public UiLatencySummary getLatencySummary() {
+		return new UiLatencySummary(startTime, getTimestamp(), latencyRecorder.getHistograms(),
+				freezeSignatures.getSignatures());
+	}
+
 	private ThreadInfo[] captureThreadStacks(boolean dumpAllThreads) {
 		if (dumpAllThreads) {
 			ThreadInfo[] threadStacks =
@@ -724,9 +767,16 @@ public class EventLoopMonitorThread extends Thread {
 		for (IConfigurationElement element : configElements) {
 			try {
 				Object object = element.createExecutableExtension("class"); //$NON-NLS-1$
+				boolean valid = false;
 				if (object instanceof IUiFreezeEventLogger) {
 					externalLoggers.add((IUiFreezeEventLogger) object);
-				} else {
+					valid = true;
+				}
+				if (object instanceof IUiLatencySummaryLogger) {
+					summaryLoggers.add((IUiLatencySummaryLogger) object);
+					valid = true;
+				}
+				if (!valid) {
 					MonitoringPlugin.logWarning(NLS.bind(
 							Messages.EventLoopMonitorThread_invalid_logger_type_error_4,
 							new Object[] { object.getClass().getName(),
@@ -776,6 +826,10 @@ public class EventLoopMonitorThread extends Thread {
 			tracer.trace("Logging " + event + "Prior events:\n" + eventHistory.extractAndClear()); //$NON-NLS-1$//$NON-NLS-2$
 		}
 
+		if (!event.isStillRunning()) {
+			freezeSignatures.add(event);
+		}
+
 		if (logToErrorLog) {
 			defaultLogger.log(event);
 		}
@@ -793,4 +847,26 @@ public class EventLoopMonitorThread extends Thread {
 			}
 		}
 	}
+
+	/**
+	 * Writes a summary of the UI event latency to the log.
+	 */
+	private void logSummary(UiLatencySummary summary) {
+		if (logToErrorLog) {
+			defaultLogger.log(summary);
+		}
+
+		for (int i = 0; i < summaryLoggers.size(); i++) {
+			IUiLatencySummaryLogger currentLogger = summaryLoggers.get(i);
+			try {
+				currentLogger.log(summary);
+			} catch (Throwable t) {
+				summaryLoggers.remove(i);
+				i--;
+				MonitoringPlugin.logError(NLS.bind(
+						Messages.EventLoopMonitorThread_external_exception_error_1,
+						currentLogger.getClass().getName()), t);
+			}
+		}
+	}
 }
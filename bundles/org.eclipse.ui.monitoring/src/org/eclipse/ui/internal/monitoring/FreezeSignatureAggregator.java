@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ui.monitoring.FreezeSignature;
+import org.eclipse.ui.monitoring.StackSample;
+import org.eclipse.ui.monitoring.UiFreezeEvent;
+
+/**
+ * Aggregates {@link UiFreezeEvent}s into {@link FreezeSignature}s.
+ * <p>
+ * The signature of a freeze consists of the innermost {@link #MAX_FRAMES} frames of the part of
+ * the UI thread stack that all stack samples of the freeze have in common, i.e. of the code which
+ * was running during the whole freeze. Frames are compared by class and method only. If the cache
+ * of signatures is full, the least recently seen signature is dropped.
+ */
+public class FreezeSignatureAggregator {
+	/** The maximum number of frames of a signature. */
+	static final int MAX_FRAMES = 10;
+	/** The default maximum number of signatures kept. */
+	public static final int DEFAULT_MAX_SIGNATURES = 100;
+
+	private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
+	private static class Aggregate {
+		final String id;
+		final StackTraceElement[] frames;
+		int count;
+		long totalDuration;
+		long maxDuration;
+		long lastTimestamp;
+
+		Aggregate(String id, StackTraceElement[] frames) {
+			this.id = id;
+			this.frames = frames;
+		}
+	}
+
+	private final Map<String, Aggregate> aggregates;
+
+	public FreezeSignatureAggregator() {
+		this(DEFAULT_MAX_SIGNATURES);
+	}
+
+	/**
+	 * @param maxSignatures the maximum number of signatures to keep, must be positive
+	 */
+	public FreezeSignatureAggregator(final int maxSignatures) {
+		if (maxSignatures <= 0) {
+			throw new IllegalArgumentException("Maximum number of signatures must be positive: " //$NON-NLS-1$
+					+ maxSignatures);
+		}
+		aggregates = new LinkedHashMap<String, Aggregate>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Aggregate> eldest) {
+				return size() > maxSignatures;
+			}
+		};
+	}
+
+	/**
+	 * Adds a freeze to the aggregate of its signature.
+	 */
+	public synchronized void add(UiFreezeEvent event) {
+		StackTraceElement[] frames = getSignatureFrames(event.getStackTraceSamples());
+		String key = getKey(frames);
+		Aggregate aggregate = aggregates.get(key);
+		if (aggregate == null) {
+			aggregate = new Aggregate(String.format("%08x", key.hashCode()), frames); //$NON-NLS-1$
+			aggregates.put(key, aggregate);
+		}
+		aggregate.count++;
+		aggregate.totalDuration += event.getTotalDuration();
+		aggregate.maxDuration = Math.max(aggregate.maxDuration, event.getTotalDuration());
+		aggregate.lastTimestamp = event.getStartTimestamp();
+	}
+
+	/**
+	 * Returns the signatures, most frequent first. Signatures with the same count are ordered by
+	 * total duration.
+	 */
+	public synchronized FreezeSignature[] getSignatures() {
+		List<Aggregate> sorted = new ArrayList<Aggregate>(aggregates.values());
+		sorted.sort((a1, a2) -> {
+			int result = Integer.compare(a2.count, a1.count);
+			return result != 0 ? result : Long.compare(a2.totalDuration, a1.totalDuration);
+		});
+		FreezeSignature[] signatures = new FreezeSignature[sorted.size()];
+		for (int i = 0; i < signatures.length; i++) {
+			Aggregate a = sorted.get(i);
+			signatures[i] = new FreezeSignature(a.id, a.frames, a.count, a.totalDuration,
+					a.maxDuration, a.lastTimestamp);
+		}
+		return signatures;
+	}
+
+	/**
+	 * Returns the innermost frames of the UI thread common to all samples, without line numbers.
+	 */
+	static StackTraceElement[] getSignatureFrames(StackSample[] samples) {
+		StackTraceElement[] first = null;
+		int commonLength = 0;
+		for (StackSample sample : samples) {
+			ThreadInfo[] threads = sample.getStackTraces();
+			if (threads.length == 0 || threads[0] == null) {
+				continue;
+			}
+			// The first thread is guaranteed to be the display thread.
+			StackTraceElement[] stack = threads[0].getStackTrace();
+			if (first == null) {
+				first = stack;
+				commonLength = stack.length;
+			} else {
+				commonLength = Math.min(commonLength, getCommonSuffixLength(first, stack));
+			}
+		}
+		if (first == null) {
+			return NO_FRAMES;
+		}
+		// Without common frames, e.g. for inconsistent samples, the first sample is used.
+		int start = commonLength == 0 ? 0 : first.length - commonLength;
+		int end = Math.min(first.length, start + MAX_FRAMES);
+		StackTraceElement[] frames = Arrays.copyOfRange(first, start, end);
+		for (int i = 0; i < frames.length; i++) {
+			StackTraceElement frame = frames[i];
+			frames[i] = new StackTraceElement(frame.getClassName(), frame.getMethodName(),
+					frame.getFileName(), frame.isNativeMethod() ? -2 : -1);
+		}
+		return frames;
+	}
+
+	private static int getCommonSuffixLength(StackTraceElement[] stack1,
+			StackTraceElement[] stack2) {
+		int length = 0;
+		int i = stack1.length;
+		int j = stack2.length;
+		while (--i >= 0 && --j >= 0 && isSameMethod(stack1[i], stack2[j])) {
+			length++;
+		}
+		return length;
+	}
+
+	private static boolean isSameMethod(StackTraceElement frame1, StackTraceElement frame2) {
+		return frame1.getMethodName().equals(frame2.getMethodName())
+				&& frame1.getClassName().equals(frame2.getClassName());
+	}
+
+	private static String getKey(StackTraceElement[] frames) {
+		StringBuilder key = new StringBuilder();
+		for (StackTraceElement frame : frames) {
+			key.append(frame.getClassName()).append('.').append(frame.getMethodName()).append('\n');
+		}
+		return key.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2015 Google, Inc and others.
+ * Copyright (c) 2014, 2017 Google, Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,12 @@ package org.eclipse.ui.internal.monitoring;
 import org.eclipse.osgi.util.NLS;
 
 final class Messages extends NLS {
+	public static String DefaultUiFreezeEventLogger_event_latency_6;
+	public static String DefaultUiFreezeEventLogger_event_type_1;
+	public static String DefaultUiFreezeEventLogger_freeze_signature_4;
 	public static String DefaultUiFreezeEventLogger_holding_1;
+	public static String DefaultUiFreezeEventLogger_latency_summary_header_2;
+	public static String DefaultUiFreezeEventLogger_other_event_types;
 	public static String DefaultUiFreezeEventLogger_sample_header_2;
 	public static String DefaultUiFreezeEventLogger_stack_trace_header;
 	public static String DefaultUiFreezeEventLogger_starved_awake_and_asleep;
@@ -36,6 +41,7 @@ final class Messages extends NLS {
 	public static String EventLoopMonitorThread_logging_disabled_error;
 	public static String EventLoopMonitorThread_warning_threshold_error_1;
 	public static String EventLoopMonitorThread_max_event_loop_depth_exceeded_1;
+	public static String EventLoopMonitorThread_summary_interval_error_1;
 	public static String EventLoopMonitorThread_workbench_was_null;
 	public static String FilterHandler_missing_thread_error;
 	public static String MonitoringStartup_initialization_error;
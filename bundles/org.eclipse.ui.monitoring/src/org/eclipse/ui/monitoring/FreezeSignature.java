@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+/**
+ * UI freezes aggregated by the stack frames of the UI thread they have in common. The frames are
+ * the innermost ones shared by all stack samples of a freeze, without line numbers, so that the
+ * same freeze has the same signature in different builds.
+ *
+ * @noextend This class is not intended to be subclassed by clients.
+ * @since 1.2
+ */
+public class FreezeSignature {
+	private final String id;
+	private final StackTraceElement[] frames;
+	private final int count;
+	private final long totalDuration;
+	private final long maxDuration;
+	private final long lastTimestamp;
+
+	/**
+	 * Creates a FreezeSignature.
+	 *
+	 * @param id the identifier of the signature, derived from the frames
+	 * @param frames the stack frames of the UI thread, innermost first
+	 * @param count the number of freezes
+	 * @param totalDuration the sum of the durations of the freezes in milliseconds
+	 * @param maxDuration the longest duration of a freeze in milliseconds
+	 * @param lastTimestamp the time the last freeze started, in milliseconds since January 1,
+	 *     1970 UTC
+	 */
+	public FreezeSignature(String id, StackTraceElement[] frames, int count, long totalDuration,
+			long maxDuration, long lastTimestamp) {
+		this.id = id;
+		this.frames = frames;
+		this.count = count;
+		this.totalDuration = totalDuration;
+		this.maxDuration = maxDuration;
+		this.lastTimestamp = lastTimestamp;
+	}
+
+	/**
+	 * Returns the identifier of the signature, which is the same in all sessions and builds for
+	 * the same frames.
+	 */
+	public final String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the stack frames of the UI thread, innermost first. The frames have no line numbers.
+	 */
+	public final StackTraceElement[] getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Returns the number of freezes with this signature.
+	 */
+	public final int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the sum of the durations of the freezes in milliseconds.
+	 */
+	public final long getTotalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Returns the longest duration of a freeze in milliseconds.
+	 */
+	public final long getMaxDuration() {
+		return maxDuration;
+	}
+
+	/**
+	 * Returns the time the last freeze started, in milliseconds since January 1, 1970 UTC.
+	 */
+	public final long getLastTimestamp() {
+		return lastTimestamp;
+	}
+
+	/** For debugging only. */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		buf.append("Freeze signature "); //$NON-NLS-1$
+		buf.append(id);
+		buf.append(": "); //$NON-NLS-1$
+		buf.append(count);
+		buf.append(" freezes, total "); //$NON-NLS-1$
+		buf.append(totalDuration);
+		buf.append("ms, max "); //$NON-NLS-1$
+		buf.append(maxDuration);
+		buf.append("ms"); //$NON-NLS-1$
+		for (StackTraceElement frame : frames) {
+			buf.append("\n\tat "); //$NON-NLS-1$
+			buf.append(frame);
+		}
+		return buf.toString();
+	}
+}
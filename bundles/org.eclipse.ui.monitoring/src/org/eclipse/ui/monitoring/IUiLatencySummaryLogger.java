@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+import org.eclipse.ui.internal.monitoring.EventLoopMonitorThread;
+
+/**
+ * Classes logging {@link UiLatencySummary}s have to implement this interface. They are
+ * contributed to the same extension point as {@link IUiFreezeEventLogger}s, a class may implement
+ * both interfaces.
+ *
+ * @since 1.2
+ */
+public interface IUiLatencySummaryLogger {
+	/**
+	 * Invoked from the {@link EventLoopMonitorThread} every
+	 * {@link PreferenceConstants#LATENCY_SUMMARY_INTERVAL_MILLIS} milliseconds and when
+	 * monitoring stops. Implementations of this function must end quickly or else it will impact
+	 * system performance. All time-consuming tasks should be executed asynchronously.
+	 */
+	void log(UiLatencySummary summary);
+}
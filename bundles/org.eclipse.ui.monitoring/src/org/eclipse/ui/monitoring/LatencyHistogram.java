@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+/**
+ * The distribution of the dispatch durations of the UI events of one SWT event type.
+ * <p>
+ * Durations are counted in fixed buckets: durations below 8 microseconds have a bucket each,
+ * every larger power of two range is split into 8 buckets of equal width. Bucket boundaries are
+ * therefore at most 12.5% apart, independently of the magnitude of the duration. Durations
+ * longer than {@link #MAX_TRACKABLE_DURATION} are counted in the last bucket.
+ *
+ * @noextend This class is not intended to be subclassed by clients.
+ * @since 1.2
+ */
+public class LatencyHistogram {
+	/** The event type of the histogram counting the events of all types without own histogram. */
+	public static final int OTHER_EVENT_TYPES = -1;
+	/** The longest duration in microseconds that is counted in its own bucket (~71 minutes). */
+	public static final long MAX_TRACKABLE_DURATION = (1L << 32) - 1;
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The number of buckets of every histogram. */
+	public static final int BUCKET_COUNT = getBucket(MAX_TRACKABLE_DURATION) + 1;
+
+	private final int eventType;
+	private final long[] counts;
+	private final long totalCount;
+	private final long totalDuration;
+	private final long maxDuration;
+
+	/**
+	 * Creates a LatencyHistogram.
+	 *
+	 * @param eventType the SWT event type, or {@link #OTHER_EVENT_TYPES}
+	 * @param counts the number of events per bucket, {@link #BUCKET_COUNT} elements
+	 * @param totalDuration the sum of the durations of all events in microseconds
+	 * @param maxDuration the longest duration of an event in microseconds
+	 */
+	public LatencyHistogram(int eventType, long[] counts, long totalDuration, long maxDuration) {
+		if (counts.length != BUCKET_COUNT) {
+			throw new IllegalArgumentException("Expected " + BUCKET_COUNT + " buckets: " + counts.length); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		this.eventType = eventType;
+		this.counts = counts.clone();
+		long count = 0;
+		for (long c : counts) {
+			count += c;
+		}
+		this.totalCount = count;
+		this.totalDuration = totalDuration;
+		this.maxDuration = maxDuration;
+	}
+
+	/**
+	 * Returns the bucket counting the given duration.
+	 *
+	 * @param duration the duration in microseconds
+	 */
+	public static int getBucket(long duration) {
+		if (duration < SUB_BUCKETS) {
+			return duration <= 0 ? 0 : (int) duration;
+		}
+		if (duration > MAX_TRACKABLE_DURATION) {
+			duration = MAX_TRACKABLE_DURATION;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(duration);
+		int subBucket = (int) (duration >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the shortest duration in microseconds counted in the given bucket.
+	 */
+	public static long getBucketLowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * Returns the SWT event type of the events, or {@link #OTHER_EVENT_TYPES}.
+	 */
+	public final int getEventType() {
+		return eventType;
+	}
+
+	/**
+	 * Returns the number of events counted in the given bucket.
+	 */
+	public final long getCount(int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 * Returns the number of events.
+	 */
+	public final long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns the sum of the durations of all events in microseconds.
+	 */
+	public final long getTotalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Returns the longest duration of an event in microseconds.
+	 */
+	public final long getMaxDuration() {
+		return maxDuration;
+	}
+
+	/**
+	 * Returns an upper bound in microseconds of the duration the given percentage of the events
+	 * did not exceed, e.g. {@code getPercentile(99)} for the 99th percentile.
+	 *
+	 * @param percent a percentage between 0 and 100
+	 */
+	public final long getPercentile(double percent) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(totalCount * Math.min(Math.max(percent, 0), 100) / 100);
+		long count = 0;
+		for (int i = 0; i < counts.length; i++) {
+			count += counts[i];
+			if (count >= threshold && count > 0) {
+				long upperBound = i + 1 < BUCKET_COUNT ? getBucketLowerBound(i + 1) - 1 : maxDuration;
+				return Math.min(upperBound, maxDuration);
+			}
+		}
+		return maxDuration;
+	}
+
+	/** For debugging only. */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		buf.append("Event type "); //$NON-NLS-1$
+		buf.append(eventType);
+		buf.append(": "); //$NON-NLS-1$
+		buf.append(totalCount);
+		buf.append(" events, p50="); //$NON-NLS-1$
+		buf.append(getPercentile(50));
+		buf.append("us, p90="); //$NON-NLS-1$
+		buf.append(getPercentile(90));
+		buf.append("us, p99="); //$NON-NLS-1$
+		buf.append(getPercentile(99));
+		buf.append("us, max="); //$NON-NLS-1$
+		buf.append(maxDuration);
+		buf.append("us"); //$NON-NLS-1$
+		return buf.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2017 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,13 @@ public class PreferenceConstants {
 	 * message if all stack frames of the thread match the filter.
 	 */
 	public static final String NONINTERESTING_THREAD_FILTER = "noninteresting_thread_filter"; //$NON-NLS-1$
+	/**
+	 * Interval in milliseconds between logged summaries of the UI event latency and of the UI
+	 * freezes aggregated by signature. Zero disables the summaries.
+	 *
+	 * @since 1.2
+	 */
+	public static final String LATENCY_SUMMARY_INTERVAL_MILLIS = "latency_summary_interval"; //$NON-NLS-1$
 
 	private PreferenceConstants() {}
 }
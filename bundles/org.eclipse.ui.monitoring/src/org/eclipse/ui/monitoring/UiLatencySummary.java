@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+/**
+ * The UI event latency and UI freezes observed since monitoring was started.
+ *
+ * @noextend This class is not intended to be subclassed by clients.
+ * @since 1.2
+ */
+public class UiLatencySummary {
+	private final long startTimestamp;
+	private final long endTimestamp;
+	private final LatencyHistogram[] histograms;
+	private final FreezeSignature[] freezeSignatures;
+
+	/**
+	 * Creates a UiLatencySummary.
+	 *
+	 * @param startTime time when monitoring was started, in milliseconds since January 1, 1970 UTC
+	 * @param endTime time of the summary in milliseconds since January 1, 1970 UTC
+	 * @param histograms the dispatch durations per SWT event type
+	 * @param freezeSignatures the finished UI freezes aggregated by signature, most frequent first
+	 */
+	public UiLatencySummary(long startTime, long endTime, LatencyHistogram[] histograms,
+			FreezeSignature[] freezeSignatures) {
+		this.startTimestamp = startTime;
+		this.endTimestamp = endTime;
+		this.histograms = histograms;
+		this.freezeSignatures = freezeSignatures;
+	}
+
+	/**
+	 * Returns the time when monitoring was started, in milliseconds since January 1, 1970 UTC.
+	 */
+	public final long getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	/**
+	 * Returns the time of the summary, in milliseconds since January 1, 1970 UTC.
+	 */
+	public final long getEndTimestamp() {
+		return endTimestamp;
+	}
+
+	/**
+	 * Returns the histograms of the dispatch durations of all SWT event types which occurred,
+	 * ordered by event type. The histogram of {@link LatencyHistogram#OTHER_EVENT_TYPES} is last.
+	 */
+	public final LatencyHistogram[] getHistograms() {
+		return histograms;
+	}
+
+	/**
+	 * Returns the signatures of the finished UI freezes, most frequent first.
+	 */
+	public final FreezeSignature[] getFreezeSignatures() {
+		return freezeSignatures;
+	}
+
+	/** For debugging only. */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		buf.append("UI latency from "); //$NON-NLS-1$
+		buf.append(startTimestamp);
+		buf.append(" to "); //$NON-NLS-1$
+		buf.append(endTimestamp);
+		for (LatencyHistogram histogram : histograms) {
+			buf.append('\n');
+			buf.append(histogram);
+		}
+		for (FreezeSignature signature : freezeSignatures) {
+			buf.append('\n');
+			buf.append(signature);
+		}
+		return buf.toString();
+	}
+}
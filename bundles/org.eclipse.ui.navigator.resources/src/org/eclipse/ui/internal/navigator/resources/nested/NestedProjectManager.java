@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2016 Red Hat Inc., and others.
+ * Copyright (c) 2014, 2017 Red Hat Inc., and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,11 +11,13 @@
  ******************************************************************************/
 package org.eclipse.ui.internal.navigator.resources.nested;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFolder;
@@ -45,8 +47,22 @@ public class NestedProjectManager {
 	 * <li>the children project of a project (with any depth not only direct
 	 * ones) are the immediately following items in the map.</li>
 	 * </ul>
+	 * The map is concurrent, so that lookups from the viewers never wait for
+	 * the resource change listener. It is only modified while holding
+	 * {@link #projectsToLocations}.
 	 */
-	private SortedMap<IPath, IProject> locationsToProjects = new TreeMap<>(new PathComparator());
+	private ConcurrentNavigableMap<IPath, IProject> locationsToProjects = new ConcurrentSkipListMap<>(
+			new PathComparator());
+
+	/**
+	 * The location under which each project is currently registered in
+	 * {@link #locationsToProjects}, to find the entry of a project which was
+	 * deleted or moved and whose location is no longer known.
+	 */
+	private final Map<IProject, IPath> projectsToLocations = new HashMap<>();
+
+	private static final int PROJECT_CHANGE_FLAGS = IResourceDelta.DESCRIPTION | IResourceDelta.MOVED_FROM
+			| IResourceDelta.MOVED_TO | IResourceDelta.OPEN | IResourceDelta.REPLACED;
 
 	private NestedProjectManager() {
 		refreshProjectsList();
@@ -54,26 +70,67 @@ public class NestedProjectManager {
 			@Override
 			public void resourceChanged(IResourceChangeEvent event) {
 				IResourceDelta delta = event.getDelta();
-				IResource resource = null;
-				if (delta != null) {
-					resource = delta.getResource();
+				if (delta == null) {
+					return;
 				}
-				if (resource != null
-						&& (resource.getType() == IResource.PROJECT || resource.getType() == IResource.ROOT)) {
-					refreshProjectsList();
+				IResource resource = delta.getResource();
+				if (resource.getType() == IResource.PROJECT) {
+					projectChanged(delta);
+				} else if (resource.getType() == IResource.ROOT) {
+					for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+						projectChanged(projectDelta);
+					}
 				}
 			}
 		}, IResourceChangeEvent.POST_CHANGE);
 	}
 
+	private void projectChanged(IResourceDelta delta) {
+		if (delta.getResource().getType() != IResource.PROJECT) {
+			return;
+		}
+		if (delta.getKind() == IResourceDelta.ADDED || delta.getKind() == IResourceDelta.REMOVED
+				|| (delta.getFlags() & PROJECT_CHANGE_FLAGS) != 0) {
+			updateProject((IProject) delta.getResource());
+		}
+	}
+
 	private void refreshProjectsList() {
 		IProject[] knownProjects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
-		synchronized (locationsToProjects) {
+		synchronized (projectsToLocations) {
 			locationsToProjects.clear();
+			projectsToLocations.clear();
 			for (IProject project : knownProjects) {
 				IPath location = project.getLocation();
 				if (location != null) {
 					locationsToProjects.put(location, project);
+					projectsToLocations.put(project, location);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the entry of the given project with its current location, or
+	 * removes it if the project does not exist anymore.
+	 */
+	private void updateProject(IProject project) {
+		IPath location = project.exists() ? project.getLocation() : null;
+		synchronized (projectsToLocations) {
+			IPath previousLocation = location != null ? projectsToLocations.put(project, location)
+					: projectsToLocations.remove(project);
+			if (location != null && location.equals(previousLocation)) {
+				// unchanged, keep the entry visible to the readers which do
+				// not lock
+				return;
+			}
+			if (previousLocation != null) {
+				locationsToProjects.remove(previousLocation, project);
+			}
+			if (location != null) {
+				IProject previousProject = locationsToProjects.put(location, project);
+				if (previousProject != null && !previousProject.equals(project)) {
+					projectsToLocations.remove(previousProject, location);
 				}
 			}
 		}
@@ -95,14 +152,14 @@ public class NestedProjectManager {
 		if (location == null) {
 			return null;
 		}
-		IProject res;
-		synchronized (locationsToProjects) {
-			res = locationsToProjects.get(location);
-		}
+		IProject res = locationsToProjects.get(location);
 		if (res != null && (!res.exists() || !location.equals(res.getLocation()))) {
-			// project was deleted and state not refreshed
-			refreshProjectsList();
-			return getProject(folder);
+			// project was deleted or moved and state not updated yet
+			updateProject(res);
+			res = locationsToProjects.get(location);
+			if (res != null && (!res.exists() || !location.equals(res.getLocation()))) {
+				return null;
+			}
 		}
 		return res;
 	}
@@ -126,13 +183,11 @@ public class NestedProjectManager {
 			return false;
 		}
 		IPath queriedLocation = location.removeLastSegments(1);
-		synchronized (locationsToProjects) {
-			while (queriedLocation.segmentCount() > 0) {
-				if (locationsToProjects.containsKey(queriedLocation)) {
-					return true;
-				}
-				queriedLocation = queriedLocation.removeLastSegments(1);
+		while (queriedLocation.segmentCount() > 0) {
+			if (locationsToProjects.containsKey(queriedLocation)) {
+				return true;
 			}
+			queriedLocation = queriedLocation.removeLastSegments(1);
 		}
 		return false;
 	}
@@ -144,14 +199,12 @@ public class NestedProjectManager {
 		}
 		IProject mostDirectParentProject = null;
 		IPath queriedLocation = location.removeLastSegments(1);
-		synchronized (locationsToProjects) {
-			while (mostDirectParentProject == null && queriedLocation.segmentCount() > 0) {
-				mostDirectParentProject = locationsToProjects.get(queriedLocation);
-				if (mostDirectParentProject != null && mostDirectParentProject.getLocation() == null) {
-					mostDirectParentProject = null;
-				}
-				queriedLocation = queriedLocation.removeLastSegments(1);
+		while (mostDirectParentProject == null && queriedLocation.segmentCount() > 0) {
+			mostDirectParentProject = locationsToProjects.get(queriedLocation);
+			if (mostDirectParentProject != null && mostDirectParentProject.getLocation() == null) {
+				mostDirectParentProject = null;
 			}
+			queriedLocation = queriedLocation.removeLastSegments(1);
 		}
 		if (mostDirectParentProject != null) {
 			IPath parentContainerAbsolutePath = location.removeLastSegments(1);
@@ -185,17 +238,15 @@ public class NestedProjectManager {
 		if (containerLocation == null || projectLocation == null) {
 			return res.toArray(new IProject[res.size()]);
 		}
-		synchronized (locationsToProjects) {
-			for (Entry<IPath, IProject> entry : locationsToProjects.tailMap(containerLocation).entrySet()) {
-				if (entry.getValue().equals(container.getProject())) {
-					// ignore current project
-				} else if (containerLocation.isPrefixOf(entry.getKey())) {
-					if (entry.getKey().segmentCount() == containerLocation.segmentCount() + 1) {
-						res.add(entry.getValue());
-					}
-				} else { // moved to another branch, not worth continuing
-					break;
+		for (Entry<IPath, IProject> entry : locationsToProjects.tailMap(containerLocation).entrySet()) {
+			if (entry.getValue().equals(container.getProject())) {
+				// ignore current project
+			} else if (containerLocation.isPrefixOf(entry.getKey())) {
+				if (entry.getKey().segmentCount() == containerLocation.segmentCount() + 1) {
+					res.add(entry.getValue());
 				}
+			} else { // moved to another branch, not worth continuing
+				break;
 			}
 		}
 		return res.toArray(new IProject[res.size()]);
@@ -215,17 +266,15 @@ public class NestedProjectManager {
 		if (containerLocation == null || projectLocation == null) {
 			return false;
 		}
-		synchronized (locationsToProjects) {
-			for (Entry<IPath, IProject> entry : locationsToProjects.tailMap(containerLocation).entrySet()) {
-				if (entry.getValue().equals(container.getProject())) {
-					// ignore current project
-				} else if (containerLocation.isPrefixOf(entry.getKey())) {
-					if (entry.getKey().segmentCount() == containerLocation.segmentCount() + 1) {
-						return true;
-					}
-				} else { // moved to another branch, not worth continuing
-					break;
+		for (Entry<IPath, IProject> entry : locationsToProjects.tailMap(containerLocation).entrySet()) {
+			if (entry.getValue().equals(container.getProject())) {
+				// ignore current project
+			} else if (containerLocation.isPrefixOf(entry.getKey())) {
+				if (entry.getKey().segmentCount() == containerLocation.segmentCount() + 1) {
+					return true;
 				}
+			} else { // moved to another branch, not worth continuing
+				break;
 			}
 		}
 		return false;
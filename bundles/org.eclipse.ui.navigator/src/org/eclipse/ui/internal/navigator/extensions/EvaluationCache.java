@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,94 +14,119 @@ package org.eclipse.ui.internal.navigator.extensions;
 
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.eclipse.ui.internal.navigator.Policy;
 import org.eclipse.ui.internal.navigator.VisibilityAssistant;
 import org.eclipse.ui.internal.navigator.VisibilityAssistant.VisibilityListener;
 
 /**
  * A cache for evaluated {@link NavigatorContentDescriptor}.
+ * <p>
+ * The cache holds at most {@link #getMaxSize()} evaluations and evicts the
+ * least recently used ones first. Evaluations with and without overrides are
+ * kept in the same map, the key being the element together with the overrides
+ * flag. Elements are matched by {@link Object#equals(Object)}, as the
+ * trigger point and possible children expressions may test any state of an
+ * element, not only its class.
+ * </p>
+ * <p>
+ * The elements are only weakly referenced, so that the cache does not keep
+ * elements alive which are no longer shown in the viewer. The evaluations of
+ * collected elements are removed on the next access to the cache.
+ * </p>
+ * <p>
+ * The cache is thread safe and counts hits, misses and evictions, which are
+ * traced on {@link #clear()} with the <code>debug/evaluationcache</code>
+ * option.
+ * </p>
  */
 public class EvaluationCache implements VisibilityListener {
-	// TODO Have an LRU cache with max size as well as SoftReferences, to help
-	// prevent pathological GC performance that can happen where there are a
-	// large number of softly reachable objects, as well as helping to reduce
-	// dependence on the GC from keeping this cache's size in line in the first
-	// place.
 
-	// TODO Counters for cache hits, misses, replacements, etc.
-
-	// TODO Either the overrides and not overrides case should "share" parts of
-	// their data structures (for example, this can be a map of key -> pair
-	// instead of two maps) OR not bother tracking "overrides or not" state here
-	// and instead let users of this class handle it with two instances of this
-	// class.
-	private final Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> evaluations = new HashMap<>();
-	private final Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> evaluationsWithOverrides = new HashMap<>();
-
-	private final ReferenceQueue<Object> evaluationsQueue = new ReferenceQueue<>();
-	private final ReferenceQueue<Object> evaluationsWithOverridesQueue = new ReferenceQueue<>();
+	/**
+	 * Default maximum number of evaluations kept per cache
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
 
 	/**
-	 * @param anAssistant the VisisbilityAssistant to register with, must be non-null
+	 * A weak reference to an element together with the overrides flag. Once
+	 * the element is collected the key is only equal to itself, so that its
+	 * entry can still be removed.
 	 */
-	public EvaluationCache(VisibilityAssistant anAssistant) {
-		anAssistant.addListener(this);
-	}
+	private static final class Key extends WeakReference<Object> {
+		private final boolean overrides;
+		private final int hashCode;
 
-	private void cleanUpStaleEntries() {
-		// TODO Only clean up to a certain number of entries per call when merely accessing or setting?
-		// TODO Periodic task to run this every now and then, ala org.eclipse.core.runtime.jobs.Job?
-		// If this is done, will need to make this class thread safe.
+		Key(Object element, boolean overrides, ReferenceQueue<Object> queue) {
+			super(element, queue);
+			this.overrides = overrides;
+			this.hashCode = element.hashCode() * 31 + (overrides ? 1 : 0);
+		}
 
-		// Not thread safe, but this whole class isn't, so that is fine.
-		Reference<?> r;
-		// Reference#poll thankfully does not block if there is nothing available.
-		while ((r = evaluationsQueue.poll()) != null) {
-			processStaleEntry(r, evaluations);
+		@Override
+		public int hashCode() {
+			return hashCode;
 		}
-		while ((r = evaluationsWithOverridesQueue.poll()) != null) {
-			processStaleEntry(r, evaluationsWithOverrides);
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			if (overrides != other.overrides || hashCode != other.hashCode)
+				return false;
+			Object element = get();
+			return element != null && element.equals(other.get());
 		}
 	}
 
-	private static void processStaleEntry(Reference<?> r,
-			Map<? extends Reference<?>, ? extends Reference<?>> fromMap) {
-		if (r instanceof EvaluationReference) {
-			// Key has been collected; clear its entry.
-			EvaluationValueReference<?> oldVal = (EvaluationValueReference<?>) fromMap.remove(r);
-			if (oldVal != null) {
-				// Clear the key from the value so we don't try to prematurely
-				// remove any potential new mapping upon cleanUpStaleEntries()
-				oldVal.clear();
-			}
-		}
-		if (r instanceof EvaluationValueReference) {
-			// If the value has been collected, get its key, and then remove that entry.
-			EvaluationReference<?> key = ((EvaluationValueReference<?>) r).getKey();
-			if (key != null) {
-				fromMap.remove(key);
-			}
-		}
-		// All other Reference types we just leave alone.
+	private final int maxSize;
+
+	private final Map<Key, NavigatorContentDescriptor[]> evaluations;
+
+	private final ReferenceQueue<Object> collectedElements = new ReferenceQueue<>();
+
+	private long hits;
+
+	private long misses;
+
+	private long evictions;
+
+	/**
+	 * @param anAssistant the VisisbilityAssistant to register with, must be non-null
+	 */
+	public EvaluationCache(VisibilityAssistant anAssistant) {
+		this(anAssistant, DEFAULT_MAX_SIZE);
 	}
 
-	private static NavigatorContentDescriptor[] getDescriptorsFromMap(Object anElement,
-			Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> map) {
-		// Need to wrap in the reference type before querying, else it won't be found by HashMap.
-		EvaluationReference<Object> key = new EvaluationReference<>(anElement);
-		NavigatorContentDescriptor[] cachedDescriptors = null;
-		Reference<NavigatorContentDescriptor[]> cache = map.get(key);
-		if (cache != null && (cachedDescriptors = cache.get()) == null) {
-			// There was an entry, but it has been collected; remove stale mapping.
-			EvaluationValueReference<NavigatorContentDescriptor[]> value = map.remove(key);
-			if (value != null) {
-				// Clear the key from the value so we don't try to prematurely remove any potential new mapping upon cleanUpStaleEntries()
-				value.clear();
-			}
+	/**
+	 * @param anAssistant
+	 *            the VisisbilityAssistant to register with, must be non-null
+	 * @param aMaxSize
+	 *            the maximum number of evaluations to keep, must be positive
+	 */
+	public EvaluationCache(VisibilityAssistant anAssistant, int aMaxSize) {
+		if (aMaxSize <= 0) {
+			throw new IllegalArgumentException("Maximum size must be positive: " + aMaxSize); //$NON-NLS-1$
 		}
-		return cachedDescriptors;
+		maxSize = aMaxSize;
+		evaluations = new LinkedHashMap<Key, NavigatorContentDescriptor[]>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, NavigatorContentDescriptor[]> eldest) {
+				if (size() > maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		anAssistant.addListener(this);
 	}
 
 	/**
@@ -115,36 +140,19 @@ public class EvaluationCache implements VisibilityListener {
 	 * @return the cached descriptors for the given key, or {@code null} if not
 	 *         currently in the cache
 	 */
-	public final NavigatorContentDescriptor[] getDescriptors(Object anElement, boolean toComputeOverrides) {
-		cleanUpStaleEntries();
+	public final synchronized NavigatorContentDescriptor[] getDescriptors(Object anElement,
+			boolean toComputeOverrides) {
+		removeCollectedElements();
 		if (anElement == null)
 			return null;
 
-		if (toComputeOverrides) {
-			return getDescriptorsFromMap(anElement, evaluations);
-		}
-		return getDescriptorsFromMap(anElement, evaluationsWithOverrides);
-	}
-
-	private static void setDescriptorsInMap(Object anElement, NavigatorContentDescriptor[] theDescriptors,
-			Map<EvaluationReference<Object>, EvaluationValueReference<NavigatorContentDescriptor[]>> map,
-			ReferenceQueue<Object> queue) {
-		// Ideally, we would use a WeakReference wrapper if the object given uses identity equality
-		// (we can test if the class uses Object's equals or has its own override), and only use a SoftReference
-		// if the object overrides equals, but that is a bit too unwieldy to check (it would require
-		// checking reflective data) to be worth it.
-		EvaluationReference<Object> key = new EvaluationReference<>(anElement, queue);
-		EvaluationValueReference<NavigatorContentDescriptor[]> newValue =
-				new EvaluationValueReference<>(theDescriptors, key, queue);
-		EvaluationValueReference<NavigatorContentDescriptor[]> oldValue = map.put(key, newValue);
-		if (oldValue != null) {
-			// "Swap" the correct key instance when swapping the value, or else the above, temporary
-			// lookup key will be collected too early (not the actual anElement, but the Reference object).
-			// Not truly needed, but it will help the point of this field not go to waste.
-			newValue.swapKey(oldValue);
-			// Clear the key so we don't try to prematurely remove the new mapping upon cleanUpStaleEntries()
-			oldValue.clear();
+		NavigatorContentDescriptor[] cachedDescriptors = evaluations.get(new Key(anElement, toComputeOverrides, null));
+		if (cachedDescriptors != null) {
+			hits++;
+		} else {
+			misses++;
 		}
+		return cachedDescriptors;
 	}
 
 	/**
@@ -158,15 +166,18 @@ public class EvaluationCache implements VisibilityListener {
 	 *            whether overrides were considered in the computation of the
 	 *            given descriptors
 	 */
-	public final void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors,
+	public final synchronized void setDescriptors(Object anElement, NavigatorContentDescriptor[] theDescriptors,
 			boolean toComputeOverrides) {
-		cleanUpStaleEntries();
+		removeCollectedElements();
 		if (anElement != null) {
-			if (toComputeOverrides) {
-				setDescriptorsInMap(anElement, theDescriptors, evaluations, evaluationsQueue);
-			} else {
-				setDescriptorsInMap(anElement, theDescriptors, evaluationsWithOverrides, evaluationsWithOverridesQueue);
-			}
+			evaluations.put(new Key(anElement, toComputeOverrides, collectedElements), theDescriptors);
+		}
+	}
+
+	private void removeCollectedElements() {
+		Reference<?> key;
+		while ((key = collectedElements.poll()) != null) {
+			evaluations.remove(key);
 		}
 	}
 
@@ -181,24 +192,66 @@ public class EvaluationCache implements VisibilityListener {
 	}
 
 	/**
-	 * Clears the cache.
+	 * Clears the cache. The statistics are kept.
 	 */
-	public void clear() {
-		// Dump everything in the reference queues.
-		// Don't bother removing from the map based on references, we are about to clear everything anyways.
-		// This might lead to some premature removals because yet to be collected values are not clearing
-		// their key reference, but that is worth having a fast clearing of the maps.
-		// Thankfully, this should be rare, as when reference objects themselves are GCed before being added
-		// to a reference queue, they don't get added at all.
-		while (evaluationsQueue.poll() != null) {
-			// No need to do anything with the reference, we just need to drain
-			// the queue.
-		}
-		while (evaluationsWithOverridesQueue.poll() != null) {
-			// No need to do anything with the reference, we just need to drain
-			// the queue.
+	public synchronized void clear() {
+		if (Policy.DEBUG_EVALUATION_CACHE) {
+			System.out.println("Clearing evaluation cache: " + this); //$NON-NLS-1$
 		}
 		evaluations.clear();
-		evaluationsWithOverrides.clear();
+		while (collectedElements.poll() != null) {
+			// the collected keys are no longer in the map
+		}
+	}
+
+	/**
+	 * @return the maximum number of evaluations kept
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of evaluations currently cached
+	 */
+	public synchronized int size() {
+		removeCollectedElements();
+		return evaluations.size();
+	}
+
+	/**
+	 * @return the number of lookups which found cached descriptors
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups which found no cached descriptors
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of evaluations removed because the cache was full
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counters.
+	 */
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "EvaluationCache [size=" + evaluations.size() + ", maxSize=" + maxSize + ", hits=" + hits //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ ", misses=" + misses + ", evictions=" + evictions + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2016 IBM Corporation and others.
+ * Copyright (c) 2003, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.viewers.IBaseLabelProvider;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -32,6 +33,8 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Item;
 import org.eclipse.swt.widgets.Widget;
+import org.eclipse.ui.IWorkbenchPreferenceConstants;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.navigator.CommonNavigatorFrameSource;
 import org.eclipse.ui.internal.navigator.ContributorTrackingSet;
 import org.eclipse.ui.internal.navigator.NavigatorContentService;
@@ -72,6 +75,19 @@ public class CommonViewer extends TreeViewer {
 
 	private ICommonViewerMapper _mapper;
 
+	private final IPropertyChangeListener itemsLimitListener = event -> {
+		if (IWorkbenchPreferenceConstants.LARGE_VIEW_LIMIT.equals(event.getProperty())) {
+			Control control = getControl();
+			if (control != null && !control.isDisposed()) {
+				control.getDisplay().asyncExec(() -> {
+					if (!control.isDisposed()) {
+						updateItemsLimit();
+					}
+				});
+			}
+		}
+	};
+
 	/**
 	 * <p>
 	 * Constructs the Tree Viewer for the Common Navigator and the corresponding
@@ -96,6 +112,8 @@ public class CommonViewer extends TreeViewer {
 		super(aParent, aStyle);
 		contentService = new NavigatorContentService(aViewerId, this);
 		init();
+		updateItemsLimit();
+		PlatformUI.getPreferenceStore().addPropertyChangeListener(itemsLimitListener);
 	}
 
 	/**
@@ -112,6 +130,15 @@ public class CommonViewer extends TreeViewer {
 		initDragAndDrop();
 	}
 
+	/**
+	 * Applies {@link IWorkbenchPreferenceConstants#LARGE_VIEW_LIMIT} to the
+	 * number of children shown per parent.
+	 */
+	private void updateItemsLimit() {
+		int limit = PlatformUI.getPreferenceStore().getInt(IWorkbenchPreferenceConstants.LARGE_VIEW_LIMIT);
+		setItemsLimit(Math.max(0, limit));
+	}
+
 	void setCommonNavigator(CommonNavigator navigator) {
 		commonNavigator = navigator;
 	}
@@ -250,6 +277,7 @@ public class CommonViewer extends TreeViewer {
 	 * </p>
 	 */
 	public void dispose() {
+		PlatformUI.getPreferenceStore().removePropertyChangeListener(itemsLimitListener);
 		if (contentService != null) {
 			contentService.dispose();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -605,4 +605,18 @@ public interface IWorkbenchPreferenceConstants {
 	 * @since 3.7
 	 */
 	public static final String RECENTLY_USED_WORKINGSETS_SIZE = "RECENTLY_USED_WORKINGSETS_SIZE"; //$NON-NLS-1$
+
+	/**
+	 * Workbench preference id for the maximum number of children which views
+	 * with large trees, like the Project Explorer, initially show for a parent.
+	 * The remaining children are shown on request.
+	 * <p>
+	 * Integer-valued: <code>0</code> to always show all children. The default
+	 * value for this preference is: <code>1000</code>.
+	 * </p>
+	 *
+	 * @see org.eclipse.jface.viewers.AbstractTreeViewer#setItemsLimit(int)
+	 * @since 3.109
+	 */
+	public static final String LARGE_VIEW_LIMIT = "LARGE_VIEW_LIMIT"; //$NON-NLS-1$
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,11 +16,12 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.List;
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLStreamException;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.XMLMementoElement;
 import org.w3c.dom.Attr;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -29,16 +30,18 @@ import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
 
 /**
  * This class represents the default implementation of the
  * <code>IMemento</code> interface.
  * <p>
+ * The mementos created by <code>createReadRoot</code> and
+ * <code>createWriteRoot</code> are kept in a compact tree which is read from
+ * and written to the stream without building a DOM document. Mementos created
+ * on a DOM element operate on that element.
+ * </p>
+ * <p>
  * This class is not intended to be extended by clients.
  * </p>
  *
@@ -49,8 +52,11 @@ public final class XMLMemento implements IMemento {
 
     private Element element;
 
+    /** the element of the memento if it is not backed by a DOM document */
+    private XMLMementoElement node;
+
     /**
-     * Creates a <code>Document</code> from the <code>Reader</code>
+     * Reads a document from the <code>Reader</code>
      * and returns a memento on the first <code>Element</code> for reading
      * the document.
      * <p>
@@ -67,7 +73,7 @@ public final class XMLMemento implements IMemento {
     }
 
     /**
-     * Creates a <code>Document</code> from the <code>Reader</code>
+     * Reads a document from the <code>Reader</code>
      * and returns a memento on the first <code>Element</code> for reading
      * the document.
      *
@@ -83,57 +89,24 @@ public final class XMLMemento implements IMemento {
     public static XMLMemento createReadRoot(Reader reader, String baseDir)
             throws WorkbenchException {
         String errorMessage = null;
-        Exception exception = null;
+        Throwable exception = null;
 
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory
-                    .newInstance();
-            DocumentBuilder parser = factory.newDocumentBuilder();
-            InputSource source = new InputSource(reader);
-            if (baseDir != null) {
-				source.setSystemId(baseDir);
+            XMLMementoElement root = XMLMementoElement.read(reader, baseDir);
+            if (root != null) {
+				return new XMLMemento(root);
 			}
-
-			parser.setErrorHandler(new ErrorHandler() {
-				/**
-				 * @throws SAXException
-				 */
-				@Override
-				public void warning(SAXParseException exception) throws SAXException {
-					// ignore
-				}
-
-				/**
-				 * @throws SAXException
-				 */
-				@Override
-				public void error(SAXParseException exception) throws SAXException {
-					// ignore
-				}
-
-				@Override
-				public void fatalError(SAXParseException exception) throws SAXException {
-					throw exception;
-				}
-			});
-
-            Document document = parser.parse(source);
-            NodeList list = document.getChildNodes();
-            for (int i = 0; i < list.getLength(); i++) {
-                Node node = list.item(i);
-                if (node instanceof Element) {
-					return new XMLMemento(document, (Element) node);
-				}
-            }
-        } catch (ParserConfigurationException e) {
+        } catch (FactoryConfigurationError e) {
             exception = e;
             errorMessage = WorkbenchMessages.XMLMemento_parserConfigError;
-        } catch (IOException e) {
-            exception = e;
-            errorMessage = WorkbenchMessages.XMLMemento_ioError;
-        } catch (SAXException e) {
-            exception = e;
-            errorMessage = WorkbenchMessages.XMLMemento_formatError;
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof IOException) {
+                exception = e.getNestedException();
+                errorMessage = WorkbenchMessages.XMLMemento_ioError;
+            } else {
+                exception = e;
+                errorMessage = WorkbenchMessages.XMLMemento_formatError;
+            }
         }
 
         String problemText = null;
@@ -156,17 +129,7 @@ public final class XMLMemento implements IMemento {
 	 * @throws DOMException
 	 */
 	public static XMLMemento createWriteRoot(String type) throws DOMException {
-        Document document;
-        try {
-            document = DocumentBuilderFactory.newInstance()
-                    .newDocumentBuilder().newDocument();
-            Element element = document.createElement(type);
-            document.appendChild(element);
-            return new XMLMemento(document, element);
-        } catch (ParserConfigurationException e) {
-//            throw new Error(e);
-            throw new Error(e.getMessage());
-        }
+		return new XMLMemento(XMLMementoElement.createRoot(type));
     }
 
     /**
@@ -186,6 +149,19 @@ public final class XMLMemento implements IMemento {
         this.element = element;
     }
 
+	private XMLMemento(XMLMementoElement node) {
+		super();
+		this.node = node;
+	}
+
+	private static IMemento[] toMementos(List<XMLMementoElement> nodes) {
+		IMemento[] results = new IMemento[nodes.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = new XMLMemento(nodes.get(i));
+		}
+		return results;
+	}
+
 	/**
 	 * Creates a new child of this memento with the given type.
 	 * <p>
@@ -203,6 +179,9 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public IMemento createChild(String type) throws DOMException {
+		if (node != null) {
+			return new XMLMemento(node.createChild(type));
+		}
         Element child = factory.createElement(type);
         element.appendChild(child);
         return new XMLMemento(factory, child);
@@ -228,6 +207,11 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public IMemento createChild(String type, String id) throws DOMException {
+		if (node != null) {
+			XMLMementoElement child = node.createChild(type);
+			child.putAttribute(TAG_ID, id == null ? "" : id); //$NON-NLS-1$
+			return new XMLMemento(child);
+		}
         Element child = factory.createElement(type);
         child.setAttribute(TAG_ID, id == null ? "" : id); //$NON-NLS-1$
         element.appendChild(child);
@@ -243,6 +227,16 @@ public final class XMLMemento implements IMemento {
 	 *             if the child cannot be created
 	 */
 	public IMemento copyChild(IMemento child) throws DOMException {
+		XMLMementoElement childNode = ((XMLMemento) child).node;
+		if (node != null && childNode != null) {
+			return new XMLMemento(node.copyChild(childNode));
+		}
+		if (node != null || childNode != null) {
+			// copy between a DOM element and a compact element
+			XMLMemento copy = (XMLMemento) createChild(child.getType());
+			copy.putElement((XMLMemento) child, true);
+			return copy;
+		}
         Element childElement = ((XMLMemento) child).element;
         Element newElement = (Element) factory.importNode(childElement, true);
         element.appendChild(newElement);
@@ -251,6 +245,10 @@ public final class XMLMemento implements IMemento {
 
     @Override
 	public IMemento getChild(String type) {
+		if (node != null) {
+			XMLMementoElement child = node.getChild(type);
+			return child == null ? null : new XMLMemento(child);
+		}
 
         // Get the nodes.
         NodeList nodes = element.getChildNodes();
@@ -276,6 +274,9 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public IMemento[] getChildren() {
+		if (node != null) {
+			return toMementos(node.getChildren());
+		}
 
 		// Get the nodes.
 		final NodeList nodes = element.getChildNodes();
@@ -303,6 +304,9 @@ public final class XMLMemento implements IMemento {
 
     @Override
 	public IMemento[] getChildren(String type) {
+		if (node != null) {
+			return toMementos(node.getChildren(type));
+		}
 
         // Get the nodes.
         NodeList nodes = element.getChildNodes();
@@ -334,11 +338,10 @@ public final class XMLMemento implements IMemento {
 
     @Override
 	public Float getFloat(String key) {
-        Attr attr = element.getAttributeNode(key);
-        if (attr == null) {
+        String strValue = getAttributeValue(key);
+        if (strValue == null) {
 			return null;
 		}
-        String strValue = attr.getValue();
         try {
             return new Float(strValue);
         } catch (NumberFormatException e) {
@@ -353,21 +356,28 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String getType() {
+		if (node != null) {
+			return node.getType();
+		}
 		return element.getNodeName();
 	}
 
     @Override
 	public String getID() {
+		if (node != null) {
+			// like Element.getAttribute, answer an empty string if not set
+			String id = node.getAttribute(TAG_ID);
+			return id == null ? "" : id; //$NON-NLS-1$
+		}
         return element.getAttribute(TAG_ID);
     }
 
     @Override
 	public Integer getInteger(String key) {
-        Attr attr = element.getAttributeNode(key);
-        if (attr == null) {
+        String strValue = getAttributeValue(key);
+        if (strValue == null) {
 			return null;
 		}
-        String strValue = attr.getValue();
         try {
 			return Integer.valueOf(strValue);
         } catch (NumberFormatException e) {
@@ -380,23 +390,33 @@ public final class XMLMemento implements IMemento {
 
     @Override
 	public String getString(String key) {
-        Attr attr = element.getAttributeNode(key);
-        if (attr == null) {
+        return getAttributeValue(key);
+    }
+
+	/**
+	 * Returns the value of the attribute, or <code>null</code> if not set.
+	 */
+	private String getAttributeValue(String key) {
+		if (node != null) {
+			return node.getAttribute(key);
+		}
+		Attr attr = element.getAttributeNode(key);
+		if (attr == null) {
 			return null;
 		}
-        return attr.getValue();
-    }
+		return attr.getValue();
+	}
 
 	/**
 	 * @since 3.4
 	 */
 	@Override
 	public Boolean getBoolean(String key) {
-        Attr attr = element.getAttributeNode(key);
-        if (attr == null) {
+        String strValue = getAttributeValue(key);
+        if (strValue == null) {
 			return null;
 		}
-        return Boolean.valueOf(attr.getValue());
+        return Boolean.valueOf(strValue);
 	}
 
 	/**
@@ -411,6 +431,9 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String getTextData() throws DOMException {
+		if (node != null) {
+			return node.getText();
+		}
         Text textNode = getTextNode();
         if (textNode != null) {
             return textNode.getData();
@@ -423,6 +446,9 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String[] getAttributeKeys() {
+		if (node != null) {
+			return node.getAttributeNames();
+		}
 		NamedNodeMap map = element.getAttributes();
 		int size = map.getLength();
 		String[] attributes = new String[size];
@@ -457,6 +483,33 @@ public final class XMLMemento implements IMemento {
         return null;
     }
 
+    /**
+	 * Places the element's attributes into the document.
+	 *
+	 * @param copyText
+	 *            true if the first text node should be copied
+	 * @throws DOMException
+	 *             if the attributes or children cannot be copied to this node.
+	 */
+	private void putElement(XMLMemento memento, boolean copyText) throws DOMException {
+		if (memento.node != null) {
+			XMLMementoElement source = memento.node;
+			for (String key : source.getAttributeNames()) {
+				putString(key, source.getAttribute(key));
+			}
+			// Copy the text first, like for a DOM element (fixes bug 113659).
+			if (copyText && source.getText() != null) {
+				putTextData(source.getText());
+			}
+			for (XMLMementoElement child : source.getChildren()) {
+				XMLMemento copy = (XMLMemento) createChild(child.getType());
+				copy.putElement(new XMLMemento(child), true);
+			}
+			return;
+		}
+		putElement(memento.element, copyText);
+	}
+
     /**
 	 * Places the element's attributes into the document.
 	 *
@@ -502,7 +555,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putFloat(String key, float f) throws DOMException {
-        element.setAttribute(key, String.valueOf(f));
+        setAttributeValue(key, String.valueOf(f));
     }
 
 	/**
@@ -517,7 +570,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putInteger(String key, int n) throws DOMException {
-        element.setAttribute(key, String.valueOf(n));
+        setAttributeValue(key, String.valueOf(n));
     }
 
 	/**
@@ -533,7 +586,7 @@ public final class XMLMemento implements IMemento {
 	public void putMemento(IMemento memento) throws DOMException {
     	// Do not copy the element's top level text node (this would overwrite the existing text).
     	// Text nodes of children are copied.
-        putElement(((XMLMemento) memento).element, false);
+        putElement((XMLMemento) memento, false);
     }
 
 	/**
@@ -551,9 +604,17 @@ public final class XMLMemento implements IMemento {
         if (value == null) {
 			return;
 		}
-        element.setAttribute(key, value);
+        setAttributeValue(key, value);
     }
 
+	private void setAttributeValue(String key, String value) throws DOMException {
+		if (node != null) {
+			node.putAttribute(key, value);
+		} else {
+			element.setAttribute(key, value);
+		}
+	}
+
 	/**
 	 * Sets the value of the given key to the given boolean value.
 	 *
@@ -567,7 +628,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putBoolean(String key, boolean value) throws DOMException {
-		element.setAttribute(key, value ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
+		setAttributeValue(key, value ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
@@ -583,6 +644,10 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putTextData(String data) throws DOMException {
+		if (node != null) {
+			node.setText(data);
+			return;
+		}
         Text textNode = getTextNode();
         if (textNode == null) {
             textNode = factory.createTextNode(data);
@@ -603,7 +668,11 @@ public final class XMLMemento implements IMemento {
     public void save(Writer writer) throws IOException {
     	DOMWriter out = new DOMWriter(writer);
         try {
-        	out.print(element);
+			if (node != null) {
+				out.print(node);
+			} else {
+				out.print(element);
+			}
     	} finally {
     		out.close();
     	}
@@ -674,6 +743,56 @@ public final class XMLMemento implements IMemento {
         	}
     	}
 
+		/**
+		 * Prints the given element without a DOM document, in the same format
+		 * as a DOM element.
+		 *
+		 * @param element
+		 *            the element to print
+		 */
+		public void print(XMLMementoElement element) {
+			List<XMLMementoElement> children = element.getChildren();
+			String text = element.getText();
+			boolean hasChildren = !children.isEmpty() || text != null;
+			startTag(element, hasChildren);
+			if (hasChildren) {
+				boolean prevWasText = false;
+				int textIndex = text == null ? -1 : element.getTextIndex();
+				for (int i = 0; i <= children.size(); i++) {
+					if (i == textIndex) {
+						print(getEscaped(text));
+						prevWasText = true;
+					}
+					if (i < children.size()) {
+						if (!prevWasText) {
+							println();
+						}
+						print(children.get(i));
+						prevWasText = false;
+					}
+				}
+				if (!prevWasText) {
+					println();
+				}
+				print("</" + element.getType() + '>'); //$NON-NLS-1$
+			}
+		}
+
+		private void startTag(XMLMementoElement element, boolean hasChildren) {
+			StringBuffer sb = new StringBuffer();
+			sb.append("<"); //$NON-NLS-1$
+			sb.append(element.getType());
+			for (String name : element.getAttributeNames()) {
+				sb.append(" "); //$NON-NLS-1$
+				sb.append(name);
+				sb.append("=\""); //$NON-NLS-1$
+				sb.append(getEscaped(element.getAttribute(name)));
+				sb.append("\""); //$NON-NLS-1$
+			}
+			sb.append(hasChildren ? ">" : "/>"); //$NON-NLS-1$ //$NON-NLS-2$
+			print(sb.toString());
+		}
+
     	private void startTag(Element element, boolean hasChildren) {
     		StringBuffer sb = new StringBuffer();
     		sb.append("<"); //$NON-NLS-1$
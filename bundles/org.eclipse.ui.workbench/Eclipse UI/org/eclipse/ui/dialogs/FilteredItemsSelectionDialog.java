@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,8 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -215,6 +217,12 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	/**
+	 * Minimum number of items to match or sort before the work is split
+	 * between the threads of the common fork-join pool.
+	 */
+	private static final int PARALLEL_THRESHOLD = 10000;
+
 	private boolean refreshWithLastSelection = false;
 
 	private IHandlerActivation showViewHandler;
@@ -1159,6 +1167,25 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 	 */
 	protected abstract Comparator getItemsComparator();
 
+	/**
+	 * Returns whether large item sets may be matched and sorted by several
+	 * threads at once. If this method returns <code>true</code>,
+	 * {@link ItemsFilter#matchItem(Object)} and the comparator returned by
+	 * {@link #getItemsComparator()} may be called concurrently and must be
+	 * thread-safe.
+	 * <p>
+	 * The default implementation returns <code>false</code>. Subclasses may
+	 * override.
+	 * </p>
+	 *
+	 * @return <code>true</code> if items may be filtered and sorted in
+	 *         parallel, <code>false</code> otherwise
+	 * @since 3.109
+	 */
+	protected boolean isParallelFilteringSupported() {
+		return false;
+	}
+
 	/**
 	 * Fills the content provider with matching items.
 	 *
@@ -2041,6 +2068,18 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 								WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
 								length);
 
+				if (isParallelFilteringSupported()
+						&& lastCompletedResult.size() >= PARALLEL_THRESHOLD) {
+					Object[] cachedItems = lastCompletedResult.toArray();
+					List matches = ForkJoinPool.commonPool().invoke(
+							new MatchItemsTask(cachedItems, 0, cachedItems.length, itemsFilter, monitor));
+					if (!monitor.isCanceled()) {
+						contentProvider.addAll(matches, itemsFilter);
+						monitor.worked(length);
+					}
+					return;
+				}
+
 				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
 
 					Object item = lastCompletedResult.get(pos);
@@ -2075,6 +2114,63 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	}
 
+	/**
+	 * Matches a range of cached items against a filter, splitting the range
+	 * between the threads of the fork-join pool. The matching items of the
+	 * subranges are joined in order, so a sorted range yields a sorted result.
+	 */
+	private class MatchItemsTask extends RecursiveTask<List> {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final int CHUNK_SIZE = 2048;
+
+		private final Object[] cachedItems;
+
+		private final int start;
+
+		private final int end;
+
+		private final ItemsFilter itemsFilter;
+
+		private final IProgressMonitor monitor;
+
+		MatchItemsTask(Object[] cachedItems, int start, int end, ItemsFilter itemsFilter,
+				IProgressMonitor monitor) {
+			this.cachedItems = cachedItems;
+			this.start = start;
+			this.end = end;
+			this.itemsFilter = itemsFilter;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected List compute() {
+			if (monitor.isCanceled() || itemsFilter != filter) {
+				return Collections.EMPTY_LIST;
+			}
+			if (end - start <= CHUNK_SIZE) {
+				List matches = new ArrayList();
+				for (int i = start; i < end; i++) {
+					if (itemsFilter.matchItem(cachedItems[i])) {
+						matches.add(cachedItems[i]);
+					}
+				}
+				return matches;
+			}
+			int middle = (start + end) >>> 1;
+			MatchItemsTask second = new MatchItemsTask(cachedItems, middle, end, itemsFilter, monitor);
+			second.fork();
+			List matches = new MatchItemsTask(cachedItems, start, middle, itemsFilter, monitor).compute();
+			List secondMatches = second.join();
+			if (matches.isEmpty()) {
+				return secondMatches;
+			}
+			matches.addAll(secondMatches);
+			return matches;
+		}
+	}
+
 	/**
 	 * History stores a list of key, object pairs. The list is bounded at a
 	 * certain size. If the list exceeds this size the oldest element is removed
@@ -2569,6 +2665,18 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			}
 		}
 
+		/**
+		 * Adds items which are already known to match the filter.
+		 *
+		 * @param matches
+		 * @param itemsFilter
+		 */
+		public void addAll(List matches, ItemsFilter itemsFilter) {
+			if (itemsFilter == filter) {
+				this.items.addAll(matches);
+			}
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -2714,14 +2822,49 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		private Object[] getSortedItems() {
 			if (lastSortedItems.size() != items.size()) {
 				synchronized (lastSortedItems) {
+					Object[] sortedItems = items.toArray();
+					if (isParallelFilteringSupported() && sortedItems.length >= PARALLEL_THRESHOLD) {
+						sortedItems = sortInParallel(sortedItems);
+					} else {
+						Arrays.sort(sortedItems, getHistoryComparator());
+					}
 					lastSortedItems.clear();
-					lastSortedItems.addAll(items);
-					Collections.sort(lastSortedItems, getHistoryComparator());
+					lastSortedItems.addAll(Arrays.asList(sortedItems));
 				}
 			}
 			return lastSortedItems.toArray();
 		}
 
+		/**
+		 * Sorts items in the same order as the history comparator does: the
+		 * few history items are moved in front and both parts are merge sorted
+		 * with the items comparator in the common fork-join pool.
+		 *
+		 * @param unsortedItems
+		 * @return sorted items
+		 */
+		private Object[] sortInParallel(Object[] unsortedItems) {
+			List historyItems = new ArrayList();
+			List otherItems = new ArrayList(unsortedItems.length);
+			for (Object item : unsortedItems) {
+				if (isHistoryElement(item)) {
+					historyItems.add(item);
+				} else {
+					otherItems.add(item);
+				}
+			}
+			Comparator comparator = getItemsComparator();
+			Object[] sortedHistoryItems = historyItems.toArray();
+			Arrays.sort(sortedHistoryItems, comparator);
+			Object[] sortedItems = new Object[unsortedItems.length];
+			System.arraycopy(sortedHistoryItems, 0, sortedItems, 0, sortedHistoryItems.length);
+			Object[] sortedOtherItems = otherItems.toArray();
+			Arrays.parallelSort(sortedOtherItems, comparator);
+			System.arraycopy(sortedOtherItems, 0, sortedItems, sortedHistoryItems.length,
+					sortedOtherItems.length);
+			return sortedItems;
+		}
+
 		/**
 		 * Remember result of filtering.
 		 *
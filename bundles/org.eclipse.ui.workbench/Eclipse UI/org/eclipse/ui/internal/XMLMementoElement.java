@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.eclipse.jface.internal.XMLStreamReaders;
+import org.w3c.dom.DOMException;
+
+/**
+ * An element of an {@link org.eclipse.ui.XMLMemento} which is not backed by a
+ * DOM document.
+ * <p>
+ * The attributes are kept sorted by name, like the attributes of a DOM
+ * element, and only the first text node of the element is kept, which is the
+ * only one mementos give access to. Children are indexed by type once an
+ * element has enough children for a scan to be slower than a lookup.
+ * </p>
+ */
+public final class XMLMementoElement {
+
+	/**
+	 * The number of children from which the children are indexed by type.
+	 */
+	private static final int INDEX_THRESHOLD = 8;
+
+	private static final String[] NO_ATTRIBUTES = new String[0];
+
+	private final String type;
+
+	/** the names and values of the attributes, sorted by name */
+	private String[] attributes = NO_ATTRIBUTES;
+
+	private int attributeCount;
+
+	private String text;
+
+	/** the number of children preceding the text */
+	private int textIndex;
+
+	private final List<XMLMementoElement> children = new ArrayList<>(0);
+
+	private Map<String, List<XMLMementoElement>> childrenByType;
+
+	private XMLMementoElement(String type) {
+		this.type = type;
+	}
+
+	/**
+	 * Creates the root element of a document.
+	 *
+	 * @param type
+	 *            the type of the element
+	 * @return the element
+	 * @throws DOMException
+	 *             if the type is not a valid XML name
+	 */
+	public static XMLMementoElement createRoot(String type) throws DOMException {
+		checkName(type);
+		return new XMLMementoElement(type);
+	}
+
+	/**
+	 * Reads the first element of a document.
+	 *
+	 * @param reader
+	 *            the reader of the document
+	 * @param systemId
+	 *            the system id used to resolve relative references, or
+	 *            <code>null</code>
+	 * @return the first element, or <code>null</code> if the document has no
+	 *         element
+	 * @throws XMLStreamException
+	 *             if the document cannot be read or is not well-formed
+	 */
+	public static XMLMementoElement read(Reader reader, String systemId) throws XMLStreamException {
+		XMLStreamReader parser = XMLStreamReaders.create(reader, systemId);
+		try {
+			XMLMementoElement root = null;
+			while (parser.hasNext()) {
+				// continue after the root to report what follows it if malformed
+				if (parser.next() == XMLStreamConstants.START_ELEMENT && root == null) {
+					root = readElement(parser);
+				}
+			}
+			return root;
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * Reads the element the parser is positioned on, up to its end tag.
+	 */
+	private static XMLMementoElement readElement(XMLStreamReader parser) throws XMLStreamException {
+		XMLMementoElement element = new XMLMementoElement(getName(parser.getPrefix(), parser.getLocalName()));
+		int count = parser.getAttributeCount();
+		for (int i = 0; i < count; i++) {
+			element.setAttribute(getName(parser.getAttributePrefix(i), parser.getAttributeLocalName(i)),
+					parser.getAttributeValue(i));
+		}
+		StringBuilder text = null;
+		while (true) {
+			switch (parser.next()) {
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.CDATA:
+				if (element.text == null) {
+					if (text == null) {
+						text = new StringBuilder();
+						element.textIndex = element.children.size();
+					}
+					text.append(parser.getTextCharacters(), parser.getTextStart(), parser.getTextLength());
+				}
+				break;
+			case XMLStreamConstants.START_ELEMENT:
+				text = endText(element, text);
+				element.children.add(readElement(parser));
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				endText(element, text);
+				return element;
+			default:
+				// comments and processing instructions end a text node
+				text = endText(element, text);
+			}
+		}
+	}
+
+	private static StringBuilder endText(XMLMementoElement element, StringBuilder text) {
+		if (text != null) {
+			element.text = text.toString();
+		}
+		return null;
+	}
+
+	private static String getName(String prefix, String localName) {
+		return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+	}
+
+	/**
+	 * @return the type of the element
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @param name
+	 *            the name of an attribute
+	 * @return the value of the attribute, or <code>null</code> if the element
+	 *         has no such attribute
+	 */
+	public String getAttribute(String name) {
+		int index = indexOfAttribute(name);
+		return index < 0 ? null : attributes[2 * index + 1];
+	}
+
+	/**
+	 * @return the names of the attributes, sorted
+	 */
+	public String[] getAttributeNames() {
+		String[] names = new String[attributeCount];
+		for (int i = 0; i < attributeCount; i++) {
+			names[i] = attributes[2 * i];
+		}
+		return names;
+	}
+
+	/**
+	 * Sets the value of an attribute.
+	 *
+	 * @param name
+	 *            the name of the attribute
+	 * @param value
+	 *            the value of the attribute
+	 * @throws DOMException
+	 *             if the name is not a valid XML name
+	 */
+	public void putAttribute(String name, String value) throws DOMException {
+		if (indexOfAttribute(name) < 0) {
+			checkName(name);
+		}
+		setAttribute(name, value);
+	}
+
+	private void setAttribute(String name, String value) {
+		int index = indexOfAttribute(name);
+		if (index >= 0) {
+			attributes[2 * index + 1] = value;
+			return;
+		}
+		index = -index - 1;
+		if (2 * attributeCount == attributes.length) {
+			attributes = Arrays.copyOf(attributes, Math.max(4, 2 * attributes.length));
+		}
+		System.arraycopy(attributes, 2 * index, attributes, 2 * index + 2, 2 * (attributeCount - index));
+		attributes[2 * index] = name;
+		attributes[2 * index + 1] = value;
+		attributeCount++;
+	}
+
+	/**
+	 * Binary search of the attribute, answering <code>-(insertion point) - 1</code>
+	 * if there is no such attribute.
+	 */
+	private int indexOfAttribute(String name) {
+		int low = 0;
+		int high = attributeCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = attributes[2 * middle].compareTo(name);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * @return the data of the first text node of the element, or
+	 *         <code>null</code> if it has none
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the number of children preceding the text of the element
+	 */
+	public int getTextIndex() {
+		return textIndex;
+	}
+
+	/**
+	 * Sets the data of the text node of the element. The text node is created
+	 * as the first node of the element if it has none.
+	 *
+	 * @param data
+	 *            the data of the text node
+	 */
+	public void setText(String data) {
+		if (text == null) {
+			textIndex = 0;
+		}
+		text = data;
+	}
+
+	/**
+	 * Appends a new child to the element.
+	 *
+	 * @param childType
+	 *            the type of the child
+	 * @return the child
+	 * @throws DOMException
+	 *             if the type is not a valid XML name
+	 */
+	public XMLMementoElement createChild(String childType) throws DOMException {
+		checkName(childType);
+		XMLMementoElement child = new XMLMementoElement(childType);
+		addChild(child);
+		return child;
+	}
+
+	/**
+	 * Appends a deep copy of the given element to this element.
+	 *
+	 * @param element
+	 *            the element to copy
+	 * @return the copy
+	 */
+	public XMLMementoElement copyChild(XMLMementoElement element) {
+		XMLMementoElement copy = element.copy();
+		addChild(copy);
+		return copy;
+	}
+
+	private XMLMementoElement copy() {
+		XMLMementoElement copy = new XMLMementoElement(type);
+		copy.attributes = Arrays.copyOf(attributes, attributes.length);
+		copy.attributeCount = attributeCount;
+		copy.text = text;
+		copy.textIndex = textIndex;
+		for (XMLMementoElement child : children) {
+			copy.children.add(child.copy());
+		}
+		return copy;
+	}
+
+	private void addChild(XMLMementoElement child) {
+		children.add(child);
+		if (childrenByType != null) {
+			addToIndex(child);
+		}
+	}
+
+	/**
+	 * @return the children of the element
+	 */
+	public List<XMLMementoElement> getChildren() {
+		return Collections.unmodifiableList(children);
+	}
+
+	/**
+	 * @param childType
+	 *            the type of the children
+	 * @return the children of the element with the given type
+	 */
+	public List<XMLMementoElement> getChildren(String childType) {
+		if (children.size() < INDEX_THRESHOLD) {
+			List<XMLMementoElement> result = new ArrayList<>(children.size());
+			for (XMLMementoElement child : children) {
+				if (child.type.equals(childType)) {
+					result.add(child);
+				}
+			}
+			return result;
+		}
+		List<XMLMementoElement> result = getIndex().get(childType);
+		return result == null ? Collections.<XMLMementoElement> emptyList() : Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * @param childType
+	 *            the type of the child
+	 * @return the first child of the element with the given type, or
+	 *         <code>null</code> if it has none
+	 */
+	public XMLMementoElement getChild(String childType) {
+		if (children.size() < INDEX_THRESHOLD) {
+			for (XMLMementoElement child : children) {
+				if (child.type.equals(childType)) {
+					return child;
+				}
+			}
+			return null;
+		}
+		List<XMLMementoElement> result = getIndex().get(childType);
+		return result == null ? null : result.get(0);
+	}
+
+	private Map<String, List<XMLMementoElement>> getIndex() {
+		if (childrenByType == null) {
+			childrenByType = new HashMap<>();
+			for (XMLMementoElement child : children) {
+				addToIndex(child);
+			}
+		}
+		return childrenByType;
+	}
+
+	private void addToIndex(XMLMementoElement child) {
+		List<XMLMementoElement> list = childrenByType.get(child.type);
+		if (list == null) {
+			list = new ArrayList<>(1);
+			childrenByType.put(child.type, list);
+		}
+		list.add(child);
+	}
+
+	/**
+	 * Throws a DOMException if the given name is not a valid XML name, like a
+	 * DOM document does for the names of elements and attributes.
+	 */
+	private static void checkName(String name) throws DOMException {
+		if (!isName(name)) {
+			throw new DOMException(DOMException.INVALID_CHARACTER_ERR, "Invalid XML name: " + name); //$NON-NLS-1$
+		}
+	}
+
+	private static boolean isName(String name) {
+		if (name == null || name.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < name.length();) {
+			int c = name.codePointAt(i);
+			if (!(isNameStartChar(c) || (i > 0 && isNameChar(c)))) {
+				return false;
+			}
+			i += Character.charCount(c);
+		}
+		return true;
+	}
+
+	private static boolean isNameStartChar(int c) {
+		return c == ':' || c == '_' || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+				|| (c >= 0xC0 && c <= 0xD6) || (c >= 0xD8 && c <= 0xF6) || (c >= 0xF8 && c <= 0x2FF)
+				|| (c >= 0x370 && c <= 0x37D) || (c >= 0x37F && c <= 0x1FFF) || (c >= 0x200C && c <= 0x200D)
+				|| (c >= 0x2070 && c <= 0x218F) || (c >= 0x2C00 && c <= 0x2FEF) || (c >= 0x3001 && c <= 0xD7FF)
+				|| (c >= 0xF900 && c <= 0xFDCF) || (c >= 0xFDF0 && c <= 0xFFFD) || (c >= 0x10000 && c <= 0xEFFFF);
+	}
+
+	private static boolean isNameChar(int c) {
+		return c == '-' || c == '.' || (c >= '0' && c <= '9') || c == 0xB7 || (c >= 0x300 && c <= 0x36F)
+				|| (c >= 0x203F && c <= 0x2040);
+	}
+}
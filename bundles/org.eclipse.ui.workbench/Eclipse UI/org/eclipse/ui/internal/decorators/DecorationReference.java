@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,8 @@ class DecorationReference {
 
     boolean forceUpdate = false;
 
+    boolean prioritized = false;
+
 	IDecorationContext[] contexts;
 
     DecorationReference(Object object, Object adaptedObject, IDecorationContext context) {
@@ -71,6 +73,23 @@ class DecorationReference {
         this.forceUpdate = forceUpdate;
     }
 
+    /**
+     * Return true if the decoration was requested for an element a viewer
+     * is showing, rather than for a refresh.
+     * @return boolean
+     */
+    boolean isPrioritized() {
+        return prioritized;
+    }
+
+    /**
+     * Sets the prioritized flag.
+     * @param prioritized The prioritized to set
+     */
+    void setPrioritized(boolean prioritized) {
+        this.prioritized = prioritized;
+    }
+
     /**
      * Set the text that will be used to label the decoration
      * calculation.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,20 +12,25 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.decorators;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.jface.viewers.DecorationContext;
 import org.eclipse.jface.viewers.IDecorationContext;
@@ -41,18 +46,23 @@ import org.eclipse.ui.progress.WorkbenchJob;
 
 /**
  * The DecorationScheduler is the class that handles the decoration of elements
- * using a background thread.
+ * using background threads. Elements a viewer asks a label for are decorated
+ * before the ones queued by a refresh, and the results are sent to the
+ * listeners in batches.
  */
 public class DecorationScheduler {
 
 	static final ILabelProviderListener[] EMPTY_LISTENER_LIST = new ILabelProviderListener[0];
 
 	// When decorations are computed they are added to this cache via
-	// decorated() method
-	Map resultCache = new HashMap();
+	// decorated() method. Written by all of the decoration jobs.
+	ConcurrentMap resultCache = new ConcurrentHashMap();
 
 	// Objects that need an icon and text computed for display to the user
-	List awaitingDecoration = new ArrayList();
+	Deque awaitingDecoration = new ArrayDeque();
+
+	// Objects whose decoration is refreshed, decorated after the ones above
+	Deque awaitingRefresh = new ArrayDeque();
 
 	// Objects that are awaiting a label update.
 	Set pendingUpdate = new HashSet();
@@ -62,11 +72,17 @@ public class DecorationScheduler {
 
 	Map awaitingDecorationValues = new HashMap();
 
+	// The number of references the decoration jobs are working on
+	int decorating = 0;
+
+	// When the oldest of the pending updates was added
+	long pendingSince;
+
 	DecoratorManager decoratorManager;
 
 	boolean shutdown = false;
 
-	Job decorationJob;
+	Job[] decorationJobs;
 
 	UIJob updateJob;
 
@@ -80,6 +96,25 @@ public class DecorationScheduler {
 	/** Amount of time to delay the update notification when max reached. */
 	static final int UPDATE_DELAY = 100;
 
+	/**
+	 * Amount of time after which the decorations computed so far are shown,
+	 * even though others are still awaiting decoration.
+	 */
+	static final int UPDATE_BATCH_DELAY = 500;
+
+	/** The number of jobs decorating in parallel. */
+	static final int DECORATION_JOB_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	// Resumes the decoration once the label updates and clearing are over
+	private final IJobChangeListener resumeListener = new JobChangeAdapter() {
+		@Override
+		public void done(IJobChangeEvent event) {
+			synchronized (DecorationScheduler.this) {
+				scheduleDecoration();
+			}
+		}
+	};
+
 	/**
 	 * Return a new instance of the receiver configured for the supplied
 	 * DecoratorManager.
@@ -88,7 +123,7 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		createDecorationJobs();
 	}
 
 	/**
@@ -117,7 +152,9 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Queue the element and its adapted value if it has not been already.
+	 * Queue the element and its adapted value if it has not been already. The
+	 * decoration is requested for an element a viewer is showing, so it is
+	 * calculated before the ones queued by {@link #queueForRefresh}.
 	 *
 	 * @param element
 	 * @param adaptedElement
@@ -141,18 +178,63 @@ public class DecorationScheduler {
 				reference.setForceUpdate(forceUpdate);
 			}
 			reference.addContext(context);
+			if (!reference.isPrioritized()) {
+				// Queued by a refresh, move it ahead. The refresh entry
+				// is skipped once the reference has been taken.
+				reference.setPrioritized(true);
+				awaitingDecoration.add(element);
+			}
 		} else {
 			reference = new DecorationReference(element, adaptedElement, context);
 			reference.setForceUpdate(forceUpdate);
 			reference.setUndecoratedText(undecoratedText);
+			reference.setPrioritized(true);
 			awaitingDecorationValues.put(element, reference);
 			awaitingDecoration.add(element);
-			if (shutdown) {
-				return;
-			}
-			decorationJob.schedule();
+			scheduleDecoration();
+		}
+
+	}
+
+	/**
+	 * Queue the element and its adapted value for a decoration that is
+	 * refreshed. An update is fired whether decoration occurred or not. Such
+	 * elements are decorated once the ones requested by viewers are done.
+	 *
+	 * @param element
+	 * @param adaptedElement
+	 *            The adapted value of element. May be null.
+	 * @param context
+	 *            The decoration context
+	 */
+	synchronized void queueForRefresh(Object element, Object adaptedElement, IDecorationContext context) {
+
+		Assert.isNotNull(context);
+		DecorationReference reference = (DecorationReference) awaitingDecorationValues.get(element);
+		if (reference != null) {
+			reference.setForceUpdate(true);
+			reference.addContext(context);
+		} else {
+			reference = new DecorationReference(element, adaptedElement, context);
+			reference.setForceUpdate(true);
+			awaitingDecorationValues.put(element, reference);
+			awaitingRefresh.add(element);
+			scheduleDecoration();
 		}
+	}
 
+	/**
+	 * Schedule enough decoration jobs for the elements awaiting decoration.
+	 * Must be called while holding the receiver's lock.
+	 */
+	private void scheduleDecoration() {
+		if (shutdown) {
+			return;
+		}
+		int awaiting = awaitingDecorationValues.size();
+		for (int i = 0; i < decorationJobs.length && i < awaiting; i++) {
+			decorationJobs[i].schedule();
+		}
 	}
 
 	/**
@@ -222,8 +304,11 @@ public class DecorationScheduler {
 			IDecorationContext context, DecorationResult result) {
 		Map results = (Map) resultCache.get(context);
 		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
+			results = new ConcurrentHashMap();
+			Map existing = (Map) resultCache.putIfAbsent(context, results);
+			if (existing != null) {
+				results = existing;
+			}
 		}
 		results.put(element, result);
 	}
@@ -255,67 +340,136 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Get the next resource to be decorated.
+	 * Get the next resource to be decorated. The elements requested by viewers
+	 * come before the refreshed ones. The caller must call
+	 * {@link #elementDecorated()} once done with it.
 	 *
 	 * @return IResource
 	 */
 	synchronized DecorationReference nextElement() {
 
-		if (shutdown || awaitingDecoration.isEmpty()) {
+		if (shutdown) {
 			return null;
 		}
-		Object element = awaitingDecoration.remove(0);
+		while (true) {
+			Object element = awaitingDecoration.poll();
+			if (element == null) {
+				element = awaitingRefresh.poll();
+				if (element == null) {
+					return null;
+				}
+			}
+			// Skip the entries of references already taken
+			DecorationReference reference = (DecorationReference) awaitingDecorationValues.remove(element);
+			if (reference != null) {
+				decorating++;
+				return reference;
+			}
+		}
+	}
+
+	/**
+	 * A reference returned by {@link #nextElement()} has been decorated. Notify
+	 * the listeners when all of them are or when the pending updates have been
+	 * waiting for long enough.
+	 */
+	synchronized void elementDecorated() {
+		decorating--;
+		if (!isDecorating()) {
+			decorated();
+			return;
+		}
+		if (updateJob != null && updateJob.getState() != Job.NONE) {
+			return;
+		}
+		synchronized (pendingKey) {
+			if (pendingUpdate.isEmpty()
+					|| System.currentTimeMillis() - pendingSince < UPDATE_BATCH_DELAY) {
+				return;
+			}
+		}
+		decorated();
+	}
+
+	/**
+	 * Return whether elements are awaiting decoration or being decorated.
+	 *
+	 * @return boolean
+	 */
+	synchronized boolean isDecorating() {
+		return decorating > 0 || !awaitingDecorationValues.isEmpty();
+	}
+
+	/**
+	 * Add an element awaiting a label update.
+	 *
+	 * @param element
+	 */
+	void addPendingUpdate(Object element) {
+		synchronized (pendingKey) {
+			if (pendingUpdate.isEmpty()) {
+				pendingSince = System.currentTimeMillis();
+			}
+			pendingUpdate.add(element);
+		}
+	}
 
-		return (DecorationReference) awaitingDecorationValues.remove(element);
+	/**
+	 * Create the jobs used for running decoration.
+	 */
+	private void createDecorationJobs() {
+		decorationJobs = new Job[DECORATION_JOB_COUNT];
+		for (int i = 0; i < decorationJobs.length; i++) {
+			decorationJobs[i] = createDecorationJob();
+		}
+		synchronized (this) {
+			scheduleDecoration();
+		}
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Create a job that decorates the elements until none are awaiting
+	 * decoration.
+	 *
+	 * @return Job
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
+	private Job createDecorationJob() {
+		Job decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			@Override
 			public IStatus run(IProgressMonitor monitor) {
 
+				int awaiting;
 				synchronized (DecorationScheduler.this) {
 					if (shutdown) {
 						return Status.CANCEL_STATUS;
 					}
+					awaiting = awaitingDecorationValues.size();
 				}
 
-				while (updatesPending()) {
-
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-						// Cancel and try again if there was an error
-						schedule();
-						return Status.CANCEL_STATUS;
-					}
+				// The decoration is resumed once the updates are done,
+				// see resumeListener
+				if (updatesPending()) {
+					return Status.OK_STATUS;
 				}
 
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
-						WorkbenchMessages.DecorationScheduler_CalculatingTask, awaitingDecoration.size());
-				// will block if there are no resources to be decorated
+						WorkbenchMessages.DecorationScheduler_CalculatingTask, awaiting);
 				DecorationReference reference;
 
 				while ((reference = nextElement()) != null) {
 
-					subMonitor.split(1);
-
-					monitor.subTask(reference.getSubTask());
-					Object element = reference.getElement();
-					boolean force = reference.shouldForceUpdate();
-					IDecorationContext[] contexts = reference.getContexts();
-					for (IDecorationContext context : contexts) {
-						ensureResultCached(element, force, context);
-					}
-					// Only notify listeners when we have exhausted the
-					// queue of decoration requests.
-					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
-							decorated();
+					try {
+						subMonitor.split(1);
+
+						monitor.subTask(reference.getSubTask());
+						Object element = reference.getElement();
+						boolean force = reference.shouldForceUpdate();
+						IDecorationContext[] contexts = reference.getContexts();
+						for (IDecorationContext context : contexts) {
+							ensureResultCached(element, force, context);
 						}
+					} finally {
+						elementDecorated();
 					}
 				}
 				return Status.OK_STATUS;
@@ -335,10 +489,7 @@ public class DecorationScheduler {
 					IDecorationContext context) {
 				boolean elementIsCached = internalGetResult(element, context) != null;
 				if (elementIsCached) {
-					synchronized (pendingKey) {
-						pendingUpdate.add(element);
-					}
-
+					addPendingUpdate(element);
 				}
 
 				if (!elementIsCached) {
@@ -364,11 +515,7 @@ public class DecorationScheduler {
 						// Add an update for only the original element
 						// to
 						// prevent multiple updates and clear the cache.
-						synchronized (pendingKey) {
-							pendingUpdate.add(element);
-						}
-
-
+						addPendingUpdate(element);
 					}
 				}
 			}
@@ -386,7 +533,7 @@ public class DecorationScheduler {
 
 		decorationJob.setSystem(true);
 		decorationJob.setPriority(Job.DECORATE);
-		decorationJob.schedule();
+		return decorationJob;
 	}
 
 	/**
@@ -431,6 +578,7 @@ public class DecorationScheduler {
 
 		};
 		clear.setSystem(true);
+		clear.addJobChangeListener(resumeListener);
 
 		return clear;
 	}
@@ -517,7 +665,7 @@ public class DecorationScheduler {
                 // Other decoration requests may have occurred due to
                 // updates or we may have timed out updating listeners.
                 // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
+                if (!isDecorating() && hasPendingUpdates()) {
                     resultCache.clear();
                 }
             }
@@ -547,6 +695,7 @@ public class DecorationScheduler {
 		};
 
 		job.setSystem(true);
+		job.addJobChangeListener(resumeListener);
 		return job;
 	}
 
@@ -625,7 +774,7 @@ public class DecorationScheduler {
 	 * @return boolean
 	 */
 	public boolean processingUpdates() {
-		return !hasPendingUpdates() && !awaitingDecoration.isEmpty();
+		return !hasPendingUpdates() && isDecorating();
 	}
 
 	/**
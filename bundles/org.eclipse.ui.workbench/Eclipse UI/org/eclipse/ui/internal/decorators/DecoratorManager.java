@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -737,12 +737,12 @@ public class DecoratorManager implements ILabelProviderListener,
 			fireListeners(event);
 		} else {
 			// Assume that someone is going to care about the
-			// decoration result and just start it right away
+			// decoration result and just start it right away. The refresh
+			// forces an update in case full decorators are the only ones
+			// enabled.
 			for (int i = 0; i < elements.length; i++) {
 				Object adapted = getResourceAdapter(elements[i]);
-				// Force an update in case full decorators are the only ones
-				// enabled
-				scheduler.queueForDecoration(elements[i], adapted, true, null,
+				scheduler.queueForRefresh(elements[i], adapted,
 						DecorationContext.DEFAULT_CONTEXT);
 			}
 		}
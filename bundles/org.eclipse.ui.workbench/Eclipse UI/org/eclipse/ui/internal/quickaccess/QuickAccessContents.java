@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@
 package org.eclipse.ui.internal.quickaccess;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -23,6 +24,11 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.bindings.TriggerSequence;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.layout.GridDataFactory;
@@ -57,6 +63,7 @@ import org.eclipse.swt.graphics.TextStyle;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Listener;
@@ -107,6 +114,8 @@ public abstract class QuickAccessContents {
 	private Color grayColor;
 	private TextLayout textLayout;
 	private boolean showAllMatches = false;
+	private QuickAccessIndex[] indexes;
+	private MatchingJob matchingJob;
 	protected boolean resized = false;
 	private TriggerSequence keySequence;
 
@@ -125,7 +134,9 @@ public abstract class QuickAccessContents {
 	}
 
 	/**
-	 * Refreshes the contents of the quick access shell
+	 * Refreshes the contents of the quick access shell. Unless the filter is
+	 * empty, the matching entries are computed by a background job which is
+	 * canceled by the next refresh, and the table is updated when it is done.
 	 *
 	 * @param filter
 	 *            The filter text to apply to results
@@ -133,8 +144,6 @@ public abstract class QuickAccessContents {
 	 */
 	public void refresh(String filter) {
 		if (table != null) {
-			boolean filterTextEmpty = filter.length() == 0;
-
 			// extra entry added when the user activates help search
 			// (extensible)
 			List<QuickAccessEntry> extraEntries = new ArrayList<>();
@@ -145,23 +154,57 @@ public abstract class QuickAccessContents {
 			// perfect match, to be selected in the table if not null
 			QuickAccessElement perfectMatch = getPerfectMatch(filter);
 
-			List<QuickAccessEntry>[] entries = computeMatchingEntries(filter, perfectMatch, extraEntries);
-			int selectionIndex = refreshTable(perfectMatch, entries, extraEntries);
-
-			if (table.getItemCount() > 0) {
-				table.setSelection(selectionIndex);
-				hideHintText();
-			} else if (filterTextEmpty) {
-				showHintText(QuickAccessMessages.QuickAccess_StartTypingToFindMatches, grayColor);
+			if (matchingJob != null) {
+				matchingJob.cancel();
+				matchingJob = null;
+			}
+			MatchingJob job = new MatchingJob(filter, perfectMatch, extraEntries);
+			if (filter.length() == 0) {
+				job.computeMatchingEntries(new NullProgressMonitor());
+				showMatchingEntries(job);
 			} else {
-				showHintText(QuickAccessMessages.QuickAccessContents_NoMatchingResults, grayColor);
+				matchingJob = job;
+				job.schedule();
 			}
+		}
+	}
 
-			// update info as-you-type
-			updateInfoLabel();
+	/**
+	 * Computes and shows the entries for the current filter right away if they
+	 * are still being computed in the background, so that a selection is made
+	 * from the entries matching what was typed.
+	 */
+	private void finishMatching() {
+		MatchingJob job = matchingJob;
+		if (job != null) {
+			job.cancel();
+			matchingJob = null;
+			job.computeMatchingEntries(new NullProgressMonitor());
+			showMatchingEntries(job);
+		}
+	}
 
-			updateFeedback(filterTextEmpty, showAllMatches);
+	/**
+	 * Shows the entries computed by the given job in the table.
+	 */
+	private void showMatchingEntries(MatchingJob job) {
+		numberOfFilteredResults = job.numberOfFilteredResults;
+		boolean filterTextEmpty = job.originalFilter.length() == 0;
+		int selectionIndex = refreshTable(job.perfectMatch, job.entries, job.extraEntries);
+
+		if (table.getItemCount() > 0) {
+			table.setSelection(selectionIndex);
+			hideHintText();
+		} else if (filterTextEmpty) {
+			showHintText(QuickAccessMessages.QuickAccess_StartTypingToFindMatches, grayColor);
+		} else {
+			showHintText(QuickAccessMessages.QuickAccessContents_NoMatchingResults, grayColor);
 		}
+
+		// update info as-you-type
+		updateInfoLabel();
+
+		updateFeedback(filterTextEmpty, job.showAllMatches);
 	}
 
 	QuickAccessEntry searchHelpEntry = null;
@@ -376,60 +419,111 @@ public abstract class QuickAccessContents {
 	}
 
 	/**
-	 * Returns a list per provider containing matching {@link QuickAccessEntry}
-	 * that should be displayed in the table given a text filter and a perfect
-	 * match entry that should be given priority. The number of items returned
-	 * is affected by {@link #getShowAllMatches()} and the size of the table's
-	 * composite.
-	 *
-	 * @param filter
-	 *            the string text filter to apply, possibly empty
-	 * @param perfectMatch
-	 *            a quick access element that should be given priority or
-	 *            <code>null</code>
-	 * @param extraEntries
-	 *            extra entries that will be added to the tabular visualization
-	 *            after computing matching entries, i.e. Search in Help
-	 * @return the array of lists (one per provider) contains the quick access
-	 *         entries that should be added to the table, possibly empty
+	 * Computes the entries to show for a filter. The indexes of the providers
+	 * and everything else which may only be accessed on the UI thread are
+	 * captured when the job is created; the matching itself runs in the job.
 	 */
-	private List<QuickAccessEntry>[] computeMatchingEntries(String filter,
-			QuickAccessElement perfectMatch, List<QuickAccessEntry> extraEntries) {
-		// collect matches in an array of lists
-		@SuppressWarnings("unchecked")
-		List<QuickAccessEntry>[] entries = new List[providers.length];
-		// extra entries are limiting the number of items for search results
-		int maxCount = computeNumberOfItems() - extraEntries.size();
-		int[] indexPerProvider = new int[providers.length];
-		int countPerProvider = Math.min(maxCount / 4, INITIAL_COUNT_PER_PROVIDER);
-		int prevPick = 0;
-		int countTotal = 0;
-		boolean perfectMatchAdded = true;
-		if (perfectMatch != null) {
-			// reserve one entry for the perfect match
-			maxCount--;
-			perfectMatchAdded = false;
-		}
-		boolean done;
-		String category = null;
-		Set<String> prevPickIds = new HashSet<>();
-		do {
-			// will be set to false if we find a provider with remaining
-			// elements
-			done = true;
+	private class MatchingJob extends Job {
+
+		final String originalFilter;
+
+		final QuickAccessElement perfectMatch;
+
+		final List<QuickAccessEntry> extraEntries;
+
+		final boolean showAllMatches;
+
+		private final String perfectMatchLabel;
+
+		private final QuickAccessIndex[] providerIndexes;
+
+		private final Pattern categoryPattern;
+
+		private final Set<QuickAccessElement> enabledPreviousPicks = new HashSet<>();
+
+		private final int maxCount;
+
+		private final Display display;
+
+		/**
+		 * The list per provider of entries to show, set when the matching is
+		 * done.
+		 */
+		List<QuickAccessEntry>[] entries;
+
+		int numberOfFilteredResults;
+
+		MatchingJob(String filter, QuickAccessElement perfectMatch, List<QuickAccessEntry> extraEntries) {
+			super(QuickAccessMessages.QuickAccessContents_MatchingJobName);
+			setSystem(true);
+			this.originalFilter = filter;
+			this.perfectMatch = perfectMatch;
+			this.perfectMatchLabel = perfectMatch == null ? null : perfectMatch.getLabel();
+			this.extraEntries = extraEntries;
+			this.showAllMatches = QuickAccessContents.this.showAllMatches;
+			// extra entries are limiting the number of items for search
+			// results
+			this.maxCount = computeNumberOfItems() - extraEntries.size();
+			this.display = table.getDisplay();
+			this.categoryPattern = getCategoryPattern();
+			this.providerIndexes = updateIndexes();
+			for (int i = 0; i < providers.length; i++) {
+				if (providers[i] instanceof PreviousPicksProvider) {
+					for (QuickAccessElement element : providerIndexes[i].getElements()) {
+						if (isProvidedByOriginalProvider(element)) {
+							enabledPreviousPicks.add(element);
+						}
+					}
+				}
+			}
+			if (perfectMatch != null && providers[0] instanceof PreviousPicksProvider
+					&& isProvidedByOriginalProvider(perfectMatch)) {
+				enabledPreviousPicks.add(perfectMatch);
+			}
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			if (!computeMatchingEntries(monitor)) {
+				return Status.CANCEL_STATUS;
+			}
+			display.asyncExec(() -> {
+				if (matchingJob == this && table != null && !table.isDisposed()) {
+					matchingJob = null;
+					showMatchingEntries(this);
+				}
+			});
+			return Status.OK_STATUS;
+		}
+
+		/**
+		 * Computes a list per provider containing matching
+		 * {@link QuickAccessEntry} that should be displayed in the table. The
+		 * matches of every provider are ranked by their match quality, and
+		 * only the top ranked ones are kept unless all matches are shown. The
+		 * number of entries is affected by {@link #getShowAllMatches()} and
+		 * the size of the table's composite.
+		 *
+		 * @param monitor
+		 *            the monitor to check for cancellation
+		 * @return <code>false</code> if the computation was canceled
+		 */
+		boolean computeMatchingEntries(IProgressMonitor monitor) {
+			String filter = originalFilter;
 			// check for a category filter, like "Views: "
-			Matcher categoryMatcher = getCategoryPattern().matcher(filter);
+			String category = null;
+			Matcher categoryMatcher = categoryPattern.matcher(filter);
 			if (categoryMatcher.matches()) {
 				category = categoryMatcher.group(1);
 				filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
 			}
-			for (int i = 0; i < providers.length
-					&& (showAllMatches || countTotal < maxCount); i++) {
-				if (entries[i] == null) {
-					entries[i] = new ArrayList<>();
-					indexPerProvider[i] = 0;
-				}
-				int count = 0;
+
+			// rank the matching entries of every provider
+			@SuppressWarnings("unchecked")
+			List<QuickAccessEntry>[] matches = new List[providers.length];
+			Set<String> prevPickIds = new HashSet<>();
+			int prevPick = 0;
+			for (int i = 0; i < providers.length; i++) {
 				QuickAccessProvider provider = providers[i];
 				// when category is specified, skip providers except the
 				// specified one and the previous pick provider
@@ -437,82 +531,151 @@ public abstract class QuickAccessContents {
 				if (category != null && !category.equalsIgnoreCase(provider.getName()) && !isPreviousPickProvider) {
 					continue;
 				}
-				if (filter.length() > 0 || provider.isAlwaysPresent() || showAllMatches) {
-					QuickAccessElement[] sortedElements = provider.getElementsSorted();
-
-					// count previous picks and store ids
-					if (isPreviousPickProvider) {
-						prevPick = sortedElements.length;
-						Stream.of(sortedElements).forEach(e -> prevPickIds.add(e.getId()));
-					}
+				if (filter.length() == 0 && !provider.isAlwaysPresent() && !showAllMatches) {
+					continue;
+				}
+				QuickAccessIndex index = providerIndexes[i];
+				QuickAccessElement[] sortedElements = index.getElements();
 
-					int j = indexPerProvider[i];
-					// loops on all the elements of a provider
-					while (j < sortedElements.length
-							&& (showAllMatches || (count < countPerProvider && countTotal < maxCount))) {
-						QuickAccessElement element = sortedElements[j];
-
-						// Skip element if already in contained amid previous picks
-						if (!isPreviousPickProvider && prevPickIds.contains(element.getId())) {
-							j++;
-							continue;
-						}
+				// count previous picks and store ids
+				if (isPreviousPickProvider) {
+					prevPick = sortedElements.length;
+					Stream.of(sortedElements).forEach(e -> prevPickIds.add(e.getId()));
+				}
 
-						QuickAccessEntry entry = null;
-						if (filter.length() == 0) {
-							if (i == 0 || showAllMatches) {
-								entry = new QuickAccessEntry(element, provider, new int[0][0],
+				matches[i] = new ArrayList<>();
+				if (filter.length() == 0) {
+					if (i == 0 || showAllMatches) {
+						for (QuickAccessElement element : sortedElements) {
+							if (isPreviousPickProvider || !prevPickIds.contains(element.getId())) {
+								QuickAccessEntry entry = new QuickAccessEntry(element, provider, new int[0][0],
 										new int[0][0], QuickAccessEntry.MATCH_PERFECT);
-							} else {
-								entry = null;
-							}
-						} else {
-							QuickAccessEntry possibleMatch = element.match(filter, provider);
-							if (possibleMatch != null) {
-								entry = possibleMatch;
-							}
-
-						}
-						if (entryEnabled(provider, entry)) {
-							entries[i].add(entry);
-							count++;
-							countTotal++;
-							if (i == 0 && entry.element == perfectMatch) {
-								perfectMatchAdded = true;
-								maxCount = MAX_COUNT_TOTAL;
+								if (entryEnabled(provider, entry)) {
+									matches[i].add(entry);
+								}
 							}
 						}
+					}
+					continue;
+				}
+				for (int j : index.getCandidates(filter)) {
+					if (monitor.isCanceled()) {
+						return false;
+					}
+					QuickAccessElement element = sortedElements[j];
+					// Skip element if already in contained amid previous picks
+					if (!isPreviousPickProvider && prevPickIds.contains(element.getId())) {
+						continue;
+					}
+					QuickAccessEntry entry = element.match(filter, provider, index.getLabel(j));
+					if (entryEnabled(provider, entry)) {
+						matches[i].add(entry);
+					}
+				}
+				// stable, so equally good matches stay sorted by label
+				matches[i].sort(Comparator.comparingInt(QuickAccessEntry::getMatchQuality));
+			}
 
+			// collect the top ranked matches in an array of lists
+			@SuppressWarnings("unchecked")
+			List<QuickAccessEntry>[] result = new List[providers.length];
+			int limit = maxCount;
+			int[] indexPerProvider = new int[providers.length];
+			int countPerProvider = Math.min(limit / 4, INITIAL_COUNT_PER_PROVIDER);
+			int countTotal = 0;
+			boolean perfectMatchAdded = true;
+			if (perfectMatch != null) {
+				// reserve one entry for the perfect match
+				limit--;
+				perfectMatchAdded = false;
+			}
+			boolean done;
+			do {
+				// will be set to false if we find a provider with remaining
+				// elements
+				done = true;
+				for (int i = 0; i < providers.length && (showAllMatches || countTotal < limit); i++) {
+					if (result[i] == null) {
+						result[i] = new ArrayList<>();
+					}
+					if (matches[i] == null) {
+						continue;
+					}
+					int count = 0;
+					int j = indexPerProvider[i];
+					while (j < matches[i].size()
+							&& (showAllMatches || (count < countPerProvider && countTotal < limit))) {
+						QuickAccessEntry entry = matches[i].get(j);
+						result[i].add(entry);
+						count++;
+						countTotal++;
+						if (i == 0 && entry.element == perfectMatch) {
+							perfectMatchAdded = true;
+							limit = MAX_COUNT_TOTAL;
+						}
 						j++;
 					}
-
 					indexPerProvider[i] = j;
-
-					if (j < sortedElements.length) {
+					if (j < matches[i].size()) {
 						done = false;
 					}
 				}
-			}
 
-			// from now on, add one element per provider
-			countPerProvider = 1;
+				// from now on, add one element per provider
+				countPerProvider = 1;
 
-		} while ((showAllMatches || countTotal < maxCount) && !done);
+			} while ((showAllMatches || countTotal < limit) && !done);
 
-		if (!perfectMatchAdded) {
-			QuickAccessEntry entry = perfectMatch.match(filter, providers[0]);
-			if (entryEnabled(providers[0], entry)) {
-				if (entries[0] == null) {
-					entries[0] = new ArrayList<>();
-					indexPerProvider[0] = 0;
+			if (!perfectMatchAdded) {
+				QuickAccessEntry entry = perfectMatch.match(filter, providers[0], perfectMatchLabel);
+				if (entryEnabled(providers[0], entry)) {
+					if (result[0] == null) {
+						result[0] = new ArrayList<>();
+					}
+					result[0].add(entry);
 				}
-				entries[0].add(entry);
 			}
+
+			// number of items matching the filtered search
+			numberOfFilteredResults = countTotal - prevPick;
+			entries = result;
+			return true;
 		}
 
-		// number of items matching the filtered search
-		numberOfFilteredResults = countTotal - prevPick;
-		return entries;
+		/**
+		 * @param provider
+		 * @param entry
+		 * @return <code>true</code> if the entry is enabled
+		 */
+		private boolean entryEnabled(QuickAccessProvider provider, QuickAccessEntry entry) {
+			if (entry == null) {
+				return false;
+			}
+
+			// For a previous pick provider, check that the original provider
+			// does also provide the element
+			if (provider instanceof PreviousPicksProvider) {
+				return enabledPreviousPicks.contains(entry.element);
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Brings the indexes of the providers up to date. Must be called on the UI
+	 * thread.
+	 *
+	 * @return the current indexes, one per provider
+	 */
+	private QuickAccessIndex[] updateIndexes() {
+		if (indexes == null) {
+			indexes = new QuickAccessIndex[providers.length];
+		}
+		for (int i = 0; i < providers.length; i++) {
+			indexes[i] = QuickAccessIndex.update(indexes[i], providers[i]);
+		}
+		return indexes.clone();
 	}
 
 	Pattern categoryPattern;
@@ -541,28 +704,23 @@ public abstract class QuickAccessContents {
 	}
 
 	/**
-	 * @param provider
-	 * @param entry
-	 * @return <code>true</code> if the entry is enabled
+	 * Returns whether the original provider of a previous pick does still
+	 * provide the element.
+	 *
+	 * @param element
+	 * @return <code>true</code> if the element is provided
 	 */
-	private boolean entryEnabled(QuickAccessProvider provider, QuickAccessEntry entry) {
-		if (entry == null) {
-			return false;
-		}
-
-		// For a previous pick provider, check that the original provider does
-		// also provide the element
-		if (provider instanceof PreviousPicksProvider) {
-			QuickAccessElement element = entry.element;
-			final QuickAccessProvider originalProvider = element.getProvider();
-			QuickAccessElement match = originalProvider.getElementForId(element.getId());
-			return match != null;
-		}
-
-		return true;
+	private static boolean isProvidedByOriginalProvider(QuickAccessElement element) {
+		final QuickAccessProvider originalProvider = element.getProvider();
+		QuickAccessElement match = originalProvider.getElementForId(element.getId());
+		return match != null;
 	}
 
 	private void doDispose() {
+		if (matchingJob != null) {
+			matchingJob.cancel();
+			matchingJob = null;
+		}
 		if (textLayout != null && !textLayout.isDisposed()) {
 			textLayout.dispose();
 		}
@@ -634,6 +792,7 @@ public abstract class QuickAccessContents {
 				switch (e.keyCode) {
 				case SWT.CR:
 				case SWT.KEYPAD_CR:
+					finishMatching();
 					handleSelection();
 					break;
 				case SWT.ARROW_DOWN:
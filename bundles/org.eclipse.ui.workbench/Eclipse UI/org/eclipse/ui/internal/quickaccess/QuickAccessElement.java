@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -87,9 +87,22 @@ public abstract class QuickAccessElement {
 	private static final String PAR_END = "\\)"; //$NON-NLS-1$
 	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
 
-	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
+	/**
+	 * A filter and the pattern compiled for it. Immutable, so that the last
+	 * compiled pattern can be shared by all elements and matching threads.
+	 */
+	private static final class FilterPattern {
+		final String filter;
+		final Pattern pattern;
+
+		FilterPattern(String filter, Pattern pattern) {
+			this.filter = filter;
+			this.pattern = pattern;
+		}
+	}
+
+	// whitespaces filter and pattern
+	private static volatile FilterPattern wsPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -98,20 +111,20 @@ public abstract class QuickAccessElement {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
+	private static Pattern getWhitespacesPattern(String filter) {
+		FilterPattern cached = wsPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = Pattern.compile(sFilter, Pattern.CASE_INSENSITIVE);
+			cached = new FilterPattern(filter, Pattern.compile(sFilter, Pattern.CASE_INSENSITIVE));
+			wsPattern = cached;
 		}
-		return wsPattern;
+		return cached.pattern;
 	}
 
-	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
+	// wildcard filter and pattern
+	private static volatile FilterPattern wcPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -120,9 +133,9 @@ public abstract class QuickAccessElement {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWildcardsPattern(String filter) {
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
+	private static Pattern getWildcardsPattern(String filter) {
+		FilterPattern cached = wcPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			// replace '*' and '?' with their matchers ").*(" and ").?("
@@ -137,12 +150,12 @@ public abstract class QuickAccessElement {
 			}
 			sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
 			//
-			wcPattern = Pattern.compile(sFilter, Pattern.CASE_INSENSITIVE);
+			cached = new FilterPattern(filter, Pattern.compile(sFilter, Pattern.CASE_INSENSITIVE));
+			wcPattern = cached;
 		}
-		return wcPattern;
+		return cached.pattern;
 	}
 
-	int i = 0;
 	/**
 	 * If this element is a match (partial, complete, camel case, etc) to the
 	 * given filter, returns a {@link QuickAccessEntry}. Otherwise returns
@@ -156,12 +169,29 @@ public abstract class QuickAccessElement {
 	 */
 	public QuickAccessEntry match(String filter,
 			QuickAccessProvider providerForMatching) {
-		String sortLabel = getLabel();
+		return match(filter, providerForMatching, getLabel());
+	}
+
+	/**
+	 * Matches the given label of this element against the filter, see
+	 * {@link #match(String, QuickAccessProvider)}. Unlike {@link #getLabel()},
+	 * this method may be called outside of the UI thread.
+	 *
+	 * @param filter
+	 *            filter for matching
+	 * @param providerForMatching
+	 *            the provider that will own the entry
+	 * @param sortLabel
+	 *            the label of this element, as returned by {@link #getLabel()}
+	 * @return a quick access entry or <code>null</code>
+	 */
+	QuickAccessEntry match(String filter, QuickAccessProvider providerForMatching, String sortLabel) {
+		String lowerCaseLabel = sortLabel.toLowerCase();
 		// first occurrence of filter
-		int index = sortLabel.toLowerCase().indexOf(filter);
+		int index = lowerCaseLabel.indexOf(filter);
 		if (index != -1) {
-			int quality = sortLabel.toLowerCase().equals(filter) ? QuickAccessEntry.MATCH_PERFECT
-					: (sortLabel.toLowerCase().startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
+			int quality = lowerCaseLabel.equals(filter) ? QuickAccessEntry.MATCH_PERFECT
+					: (lowerCaseLabel.startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
 							: QuickAccessEntry.MATCH_GOOD);
 			return new QuickAccessEntry(this, providerForMatching,
 					new int[][] { { index, index + filter.length() - 1 } },
@@ -192,7 +222,7 @@ public abstract class QuickAccessElement {
 					EMPTY_INDICES, quality );
 		}
 		//
-		String combinedLabel = (providerForMatching.getName() + " " + getLabel()); //$NON-NLS-1$
+		String combinedLabel = (providerForMatching.getName() + " " + sortLabel); //$NON-NLS-1$
 		index = combinedLabel.toLowerCase().indexOf(filter);
 		if (index != -1) {
 			int lengthOfElementMatch = index + filter.length()
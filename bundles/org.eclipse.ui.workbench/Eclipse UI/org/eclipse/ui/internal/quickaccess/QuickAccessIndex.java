@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable search index over the labels of the elements of a
+ * {@link QuickAccessProvider}. It maps every trigram of the lower case labels
+ * to the elements containing it and keeps the camel case initials of every
+ * label, so that only the elements which may match a filter have to be passed
+ * to {@link QuickAccessElement#match(String, QuickAccessProvider, String)}.
+ * <p>
+ * Indexes are created and updated on the UI thread with
+ * {@link #update(QuickAccessIndex, QuickAccessProvider)}, because element
+ * labels may only be computed there. They hold a snapshot of the labels and
+ * can be queried from any thread.
+ * </p>
+ */
+public final class QuickAccessIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private static final int[] NO_ELEMENTS = new int[0];
+
+	/**
+	 * Characters which separate the literal fragments of a filter, see
+	 * {@link QuickAccessElement#match(String, QuickAccessProvider, String)}.
+	 */
+	private static final String FRAGMENT_SEPARATORS = " \t\n\r\f*?()"; //$NON-NLS-1$
+
+	/**
+	 * Characters with which a filter is not matched literally.
+	 */
+	private static final String REGEX_CHARACTERS = ".[]{}+^$|\\"; //$NON-NLS-1$
+
+	private final QuickAccessElement[] elements;
+
+	private final LabelKeys[] keys;
+
+	private final String providerPrefix;
+
+	private final Map<String, int[]> grams;
+
+	/**
+	 * The lower case label and camel case initials of an element. They are
+	 * shared between the indexes of a provider as long as the label does not
+	 * change.
+	 */
+	private static final class LabelKeys {
+		final String label;
+		final String lowerCaseLabel;
+		final String camelCase;
+		final String combinedCamelCase;
+
+		LabelKeys(String label, String providerName) {
+			this.label = label;
+			this.lowerCaseLabel = label.toLowerCase();
+			this.camelCase = CamelUtil.getCamelCase(label);
+			this.combinedCamelCase = CamelUtil.getCamelCase(providerName + " " + label); //$NON-NLS-1$
+		}
+	}
+
+	private QuickAccessIndex(QuickAccessElement[] elements, LabelKeys[] keys, String providerName) {
+		this.elements = elements;
+		this.keys = keys;
+		this.providerPrefix = providerName.toLowerCase() + " "; //$NON-NLS-1$
+		Map<String, List<Integer>> postings = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			String label = keys[i].lowerCaseLabel;
+			Set<String> labelGrams = new LinkedHashSet<>();
+			for (int j = 0; j + GRAM_LENGTH <= label.length(); j++) {
+				labelGrams.add(label.substring(j, j + GRAM_LENGTH));
+			}
+			for (String gram : labelGrams) {
+				List<Integer> list = postings.get(gram);
+				if (list == null) {
+					list = new ArrayList<>(4);
+					postings.put(gram, list);
+				}
+				list.add(Integer.valueOf(i));
+			}
+		}
+		this.grams = new HashMap<>(postings.size() * 4 / 3 + 1);
+		for (Map.Entry<String, List<Integer>> posting : postings.entrySet()) {
+			List<Integer> list = posting.getValue();
+			int[] indices = new int[list.size()];
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = list.get(i).intValue();
+			}
+			grams.put(posting.getKey(), indices);
+		}
+	}
+
+	/**
+	 * Returns an index over the current elements of the given provider. The
+	 * previous index is returned if the provider still returns the same
+	 * elements, otherwise the label keys of the previous index are reused for
+	 * the elements whose label did not change. Must be called on the UI
+	 * thread.
+	 *
+	 * @param previous
+	 *            the previous index of the provider, or <code>null</code>
+	 * @param provider
+	 *            the provider
+	 * @return the index, never <code>null</code>
+	 */
+	public static QuickAccessIndex update(QuickAccessIndex previous, QuickAccessProvider provider) {
+		QuickAccessElement[] elements = provider.getElementsSorted();
+		if (previous != null && previous.elements == elements) {
+			return previous;
+		}
+		Map<String, LabelKeys> previousKeys = new HashMap<>();
+		if (previous != null) {
+			for (LabelKeys labelKeys : previous.keys) {
+				previousKeys.put(labelKeys.label, labelKeys);
+			}
+		}
+		String providerName = provider.getName();
+		LabelKeys[] keys = new LabelKeys[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			String label = elements[i].getLabel();
+			LabelKeys labelKeys = previousKeys.get(label);
+			keys[i] = labelKeys != null ? labelKeys : new LabelKeys(label, providerName);
+		}
+		return new QuickAccessIndex(elements, keys, providerName);
+	}
+
+	/**
+	 * @return the indexed elements, in the order of
+	 *         {@link QuickAccessProvider#getElementsSorted()}
+	 */
+	public QuickAccessElement[] getElements() {
+		return elements;
+	}
+
+	/**
+	 * Returns the label of the element at the given position when the index
+	 * was built.
+	 *
+	 * @param index
+	 *            the position of the element
+	 * @return the label
+	 */
+	public String getLabel(int index) {
+		return keys[index].label;
+	}
+
+	/**
+	 * Returns the positions of all elements which may match the given filter,
+	 * in ascending order. No element outside of the result matches the
+	 * filter, but not every element in it has to.
+	 *
+	 * @param filter
+	 *            the lower case filter, not empty
+	 * @return the positions of the candidate elements
+	 */
+	public int[] getCandidates(String filter) {
+		int[] candidates = null;
+		if (!matchesProviderName(filter)) {
+			candidates = getGramCandidates(filter);
+		}
+		if (candidates == null) {
+			int[] all = new int[elements.length];
+			for (int i = 0; i < all.length; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		boolean[] selected = new boolean[elements.length];
+		for (int candidate : candidates) {
+			selected[candidate] = true;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (!selected[i] && (keys[i].camelCase.indexOf(filter) != -1
+					|| keys[i].combinedCamelCase.indexOf(filter) != -1)) {
+				selected[i] = true;
+			}
+		}
+		int count = 0;
+		for (boolean s : selected) {
+			if (s) {
+				count++;
+			}
+		}
+		int[] result = new int[count];
+		count = 0;
+		for (int i = 0; i < selected.length; i++) {
+			if (selected[i]) {
+				result[count++] = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether the filter may match the combined label of an element
+	 * starting within the provider name, in which case every element may
+	 * match.
+	 */
+	private boolean matchesProviderName(String filter) {
+		if (providerPrefix.contains(filter)) {
+			return true;
+		}
+		for (int i = 0; i < providerPrefix.length(); i++) {
+			if (filter.startsWith(providerPrefix.substring(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the elements whose label contains all trigrams of the literal
+	 * fragments of the filter, or <code>null</code> if the filter has no such
+	 * trigrams.
+	 */
+	private int[] getGramCandidates(String filter) {
+		for (int i = 0; i < filter.length(); i++) {
+			if (REGEX_CHARACTERS.indexOf(filter.charAt(i)) != -1) {
+				return null;
+			}
+		}
+		int[] candidates = null;
+		int start = 0;
+		for (int i = 0; i <= filter.length(); i++) {
+			if (i == filter.length() || FRAGMENT_SEPARATORS.indexOf(filter.charAt(i)) != -1) {
+				for (int j = start; j + GRAM_LENGTH <= i; j++) {
+					int[] postings = grams.get(filter.substring(j, j + GRAM_LENGTH));
+					if (postings == null) {
+						return NO_ELEMENTS;
+					}
+					candidates = candidates == null ? postings : intersect(candidates, postings);
+					if (candidates.length == 0) {
+						return NO_ELEMENTS;
+					}
+				}
+				start = i + 1;
+			}
+		}
+		return candidates;
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -73,6 +73,7 @@ public class UIPreferenceInitializer extends AbstractPreferenceInitializer {
 						true);
 		node.putBoolean(IWorkbenchPreferenceConstants.ENABLE_ANIMATIONS, false);
 		node.putBoolean(IWorkbenchPreferenceConstants.USE_COLORED_LABELS, true);
+		node.putInt(IWorkbenchPreferenceConstants.LARGE_VIEW_LIMIT, 1000);
 		node.put(IWorkbenchPreferenceConstants.DOCK_PERSPECTIVE_BAR,
 				IWorkbenchPreferenceConstants.TOP_LEFT);
 		node.putBoolean(
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 BestSolution.at and others.
+ * Copyright (c) 2010, 2017 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
 package org.eclipse.e4.emf.xpath.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -95,6 +96,24 @@ public class ExampleQueriesTestCase {
 		//assertFalse(i.hasNext());
 	}
 
+	@Test
+	public void testSameQueryOnSeveralContexts() {
+		XPathContextFactory<EObject> f = EcoreXPathContextFactory.newInstance();
+		EObject node1 = (EObject) xpathContext.getValue("nodes[1]");
+		EObject node2 = (EObject) xpathContext.getValue("nodes[2]");
+		XPathContext context1 = f.newContext(node1);
+		XPathContext context2 = f.newContext(node2);
+
+		// the expression is compiled once and evaluated against each context
+		for (int i = 0; i < 2; i++) {
+			assertEquals("element1", context1.getValue("@id"));
+			assertEquals("element2", context2.getValue("@id"));
+			assertEquals("element1.1", context1.getValue("children[1]/@id"));
+			assertEquals("element1.1", context1.getValue("children[1]/@id", String.class));
+			assertFalse(context2.iterate("children[@id='element1.1']").hasNext());
+		}
+	}
+
 	@Before
 	public void setUp() {
 		resourceSet = new ResourceSetImpl();
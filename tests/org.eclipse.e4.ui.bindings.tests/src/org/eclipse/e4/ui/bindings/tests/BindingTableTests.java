@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 IBM Corporation and others.
+ * Copyright (c) 2013, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -383,6 +384,37 @@ public class BindingTableTests {
 		assertEquals(about, it.next());
 	}
 
+	@Test
+	public void testManagerLookupAfterBindingChanges() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		KeySequence ctrl8 = KeySequence.getInstance("CTRL+8");
+		KeySequence ctrl8R = KeySequence.getInstance("CTRL+8 R");
+		assertNull(manager.getPerfectMatch(javaSet, ctrl8R));
+		assertFalse(manager.isPartialMatch(javaSet, ctrl8));
+
+		Binding refresh = getTestBinding(REFRESH_ID);
+		Binding binding = new KeyBinding(ctrl8R, refresh.getParameterizedCommand(),
+				"org.eclipse.ui.defaultAcceleratorConfiguration", ID_WINDOW, null,
+				null, null, Binding.SYSTEM);
+		BindingTable table = manager.getTable(ID_WINDOW);
+		table.addBinding(binding);
+		try {
+			assertEquals(binding, manager.getPerfectMatch(javaSet, ctrl8R));
+			assertTrue(manager.isPartialMatch(javaSet, ctrl8));
+			Collection<Binding> partialMatches = manager.getPartialMatches(javaSet, ctrl8);
+			assertEquals(1, partialMatches.size());
+			assertEquals(binding, partialMatches.iterator().next());
+
+			// an equal context set gets the same results
+			assertEquals(binding, manager.getPerfectMatch(createJavaSet(manager), ctrl8R));
+		} finally {
+			table.removeBinding(binding);
+		}
+		assertNull(manager.getPerfectMatch(javaSet, ctrl8R));
+		assertEquals(refresh, manager.getPerfectMatch(javaSet, refresh.getTriggerSequence()));
+	}
+
 	private BindingTable loadTable(String contextId) {
 		Context context = contextManager.getContext(contextId);
 		BindingTable table = new BindingTable(context);
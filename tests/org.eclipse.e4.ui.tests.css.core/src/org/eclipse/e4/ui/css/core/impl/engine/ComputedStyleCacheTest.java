@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+public class ComputedStyleCacheTest {
+
+	private static class TestCSSEngine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+		}
+	}
+
+	private TestCSSEngine engine;
+	private ComputedStyleCache cache;
+
+	@Before
+	public void setUp() {
+		engine = new TestCSSEngine();
+		cache = engine.getComputedStyleCache();
+	}
+
+	@Test
+	public void testElementsWithSameSignatureShareStyle() throws Exception {
+		engine.parseStyleSheet(new StringReader("Button { color: blue; }\n" + ".red Button { color: red; }"));
+
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement button1 = new TestElement("Button", shell, engine);
+		TestElement button2 = new TestElement("Button", shell, engine);
+
+		CSSStyleDeclaration style1 = cache.getComputedStyle(button1, null);
+		CSSStyleDeclaration style2 = cache.getComputedStyle(button2, null);
+		assertEquals("color: blue;", style1.getCssText());
+		assertSame(style1, style2);
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+
+		TestElement redShell = new TestElement("Shell", engine);
+		redShell.setClass("red");
+		TestElement button3 = new TestElement("Button", redShell, engine);
+		assertEquals("color: red;", cache.getComputedStyle(button3, null).getCssText());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testAttributesArePartOfSignature() throws Exception {
+		engine.parseStyleSheet(new StringReader("Button[flat='true'] { color: blue; }"));
+
+		TestElement button1 = new TestElement("Button", engine);
+		TestElement button2 = new TestElement("Button", engine);
+		button2.setAttribute("flat", "true");
+
+		assertNull(cache.getComputedStyle(button1, null));
+		assertEquals("color: blue;", cache.getComputedStyle(button2, null).getCssText());
+		assertNull(cache.getComputedStyle(button1, null));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testCacheClearedWhenStyleSheetsChange() throws Exception {
+		engine.parseStyleSheet(new StringReader("Button { color: blue; }"));
+		TestElement button = new TestElement("Button", engine);
+		assertEquals("color: blue;", cache.getComputedStyle(button, null).getCssText());
+
+		engine.parseStyleSheet(new StringReader("Button { color: green; }"));
+		assertEquals("color: green;", cache.getComputedStyle(button, null).getCssText());
+
+		engine.reset();
+		assertNull(cache.getComputedStyle(button, null));
+		assertEquals(0, cache.getHitCount());
+	}
+}
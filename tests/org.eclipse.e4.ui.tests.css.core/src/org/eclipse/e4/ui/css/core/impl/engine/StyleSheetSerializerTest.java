@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.StringReader;
+
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.Test;
+import org.w3c.dom.css.CSSPrimitiveValue;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.css.CSSValueList;
+
+public class StyleSheetSerializerTest {
+
+	private static final String CSS = "Shell > Button.flat:hover, #main Label[kind='title'] {\n"
+			+ "  color: #102030;\n"
+			+ "  background-color: rgb(1, 2, 3) !important;\n"
+			+ "  font: Arial 12px;\n"
+			+ "  background-image: url(./image.png);\n"
+			+ "  swt-corner-radius: 4;\n"
+			+ "  margin: 1.5em;\n"
+			+ "}\n"
+			+ "* { font-family: 'Segoe UI'; }\n"
+			+ ".c1.c2 + Text:focus { color: inherit; }";
+
+	private static class TestCSSEngine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+		}
+	}
+
+	private static CSSStyleSheet roundTrip(CSSStyleSheet styleSheet) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		StyleSheetSerializer serializer = new StyleSheetSerializer();
+		serializer.write(styleSheet, new DataOutputStream(bytes));
+		return serializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+	}
+
+	@Test
+	public void testRoundTripKeepsRules() throws Exception {
+		TestCSSEngine engine = new TestCSSEngine();
+		CSSStyleSheet styleSheet = (CSSStyleSheet) engine.parseStyleSheet(new StringReader(CSS));
+		CSSStyleSheet restored = roundTrip(styleSheet);
+
+		CSSRuleList rules = styleSheet.getCssRules();
+		CSSRuleList restoredRules = restored.getCssRules();
+		assertEquals(rules.getLength(), restoredRules.getLength());
+		for (int i = 0; i < rules.getLength(); i++) {
+			CSSStyleRule rule = (CSSStyleRule) rules.item(i);
+			CSSStyleRule restoredRule = (CSSStyleRule) restoredRules.item(i);
+			assertEquals(rule.getSelectorText(), restoredRule.getSelectorText());
+			assertEquals(rule.getStyle().getCssText(), restoredRule.getStyle().getCssText());
+		}
+	}
+
+	@Test
+	public void testRoundTripKeepsValues() throws Exception {
+		TestCSSEngine engine = new TestCSSEngine();
+		CSSStyleSheet styleSheet = roundTrip((CSSStyleSheet) engine.parseStyleSheet(new StringReader(CSS)));
+		CSSStyleDeclaration style = ((CSSStyleRule) styleSheet.getCssRules().item(0)).getStyle();
+
+		CSSPrimitiveValue color = (CSSPrimitiveValue) style.getPropertyCSSValue("color");
+		assertEquals(CSSPrimitiveValue.CSS_RGBCOLOR, color.getPrimitiveType());
+		assertEquals(32f, color.getRGBColorValue().getGreen().getFloatValue(CSSPrimitiveValue.CSS_NUMBER), 0f);
+		assertEquals("important", style.getPropertyPriority("background-color"));
+
+		CSSValueList font = (CSSValueList) style.getPropertyCSSValue("font");
+		assertEquals(2, font.getLength());
+		assertEquals(12f, ((CSSPrimitiveValue) font.item(1)).getFloatValue(CSSPrimitiveValue.CSS_PX), 0f);
+		assertEquals(CSSPrimitiveValue.CSS_URI,
+				((CSSPrimitiveValue) style.getPropertyCSSValue("background-image")).getPrimitiveType());
+	}
+
+	@Test
+	public void testRoundTripKeepsUnknownRules() throws Exception {
+		TestCSSEngine engine = new TestCSSEngine();
+		CSSStyleSheet styleSheet = (CSSStyleSheet) engine
+				.parseStyleSheet(new StringReader("@unknown-rule something;\n" + CSS));
+		CSSStyleSheet restored = roundTrip(styleSheet);
+
+		CSSRule rule = styleSheet.getCssRules().item(0);
+		CSSRule restoredRule = restored.getCssRules().item(0);
+		assertEquals(CSSRule.UNKNOWN_RULE, rule.getType());
+		assertEquals(CSSRule.UNKNOWN_RULE, restoredRule.getType());
+		assertNotNull(rule.getCssText());
+		assertEquals(rule.getCssText(), restoredRule.getCssText());
+	}
+
+	@Test
+	public void testRestoredStyleSheetMatchesElements() throws Exception {
+		TestCSSEngine parsingEngine = new TestCSSEngine();
+		CSSStyleSheet styleSheet = (CSSStyleSheet) parsingEngine.parseStyleSheet(new StringReader(CSS));
+
+		TestCSSEngine engine = new TestCSSEngine();
+		engine.addStyleSheet(roundTrip(styleSheet));
+
+		TestElement shell = new TestElement("Shell", engine);
+		shell.setId("main");
+		TestElement label = new TestElement("Label", shell, engine);
+		assertEquals("Segoe UI",
+				engine.getViewCSS().getComputedStyle(label, null).getPropertyCSSValue("font-family").getCssText());
+		assertNull(engine.getViewCSS().getComputedStyle(label, null).getPropertyCSSValue("color"));
+
+		label.setAttribute("kind", "title");
+		assertEquals("rgb(16, 32, 48)",
+				engine.getViewCSS().getComputedStyle(label, null).getPropertyCSSValue("color").getCssText());
+	}
+
+	@Test
+	public void testRestoredClassConditionMatchesAnyClass() throws Exception {
+		TestCSSEngine parsingEngine = new TestCSSEngine();
+		CSSStyleSheet styleSheet = (CSSStyleSheet) parsingEngine
+				.parseStyleSheet(new StringReader(".a { color: #102030; }"));
+
+		TestCSSEngine engine = new TestCSSEngine();
+		engine.addStyleSheet(roundTrip(styleSheet));
+
+		TestElement label = new TestElement("Label", engine);
+		label.setClass("a b");
+		assertEquals("rgb(16, 32, 48)",
+				engine.getViewCSS().getComputedStyle(label, null).getPropertyCSSValue("color").getCssText());
+		TestElement other = new TestElement("Label", engine);
+		other.setClass("b");
+		assertNull(engine.getViewCSS().getComputedStyle(other, null).getPropertyCSSValue("color"));
+	}
+}
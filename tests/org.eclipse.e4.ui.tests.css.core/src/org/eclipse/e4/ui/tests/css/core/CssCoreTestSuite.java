@@ -13,6 +13,8 @@
 package org.eclipse.e4.ui.tests.css.core;
 
 import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngineTest;
+import org.eclipse.e4.ui.css.core.impl.engine.ComputedStyleCacheTest;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSheetSerializerTest;
 import org.eclipse.e4.ui.tests.css.core.parser.CascadeTest;
 import org.eclipse.e4.ui.tests.css.core.parser.FontFaceRulesTest;
 import org.eclipse.e4.ui.tests.css.core.parser.ImportTest;
@@ -40,7 +42,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	CSSEngineTest.class,
 	ImportTest.class,
 	InheritTest.class,
-	AbstractCSSEngineTest.class
+	AbstractCSSEngineTest.class,
+	ComputedStyleCacheTest.class,
+	StyleSheetSerializerTest.class
 })
 public class CssCoreTestSuite {
 }
@@ -108,6 +108,47 @@ public class ViewCSSTest {
 		assertEquals("color: blue;", buttonStyle.getCssText());
 	}
 
+	@Test
+	public void testIndexedSelectorsKeepDocumentOrder() throws Exception {
+		String css = "Button.primary { color: blue; }\n" + "Button { color: green; }\n" + "* { color: red; }\n"
+				+ ".primary { background-color: white; }\n" + "#ok { background-color: black; }\n"
+				+ "Shell Button { font-weight: bold; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		final TestElement button = new TestElement("Button", shell, engine);
+		button.setClass("primary  other");
+		button.setId("ok");
+
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals(3, buttonStyle.getLength());
+		assertEquals("blue", buttonStyle.getPropertyCSSValue("color").getCssText());
+		assertEquals("black", buttonStyle.getPropertyCSSValue("background-color").getCssText());
+		assertEquals("bold", buttonStyle.getPropertyCSSValue("font-weight").getCssText());
+
+		final TestElement label = new TestElement("Label", engine);
+		CSSStyleDeclaration labelStyle = viewCSS.getComputedStyle(label, null);
+		assertNotNull(labelStyle);
+		assertEquals("color: red;", labelStyle.getCssText());
+	}
+
+	@Test
+	public void testRuleIndexUpdatedWhenStyleSheetAdded() throws Exception {
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: blue; }"));
+		ViewCSS viewCSS = new ViewCSSImpl(docCss);
+
+		final TestElement button = new TestElement("Button", engine);
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: green; }"));
+		assertEquals("color: green;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		docCss.removeAllStyleSheets();
+		assertNull(viewCSS.getComputedStyle(button, null));
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
@@ -15,6 +15,7 @@ package org.eclipse.e4.ui.tests;
 import org.eclipse.e4.ui.tests.application.Bug299755Test;
 import org.eclipse.e4.ui.tests.application.Bug308220Test;
 import org.eclipse.e4.ui.tests.application.Bug320857Test;
+import org.eclipse.e4.ui.tests.application.ElementIdIndexTest;
 import org.eclipse.e4.ui.tests.application.ModelElementTest;
 import org.eclipse.e4.ui.tests.application.ModelRobustnessTest;
 import org.eclipse.e4.ui.tests.application.ResourceHandlerTest;
@@ -78,6 +79,7 @@ import org.junit.runners.Suite;
 		ResourceHandlerTest.class,
 		PartFocusTest.class,
 		ModelElementTest.class,
+		ElementIdIndexTest.class,
 		StackRendererTest.class,
 		TabStateHandlerTest.class,
 		ThemeDefinitionChangedHandlerTest.class,
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.emf.xpath.EcoreXPathContextFactory;
+import org.eclipse.e4.emf.xpath.XPathContext;
+import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MCommandsFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.internal.ElementIdIndex;
+import org.eclipse.e4.ui.model.internal.ModelUtils;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ElementIdIndexTest {
+
+	private IEclipseContext applicationContext;
+	private MApplication application;
+	private MWindow window;
+	private MPartStack stack;
+
+	@Before
+	public void setUp() {
+		applicationContext = E4Application.createDefaultContext();
+		application = MApplicationFactory.INSTANCE.createApplication();
+		window = MBasicFactory.INSTANCE.createWindow();
+		window.setElementId("window");
+		application.getChildren().add(window);
+		stack = MBasicFactory.INSTANCE.createPartStack();
+		stack.setElementId("stack");
+		window.getChildren().add(stack);
+	}
+
+	@After
+	public void tearDown() {
+		applicationContext.dispose();
+	}
+
+	private MPart createPart(String id) {
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId(id);
+		return part;
+	}
+
+	@Test
+	public void testFindElementById() {
+		MPart part = createPart("part");
+		stack.getChildren().add(part);
+		MCommand command = MCommandsFactory.INSTANCE.createCommand();
+		command.setElementId("command");
+		application.getCommands().add(command);
+
+		assertSame(part, ModelUtils.findElementById(application, "part"));
+		assertSame(command, ModelUtils.findElementById(application, "command"));
+		assertSame(stack, ModelUtils.findElementById(window, "stack"));
+		assertNull(ModelUtils.findElementById(application, "unknown"));
+		assertNotNull(ElementIdIndex.getIndex(application));
+	}
+
+	@Test
+	public void testFindOnlyBelowSearchRoot() {
+		MPartStack otherStack = MBasicFactory.INSTANCE.createPartStack();
+		window.getChildren().add(otherStack);
+		MPart part = createPart("part");
+		otherStack.getChildren().add(part);
+
+		assertSame(part, ModelUtils.findElementById(application, "part"));
+		assertNull(ModelUtils.findElementById(stack, "part"));
+		assertSame(part, ModelUtils.findElementById(otherStack, "part"));
+	}
+
+	@Test
+	public void testDuplicateIdsReturnFirstInTree() {
+		MPartStack otherStack = MBasicFactory.INSTANCE.createPartStack();
+		otherStack.setElementId("part");
+		window.getChildren().add(otherStack);
+		MPart first = createPart("part");
+		MPart second = createPart("part");
+		// add in reverse order so that the index order differs from the tree
+		stack.getChildren().add(second);
+		stack.getChildren().add(0, first);
+
+		assertSame(first, ModelUtils.findElementById(application, "part"));
+		assertSame(otherStack, ModelUtils.findElementById(otherStack, "part"));
+
+		stack.getChildren().remove(first);
+		assertSame(second, ModelUtils.findElementById(application, "part"));
+	}
+
+	@Test
+	public void testIdChanges() {
+		MPart part = createPart("part");
+		stack.getChildren().add(part);
+		assertSame(part, ModelUtils.findElementById(application, "part"));
+
+		part.setElementId("renamed");
+		assertNull(ModelUtils.findElementById(application, "part"));
+		assertSame(part, ModelUtils.findElementById(application, "renamed"));
+
+		part.setElementId(null);
+		assertNull(ModelUtils.findElementById(application, "renamed"));
+	}
+
+	@Test
+	public void testAddAndRemoveSubtree() {
+		// index the application before the subtree is attached
+		assertNull(ModelUtils.findElementById(application, "part"));
+
+		MWindow other = MBasicFactory.INSTANCE.createWindow();
+		MPartStack otherStack = MBasicFactory.INSTANCE.createPartStack();
+		MPart part = createPart("part");
+		otherStack.getChildren().add(part);
+		other.getChildren().add(otherStack);
+		application.getChildren().add(other);
+		assertSame(part, ModelUtils.findElementById(application, "part"));
+
+		// changes made while detached must be picked up on re-attach
+		application.getChildren().remove(other);
+		assertNull(ModelUtils.findElementById(application, "part"));
+		part.setElementId("renamed");
+		application.getChildren().add(other);
+		assertNull(ModelUtils.findElementById(application, "part"));
+		assertSame(part, ModelUtils.findElementById(application, "renamed"));
+	}
+
+	@Test
+	public void testMoveElement() {
+		MPart part = createPart("part");
+		stack.getChildren().add(part);
+		assertSame(part, ModelUtils.findElementById(application, "part"));
+
+		MPartStack otherStack = MBasicFactory.INSTANCE.createPartStack();
+		window.getChildren().add(otherStack);
+		otherStack.getChildren().add(part);
+
+		assertEquals(1, ElementIdIndex.getIndex(application).get("part").size());
+		assertSame(part, ModelUtils.findElementById(otherStack, "part"));
+		assertNull(ModelUtils.findElementById(stack, "part"));
+	}
+
+	@Test
+	public void testModelServiceFind() {
+		EModelService modelService = applicationContext.get(EModelService.class);
+		MPart part = createPart("part");
+		stack.getChildren().add(part);
+
+		assertSame(part, modelService.find("part", application));
+		assertNull(modelService.find("part", MBasicFactory.INSTANCE.createPartStack()));
+		assertNull(modelService.find("unknown", application));
+		assertTrue(modelService.findElements(application, "unknown", null, null).isEmpty());
+
+		part.setElementId("renamed");
+		assertNull(modelService.find("part", application));
+		assertSame(part, modelService.find("renamed", window));
+	}
+
+	@Test
+	public void testModelServiceFindSharedElement() {
+		EModelService modelService = applicationContext.get(EModelService.class);
+		MPart shared = createPart("shared");
+		window.getSharedElements().add(shared);
+
+		// not reachable until a placeholder refers to it
+		assertNull(modelService.find("shared", application));
+
+		MPlaceholder placeholder = MAdvancedFactory.INSTANCE.createPlaceholder();
+		placeholder.setRef(shared);
+		stack.getChildren().add(placeholder);
+		assertSame(shared, modelService.find("shared", application));
+	}
+
+	@Test
+	public void testSelectedIds() {
+		assertEquals(Arrays.asList("a"), ElementIdIndex.getSelectedIds("//*[@elementId='a']"));
+		assertEquals(Arrays.asList("a"), ElementIdIndex.getSelectedIds("//*[@elementId=\"a\"]"));
+		assertEquals(Arrays.asList("a", "b"), ElementIdIndex.getSelectedIds("//*[@elementId='a' or @elementId='b']"));
+		assertEquals(Arrays.asList("a", "b c", "d"),
+				ElementIdIndex.getSelectedIds(" //*[ @elementId = 'a'  or\t@elementId=\"b c\" or @elementId='d' ] "));
+		assertEquals(Arrays.asList("a or b"), ElementIdIndex.getSelectedIds("//*[@elementId='a or b']"));
+	}
+
+	@Test
+	public void testNotSelectedIds() {
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' and @elementId='b']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' or @elementId='b' and @tags='c']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a'][@tags='b']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a'] | //*[@elementId='b']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' or ]"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' or]"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' or @tags='b']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a' or@elementId='b']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[@elementId='a']/*"));
+		assertNull(ElementIdIndex.getSelectedIds("/*[@elementId='a']"));
+		assertNull(ElementIdIndex.getSelectedIds("//*[]"));
+		assertNull(ElementIdIndex.getSelectedIds("//*"));
+	}
+
+	@Test
+	public void testSelectByIdMatchesXPath() {
+		application.setElementId("application");
+		MPart first = createPart("part");
+		MPart second = createPart("part");
+		stack.getChildren().add(first);
+		MPartStack otherStack = MBasicFactory.INSTANCE.createPartStack();
+		otherStack.setElementId("part");
+		otherStack.getChildren().add(second);
+		window.getChildren().add(otherStack);
+		MPart shared = createPart("shared");
+		window.getSharedElements().add(shared);
+		MPlaceholder placeholder = MAdvancedFactory.INSTANCE.createPlaceholder();
+		placeholder.setElementId("placeholder");
+		placeholder.setRef(shared);
+		stack.getChildren().add(placeholder);
+		stack.getChildren().add(createPart(null));
+		MCommand command = MCommandsFactory.INSTANCE.createCommand();
+		command.setElementId("command");
+		application.getCommands().add(command);
+
+		String[] xPaths = { "//*[@elementId='part']",
+				"//*[@elementId='command' or @elementId='placeholder' or @elementId='part']",
+				"//*[@elementId='part' or @elementId='part']", "//*[@elementId='application' or @elementId='window']",
+				"//*[@elementId='unknown']" };
+		for (String xPath : xPaths) {
+			List<MApplicationElement> selected = ElementIdIndex.selectById(application, xPath);
+			assertEquals(xPath, getInTreeOrder(ElementIdIndex.getSelectedIds(xPath)), selected);
+			assertEquals(xPath, evaluate(xPath), selected);
+		}
+		assertFalse(evaluate("//*[@elementId='part']").isEmpty());
+
+		// the evaluation also reaches the shared part through the reference
+		// of the placeholder, the index only returns it once
+		String xPath = "//*[@elementId='stack' or @elementId=\"shared\"]";
+		List<MApplicationElement> selected = ElementIdIndex.selectById(application, xPath);
+		assertEquals(Arrays.asList(stack, shared), selected);
+		List<MApplicationElement> evaluated = evaluate(xPath);
+		assertTrue(evaluated.containsAll(selected));
+		assertTrue(selected.containsAll(evaluated));
+	}
+
+	/**
+	 * Evaluates the xpath with JXPath.
+	 */
+	private List<MApplicationElement> evaluate(String xPath) {
+		XPathContext context = EcoreXPathContextFactory.newInstance().newContext((EObject) application);
+		List<MApplicationElement> result = new ArrayList<>();
+		for (Iterator<Object> i = context.iterate(xPath); i.hasNext();) {
+			Object element = i.next();
+			if (element instanceof MApplicationElement) {
+				result.add((MApplicationElement) element);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the elements of the application with one of the ids, in the
+	 * order of its containment tree.
+	 */
+	private List<MApplicationElement> getInTreeOrder(List<String> ids) {
+		List<MApplicationElement> result = new ArrayList<>();
+		for (Iterator<EObject> i = ((EObject) application).eAllContents(); i.hasNext();) {
+			EObject element = i.next();
+			if (element instanceof MApplicationElement
+					&& ids.contains(((MApplicationElement) element).getElementId())) {
+				result.add((MApplicationElement) element);
+			}
+		}
+		return result;
+	}
+}
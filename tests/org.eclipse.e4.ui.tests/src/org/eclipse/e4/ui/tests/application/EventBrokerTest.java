@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Brian de Alwis and others.
+ * Copyright (c) 2012, 2017 Brian de Alwis and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,14 +13,22 @@ package org.eclipse.e4.ui.tests.application;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.Hashtable;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
 import org.osgi.service.event.EventHandler;
 
 /**
@@ -118,4 +126,101 @@ public class EventBrokerTest extends UITest {
 		assertEquals("subscription was not removed", 2, seen.get());
 	}
 
+	@Test
+	public void testWildcardAndFilter() {
+		IEventBroker eb = context.get(IEventBroker.class);
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				seen.incrementAndGet();
+			}
+		};
+
+		eb.subscribe("test/*", "(value=1)", handler, true);
+		eb.send(TEST_TOPIC, Integer.valueOf(1));
+		eb.send(TEST_TOPIC, Integer.valueOf(2));
+		Hashtable<String, Object> data = new Hashtable<>();
+		data.put("value", "1");
+		eb.send(TEST_TOPIC + "/Sub", data);
+		eb.send("test", data);
+		eb.send("other/EventBrokerTest", data);
+		assertEquals(1, seen.get());
+		eb.unsubscribe(handler);
+	}
+
+	/**
+	 * ensure handlers registered with the EventAdmin still receive the events
+	 * of the broker, and the subscribers of the broker those of the EventAdmin,
+	 * exactly once
+	 */
+	@Test
+	public void testEventAdminInterop() throws Exception {
+		IEventBroker eb = context.get(IEventBroker.class);
+		final AtomicInteger seenByService = new AtomicInteger(0);
+		BundleContext bundleContext = FrameworkUtil.getBundle(getClass()).getBundleContext();
+		Hashtable<String, Object> properties = new Hashtable<>();
+		properties.put(EventConstants.EVENT_TOPIC, TEST_TOPIC);
+		ServiceRegistration<EventHandler> registration = bundleContext.registerService(EventHandler.class,
+				new EventHandler() {
+					@Override
+					public void handleEvent(Event event) {
+						seenByService.incrementAndGet();
+					}
+				}, properties);
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				seen.incrementAndGet();
+			}
+		};
+		eb.subscribe(TEST_TOPIC, handler);
+		try {
+			eb.send(TEST_TOPIC, new Object());
+			assertEquals(1, seen.get());
+			assertEquals(1, seenByService.get());
+
+			EventAdmin eventAdmin = context.get(EventAdmin.class);
+			eventAdmin.sendEvent(new Event(TEST_TOPIC, new Hashtable<String, Object>()));
+			assertEquals(2, seen.get());
+			assertEquals(2, seenByService.get());
+		} finally {
+			eb.unsubscribe(handler);
+			registration.unregister();
+		}
+	}
+
+	/**
+	 * ensure the bridge for the events of the EventAdmin is registered for a
+	 * topic as soon as it is subscribed, and no longer registered once its
+	 * subscribers are gone
+	 */
+	@Test
+	public void testBridgeTopics() throws Exception {
+		IEventBroker eb = context.get(IEventBroker.class);
+		String topic = TEST_TOPIC + "/Bridge";
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				seen.incrementAndGet();
+			}
+		};
+		eb.subscribe(topic, handler);
+		assertTrue("bridge not registered for " + topic, isBridgeRegistered(topic));
+		eb.unsubscribe(handler);
+		// topics are removed from the bridge shortly after unsubscribing
+		long timeout = System.currentTimeMillis() + 5000;
+		while (isBridgeRegistered(topic)) {
+			if (System.currentTimeMillis() > timeout) {
+				fail("bridge still registered for " + topic);
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private boolean isBridgeRegistered(String topic) throws Exception {
+		BundleContext bundleContext = FrameworkUtil.getBundle(getClass()).getBundleContext();
+		String filter = "(&(org.eclipse.e4.ui.services.events.bridge=true)(" + EventConstants.EVENT_TOPIC + "="
+				+ topic + "))";
+		return !bundleContext.getServiceReferences(EventHandler.class, filter).isEmpty();
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,20 +12,28 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
 import java.util.List;
+import org.eclipse.core.runtime.URIUtil;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
 import org.eclipse.e4.ui.internal.workbench.ResourceHandler;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuElement;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -58,10 +66,15 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, false);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean modelAssemblyCache) {
 		IEclipseContext localContext = applicationContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(E4Workbench.PERSIST_STATE, Boolean.TRUE);
 		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(E4Workbench.MODEL_ASSEMBLY_CACHE, Boolean.valueOf(modelAssemblyCache));
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
 
@@ -159,6 +172,85 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 		assertNotNull(findByElementId(menu2.getChildren(), "fragment.contributedMenuItem.xpath"));
 	}
 
+	@Test
+	public void testModelAssemblyCache() throws Exception {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		deleteCachedModels();
+
+		Resource assembled = createHandler(uri, true).loadMostRecentModel();
+		File[] cachedModels = getCachedModels();
+		assertEquals(1, cachedModels.length);
+		byte[] contents = Files.readAllBytes(cachedModels[0].toPath());
+		// assembling the model again would store it anew
+		long lastModified = System.currentTimeMillis() - 60000;
+		assertTrue(cachedModels[0].setLastModified(lastModified));
+		lastModified = cachedModels[0].lastModified();
+
+		Resource cached = createHandler(uri, true).loadMostRecentModel();
+		assertEquals(1, getCachedModels().length);
+		assertEquals(lastModified, cachedModels[0].lastModified());
+		assertArrayEquals(contents, Files.readAllBytes(cachedModels[0].toPath()));
+
+		assertSameModel(assembled, cached);
+		MApplication application = (MApplication) cached.getContents().get(0);
+		assertEquals("fragment.contributedWindow", application.getChildren().get(1).getElementId());
+		assertEquals("_w4fQ8HVHEd-aXt9fFntEtw", ((E4XMIResource) cached).getID((EObject) application.getChildren().get(1)));
+		assertEquals("platform:/plugin/org.eclipse.e4.ui.tests", application.getChildren().get(1).getContributorURI());
+		deleteCachedModels();
+	}
+
+	@Test
+	public void testModelAssemblyCacheCorrupt() throws Exception {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		deleteCachedModels();
+
+		Resource assembled = createHandler(uri, true).loadMostRecentModel();
+		File[] cachedModels = getCachedModels();
+		assertEquals(1, cachedModels.length);
+		try (FileWriter writer = new FileWriter(cachedModels[0])) {
+			writer.write("<not a model");
+		}
+
+		Resource reassembled = createHandler(uri, true).loadMostRecentModel();
+		assertSameModel(assembled, reassembled);
+		// the corrupt model is replaced
+		assertEquals(1, getCachedModels().length);
+		assertTrue(cachedModels[0].length() > "<not a model".length());
+		deleteCachedModels();
+	}
+
+	private void assertSameModel(Resource expected, Resource actual) {
+		TreeIterator<EObject> expectedIt = expected.getAllContents();
+		TreeIterator<EObject> actualIt = actual.getAllContents();
+		while (expectedIt.hasNext()) {
+			assertTrue(actualIt.hasNext());
+			EObject expectedObject = expectedIt.next();
+			EObject actualObject = actualIt.next();
+			assertEquals(expectedObject.eClass(), actualObject.eClass());
+			if (expectedObject instanceof MApplicationElement) {
+				assertEquals(((MApplicationElement) expectedObject).getElementId(),
+						((MApplicationElement) actualObject).getElementId());
+			}
+		}
+		assertFalse(actualIt.hasNext());
+	}
+
+	private File getCacheLocation() throws Exception {
+		File location = new File(URIUtil.toURI(getInstanceLocation().getURL()));
+		return new File(location, ".metadata/.plugins/org.eclipse.e4.workbench");
+	}
+
+	private File[] getCachedModels() throws Exception {
+		File[] files = getCacheLocation().listFiles((dir, name) -> name.startsWith("assembled-"));
+		return files == null ? new File[0] : files;
+	}
+
+	private void deleteCachedModels() throws Exception {
+		for (File file : getCachedModels()) {
+			file.delete();
+		}
+	}
+
 	/**
 	 * @param children
 	 * @param id
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,14 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -335,6 +337,94 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		checkForFailures(allTesters, windowTester);
 	}
 
+	@Test
+	public void testBatchedEvents() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		final List<Event> events = new ArrayList<Event>();
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				events.add(event);
+			}
+		};
+		eventBroker.subscribe(UILabel.TOPIC_ALL, handler);
+		try {
+			MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+			allData.setLabel("Initial");
+			allData.setTooltip("Initial");
+			UIEventPublisher ep = new UIEventPublisher(applicationContext);
+			((Notifier) allData).eAdapters().add(ep);
+
+			ep.beginBatch();
+			allData.setLabel("First");
+			ep.beginBatch();
+			allData.setLabel("Second");
+			allData.setTooltip("Changed");
+			allData.setTooltip("Initial");
+			ep.endBatch();
+			assertTrue(events.isEmpty());
+			ep.endBatch();
+
+			// the label changes are coalesced, the tooltip was changed back
+			assertEquals(1, events.size());
+			Event event = events.get(0);
+			assertEquals(UILabel.LABEL, event.getProperty(EventTags.ATTNAME));
+			assertEquals("Initial", event.getProperty(EventTags.OLD_VALUE));
+			assertEquals("Second", event.getProperty(EventTags.NEW_VALUE));
+
+			events.clear();
+			allData.setLabel("Third");
+			assertEquals(1, events.size());
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
+	@Test
+	public void testBatchedMapEvents() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		final List<Event> events = new ArrayList<Event>();
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				events.add(event);
+			}
+		};
+		eventBroker.subscribe(ApplicationElement.TOPIC_TRANSIENTDATA, handler);
+		eventBroker.subscribe(ApplicationElement.TOPIC_PERSISTEDSTATE, handler);
+		try {
+			MTestHarness allData = MTestFactory.eINSTANCE.createTestHarness();
+			allData.getTransientData().put("a", "Initial");
+			allData.getTransientData().put("b", "Initial");
+			allData.getPersistedState().put("c", "Initial");
+			allData.getPersistedState().put("d", "Initial");
+			UIEventPublisher ep = new UIEventPublisher(applicationContext);
+			((Notifier) allData).eAdapters().add(ep);
+
+			ep.beginBatch();
+			allData.getTransientData().put("a", "Changed");
+			allData.getTransientData().put("b", "Changed");
+			allData.getPersistedState().put("c", "Changed");
+			allData.getPersistedState().put("d", "Changed");
+			ep.endBatch();
+
+			// changes of different keys share the topic but are not merged
+			assertEquals(4, events.size());
+			String[] keys = { "a", "b", "c", "d" };
+			for (int i = 0; i < keys.length; i++) {
+				Event event = events.get(i);
+				Map.Entry<?, ?> oldValue = (Map.Entry<?, ?>) event.getProperty(EventTags.OLD_VALUE);
+				Map.Entry<?, ?> newValue = (Map.Entry<?, ?>) event.getProperty(EventTags.NEW_VALUE);
+				assertEquals(keys[i], oldValue.getKey());
+				assertEquals("Initial", oldValue.getValue());
+				assertEquals(keys[i], newValue.getKey());
+				assertEquals("Changed", newValue.getValue());
+			}
+		} finally {
+			eventBroker.unsubscribe(handler);
+		}
+	}
+
 	// Verify bug 374534
 	@Test
 	public void testBrokerCleanup() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 EclipseSource Muenchen GmbH and others.
+ * Copyright (c) 2016, 2017 EclipseSource Muenchen GmbH and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -253,6 +253,61 @@ public class ModelAssemblerTests {
 		verifyZeroInteractions(logger);
 	}
 
+	/**
+	 * Tests that fragments selecting their parents with an id-only xpath are
+	 * contributed to every selected parent.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_xpathIdSelection() throws Exception {
+		testFragments_xpath("xpath://*[@elementId='window1' or @elementId=\"window2\"]");
+	}
+
+	/**
+	 * Tests that fragments selecting their parents with a general xpath are
+	 * contributed to every selected parent.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testFragments_xpath() throws Exception {
+		testFragments_xpath("xpath://*[@elementId='window1'] | //*[@elementId='window2']");
+	}
+
+	private void testFragments_xpath(String parentElementId) {
+		MWindow window1 = MBasicFactory.INSTANCE.createWindow();
+		window1.setElementId("window1");
+		application.getChildren().add(window1);
+		MWindow window2 = MBasicFactory.INSTANCE.createWindow();
+		window2.setElementId("window2");
+		application.getChildren().add(window2);
+		MWindow window3 = MBasicFactory.INSTANCE.createWindow();
+		window3.setElementId("window3");
+		application.getChildren().add(window3);
+
+		MStringModelFragment fragment = MFragmentFactory.INSTANCE.createStringModelFragment();
+		fragment.setFeaturename("children");
+		fragment.setParentElementId(parentElementId);
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId("contributedPart");
+		fragment.getElements().add(part);
+		Resource fragmentResource = factory.createResource(URI.createURI("fragmentvirtualuri"));
+		resourceSet.getResources().add(fragmentResource);
+		fragmentResource.getContents().add((EObject) fragment);
+
+		List<MApplicationElement> elements = assembler.processModelFragment(fragment, "contributorURI", false);
+
+		assertEquals(2, elements.size());
+		assertEquals(1, window1.getChildren().size());
+		assertEquals("contributedPart", window1.getChildren().get(0).getElementId());
+		assertEquals(1, window2.getChildren().size());
+		assertEquals("contributedPart", window2.getChildren().get(0).getElementId());
+		assertTrue(window3.getChildren().isEmpty());
+
+		verifyZeroInteractions(logger);
+	}
+
 	/** Tests that correctly configured imports are correctly handled. */
 	@Test
 	public void testImports() {
@@ -14,7 +14,9 @@ package org.eclipse.core.tests.databinding.observable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -253,6 +255,70 @@ public class Diffs_ListDiffTests extends TestCase {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
+	public void testComputeListDiff_LargeShuffle() {
+		List<Object> oldList = createLargeList(1000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		Collections.shuffle(newList, new Random(42));
+		checkComputedListDiff(oldList, newList);
+	}
+
+	public void testComputeListDiff_LargeInsertRemoveAndDuplicates() {
+		List<Object> oldList = createLargeList(1000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		newList.remove(700);
+		newList.add(300, "inserted");
+		newList.add(10, null);
+		newList.add(500, newList.get(20));
+		newList.subList(100, 200).clear();
+		checkComputedListDiff(oldList, newList);
+	}
+
+	public void testComputeListDiff_LargeReplaceAll() {
+		List<Object> oldList = createLargeList(1000);
+		List<Object> newList = new ArrayList<Object>();
+		for (int i = 0; i < 1200; i++) {
+			newList.add("new" + i);
+		}
+		checkComputedListDiff(oldList, newList);
+	}
+
+	public void testComputeListDiff_LargeMoveReportedAsMove() {
+		List<Object> oldList = createLargeList(1000);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		newList.add(900, newList.remove(100));
+
+		ListDiff diff = Diffs.computeListDiff(oldList, newList);
+		final int[] moves = new int[1];
+		diff.accept(new ListDiffVisitor() {
+			@Override
+			public void handleAdd(int index, Object element) {
+				fail("Unexpected addition");
+			}
+
+			@Override
+			public void handleRemove(int index, Object element) {
+				fail("Unexpected removal");
+			}
+
+			@Override
+			public void handleMove(int oldIndex, int newIndex, Object element) {
+				assertEquals(100, oldIndex);
+				assertEquals(900, newIndex);
+				assertEquals("element100", element);
+				moves[0]++;
+			}
+		});
+		assertEquals(1, moves[0]);
+	}
+
+	private static List<Object> createLargeList(int size) {
+		List<Object> list = new ArrayList<Object>(size);
+		for (int i = 0; i < size; i++) {
+			list.add("element" + i);
+		}
+		return list;
+	}
+
 	private static void checkComputedListDiff(List<Object> oldList, List<Object> newList) {
 		ListDiff diff = Diffs.computeListDiff(oldList, newList);
 
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.internal.databinding.beans.BeanPropertyAccessor;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+
+/**
+ * @since 3.2
+ *
+ */
+public class BeanPropertyAccessorTest extends TestCase {
+	public static class PrimitiveBean {
+		private int count;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public long getTotal() {
+			return count;
+		}
+
+		public void setTotal(long total) {
+			this.count = (int) total;
+		}
+	}
+
+	public static class FailingBean {
+		public String getValue() {
+			throw new IllegalStateException("read");
+		}
+
+		public void setValue(String value) {
+			throw new IllegalStateException("write");
+		}
+	}
+
+	private static BeanPropertyAccessor getAccessor(Class<?> beanClass,
+			String propertyName) {
+		return BeanPropertyAccessor.getAccessor(BeanPropertyHelper
+				.getPropertyDescriptor(beanClass, propertyName));
+	}
+
+	public void testReadWrite() {
+		BeanPropertyAccessor accessor = getAccessor(Bean.class, "value");
+		Bean bean = new Bean("a");
+		assertEquals("a", accessor.read(bean));
+		accessor.write(bean, "b");
+		assertEquals("b", bean.getValue());
+	}
+
+	public void testPrimitiveProperty() {
+		BeanPropertyAccessor accessor = getAccessor(PrimitiveBean.class,
+				"count");
+		PrimitiveBean bean = new PrimitiveBean();
+		accessor.write(bean, Integer.valueOf(3));
+		assertEquals(Integer.valueOf(3), accessor.read(bean));
+
+		// widening conversion, as done by reflection
+		getAccessor(PrimitiveBean.class, "total").write(bean,
+				Integer.valueOf(5));
+		assertEquals(5, bean.getCount());
+	}
+
+	public void testInvalidValueIsIgnored() {
+		BeanPropertyAccessor accessor = getAccessor(PrimitiveBean.class,
+				"count");
+		PrimitiveBean bean = new PrimitiveBean();
+		bean.setCount(7);
+		accessor.write(bean, null);
+		accessor.write(bean, "eight");
+		assertEquals(7, bean.getCount());
+	}
+
+	public void testInvalidSourceIsIgnored() {
+		BeanPropertyAccessor accessor = getAccessor(Bean.class, "value");
+		assertNull(accessor.read(new Object()));
+		assertNull(accessor.read(null));
+		accessor.write(new Object(), "value");
+	}
+
+	public void testExceptionsAreWrapped() {
+		BeanPropertyAccessor accessor = getAccessor(FailingBean.class,
+				"value");
+		try {
+			accessor.read(new FailingBean());
+			fail("expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+			assertEquals("read", e.getCause().getMessage());
+		}
+		try {
+			accessor.write(new FailingBean(), "value");
+			fail("expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+			assertEquals("write", e.getCause().getMessage());
+		}
+	}
+
+	public void testAccessorIsShared() {
+		PropertyDescriptor pd = BeanPropertyHelper.getPropertyDescriptor(
+				Bean.class, "value");
+		assertSame(BeanPropertyAccessor.getAccessor(pd),
+				BeanPropertyAccessor.getAccessor(pd));
+		assertSame(pd, BeanPropertyHelper.getPropertyDescriptor(Bean.class,
+				"value"));
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.ui.monitoring.LatencyHistogram;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link EventLatencyRecorder} and {@link LatencyHistogram}.
+ */
+public class EventLatencyRecorderTests {
+	private static final long MS = 1000000; // In nanoseconds.
+	private EventLatencyRecorder recorder;
+
+	@Before
+	public void setUp() {
+		recorder = new EventLatencyRecorder();
+	}
+
+	@Test
+	public void testBuckets() {
+		for (long duration = 0; duration < 1 << 20; duration++) {
+			int bucket = LatencyHistogram.getBucket(duration);
+			assertTrue(LatencyHistogram.getBucketLowerBound(bucket) <= duration);
+			assertTrue(LatencyHistogram.getBucketLowerBound(bucket + 1) > duration);
+		}
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1,
+				LatencyHistogram.getBucket(LatencyHistogram.MAX_TRACKABLE_DURATION));
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+		assertEquals(0, LatencyHistogram.getBucket(-1));
+	}
+
+	@Test
+	public void testPercentiles() {
+		for (int i = 1; i <= 100; i++) {
+			recorder.record(SWT.KeyDown, i * 1000);
+		}
+		LatencyHistogram[] histograms = recorder.getHistograms();
+		assertEquals(1, histograms.length);
+		LatencyHistogram histogram = histograms[0];
+		assertEquals(SWT.KeyDown, histogram.getEventType());
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(5050 * 1000, histogram.getTotalDuration());
+		assertEquals(100 * 1000, histogram.getMaxDuration());
+		assertPercentile(50 * 1000, histogram.getPercentile(50));
+		assertPercentile(90 * 1000, histogram.getPercentile(90));
+		assertPercentile(99 * 1000, histogram.getPercentile(99));
+		assertEquals(100 * 1000, histogram.getPercentile(100));
+	}
+
+	private static void assertPercentile(long expected, long actual) {
+		// Buckets are at most 12.5% wide.
+		assertTrue("Expected about " + expected + " but was " + actual,
+				actual >= expected && actual <= expected * 1.125);
+	}
+
+	@Test
+	public void testEventTypes() {
+		recorder.record(SWT.Paint, 10);
+		recorder.record(SWT.KeyDown, 10);
+		recorder.record(1000, 10);
+		recorder.record(-5, 10);
+		LatencyHistogram[] histograms = recorder.getHistograms();
+		assertEquals(3, histograms.length);
+		assertEquals(SWT.KeyDown, histograms[0].getEventType());
+		assertEquals(SWT.Paint, histograms[1].getEventType());
+		assertEquals(LatencyHistogram.OTHER_EVENT_TYPES, histograms[2].getEventType());
+		assertEquals(2, histograms[2].getTotalCount());
+	}
+
+	@Test
+	public void testNestedEvents() {
+		recorder.eventStarted(0);
+		recorder.eventStarted(1 * MS);
+		recorder.eventEnded(SWT.Paint, 3 * MS);
+		recorder.eventEnded(SWT.MouseDown, 10 * MS);
+		LatencyHistogram[] histograms = recorder.getHistograms();
+		assertEquals(2, histograms.length);
+		assertEquals(10000, histograms[0].getMaxDuration());
+		assertEquals(2000, histograms[1].getMaxDuration());
+	}
+
+	@Test
+	public void testExternalDispatchIsNotCounted() {
+		recorder.eventStarted(0);
+		recorder.externalDispatchStarted(2 * MS);
+		// Events dispatched by the nested event loop, e.g. of a modal dialog.
+		recorder.eventStarted(100 * MS);
+		recorder.eventEnded(SWT.KeyDown, 105 * MS);
+		recorder.externalDispatchEnded(1000 * MS);
+		recorder.eventEnded(SWT.Selection, 1003 * MS);
+		LatencyHistogram[] histograms = recorder.getHistograms();
+		assertEquals(2, histograms.length);
+		assertEquals(SWT.KeyDown, histograms[0].getEventType());
+		assertEquals(5000, histograms[0].getMaxDuration());
+		assertEquals(SWT.Selection, histograms[1].getEventType());
+		assertEquals(5000, histograms[1].getMaxDuration());
+	}
+
+	@Test
+	public void testUnbalancedEvents() {
+		// Events which started before recording did are ignored.
+		recorder.eventEnded(SWT.KeyDown, 1 * MS);
+		recorder.externalDispatchEnded(2 * MS);
+		assertEquals(0, recorder.getHistograms().length);
+
+		// Events left open in a nested event loop are dropped.
+		recorder.eventStarted(3 * MS);
+		recorder.externalDispatchStarted(4 * MS);
+		recorder.eventStarted(5 * MS);
+		recorder.externalDispatchEnded(6 * MS);
+		recorder.eventEnded(SWT.KeyDown, 8 * MS);
+		LatencyHistogram[] histograms = recorder.getHistograms();
+		assertEquals(1, histograms.length);
+		assertEquals(1, histograms[0].getTotalCount());
+		assertEquals(3000, histograms[0].getMaxDuration());
+	}
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+
+import org.eclipse.ui.monitoring.FreezeSignature;
+import org.eclipse.ui.monitoring.StackSample;
+import org.eclipse.ui.monitoring.UiFreezeEvent;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FreezeSignatureAggregator}.
+ */
+public class FreezeSignatureAggregatorTests {
+	private static final long TIME = 120000000;
+
+	private static StackSample captureSample() {
+		ThreadInfo thread = ManagementFactory.getThreadMXBean()
+				.getThreadInfo(Thread.currentThread().getId(), Integer.MAX_VALUE);
+		return new StackSample(TIME, new ThreadInfo[] { thread });
+	}
+
+	private static StackSample sampleInA() {
+		return captureSample();
+	}
+
+	private static StackSample sampleInB() {
+		return captureSample();
+	}
+
+	private static UiFreezeEvent freezeInX(long duration) {
+		StackSample[] samples = { sampleInA(), sampleInB() };
+		return new UiFreezeEvent(TIME, duration, samples, false, false, false);
+	}
+
+	private static UiFreezeEvent freezeInY(long duration) {
+		StackSample[] samples = { sampleInA(), sampleInB() };
+		return new UiFreezeEvent(TIME, duration, samples, false, false, false);
+	}
+
+	private static UiFreezeEvent freezeInZ(long duration) {
+		StackSample[] samples = { sampleInA(), sampleInB() };
+		return new UiFreezeEvent(TIME, duration, samples, false, false, false);
+	}
+
+	@Test
+	public void testCommonFrames() {
+		StackTraceElement[] frames =
+				FreezeSignatureAggregator.getSignatureFrames(freezeInX(500).getStackTraceSamples());
+		assertTrue(frames.length > 1);
+		assertTrue(frames.length <= FreezeSignatureAggregator.MAX_FRAMES);
+		assertEquals(FreezeSignatureAggregatorTests.class.getName(), frames[0].getClassName());
+		assertEquals("freezeInX", frames[0].getMethodName());
+		assertEquals("testCommonFrames", frames[1].getMethodName());
+		for (StackTraceElement frame : frames) {
+			assertTrue(frame.getLineNumber() < 0);
+		}
+	}
+
+	@Test
+	public void testNoSamples() {
+		StackTraceElement[] frames =
+				FreezeSignatureAggregator.getSignatureFrames(new StackSample[0]);
+		assertEquals(0, frames.length);
+	}
+
+	@Test
+	public void testAggregation() {
+		FreezeSignatureAggregator aggregator = new FreezeSignatureAggregator();
+		aggregator.add(freezeInX(500));
+		aggregator.add(freezeInY(3000));
+		aggregator.add(freezeInX(700));
+		FreezeSignature[] signatures = aggregator.getSignatures();
+		assertEquals(2, signatures.length);
+
+		FreezeSignature x = signatures[0];
+		assertEquals("freezeInX", x.getFrames()[0].getMethodName());
+		assertEquals(2, x.getCount());
+		assertEquals(1200, x.getTotalDuration());
+		assertEquals(700, x.getMaxDuration());
+		assertEquals(TIME, x.getLastTimestamp());
+
+		FreezeSignature y = signatures[1];
+		assertEquals("freezeInY", y.getFrames()[0].getMethodName());
+		assertEquals(1, y.getCount());
+		assertNotEquals(x.getId(), y.getId());
+	}
+
+	@Test
+	public void testStableId() {
+		FreezeSignatureAggregator aggregator1 = new FreezeSignatureAggregator();
+		aggregator1.add(freezeInX(500));
+		FreezeSignatureAggregator aggregator2 = new FreezeSignatureAggregator();
+		aggregator2.add(freezeInX(800));
+		FreezeSignature signature1 = aggregator1.getSignatures()[0];
+		FreezeSignature signature2 = aggregator2.getSignatures()[0];
+		assertEquals(signature1.getId(), signature2.getId());
+		assertArrayEquals(signature1.getFrames(), signature2.getFrames());
+	}
+
+	@Test
+	public void testLeastRecentlySeenSignatureIsDropped() {
+		FreezeSignatureAggregator aggregator = new FreezeSignatureAggregator(2);
+		aggregator.add(freezeInX(500));
+		aggregator.add(freezeInY(500));
+		aggregator.add(freezeInX(500));
+		aggregator.add(freezeInZ(500));
+		FreezeSignature[] signatures = aggregator.getSignatures();
+		assertEquals(2, signatures.length);
+		assertEquals("freezeInX", signatures[0].getFrames()[0].getMethodName());
+		assertEquals("freezeInZ", signatures[1].getFrames()[0].getMethodName());
+	}
+}
@@ -23,6 +23,8 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	EventLoopMonitorThreadTests.class,
 	FilterHandlerTests.class,
-	DefaultLoggerTests.class})
+	DefaultLoggerTests.class,
+	EventLatencyRecorderTests.class,
+	FreezeSignatureAggregatorTests.class})
 public class MonitoringTestSuite {
 }
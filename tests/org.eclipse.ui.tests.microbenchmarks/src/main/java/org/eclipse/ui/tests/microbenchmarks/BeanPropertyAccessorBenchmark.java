@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.internal.databinding.beans.BeanPropertyAccessor;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading and writing bean properties through the method handles of
+ * {@link BeanPropertyAccessor} with {@link Method#invoke}, which the bean
+ * properties used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanPropertyAccessorBenchmark {
+
+	public static class Person {
+		private String name = "name";
+
+		private int age;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+
+	private final Person bean = new Person();
+
+	private final Integer age = Integer.valueOf(42);
+
+	private BeanPropertyAccessor nameAccessor;
+
+	private BeanPropertyAccessor ageAccessor;
+
+	private Method nameReadMethod;
+
+	private Method ageWriteMethod;
+
+	@Setup
+	public void setUp() {
+		PropertyDescriptor name = BeanPropertyHelper.getPropertyDescriptor(Person.class, "name");
+		PropertyDescriptor age = BeanPropertyHelper.getPropertyDescriptor(Person.class, "age");
+		nameAccessor = BeanPropertyAccessor.getAccessor(name);
+		ageAccessor = BeanPropertyAccessor.getAccessor(age);
+		nameReadMethod = name.getReadMethod();
+		ageWriteMethod = age.getWriteMethod();
+	}
+
+	@Benchmark
+	public Object readAccessor() {
+		return nameAccessor.read(bean);
+	}
+
+	@Benchmark
+	public Object readReflection() throws Exception {
+		return nameReadMethod.invoke(bean);
+	}
+
+	@Benchmark
+	public void writeAccessor() {
+		ageAccessor.write(bean, age);
+	}
+
+	@Benchmark
+	public void writeReflection() throws Exception {
+		ageWriteMethod.invoke(bean, age);
+	}
+}
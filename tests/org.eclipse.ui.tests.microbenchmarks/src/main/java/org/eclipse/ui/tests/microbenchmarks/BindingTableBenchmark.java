@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.commands.Category;
+import org.eclipse.core.commands.Command;
+import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.ui.bindings.internal.BindingTable;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.TriggerSequence;
+import org.eclipse.jface.bindings.keys.KeyBinding;
+import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.jface.bindings.keys.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the key binding lookups done for every key stroke: perfect and
+ * partial matches in the binding tables of the active contexts, most specific
+ * context first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingTableBenchmark {
+
+	private static final String SCHEME_ID = "org.eclipse.ui.defaultAcceleratorConfiguration";
+
+	private static final String[] CONTEXT_IDS = { "org.eclipse.jdt.ui.javaEditorScope", "org.eclipse.ui.textEditorScope",
+			"org.eclipse.ui.contexts.window", "org.eclipse.ui.contexts.dialogAndWindow" };
+
+	private static final String[] MODIFIERS = { "M1+", "M2+", "M3+", "M1+M2+", "M1+M3+" };
+
+	/**
+	 * Number of bindings per table
+	 */
+	@Param({ "100", "1000" })
+	public int bindings;
+
+	private final List<BindingTable> tables = new ArrayList<>();
+
+	private TriggerSequence perfectMatch;
+
+	private TriggerSequence prefix;
+
+	private TriggerSequence unbound;
+
+	@Setup
+	public void setUp() throws ParseException {
+		ContextManager contextManager = new ContextManager();
+		CommandManager commandManager = new CommandManager();
+		Category category = commandManager.getCategory("benchmark");
+		category.define("Benchmark", null);
+		int commandCount = 0;
+		for (int t = 0; t < CONTEXT_IDS.length; t++) {
+			Context context = contextManager.getContext(CONTEXT_IDS[t]);
+			context.define(CONTEXT_IDS[t], null, t + 1 < CONTEXT_IDS.length ? CONTEXT_IDS[t + 1] : null);
+			BindingTable table = new BindingTable(context);
+			for (int i = 0; i < bindings; i++) {
+				Command command = commandManager.getCommand("benchmark.command" + commandCount++);
+				command.define("Command " + commandCount, null, category);
+				KeyBinding binding = new KeyBinding(getSequence(t, i), new ParameterizedCommand(command, null),
+						SCHEME_ID, CONTEXT_IDS[t], null, null, null, Binding.SYSTEM);
+				table.addBinding(binding);
+			}
+			tables.add(table);
+		}
+		// bound in the least specific table only, so all tables are searched
+		perfectMatch = getSequence(CONTEXT_IDS.length - 1, bindings - 1);
+		prefix = KeySequence.getInstance(((KeySequence) perfectMatch).getKeyStrokes()[0]);
+		unbound = KeySequence.getInstance("M1+M2+M3+F12");
+	}
+
+	/**
+	 * Returns distinct two stroke sequences, e.g. <code>M1+A B</code>, so that
+	 * the tables have many partial matches too.
+	 */
+	private static KeySequence getSequence(int table, int index) throws ParseException {
+		int letters = 26;
+		char first = (char) ('A' + index / letters % letters);
+		char second = (char) ('A' + index % letters);
+		String modifier = MODIFIERS[(table + index / (letters * letters)) % MODIFIERS.length];
+		return KeySequence.getInstance(modifier + first + ' ' + modifier + second);
+	}
+
+	private Binding findPerfectMatch(TriggerSequence sequence) {
+		for (BindingTable table : tables) {
+			Binding binding = table.getPerfectMatch(sequence);
+			if (binding != null) {
+				return binding;
+			}
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Binding perfectMatch() {
+		return findPerfectMatch(perfectMatch);
+	}
+
+	@Benchmark
+	public Binding noMatch() {
+		return findPerfectMatch(unbound);
+	}
+
+	@Benchmark
+	public boolean isPartialMatch() {
+		for (BindingTable table : tables) {
+			if (table.isPartialMatch(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Benchmark
+	public List<Binding> partialMatches() {
+		List<Binding> matches = new ArrayList<>();
+		for (BindingTable table : tables) {
+			Collection<Binding> tableMatches = table.getPartialMatches(prefix);
+			if (tableMatches != null) {
+				matches.addAll(tableMatches);
+			}
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.IObservable;
+import org.eclipse.core.databinding.observable.ObservableTracker;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the dependency tracking of {@link ObservableTracker} and the
+ * recomputation of a {@link ComputedValue} depending on a number of
+ * observables.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComputedValueBenchmark {
+
+	/**
+	 * A realm which is current in every thread, the benchmarks are single
+	 * threaded.
+	 */
+	static class BenchmarkRealm extends Realm {
+		@Override
+		public boolean isCurrent() {
+			return true;
+		}
+	}
+
+	@Param({ "1", "10", "100" })
+	public int dependencies;
+
+	private WritableValue<Integer>[] values;
+
+	private ComputedValue<Integer> sum;
+
+	private final IChangeListener changeListener = event -> {
+		// nothing to do, only the registration is measured
+	};
+
+	private final Runnable readAll = () -> {
+		for (WritableValue<Integer> value : values) {
+			value.getValue();
+		}
+	};
+
+	private int counter;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setUp() {
+		Realm realm = new BenchmarkRealm();
+		values = new WritableValue[dependencies];
+		for (int i = 0; i < dependencies; i++) {
+			values[i] = new WritableValue<>(realm, Integer.valueOf(i), Integer.class);
+		}
+		sum = new ComputedValue<Integer>(realm, Integer.class) {
+			@Override
+			protected Integer calculate() {
+				int result = 0;
+				for (WritableValue<Integer> value : values) {
+					result += value.getValue().intValue();
+				}
+				return Integer.valueOf(result);
+			}
+		};
+		// a listener keeps the computed value attached to its dependencies
+		sum.addChangeListener(changeListener);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sum.dispose();
+		for (WritableValue<Integer> value : values) {
+			value.dispose();
+		}
+	}
+
+	/**
+	 * Collects the observables read by a runnable and registers a listener
+	 * with them
+	 */
+	@Benchmark
+	public IObservable[] runAndMonitor() {
+		IObservable[] observables = ObservableTracker.runAndMonitor(readAll, changeListener, null);
+		for (IObservable observable : observables) {
+			observable.removeChangeListener(changeListener);
+		}
+		return observables;
+	}
+
+	/**
+	 * Changes one dependency and reads the computed value again
+	 */
+	@Benchmark
+	public Integer recompute() {
+		values[counter++ % dependencies].setValue(Integer.valueOf(counter));
+		return sum.getValue();
+	}
+
+	/**
+	 * Reads the computed value without any change of its dependencies
+	 */
+	@Benchmark
+	public Integer cachedValue() {
+		return sum.getValue();
+	}
+}
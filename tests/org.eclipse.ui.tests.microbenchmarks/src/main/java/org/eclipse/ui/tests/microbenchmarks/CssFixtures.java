@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.e4.ui.css.core.dom.ElementAdapter;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * A CSS engine and DOM elements which do not need a display, and a style
+ * sheet resembling the ones of the default themes.
+ */
+final class CssFixtures {
+
+	private static final String[] WIDGETS = { "Shell", "Composite", "CTabFolder", "CTabItem", "ToolBar", "Button",
+			"Label", "Text", "Tree", "Table", "Combo", "Section", "FormHeading" };
+
+	private static final String[] PSEUDO_CLASSES = { "", ":selected", ":active", ":hover", ":focus" };
+
+	private CssFixtures() {
+		// prevent instantiation
+	}
+
+	static class Engine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+			// no widgets to restyle
+		}
+	}
+
+	static class Element extends ElementAdapter {
+		private final String type;
+		private final Element parent;
+		private final List<Node> children = new ArrayList<Node>();
+		private final Map<String, String> attributes = new HashMap<String, String>();
+		private String cssClass;
+		private String id;
+
+		Element(String type, Element parent, CSSEngine engine) {
+			super(null, engine);
+			this.type = type;
+			this.parent = parent;
+			if (parent != null) {
+				parent.children.add(this);
+			}
+		}
+
+		void setCSSClass(String cssClass) {
+			this.cssClass = cssClass;
+		}
+
+		void setCSSId(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public void setAttribute(String name, String value) {
+			attributes.put(name, value);
+		}
+
+		@Override
+		public String getAttribute(String name) {
+			String value = attributes.get(name);
+			return value == null ? "" : value;
+		}
+
+		@Override
+		public boolean hasAttribute(String name) {
+			return attributes.containsKey(name);
+		}
+
+		@Override
+		public String getLocalName() {
+			return type;
+		}
+
+		@Override
+		public String getNamespaceURI() {
+			return null;
+		}
+
+		@Override
+		public Node getParentNode() {
+			return parent;
+		}
+
+		@Override
+		public NodeList getChildNodes() {
+			return new NodeList() {
+				@Override
+				public int getLength() {
+					return children.size();
+				}
+
+				@Override
+				public Node item(int index) {
+					return children.get(index);
+				}
+			};
+		}
+
+		@Override
+		public String getCSSClass() {
+			return cssClass;
+		}
+
+		@Override
+		public String getCSSId() {
+			return id;
+		}
+
+		@Override
+		public String getCSSStyle() {
+			return null;
+		}
+	}
+
+	/**
+	 * @param copies
+	 *            how many times the rules for all widgets are repeated, with
+	 *            different class names
+	 * @return a style sheet with type, class, id, attribute, pseudo class,
+	 *         child and descendant selectors
+	 */
+	static String createStyleSheet(int copies) {
+		StringBuilder css = new StringBuilder();
+		for (int copy = 0; copy < copies; copy++) {
+			for (int w = 0; w < WIDGETS.length; w++) {
+				String widget = WIDGETS[w];
+				String pseudo = PSEUDO_CLASSES[(copy + w) % PSEUDO_CLASSES.length];
+				css.append(widget).append(pseudo).append(" {\n");
+				css.append("  color: #").append(hex(copy * 31 + w)).append(";\n");
+				css.append("  background-color: rgb(").append(copy % 256).append(", ").append(w * 10).append(", 64);\n");
+				css.append("}\n");
+				css.append("Shell.style").append(copy).append(' ').append(widget).append(" {\n");
+				css.append("  font: 'Segoe UI' ").append(9 + copy % 4).append("px;\n");
+				css.append("}\n");
+				css.append("#view").append(copy).append(" > ").append(widget).append("[kind='")
+						.append(w).append("'] {\n");
+				css.append("  swt-corner-radius: ").append(w).append(";\n");
+				css.append("  margin: 1.5em;\n");
+				css.append("}\n");
+			}
+		}
+		return css.toString();
+	}
+
+	private static String hex(int value) {
+		String hex = Integer.toHexString(0x1000000 | (value * 0x10101 & 0xffffff));
+		return hex.substring(1);
+	}
+
+	/**
+	 * @return the leaf of a shell / composite / widget hierarchy matched by
+	 *         rules of the given copy of the style sheet
+	 */
+	static Element createElement(CSSEngine engine, int copy) {
+		Element shell = new Element("Shell", null, engine);
+		shell.setCSSClass("style" + copy);
+		Element composite = new Element("Composite", shell, engine);
+		composite.setCSSId("view" + copy);
+		Element button = new Element("Button", composite, engine);
+		button.setAttribute("kind", "5");
+		return button;
+	}
+}
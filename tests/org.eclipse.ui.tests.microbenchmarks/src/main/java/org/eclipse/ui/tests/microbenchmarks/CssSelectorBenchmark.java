@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Measures matching the selectors of a style sheet against an element, once
+ * selector by selector and once by computing the style of the element as done
+ * when styling a widget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CssSelectorBenchmark {
+
+	/**
+	 * Number of copies of the rules for all widgets, see
+	 * {@link CssFixtures#createStyleSheet(int)}
+	 */
+	@Param({ "1", "10" })
+	public int copies;
+
+	private CSSEngine engine;
+
+	private CssFixtures.Element element;
+
+	private Selector[] selectors;
+
+	@Setup
+	public void setUp() throws IOException {
+		engine = new CssFixtures.Engine();
+		// parsing adds the style sheet to the engine
+		CSSStyleSheet styleSheet = (CSSStyleSheet) engine
+				.parseStyleSheet(new StringReader(CssFixtures.createStyleSheet(copies)));
+		List<Selector> list = new ArrayList<>();
+		CSSRuleList rules = styleSheet.getCssRules();
+		for (int i = 0; i < rules.getLength(); i++) {
+			SelectorList ruleSelectors = engine.parseSelectors(((CSSStyleRule) rules.item(i)).getSelectorText());
+			for (int s = 0; s < ruleSelectors.getLength(); s++) {
+				list.add(ruleSelectors.item(s));
+			}
+		}
+		selectors = list.toArray(new Selector[list.size()]);
+		element = CssFixtures.createElement(engine, copies - 1);
+	}
+
+	@Benchmark
+	public int matchSelectors() {
+		int matches = 0;
+		for (Selector selector : selectors) {
+			if (engine.matches(selector, element, null)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	@Benchmark
+	public CSSStyleDeclaration computeStyle() {
+		return engine.getViewCSS().getComputedStyle(element, null);
+	}
+}
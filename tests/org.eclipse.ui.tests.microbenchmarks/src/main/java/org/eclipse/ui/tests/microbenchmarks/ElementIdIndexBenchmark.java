@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.internal.ModelUtils;
+import org.eclipse.emf.ecore.EObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures elementId lookups in large application models, as done by the
+ * model assembler for every fragment and import, with the element id index
+ * compared with walking the model. Also measures adding and removing a part,
+ * which has to keep the index up to date.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementIdIndexBenchmark {
+
+	private static final int PARTS_PER_STACK = 10;
+
+	/**
+	 * Number of parts in the model
+	 */
+	@Param({ "10000", "50000" })
+	public int elements;
+
+	private MApplication application;
+
+	private MPartStack lastStack;
+
+	private String firstId;
+
+	private String lastId;
+
+	@Setup
+	public void setUp() {
+		application = MApplicationFactory.INSTANCE.createApplication();
+		MWindow window = MBasicFactory.INSTANCE.createWindow();
+		application.getChildren().add(window);
+		MPartSashContainer sash = MBasicFactory.INSTANCE.createPartSashContainer();
+		window.getChildren().add(sash);
+		for (int i = 0; i < elements; i += PARTS_PER_STACK) {
+			lastStack = MBasicFactory.INSTANCE.createPartStack();
+			lastStack.setElementId("stack." + i);
+			sash.getChildren().add(lastStack);
+			for (int j = i; j < i + PARTS_PER_STACK; j++) {
+				MPart part = MBasicFactory.INSTANCE.createPart();
+				part.setElementId("part." + j);
+				lastStack.getChildren().add(part);
+			}
+		}
+		firstId = "part.0";
+		lastId = "part." + (elements - 1);
+		// installs the index
+		ModelUtils.findElementById(application, firstId);
+	}
+
+	@Benchmark
+	public MApplicationElement findFirst() {
+		return ModelUtils.findElementById(application, firstId);
+	}
+
+	@Benchmark
+	public MApplicationElement findLast() {
+		return ModelUtils.findElementById(application, lastId);
+	}
+
+	@Benchmark
+	public MApplicationElement findMissing() {
+		return ModelUtils.findElementById(application, "missing");
+	}
+
+	@Benchmark
+	public MApplicationElement findFirstWalking() {
+		return findByWalking(application, firstId);
+	}
+
+	@Benchmark
+	public MApplicationElement findLastWalking() {
+		return findByWalking(application, lastId);
+	}
+
+	@Benchmark
+	public MApplicationElement findMissingWalking() {
+		return findByWalking(application, "missing");
+	}
+
+	@Benchmark
+	public MPart addAndRemovePart() {
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId("added");
+		lastStack.getChildren().add(part);
+		lastStack.getChildren().remove(part);
+		return part;
+	}
+
+	/**
+	 * The lookup of <code>ModelUtils.findElementById</code> without index.
+	 */
+	private static MApplicationElement findByWalking(MApplicationElement element, String id) {
+		if (id.equals(element.getElementId())) {
+			return element;
+		}
+		for (EObject child : ((EObject) element).eContents()) {
+			if (child instanceof MApplicationElement) {
+				MApplicationElement result = findByWalking((MApplicationElement) child, id);
+				if (result != null) {
+					return result;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * The quadratic list difference algorithm adapted from EMF's
+ * ListDifferenceAnalyzer, which {@link Diffs#computeListDiff(List, List)} used
+ * for all lists before large lists were handed to the
+ * <code>ListDiffComputer</code>. Kept as the baseline of
+ * {@link ListDiffBenchmark}.
+ */
+final class LegacyListDiff {
+
+	private LegacyListDiff() {
+		// prevent instantiation
+	}
+
+	static <E> List<ListDiffEntry<E>> computeListDiffEntries(List<? extends E> oldList, List<? extends E> newList) {
+		List<ListDiffEntry<E>> listDiffs = new ArrayList<>();
+		List<E> list = new ArrayList<E>(oldList);
+		int index = 0;
+		for (Iterator<? extends E> it = newList.iterator(); it.hasNext();) {
+			E newValue = it.next();
+			if (list.size() <= index) {
+				listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+			} else {
+				boolean done;
+				do {
+					done = true;
+					E oldValue = list.get(index);
+					if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+						int oldIndexOfNewValue = listIndexOf(list, newValue, index);
+						if (oldIndexOfNewValue != -1) {
+							int newIndexOfOldValue = listIndexOf(newList, oldValue, index);
+							if (newIndexOfOldValue == -1) {
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								list.remove(index);
+								done = false;
+							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
+								if (list.size() <= newIndexOfOldValue) {
+									newIndexOfOldValue = list.size() - 1;
+								}
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								list.remove(index);
+								listDiffs.add(Diffs.createListDiffEntry(newIndexOfOldValue, true, oldValue));
+								list.add(newIndexOfOldValue, oldValue);
+								done = false;
+							} else {
+								listDiffs.add(Diffs.createListDiffEntry(oldIndexOfNewValue, false, newValue));
+								list.remove(oldIndexOfNewValue);
+								listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+								list.add(index, newValue);
+							}
+						} else {
+							list.add(index, newValue);
+							listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+						}
+					}
+				} while (!done);
+			}
+			++index;
+		}
+		for (int i = list.size(); i > index;) {
+			listDiffs.add(Diffs.createListDiffEntry(--i, false, list.get(i)));
+		}
+		return listDiffs;
+	}
+
+	private static int listIndexOf(List<?> list, Object object, int index) {
+		int size = list.size();
+		for (int i = index; i < size; i++) {
+			Object candidate = list.get(i);
+			if (candidate == null ? object == null : candidate.equals(object)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.internal.databinding.observable.ListDiffComputer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the list difference computation of
+ * {@link Diffs#computeListDiff(List, List)} with the quadratic algorithm it
+ * used before, on a list where a few percent of the elements were removed,
+ * inserted and moved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListDiffBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	/**
+	 * Percentage of elements removed, inserted and moved each
+	 */
+	@Param({ "1", "10" })
+	public int changePercent;
+
+	private List<String> oldList;
+
+	private List<String> newList;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		oldList = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			oldList.add("element" + i);
+		}
+		newList = new ArrayList<>(oldList);
+		int changes = Math.max(1, size * changePercent / 100);
+		for (int i = 0; i < changes; i++) {
+			newList.remove(random.nextInt(newList.size()));
+			newList.add(random.nextInt(newList.size() + 1), "inserted" + i);
+			Collections.swap(newList, random.nextInt(newList.size()), random.nextInt(newList.size()));
+		}
+	}
+
+	/**
+	 * The current implementation, which picks the algorithm by list size
+	 */
+	@Benchmark
+	public ListDiff<String> computeListDiff() {
+		return Diffs.computeListDiff(oldList, newList);
+	}
+
+	/**
+	 * The longest increasing subsequence based algorithm alone
+	 */
+	@Benchmark
+	public List<ListDiffEntry<String>> listDiffComputer() {
+		return ListDiffComputer.computeListDiffEntries(oldList, newList);
+	}
+
+	/**
+	 * The quadratic algorithm used before for all list sizes
+	 */
+	@Benchmark
+	public List<ListDiffEntry<String>> legacyListDiff() {
+		return LegacyListDiff.computeListDiffEntries(oldList, newList);
+	}
+}
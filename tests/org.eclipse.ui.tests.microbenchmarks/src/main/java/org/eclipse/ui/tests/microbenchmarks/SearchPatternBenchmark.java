@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ui.dialogs.SearchPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures matching {@link SearchPattern}s against the names of a filtered
+ * items dialog, e.g. Open Type or Open Resource, for every kind of pattern a
+ * user types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchPatternBenchmark {
+
+	private static final String[] WORDS = { "Abstract", "Tree", "Viewer", "Content", "Provider", "Label", "Table",
+			"Selection", "Dialog", "Filtered", "Items", "Resource", "Workbench", "Part", "Editor", "Handler",
+			"Command", "Binding", "Observable", "Value", "List", "Decorator", "Manager", "Job" };
+
+	private static final int NAMES = 10000;
+
+	/**
+	 * A prefix, a camel case, a wildcard pattern and a pattern matching
+	 * nothing
+	 */
+	@Param({ "Abstract", "ATV", "*Content*Provider", "Xyz" })
+	public String pattern;
+
+	private String[] names;
+
+	private SearchPattern searchPattern;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		names = new String[NAMES];
+		for (int i = 0; i < NAMES; i++) {
+			StringBuilder name = new StringBuilder();
+			int words = 2 + random.nextInt(3);
+			for (int w = 0; w < words; w++) {
+				name.append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			names[i] = name.toString();
+		}
+		searchPattern = new SearchPattern();
+		searchPattern.setPattern(pattern);
+	}
+
+	/**
+	 * Filters all names with a pattern set once
+	 */
+	@Benchmark
+	public int matches() {
+		int count = 0;
+		for (String name : names) {
+			if (searchPattern.matches(name)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Sets the pattern again, as done on every key typed
+	 */
+	@Benchmark
+	public SearchPattern setPattern() {
+		SearchPattern newPattern = new SearchPattern();
+		newPattern.setPattern(pattern);
+		return newPattern;
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.e4.ui.css.core.dom.parsers.CSSParser;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSheetSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.css.sac.InputSource;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Compares loading a theme style sheet by parsing it (cold start) with
+ * restoring it from the binary form written by {@link StyleSheetSerializer}
+ * (warm start, the theme engine's style sheet cache).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StyleSheetCacheBenchmark {
+
+	/**
+	 * Number of copies of the rules for all widgets, see
+	 * {@link CssFixtures#createStyleSheet(int)}
+	 */
+	@Param({ "1", "10" })
+	public int copies;
+
+	private final StyleSheetSerializer serializer = new StyleSheetSerializer();
+
+	private CSSParser parser;
+
+	private String css;
+
+	private byte[] cached;
+
+	@Setup
+	public void setUp() throws IOException {
+		css = CssFixtures.createStyleSheet(copies);
+		parser = new CssFixtures.Engine().makeCSSParser();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		serializer.write(parse(), new DataOutputStream(bytes));
+		cached = bytes.toByteArray();
+	}
+
+	@Benchmark
+	public CSSStyleSheet parse() throws IOException {
+		return parser.parseStyleSheet(new InputSource(new StringReader(css)));
+	}
+
+	@Benchmark
+	public CSSStyleSheet readCached() throws IOException {
+		return serializer.read(new DataInputStream(new ByteArrayInputStream(cached)));
+	}
+}
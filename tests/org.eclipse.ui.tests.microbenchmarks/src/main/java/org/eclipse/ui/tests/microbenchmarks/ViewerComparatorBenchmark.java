@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sorting the elements of a viewer with a {@link ViewerComparator}
+ * using the collator based default comparator. Without a viewer the labels
+ * are the <code>toString()</code> of the elements, so no display is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewerComparatorBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	private Object[] elements;
+
+	private Object[] sorted;
+
+	private final ViewerComparator comparator = new ViewerComparator();
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		elements = new Object[size];
+		for (int i = 0; i < size; i++) {
+			elements[i] = "Element " + Integer.toString(random.nextInt(), 36);
+		}
+		sorted = elements.clone();
+		comparator.sort(null, sorted);
+	}
+
+	/**
+	 * Sorts elements in random order
+	 */
+	@Benchmark
+	public Object[] sortUnsorted() {
+		Object[] copy = elements.clone();
+		comparator.sort(null, copy);
+		return copy;
+	}
+
+	/**
+	 * Sorts already sorted elements, as done on every refresh
+	 */
+	@Benchmark
+	public Object[] sortSorted() {
+		Object[] copy = sorted.clone();
+		comparator.sort(null, copy);
+		return copy;
+	}
+}
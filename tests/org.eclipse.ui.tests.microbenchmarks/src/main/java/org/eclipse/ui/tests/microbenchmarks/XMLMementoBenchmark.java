@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.microbenchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.WorkbenchException;
+import org.eclipse.ui.XMLMemento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading, traversing and writing an {@link XMLMemento} shaped like
+ * the state of views and dialogs, e.g. a navigator's expanded elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLMementoBenchmark {
+
+	/**
+	 * Number of child mementos
+	 */
+	@Param({ "10", "1000" })
+	public int children;
+
+	private String xml;
+
+	private XMLMemento memento;
+
+	@Setup
+	public void setUp() throws IOException, WorkbenchException {
+		xml = write();
+		memento = XMLMemento.createReadRoot(new StringReader(xml));
+	}
+
+	@Benchmark
+	public XMLMemento read() throws WorkbenchException {
+		return XMLMemento.createReadRoot(new StringReader(xml));
+	}
+
+	@Benchmark
+	public int traverse() {
+		int sum = 0;
+		for (IMemento child : memento.getChildren("element")) {
+			Integer index = child.getInteger("index");
+			sum += index == null ? 0 : index.intValue();
+			IMemento state = child.getChild("state");
+			if (state != null && Boolean.TRUE.equals(state.getBoolean("expanded"))) {
+				sum++;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public String write() throws IOException {
+		XMLMemento root = XMLMemento.createWriteRoot("viewState");
+		root.putString("viewId", "org.eclipse.ui.navigator.ProjectExplorer");
+		for (int i = 0; i < children; i++) {
+			IMemento child = root.createChild("element", "/project/src/org/eclipse/Element" + i + ".java");
+			child.putInteger("index", i);
+			child.putString("label", "Element" + i + ".java");
+			IMemento state = child.createChild("state");
+			state.putBoolean("expanded", i % 3 == 0);
+			state.putFloat("weight", i / 10f);
+		}
+		StringWriter writer = new StringWriter();
+		root.save(writer);
+		return writer.toString();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google Inc. and others.
+ * Copyright (c) 2015, 2017 Google Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.ui.tests.navigator;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 
 import org.eclipse.ui.internal.navigator.VisibilityAssistant;
@@ -124,6 +125,61 @@ public class EvaluationCacheTest extends NavigatorTestBase {
 		Assert.assertNull(cache.getDescriptors(key, true));
 	}
 
-	// TODO Some way to reliably test the clearing of entries. Possibly using
-	// java.lang.ref.Reference#enqueue().
+	@Test
+	public void testLeastRecentlyUsedEntriesAreEvicted() {
+		INavigatorViewerDescriptor mockViewerDescript = new TestNavigatorViewerDescriptor();
+		INavigatorActivationService mockActivationService = new TestNavigatorActivationService();
+		VisibilityAssistant mockAssistant = new VisibilityAssistant(mockViewerDescript, mockActivationService);
+		EvaluationCache smallCache = new EvaluationCache(mockAssistant, 2);
+
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		smallCache.setDescriptors("a", value, false);
+		smallCache.setDescriptors("b", value, false);
+		// Touch "a", so "b" is the least recently used entry
+		Assert.assertSame(value, smallCache.getDescriptors("a", false));
+		smallCache.setDescriptors("c", value, false);
+
+		Assert.assertEquals(2, smallCache.size());
+		Assert.assertEquals(1, smallCache.getEvictionCount());
+		Assert.assertSame(value, smallCache.getDescriptors("a", false));
+		Assert.assertNull(smallCache.getDescriptors("b", false));
+		Assert.assertSame(value, smallCache.getDescriptors("c", false));
+	}
+
+	@Test
+	public void testCollectedElementsAreRemoved() throws InterruptedException {
+		Object key = new Object();
+		WeakReference<Object> keyRef = new WeakReference<Object>(key);
+		cache.setDescriptors(key, new NavigatorContentDescriptor[0], false);
+		Assert.assertEquals(1, cache.size());
+
+		// The cache must not keep the element alive.
+		key = null;
+		for (int i = 0; i < 20 && keyRef.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		Assert.assertNull("Element kept alive by the cache", keyRef.get());
+		for (int i = 0; i < 20 && cache.size() != 0; i++) {
+			Thread.sleep(50);
+		}
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testStatistics() {
+		Object key = new Object();
+		NavigatorContentDescriptor[] value = new NavigatorContentDescriptor[0];
+		Assert.assertNull(cache.getDescriptors(key, false));
+		cache.setDescriptors(key, value, false);
+		Assert.assertSame(value, cache.getDescriptors(key, false));
+		Assert.assertSame(value, cache.getDescriptors(key, false));
+		Assert.assertEquals(2, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(0, cache.getEvictionCount());
+
+		cache.resetStatistics();
+		Assert.assertEquals(0, cache.getHitCount());
+		Assert.assertEquals(0, cache.getMissCount());
+	}
 }
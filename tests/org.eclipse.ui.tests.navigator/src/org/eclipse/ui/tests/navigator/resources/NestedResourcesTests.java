@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Red Hat Inc.
+ * Copyright (c) 2016, 2017 Red Hat Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -112,6 +112,41 @@ public class NestedResourcesTests {
 		Assert.assertEquals(projectAChild, NestedProjectManager.getInstance().getDirectChildrenProjects(projectA)[0]);
 	}
 
+	@Test
+	public void testNestedProjectDeletedAndMoved() throws Exception {
+		IProgressMonitor monitor = new NullProgressMonitor();
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IProject projectA = root.getProject("a");
+		projectA.create(monitor);
+		projectA.open(monitor);
+		testProjects.add(projectA);
+		IFolder folderAA = projectA.getFolder("aa");
+		folderAA.create(true, true, monitor);
+		IProjectDescription projectAADesc = root.getWorkspace().newProjectDescription("aa");
+		projectAADesc.setLocation(folderAA.getLocation());
+		IProject projectAA = root.getProject(projectAADesc.getName());
+		projectAA.create(projectAADesc, monitor);
+		projectAA.open(monitor);
+		Assert.assertEquals(projectAA, NestedProjectManager.getInstance().getProject(folderAA));
+		Assert.assertEquals(projectA, NestedProjectManager.getInstance().getMostDirectOpenContainer(projectAA));
+
+		IFolder folderAB = projectA.getFolder("ab");
+		folderAB.create(true, true, monitor);
+		IProjectDescription movedDesc = projectAA.getDescription();
+		movedDesc.setLocation(folderAB.getLocation().append("aa"));
+		projectAA.move(movedDesc, true, monitor);
+		testProjects.add(projectAA);
+		Assert.assertNull(NestedProjectManager.getInstance().getProject(folderAA));
+		Assert.assertArrayEquals(new IProject[] { projectAA },
+				NestedProjectManager.getInstance().getDirectChildrenProjects(folderAB));
+		Assert.assertEquals(folderAB, NestedProjectManager.getInstance().getMostDirectOpenContainer(projectAA));
+
+		projectAA.delete(false, true, monitor);
+		testProjects.remove(projectAA);
+		Assert.assertFalse(NestedProjectManager.getInstance().hasDirectChildrenProjects(folderAB));
+		Assert.assertNull(NestedProjectManager.getInstance().getProject(folderAB.getFolder("aa")));
+	}
+
 	@After
 	public void deleteProjects() throws Exception {
 		IProgressMonitor monitor = new NullProgressMonitor();
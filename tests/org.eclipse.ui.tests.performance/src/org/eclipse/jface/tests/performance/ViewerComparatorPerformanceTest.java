@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import java.util.Random;
+
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerSorter;
+import org.eclipse.ui.tests.performance.BasicPerformanceTest;
+
+/**
+ * Measures {@link ViewerComparator#sort(Viewer, Object[])} with labels computed
+ * once per element and, for comparison, with labels computed on every comparison.
+ */
+public class ViewerComparatorPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ARRAYSIZE = 50000;
+	private static Object[] fArray;
+
+	/**
+	 * An element whose label is computed on request, like by a label provider.
+	 */
+	private static class Element {
+		private final int id;
+
+		Element(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public String toString() {
+			return "Element " + Integer.toString(id, 36);
+		}
+	}
+
+	/**
+	 * @param testName
+	 */
+	public ViewerComparatorPerformanceTest(String testName) {
+		super(testName);
+		generateArray();
+	}
+
+	/**
+	 * Sort with labels compared by the default comparator.
+	 */
+	public void testViewerComparator() {
+		doTestSort(new ViewerComparator());
+	}
+
+	/**
+	 * Sort with labels compared by their collation keys.
+	 */
+	@SuppressWarnings("deprecation")
+	public void testViewerSorter() {
+		doTestSort(new ViewerSorter());
+	}
+
+	/**
+	 * Sort with labels computed and collated on every comparison.
+	 */
+	@SuppressWarnings("deprecation")
+	public void testViewerSorterWithoutSortKeys() {
+		doTestSort(new ViewerSorter() {
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				return super.compare(viewer, e1, e2);
+			}
+		});
+	}
+
+	private void doTestSort(ViewerComparator comparator) {
+		for (int i = 0; i < 15; i++) {
+			Object[] array = fArray.clone();
+			startMeasuring();
+			comparator.sort(null, array);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Generate a large sized array of elements in random order
+	 */
+	private void generateArray() {
+		if (fArray == null) {
+			Random random = new Random(42);
+			fArray = new Object[ARRAYSIZE];
+			for (int i = 0; i < ARRAYSIZE; i++) {
+				fArray[i] = new Element(random.nextInt());
+			}
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.workbench.UIEvents;
+import org.eclipse.e4.ui.workbench.UIEvents.EventTags;
+import org.eclipse.e4.ui.workbench.UIEvents.EventTypes;
+import org.eclipse.test.performance.Dimension;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Measures the throughput of the event broker for a high-frequency model
+ * topic, sent from the UI thread to a UI subscriber and a headless wildcard
+ * subscriber, as well as to a topic nobody subscribed to.
+ */
+public class EventBrokerPerformanceTest extends BasicPerformanceTest {
+
+	private static final int EVENT_COUNT = 100000;
+
+	private static final int ITERATIONS = 10;
+
+	/** The topic under which the publisher sends label changes. */
+	private static final String LABEL_TOPIC = UIEvents.UILabel.TOPIC_LABEL.replace(UIEvents.ALL_SUB_TOPICS,
+			EventTypes.SET);
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param testName
+	 */
+	public EventBrokerPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Test the throughput of subscribed events.
+	 */
+	public void testSendSubscribed() {
+		IEventBroker broker = fWorkbench.getService(IEventBroker.class);
+		final AtomicInteger received = new AtomicInteger();
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				received.incrementAndGet();
+			}
+		};
+		broker.subscribe(UIEvents.UILabel.TOPIC_LABEL, handler);
+		broker.subscribe(UIEvents.UILabel.TOPIC_ALL, null, handler, true);
+		try {
+			measureSend(broker, "UI - Event broker send", LABEL_TOPIC);
+			assertEquals(2 * EVENT_COUNT * ITERATIONS, received.get());
+		} finally {
+			broker.unsubscribe(handler);
+		}
+	}
+
+	/**
+	 * Test the throughput of events nobody subscribed to.
+	 */
+	public void testSendUnsubscribed() {
+		IEventBroker broker = fWorkbench.getService(IEventBroker.class);
+		measureSend(broker, "UI - Event broker send unsubscribed",
+				"org/eclipse/ui/tests/performance/EventBrokerPerformanceTest");
+	}
+
+	private void measureSend(IEventBroker broker, String shortName, String topic) {
+		tagIfNecessary(shortName, Dimension.ELAPSED_PROCESS);
+
+		Map<String, Object> data = new HashMap<>();
+		data.put(EventTags.ATTNAME, UIEvents.UILabel.LABEL);
+		data.put(EventTags.NEW_VALUE, "label");
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			for (int j = 0; j < EVENT_COUNT; j++) {
+				broker.send(topic, data);
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+}
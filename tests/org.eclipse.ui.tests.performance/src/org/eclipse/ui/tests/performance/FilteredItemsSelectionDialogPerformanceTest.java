@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.Comparator;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+
+/**
+ * Measures the time from a keystroke in a {@link FilteredItemsSelectionDialog}
+ * to the display of the matching items, for a synthetic provider of one
+ * million items. Each keystroke narrows the previous pattern, so the items are
+ * filtered from the cached result of the previous keystroke.
+ */
+public class FilteredItemsSelectionDialogPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ITEM_COUNT = 1000000;
+
+	private static final int ITERATIONS = 10;
+
+	/**
+	 * Maximum time in milliseconds to wait for the items of a pattern.
+	 */
+	private static final long TIMEOUT = 60000;
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param testName
+	 */
+	public FilteredItemsSelectionDialogPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Test keystroke latency with sequential filtering.
+	 */
+	public void testKeystrokeLatency() {
+		measureKeystrokes("UI - Filtered items dialog keystroke", false);
+	}
+
+	/**
+	 * Test keystroke latency with parallel filtering.
+	 */
+	public void testParallelKeystrokeLatency() {
+		measureKeystrokes("UI - Filtered items dialog parallel keystroke", true);
+	}
+
+	private void measureKeystrokes(String shortName, boolean parallel) {
+		Shell parent = fWorkbench.getActiveWorkbenchWindow().getShell();
+		SyntheticItemsDialog dialog = new SyntheticItemsDialog(parent, parallel);
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+		try {
+			Text text = (Text) dialog.getPatternControl();
+			Table table = findTable(dialog.getShell());
+			assertNotNull(table);
+
+			tagIfNecessary(shortName, Dimension.ELAPSED_PROCESS);
+
+			for (int i = 0; i < ITERATIONS; i++) {
+				type(text, table, "", 0);
+				// Fills the cache which the following keystrokes narrow.
+				type(text, table, "item", ITEM_COUNT);
+
+				startMeasuring();
+				type(text, table, "item1", ITEM_COUNT / 10);
+				type(text, table, "item12", ITEM_COUNT / 100);
+				type(text, table, "item123", ITEM_COUNT / 1000);
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			dialog.close();
+		}
+	}
+
+	/**
+	 * Sets the pattern and waits until the expected number of items is shown.
+	 * Events are processed without sleeping, so that the wait does not add to
+	 * the measured time.
+	 */
+	private void type(Text text, Table table, String pattern, int expectedCount) {
+		text.setText(pattern);
+		long timeout = System.currentTimeMillis() + TIMEOUT;
+		while (table.getItemCount() != expectedCount) {
+			if (System.currentTimeMillis() > timeout) {
+				fail("Expected " + expectedCount + " items for \"" + pattern + "\" but found "
+						+ table.getItemCount());
+			}
+			processEvents();
+		}
+	}
+
+	private static Table findTable(Control control) {
+		if (control instanceof Table) {
+			return (Table) control;
+		}
+		if (control instanceof Composite) {
+			for (Control child : ((Composite) control).getChildren()) {
+				Table table = findTable(child);
+				if (table != null) {
+					return table;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class SyntheticItemsDialog extends FilteredItemsSelectionDialog {
+
+		private final boolean parallel;
+
+		private final IDialogSettings settings = new DialogSettings("SyntheticItemsDialog");
+
+		SyntheticItemsDialog(Shell shell, boolean parallel) {
+			super(shell);
+			this.parallel = parallel;
+			setTitle("Synthetic items");
+		}
+
+		@Override
+		protected boolean isParallelFilteringSupported() {
+			return parallel;
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return settings;
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					return matches((String) item);
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected Comparator getItemsComparator() {
+			return Comparator.naturalOrder();
+		}
+
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) throws CoreException {
+			progressMonitor.beginTask("Synthetic items", ITEM_COUNT);
+			for (int i = 0; i < ITEM_COUNT && !progressMonitor.isCanceled(); i++) {
+				contentProvider.add(String.format("item%06d", Integer.valueOf(i)), itemsFilter);
+				progressMonitor.worked(1);
+			}
+			progressMonitor.done();
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return (String) item;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -510,6 +510,46 @@ public class DialogSettingsTest extends TestCase {
 				.checkAfterDeserialization(deserializedDialogSettings);
 	}
 
+	public void testLoadNestedSections() {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<!-- comment -->\n"
+				+ "<section name=\"root\">\n"
+				+ "\t<item key=\"a\" value=\"1\"/>\n"
+				+ "\t<unknown><item key=\"hidden\" value=\"x\"/></unknown>\n"
+				+ "\t<list key=\"l\">\n"
+				+ "\t\t<item value=\"v1\"/>\n"
+				+ "\t\t<other><item value=\"hidden\"/></other>\n"
+				+ "\t\t<item value=\"v2\"/>\n"
+				+ "\t</list>\n"
+				+ "\t<section name=\"child\">\n"
+				+ "\t\t<item key=\"b\"/>\n"
+				+ "\t\t<section name=\"grandchild\"><item key=\"c\" value=\"3\"/></section>\n"
+				+ "\t</section>\n"
+				+ "</section>\n";
+		DialogSettings settings = new DialogSettings("");
+		settings.load(new StringReader(xml));
+		assertEquals("root", settings.getName());
+		assertEquals("1", settings.get("a"));
+		assertNull(settings.get("hidden"));
+		String[] list = settings.getArray("l");
+		assertEquals(2, list.length);
+		assertEquals("v1", list[0]);
+		assertEquals("v2", list[1]);
+		IDialogSettings child = settings.getSection("child");
+		assertNotNull(child);
+		assertEquals("", child.get("b"));
+		assertNull(settings.getSection("grandchild"));
+		assertEquals("3", child.getSection("grandchild").get("c"));
+	}
+
+	public void testLoadMalformed() {
+		DialogSettings settings = new DialogSettings("test");
+		settings.put("a", "1");
+		settings.load(new StringReader("<section name=\"other\"><item key=\"a\" value=\"2\"/>"));
+		assertEquals("test", settings.getName());
+		assertEquals("1", settings.get("a"));
+	}
+
 	public void testSaveWithIOException() {
 		final DialogSettings settings = new DialogSettings("test");
 		try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009 IBM Corporation and others.
+ * Copyright (c) 2009, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,17 @@
  ******************************************************************************/
 package org.eclipse.jface.tests.fieldassist;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.jface.bindings.keys.KeyStroke;
+import org.eclipse.jface.fieldassist.ContentProposal;
 import org.eclipse.jface.fieldassist.ContentProposalAdapter;
 import org.eclipse.jface.fieldassist.ControlDecoration;
 import org.eclipse.jface.fieldassist.FieldDecorationRegistry;
+import org.eclipse.jface.fieldassist.IContentProposal;
+import org.eclipse.jface.fieldassist.IContentProposalCollector;
+import org.eclipse.jface.fieldassist.IContentProposalProvider2;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
@@ -279,4 +286,193 @@ public abstract class FieldAssistTestCase extends AbstractFieldAssistTestCase {
 		controlBounds = getDisplay().map(getFieldAssistWindow().getFieldAssistControl().getParent(), null, controlBounds);
 		assertFalse("Popup is blocking the control", popupBounds.intersects(controlBounds));
 	}
+
+	public void testAsyncProposalsOpenPopup() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		AsyncProposalProvider provider = new AsyncProposalProvider(new String[] { "one", "two" },
+				new String[] { "three" });
+		window.setContentProposalProvider(provider);
+		window.setPropagateKeys(false);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		window.open();
+		sendKeyDownToControl(stroke);
+		waitForPopup(window);
+		assertTwoShellsUp();
+		assertTrue("1.0", provider.computed(0));
+		assertFalse("1.1", provider.isCanceled(0));
+	}
+
+	public void testAsyncNoProposals() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		AsyncProposalProvider provider = new AsyncProposalProvider();
+		window.setContentProposalProvider(provider);
+		window.setPropagateKeys(false);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		window.open();
+		sendKeyDownToControl(stroke);
+		long end = System.currentTimeMillis() + 5000;
+		while (!provider.computed(0) && System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+		assertOneShellUp();
+	}
+
+	public void testAsyncComputationCanceledOnClose() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		AsyncProposalProvider provider = new AsyncProposalProvider(new String[] { "one" });
+		window.setContentProposalProvider(provider);
+		window.setPropagateKeys(false);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		window.open();
+		sendKeyDownToControl(stroke);
+		waitForPopup(window);
+		assertTwoShellsUp();
+		// Arrow left recomputes the proposals, closing the popup cancels it
+		setControlContent(SAMPLE_CONTENT);
+		provider.blockNext();
+		Event event = new Event();
+		event.type = SWT.KeyDown;
+		event.keyCode = SWT.ARROW_LEFT;
+		window.getDisplay().post(event);
+		long end = System.currentTimeMillis() + 5000;
+		while (provider.computations() < 2 && System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+		sendFocusElsewhere();
+		assertOneShellUp();
+		assertTrue("1.0", provider.isCanceled(1));
+		provider.unblock();
+	}
+
+	public void testAsyncComputationCanceledWhenTyping() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		AsyncProposalProvider provider = new AsyncProposalProvider(new String[] { "one" });
+		window.setContentProposalProvider(provider);
+		window.setPropagateKeys(false);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		window.open();
+		provider.blockNext();
+		sendKeyDownToControl(stroke);
+		waitForComputations(provider, 1);
+		// Type before the proposals arrive
+		sendKeyDownToControl('a');
+		provider.unblock();
+		waitForComputed(provider, 0);
+		assertOneShellUp();
+		assertTrue("1.0", provider.isCanceled(0));
+	}
+
+	public void testAsyncComputationCanceledOnFocusOut() {
+		AbstractFieldAssistWindow window = getFieldAssistWindow();
+		AsyncProposalProvider provider = new AsyncProposalProvider(new String[] { "one" });
+		window.setContentProposalProvider(provider);
+		window.setPropagateKeys(false);
+		KeyStroke stroke = KeyStroke.getInstance(SWT.F4);
+		window.setKeyStroke(stroke);
+		window.open();
+		provider.blockNext();
+		sendKeyDownToControl(stroke);
+		waitForComputations(provider, 1);
+		sendFocusElsewhere();
+		provider.unblock();
+		waitForComputed(provider, 0);
+		assertOneShellUp();
+		assertTrue("1.0", provider.isCanceled(0));
+	}
+
+	private void waitForComputations(AsyncProposalProvider provider, int count) {
+		long end = System.currentTimeMillis() + 5000;
+		while (provider.computations() < count && System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+		assertEquals("Proposals were not requested", count, provider.computations());
+	}
+
+	private void waitForComputed(AsyncProposalProvider provider, int index) {
+		long end = System.currentTimeMillis() + 5000;
+		while (!provider.computed(index) && System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+		assertTrue("Proposals were not computed", provider.computed(index));
+	}
+
+	private void waitForPopup(AbstractFieldAssistWindow window) {
+		long end = System.currentTimeMillis() + 5000;
+		while (!window.getContentProposalAdapter().isProposalPopupOpen()
+				&& System.currentTimeMillis() < end) {
+			spinEventLoop();
+		}
+	}
+
+	/**
+	 * A proposal provider reporting its proposals in batches from the
+	 * background.
+	 */
+	static class AsyncProposalProvider implements IContentProposalProvider2 {
+		final String[][] batches;
+
+		final List<IContentProposalCollector> collectors = new ArrayList<>();
+
+		final List<IContentProposalCollector> computed = new ArrayList<>();
+
+		private boolean block;
+
+		AsyncProposalProvider(String[]... batches) {
+			this.batches = batches;
+		}
+
+		@Override
+		public IContentProposal[] getProposals(String contents, int position) {
+			fail("Proposals should be computed in the background");
+			return null;
+		}
+
+		@Override
+		public void computeProposals(String contents, int position, IContentProposalCollector collector) {
+			synchronized (this) {
+				collectors.add(collector);
+				while (block && !collector.isCanceled()) {
+					try {
+						wait(10);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+			for (String[] batch : batches) {
+				IContentProposal[] proposals = new IContentProposal[batch.length];
+				for (int i = 0; i < batch.length; i++) {
+					proposals[i] = new ContentProposal(batch[i]);
+				}
+				collector.addProposals(proposals);
+			}
+			synchronized (this) {
+				computed.add(collector);
+			}
+		}
+
+		synchronized int computations() {
+			return collectors.size();
+		}
+
+		synchronized boolean computed(int index) {
+			return computed.size() > index;
+		}
+
+		synchronized boolean isCanceled(int index) {
+			return collectors.get(index).isCanceled();
+		}
+
+		synchronized void blockNext() {
+			block = true;
+		}
+
+		synchronized void unblock() {
+			block = false;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.jface.tests.viewers;
 
 import org.eclipse.jface.viewers.ListViewer;
 import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.jface.viewers.ViewerSorter;
 import org.eclipse.swt.widgets.Composite;
@@ -60,6 +61,36 @@ public class ListViewerComparatorTest extends ViewerComparatorTest {
 		assertSortedResult(TEAM1_SORTED_WITH_INSERT);
 	}
 
+	public void testViewerComparatorSortKeys(){
+		fViewer.setComparator(new ViewerComparator() {
+			boolean sorting;
+
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				assertFalse("Elements with sort keys compared while sorting", sorting);
+				return ((TeamMember) e1).name.compareTo(((TeamMember) e2).name);
+			}
+
+			@Override
+			public Comparable<?> getSortKey(Viewer viewer, Object element) {
+				return ((TeamMember) element).name;
+			}
+
+			@Override
+			public void sort(Viewer viewer, Object[] elements) {
+				sorting = true;
+				try {
+					super.sort(viewer, elements);
+				} finally {
+					sorting = false;
+				}
+			}
+		});
+		assertSortedResult(TEAM1_SORTED);
+		team1.addMember("Duong");
+		assertSortedResult(TEAM1_SORTED_WITH_INSERT);
+	}
+
 	private void assertSortedResult(String[] expected){
 		String[] items = getListViewer().getList().getItems();
 		for (int i = 0; i < items.length; i++){
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 IBM Corporation and others.
+ * Copyright (c) 2006, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,8 @@ import java.util.List;
 
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.TreePathViewerSorter;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
@@ -133,6 +135,46 @@ public class TreeViewerComparatorTest extends ViewerComparatorTest{
 		assertSortedResult(expected);
 	}
 
+	public void testTreePathViewerSorter(){
+		fViewer.setSorter(new TreePathViewerSorter());
+		getTreeViewer().expandAll();
+		String[][] expected = {TEAM3_SORTED, TEAM2_SORTED, TEAM1_SORTED};
+		assertSortedResult(expected);
+	}
+
+	public void testTreePathViewerSorterSortKeys(){
+		fViewer.setSorter(new TreePathViewerSorter() {
+			boolean sorting;
+
+			@Override
+			public int compare(Viewer viewer, TreePath parentPath, Object e1, Object e2) {
+				assertFalse("Elements with sort keys compared while sorting", sorting);
+				return super.compare(viewer, parentPath, e1, e2);
+			}
+
+			@Override
+			public Comparable<?> getSortKey(Viewer viewer, TreePath parentPath, Object element) {
+				if (element instanceof Team) {
+					return ((Team) element).name;
+				}
+				return ((TeamMember) element).name;
+			}
+
+			@Override
+			public void sort(Viewer viewer, TreePath parentPath, Object[] elements) {
+				sorting = true;
+				try {
+					super.sort(viewer, parentPath, elements);
+				} finally {
+					sorting = false;
+				}
+			}
+		});
+		getTreeViewer().expandAll();
+		String[][] expected = {TEAM3_SORTED, TEAM2_SORTED, TEAM1_SORTED};
+		assertSortedResult(expected);
+	}
+
 	private void assertSortedResult(String[][] resultArrays){
 		TreeItem[] rootItems = getTreeViewer().getTree().getItems();
 		assertEquals("Number of root items in tree not correct (actual=" + rootItems.length + ")", 3, rootItems.length);
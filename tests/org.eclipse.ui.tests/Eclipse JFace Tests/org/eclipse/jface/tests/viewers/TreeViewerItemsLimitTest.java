@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jface.viewers.ExpandableNode;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests for {@link TreeViewer#setItemsLimit(int)}.
+ */
+public class TreeViewerItemsLimitTest extends TestCase {
+
+	private static final int LIMIT = 10;
+
+	private Shell shell;
+
+	private LimitedTreeViewer viewer;
+
+	private TreeNode rootNode;
+
+	@Override
+	protected void setUp() throws Exception {
+		shell = new Shell();
+		viewer = new LimitedTreeViewer(shell);
+		viewer.setContentProvider(new InternalContentProvider());
+		viewer.setLabelProvider(new InternalLabelProvider());
+		viewer.setItemsLimit(LIMIT);
+		viewer.setInput(createInput());
+		shell.open();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		shell.close();
+	}
+
+	private Object createInput() {
+		rootNode = new TreeNode("Root");
+		for (int i = 0; i < 25; i++) {
+			TreeNode child = rootNode.add(String.format("Child%02d", i));
+			child.add("Grandchild");
+		}
+		return rootNode;
+	}
+
+	private Tree getTree() {
+		return viewer.getTree();
+	}
+
+	private ExpandableNode getExpandableNode() {
+		TreeItem[] items = getTree().getItems();
+		Object data = items[items.length - 1].getData();
+		assertTrue(data instanceof ExpandableNode);
+		return (ExpandableNode) data;
+	}
+
+	private void selectExpandableNode() {
+		TreeItem[] items = getTree().getItems();
+		Event event = new Event();
+		event.widget = getTree();
+		event.item = items[items.length - 1];
+		viewer.handleSelect(new SelectionEvent(event));
+	}
+
+	public void testLimit() {
+		assertEquals(LIMIT + 1, getTree().getItemCount());
+		assertEquals("Child09", getTree().getItem(LIMIT - 1).getText());
+		ExpandableNode node = getExpandableNode();
+		assertEquals(LIMIT, node.getOffset());
+		assertEquals(LIMIT, node.getLimit());
+		assertEquals(LIMIT, node.getAddedElements().length);
+		assertEquals(15, node.getRemainingElements().length);
+		assertEquals(node.getLabel(), getTree().getItem(LIMIT).getText());
+	}
+
+	public void testNoLimit() {
+		viewer.setItemsLimit(0);
+		assertEquals(25, getTree().getItemCount());
+		viewer.setItemsLimit(LIMIT);
+		assertEquals(LIMIT + 1, getTree().getItemCount());
+	}
+
+	public void testSelectExpandableNode() {
+		selectExpandableNode();
+		assertEquals(2 * LIMIT + 1, getTree().getItemCount());
+		assertEquals("Child10", getTree().getItem(LIMIT).getText());
+		IStructuredSelection selection = viewer.getStructuredSelection();
+		assertEquals(1, selection.size());
+		assertEquals("Child10", selection.getFirstElement().toString());
+
+		selectExpandableNode();
+		assertEquals(25, getTree().getItemCount());
+		assertFalse(getTree().getItem(24).getData() instanceof ExpandableNode);
+	}
+
+	public void testExpandableNodeIsNotSelected() {
+		getTree().setSelection(getTree().getItem(LIMIT));
+		assertTrue(viewer.getSelection().isEmpty());
+	}
+
+	public void testReveal() {
+		TreeNode child = rootNode.getChild(22);
+		viewer.reveal(child);
+		assertEquals(25, getTree().getItemCount());
+		assertNotNull(viewer.testFindItem(child));
+	}
+
+	public void testSetSelection() {
+		TreeNode child = rootNode.getChild(12);
+		viewer.setSelection(new StructuredSelection(child), true);
+		assertEquals(2 * LIMIT + 1, getTree().getItemCount());
+		assertEquals(child, viewer.getStructuredSelection().getFirstElement());
+	}
+
+	public void testSetExpandedElements() {
+		TreeNode child = rootNode.getChild(15);
+		viewer.setExpandedElements(new Object[] { child });
+		TreeItem item = (TreeItem) viewer.testFindItem(child);
+		assertNotNull(item);
+		assertTrue(item.getExpanded());
+		assertEquals(1, viewer.getExpandedElements().length);
+	}
+
+	public void testRefreshKeepsOpenedPages() {
+		TreeNode child = rootNode.getChild(12);
+		viewer.setSelection(new StructuredSelection(child), true);
+		rootNode.add("Child25");
+		viewer.refresh();
+		assertEquals(2 * LIMIT + 1, getTree().getItemCount());
+		assertEquals(6, getExpandableNode().getRemainingElements().length);
+		assertEquals(child, viewer.getStructuredSelection().getFirstElement());
+	}
+
+	public void testComparatorAndFilter() {
+		viewer.setComparator(new ViewerComparator() {
+			@Override
+			public int compare(Viewer v, Object e1, Object e2) {
+				return e2.toString().compareTo(e1.toString());
+			}
+		});
+		viewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer v, Object parentElement, Object element) {
+				return rootNode.getChildren().indexOf(element) % 2 == 0;
+			}
+		});
+		assertEquals(LIMIT + 1, getTree().getItemCount());
+		assertEquals("Child24", getTree().getItem(0).getText());
+		assertEquals("Child06", getTree().getItem(LIMIT - 1).getText());
+		assertEquals(3, getExpandableNode().getRemainingElements().length);
+	}
+
+	public void testAdd() {
+		TreeNode added = rootNode.add("Child25");
+		viewer.add(rootNode, added);
+		assertEquals(LIMIT + 1, getTree().getItemCount());
+		assertEquals(16, getExpandableNode().getRemainingElements().length);
+	}
+
+	public void testRemoveHiddenElement() {
+		TreeNode removed = rootNode.getChild(20);
+		rootNode.getChildren().remove(removed);
+		viewer.remove(removed);
+		assertEquals(14, getExpandableNode().getRemainingElements().length);
+		viewer.reveal(rootNode.getChild(22));
+		assertEquals(24, getTree().getItemCount());
+	}
+
+	private static class LimitedTreeViewer extends TreeViewer {
+
+		LimitedTreeViewer(Composite parent) {
+			super(parent, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL);
+		}
+
+		@Override
+		public void handleSelect(SelectionEvent event) {
+			super.handleSelect(event);
+		}
+	}
+
+	private static class TreeNode {
+
+		private final String name;
+
+		private final TreeNode parent;
+
+		private final List<TreeNode> children = new ArrayList<>();
+
+		TreeNode(String name) {
+			this(null, name);
+		}
+
+		private TreeNode(TreeNode parent, String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+
+		TreeNode add(String childName) {
+			TreeNode child = new TreeNode(this, childName);
+			children.add(child);
+			return child;
+		}
+
+		TreeNode getChild(int index) {
+			return children.get(index);
+		}
+
+		List<TreeNode> getChildren() {
+			return children;
+		}
+
+		TreeNode getParent() {
+			return parent;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static class InternalLabelProvider extends LabelProvider {
+		@Override
+		public String getText(Object element) {
+			return ((TreeNode) element).toString();
+		}
+	}
+
+	private static class InternalContentProvider implements ITreeContentProvider {
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			return ((TreeNode) parentElement).getChildren().toArray();
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return ((TreeNode) element).getParent();
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return !((TreeNode) element).getChildren().isEmpty();
+		}
+
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return getChildren(inputElement);
+		}
+	}
+}
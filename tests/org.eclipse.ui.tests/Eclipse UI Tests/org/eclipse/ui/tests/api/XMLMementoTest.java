@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2006 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,11 +15,15 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+
 import junit.framework.TestCase;
 
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.WorkbenchException;
 import org.eclipse.ui.XMLMemento;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 /**
  * Testing XMLMemento (see bug 93262). Emphasis is on ensuring that the 3.1
@@ -557,6 +561,62 @@ public class XMLMementoTest extends TestCase {
 	        assertEquals("text", copiedChild.getTextData());
 	    }
 
+	public void testGetChildrenOfManyTypes() throws WorkbenchException,
+			IOException {
+		testPutAndGet(new MementoChecker() {
+
+			@Override
+			public void prepareAndCheckBeforeSerialization(
+					XMLMemento mementoToSerialize) {
+				for (int i = 0; i < 50; i++) {
+					mementoToSerialize.createChild("type" + (i % 3),
+							Integer.toString(i));
+				}
+				check(mementoToSerialize);
+			}
+
+			@Override
+			public void checkAfterDeserialization(XMLMemento deserializedMemento) {
+				check(deserializedMemento);
+			}
 
+			private void check(XMLMemento memento) {
+				assertEquals(50, memento.getChildren().length);
+				for (int type = 0; type < 3; type++) {
+					IMemento[] children = memento.getChildren("type" + type);
+					assertEquals(type == 2 ? 16 : 17, children.length);
+					for (int i = 0; i < children.length; i++) {
+						assertEquals(Integer.toString(i * 3 + type),
+								children[i].getID());
+					}
+					assertEquals(Integer.toString(type),
+							memento.getChild("type" + type).getID());
+				}
+				assertNull(memento.getChild("type3"));
+				assertEquals(0, memento.getChildren("type3").length);
+			}
+		});
+	}
 
+	public void testDocumentMemento() throws Exception {
+		Document document = DocumentBuilderFactory.newInstance()
+				.newDocumentBuilder().newDocument();
+		Element element = document.createElement("root");
+		document.appendChild(element);
+		XMLMemento domMemento = new XMLMemento(document, element);
+		IMemento child = domMemento.createChild("child", "id");
+		child.putString("key", "value");
+		child.putTextData("text");
+		assertEquals("value", domMemento.getChild("child").getString("key"));
+
+		XMLMemento memento = XMLMemento.createWriteRoot("root");
+		IMemento copy = memento.copyChild(child);
+		assertEquals("id", copy.getID());
+		assertEquals("value", copy.getString("key"));
+		assertEquals("text", copy.getTextData());
+
+		IMemento copyBack = domMemento.copyChild(copy);
+		assertEquals("value", copyBack.getString("key"));
+		assertEquals(2, domMemento.getChildren("child").length);
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,24 @@
  *******************************************************************************/
 package org.eclipse.ui.tests.datatransfer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -30,6 +41,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.ui.dialogs.IOverwriteQuery;
+import org.eclipse.ui.internal.wizards.datatransfer.TarEntry;
 import org.eclipse.ui.internal.wizards.datatransfer.TarFile;
 import org.eclipse.ui.internal.wizards.datatransfer.TarLeveledStructureProvider;
 import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
@@ -212,6 +224,68 @@ public class ImportArchiveOperationTest extends UITestCase implements IOverwrite
         verifyFiles(directoryNames.length, false);
     }
 
+    public void testTarReadEntriesOutOfOrder() throws Exception {
+    	setup(ARCHIVE_SOURCE_PROPERTY);
+    	File tar = new File(tarFileURL.getPath());
+    	assertEntriesReadOutOfOrder(tar);
+
+    	File compressedTar = File.createTempFile("ImportArchiveOperationTest", ".tar.gz");
+    	try {
+    		try (OutputStream out = new GZIPOutputStream(new FileOutputStream(compressedTar))) {
+    			Files.copy(Paths.get(tarFileURL.getPath()), out);
+    		}
+    		assertEntriesReadOutOfOrder(compressedTar);
+    	} finally {
+    		compressedTar.delete();
+    	}
+    }
+
+    private void assertEntriesReadOutOfOrder(File file) throws Exception {
+    	// the contents of the files of the archive, e.g. "Dir1, file2"
+    	Map<String, String> expected = new HashMap<>();
+    	for (String directoryName : directoryNames) {
+    		for (String fileName : fileNames) {
+    			expected.put(localDirectory + "/" + directoryName + "/" + fileName,
+    					"Dir" + directoryName.substring(3) + ", " + fileName.substring(0, fileName.indexOf('.')));
+    		}
+    	}
+    	TarFile tarFile = new TarFile(file);
+    	try {
+    		List<TarEntry> entries = new ArrayList<>();
+    		Enumeration tarEntries = tarFile.entries();
+    		while (tarEntries.hasMoreElements()) {
+    			entries.add((TarEntry) tarEntries.nextElement());
+    		}
+    		assertEquals(expected.size(), entries.size());
+    		for (int i = entries.size() - 1; i >= 0; i--) {
+    			assertEntryContents(tarFile, entries.get(i), expected);
+    		}
+    		for (TarEntry entry : entries) {
+    			assertEntryContents(tarFile, entry, expected);
+    		}
+    	} finally {
+    		tarFile.close();
+    	}
+    }
+
+    private void assertEntryContents(TarFile tarFile, TarEntry entry, Map<String, String> expected)
+    		throws Exception {
+    	String contents = expected.get(entry.getName());
+    	assertNotNull(entry.getName(), contents);
+    	assertTrue(entry.getName(), Arrays.equals(contents.getBytes(StandardCharsets.US_ASCII),
+    			readContents(tarFile.getInputStream(entry))));
+    }
+
+    private byte[] readContents(InputStream in) throws IOException {
+    	ByteArrayOutputStream out = new ByteArrayOutputStream();
+    	byte[] buffer = new byte[1024];
+    	int read;
+    	while ((read = in.read(buffer)) > 0) {
+    		out.write(buffer, 0, read);
+    	}
+    	return out.toByteArray();
+    }
+
     public void testZipSetOverwriteResources() throws Exception {
     	setup(ARCHIVE_SOURCE_PROPERTY);
     	project = FileUtil.createProject("ImporZiprSetOverwriteResources");
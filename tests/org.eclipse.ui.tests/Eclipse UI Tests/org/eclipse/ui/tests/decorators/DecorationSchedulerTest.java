@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.tests.decorators.SchedulerTestDecorator.Recorder;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests the order, the parallelism and the batched label updates of the
+ * lightweight decoration done by the DecorationScheduler.
+ */
+public class DecorationSchedulerTest extends UITestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	/** The scheduler runs at most this many decoration jobs. */
+	private static final int MAX_DECORATION_JOBS = 4;
+
+	// The label updates of SchedulerTestElements, accessed in the UI thread
+	private final List<Object[]> updates = new ArrayList<>();
+
+	// Run when a label update arrives, accessed in the UI thread
+	private Runnable onUpdate;
+
+	private final ILabelProviderListener listener = event -> {
+		Object[] elements = event.getElements();
+		if (elements == null) {
+			return;
+		}
+		List<Object> testElements = new ArrayList<>();
+		for (Object element : elements) {
+			if (element instanceof SchedulerTestElement) {
+				testElements.add(element);
+			}
+		}
+		if (!testElements.isEmpty()) {
+			updates.add(testElements.toArray());
+			if (onUpdate != null) {
+				Runnable runnable = onUpdate;
+				onUpdate = null;
+				runnable.run();
+			}
+		}
+	};
+
+	public DecorationSchedulerTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		SchedulerTestDecorator.THREAD_SAFE.reset();
+		SchedulerTestDecorator.SERIAL.reset();
+		getDecoratorManager().addListener(listener);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		SchedulerTestDecorator.THREAD_SAFE.openGate();
+		SchedulerTestDecorator.SERIAL.openGate();
+		getDecoratorManager().setEnabled(SchedulerTestDecorator.ID, false);
+		getDecoratorManager().setEnabled(SerialSchedulerTestDecorator.ID, false);
+		getDecoratorManager().removeListener(listener);
+		waitForDecorationJobs();
+		super.doTearDown();
+	}
+
+	private DecoratorManager getDecoratorManager() {
+		return WorkbenchPlugin.getDefault().getDecoratorManager();
+	}
+
+	private void enable(String decoratorId) {
+		getDecoratorManager().setEnabled(decoratorId, true);
+		waitForDecorationJobs();
+		updates.clear();
+	}
+
+	private void waitForDecorationJobs() {
+		assertTrue("Decoration did not finish", processEventsUntil(
+				() -> Job.getJobManager().find(DecoratorManager.FAMILY_DECORATE).length == 0, TIMEOUT));
+	}
+
+	private static SchedulerTestElement[] createElements(String prefix, int count) {
+		SchedulerTestElement[] elements = new SchedulerTestElement[count];
+		for (int i = 0; i < count; i++) {
+			elements[i] = new SchedulerTestElement(prefix + i);
+		}
+		return elements;
+	}
+
+	/**
+	 * Ask for the labels of the elements as a viewer showing them does.
+	 */
+	private void decorate(SchedulerTestElement[] elements) {
+		for (SchedulerTestElement element : elements) {
+			getDecoratorManager().decorateText(element.getName(), element);
+		}
+	}
+
+	/**
+	 * Refresh the decorations of the elements as a decorator changing does.
+	 */
+	private void refresh(SchedulerTestElement[] elements) {
+		getDecoratorManager().labelProviderChanged(new LabelProviderChangedEvent(getDecoratorManager(), elements));
+	}
+
+	private void waitForDecorated(Recorder recorder, int count) {
+		assertTrue("Elements were not decorated",
+				processEventsUntil(() -> recorder.getDecoratedCount() >= count, TIMEOUT));
+	}
+
+	private Set<Object> getUpdatedElements() {
+		Set<Object> updated = new HashSet<>();
+		for (Object[] update : updates) {
+			for (Object element : update) {
+				updated.add(element);
+			}
+		}
+		return updated;
+	}
+
+	private void waitForUpdates(SchedulerTestElement[] elements) {
+		assertTrue("Labels were not updated", processEventsUntil(() -> {
+			Set<Object> updated = getUpdatedElements();
+			for (SchedulerTestElement element : elements) {
+				if (!updated.contains(element)) {
+					return false;
+				}
+			}
+			return true;
+		}, TIMEOUT));
+	}
+
+	public void testRequestedElementsDecoratedFirst() {
+		enable(SchedulerTestDecorator.ID);
+		Recorder recorder = SchedulerTestDecorator.THREAD_SAFE;
+		recorder.closeGate();
+		SchedulerTestElement[] refreshed = createElements("refreshed", 30);
+		refresh(refreshed);
+		SchedulerTestElement[] requested = createElements("requested", 5);
+		decorate(requested);
+		recorder.openGate();
+
+		waitForDecorated(recorder, refreshed.length + requested.length);
+		// Only the refreshed elements the jobs took while the decorator was
+		// blocked may come before the requested ones
+		List<Object> decorated = recorder.getDecorated();
+		for (SchedulerTestElement element : requested) {
+			int index = decorated.indexOf(element);
+			assertTrue(element + " was decorated at " + index,
+					index >= 0 && index < requested.length + 2 * MAX_DECORATION_JOBS);
+		}
+	}
+
+	public void testThreadSafeDecoratorsRunInParallel() {
+		enable(SchedulerTestDecorator.ID);
+		enable(SerialSchedulerTestDecorator.ID);
+		SchedulerTestDecorator.THREAD_SAFE.waitForOtherThread = true;
+		SchedulerTestDecorator.SERIAL.delay = 10;
+		SchedulerTestElement[] elements = createElements("element", 8);
+		decorate(elements);
+
+		waitForDecorated(SchedulerTestDecorator.THREAD_SAFE, elements.length);
+		waitForDecorated(SchedulerTestDecorator.SERIAL, elements.length);
+		if (Runtime.getRuntime().availableProcessors() > 1) {
+			assertTrue("Thread safe decorator was not called in parallel",
+					SchedulerTestDecorator.THREAD_SAFE.getMaxActive() > 1);
+		}
+		assertEquals("Decorator without threadSafe was called in parallel", 1,
+				SchedulerTestDecorator.SERIAL.getMaxActive());
+	}
+
+	public void testLabelsUpdatedAfterResume() {
+		enable(SchedulerTestDecorator.ID);
+		SchedulerTestElement[] first = createElements("first", 3);
+		SchedulerTestElement[] second = createElements("second", 3);
+		// Queued while the label update runs, the decoration has to be
+		// resumed once the update is done
+		onUpdate = () -> decorate(second);
+		decorate(first);
+
+		waitForUpdates(first);
+		waitForUpdates(second);
+		List<Object> decorated = SchedulerTestDecorator.THREAD_SAFE.getDecorated();
+		for (SchedulerTestElement element : second) {
+			assertTrue(element + " was not decorated", decorated.contains(element));
+		}
+	}
+
+	public void testUpdatesMergedWithinBatchDelay() {
+		enable(SchedulerTestDecorator.ID);
+		Recorder recorder = SchedulerTestDecorator.THREAD_SAFE;
+		recorder.closeGate();
+		SchedulerTestElement[] elements = createElements("element", 10);
+		decorate(elements);
+		recorder.openGate();
+
+		waitForUpdates(elements);
+		waitForDecorationJobs();
+		assertEquals("Updates were not merged", 1, updates.size());
+		assertEquals(elements.length, updates.get(0).length);
+	}
+
+}
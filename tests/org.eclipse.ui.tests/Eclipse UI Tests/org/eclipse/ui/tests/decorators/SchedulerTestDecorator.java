@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+
+/**
+ * A lightweight decorator declared thread safe which records the elements it
+ * decorates and how many threads call it at once, see
+ * {@link DecorationSchedulerTest}.
+ */
+public class SchedulerTestDecorator implements ILightweightLabelDecorator {
+
+	public static final String ID = "org.eclipse.ui.tests.decorators.schedulerThreadSafeDecorator";
+
+	public static final String SUFFIX = " [decorated]";
+
+	/**
+	 * The calls of one of the decorators.
+	 */
+	public static class Recorder {
+
+		private final List<Object> decorated = new ArrayList<>();
+
+		private final AtomicInteger active = new AtomicInteger();
+
+		private final AtomicInteger maxActive = new AtomicInteger();
+
+		private volatile CountDownLatch gate;
+
+		/**
+		 * Whether a call waits for a bit until another thread calls the
+		 * decorator too.
+		 */
+		volatile boolean waitForOtherThread;
+
+		/**
+		 * The time a call takes in milliseconds.
+		 */
+		volatile long delay;
+
+		public synchronized void reset() {
+			openGate();
+			decorated.clear();
+			active.set(0);
+			maxActive.set(0);
+			waitForOtherThread = false;
+			delay = 0;
+		}
+
+		/**
+		 * Block the calls of the decorator until {@link #openGate()}.
+		 */
+		public void closeGate() {
+			gate = new CountDownLatch(1);
+		}
+
+		public void openGate() {
+			CountDownLatch current = gate;
+			gate = null;
+			if (current != null) {
+				current.countDown();
+			}
+		}
+
+		public synchronized List<Object> getDecorated() {
+			return new ArrayList<>(decorated);
+		}
+
+		public synchronized int getDecoratedCount() {
+			return decorated.size();
+		}
+
+		public int getMaxActive() {
+			return maxActive.get();
+		}
+
+		void decorate(Object element, IDecoration decoration) {
+			int current = active.incrementAndGet();
+			maxActive.accumulateAndGet(current, Math::max);
+			try {
+				CountDownLatch currentGate = gate;
+				if (currentGate != null) {
+					currentGate.await(10, TimeUnit.SECONDS);
+				}
+				if (waitForOtherThread) {
+					long end = System.currentTimeMillis() + 1000;
+					while (maxActive.get() < 2 && System.currentTimeMillis() < end) {
+						Thread.sleep(5);
+					}
+				}
+				if (delay > 0) {
+					Thread.sleep(delay);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				active.decrementAndGet();
+			}
+			decoration.addSuffix(SUFFIX);
+			synchronized (this) {
+				decorated.add(element);
+			}
+		}
+	}
+
+	public static final Recorder THREAD_SAFE = new Recorder();
+
+	public static final Recorder SERIAL = new Recorder();
+
+	protected Recorder getRecorder() {
+		return THREAD_SAFE;
+	}
+
+	@Override
+	public void decorate(Object element, IDecoration decoration) {
+		getRecorder().decorate(element, decoration);
+	}
+
+	@Override
+	public void addListener(ILabelProviderListener listener) {
+	}
+
+	@Override
+	public void dispose() {
+	}
+
+	@Override
+	public boolean isLabelProperty(Object element, String property) {
+		return false;
+	}
+
+	@Override
+	public void removeListener(ILabelProviderListener listener) {
+	}
+
+}
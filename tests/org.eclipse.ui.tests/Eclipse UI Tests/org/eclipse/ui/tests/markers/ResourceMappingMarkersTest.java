@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2009 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.ui.tests.markers;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.jobs.Job;
@@ -85,4 +86,71 @@ public class ResourceMappingMarkersTest extends AbstractNavigatorTest {
 		}
 		assertTrue("No markers generated",markerFound);
 	}
+
+	public void testMarkerChangesAreApplied() throws CoreException {
+		IWorkbenchWindow window = PlatformUI.getWorkbench()
+				.getActiveWorkbenchWindow();
+		IWorkbenchPage page = window.getActivePage();
+		ResourceMappingTestView view;
+		MarkersTestMarkersView problemView;
+		try {
+			view = (ResourceMappingTestView) page
+					.showView("org.eclipse.ui.tests.resourceMappingView");
+			problemView = (MarkersTestMarkersView) page
+					.showView("org.eclipse.ui.tests.markerTests");
+		} catch (PartInitException e) {
+			assertTrue(e.getLocalizedMessage(), false);
+			return;
+		}
+
+		IMarker first = view.addMarkerToFirstProject();
+		IMarker second = view.addMarkerToFirstProject();
+		assertNotNull("Marker creation failed", first);
+		assertNotNull("Marker creation failed", second);
+		assertTrue("Added marker not shown", waitForUpdate(problemView, first, true));
+		assertTrue("Added marker not shown", waitForUpdate(problemView, second, true));
+
+		first.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		assertTrue("Changed marker not shown", waitForUpdate(problemView, first, true));
+
+		second.delete();
+		assertTrue("Removed marker still shown", waitForUpdate(problemView, second, false));
+		assertTrue("Remaining marker not shown", waitForUpdate(problemView, first, true));
+		first.delete();
+	}
+
+	/**
+	 * Wait until the view shows the marker or not, as expected, and its
+	 * update jobs are done. The update job is scheduled asynchronously after
+	 * the marker change, so joining its family right away may return before
+	 * it ever ran.
+	 *
+	 * @return whether the view shows the marker as expected
+	 */
+	private boolean waitForUpdate(final MarkersTestMarkersView problemView, final IMarker marker,
+			final boolean shown) {
+		processEventsUntil(new Condition() {
+			@Override
+			public boolean compute() {
+				return isShown(problemView, marker) == shown;
+			}
+		}, 5000);
+		try {
+			Job.getJobManager().join(
+					problemView.MARKERSVIEW_UPDATE_JOB_FAMILY,
+					new NullProgressMonitor());
+		} catch (OperationCanceledException e) {
+		} catch (InterruptedException e) {
+		}
+		return isShown(problemView, marker) == shown;
+	}
+
+	private static boolean isShown(MarkersTestMarkersView problemView, IMarker marker) {
+		for (IMarker current : problemView.getCurrentMarkers()) {
+			if (current.equals(marker)) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
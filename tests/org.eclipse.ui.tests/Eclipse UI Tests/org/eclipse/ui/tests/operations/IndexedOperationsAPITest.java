@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.operations;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.operations.IOperationHistory;
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+import org.eclipse.core.commands.operations.IndexedOperationHistory;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+
+/**
+ * Runs the Operations Framework API tests against the
+ * {@link IndexedOperationHistory}.
+ */
+public class IndexedOperationsAPITest extends OperationsAPITest {
+
+	/**
+	 * An operation which is not an AbstractOperation and which is in the
+	 * history of every context.
+	 */
+	static class GlobalOperation implements IUndoableOperation {
+		private final IUndoableOperation operation = new TestOperation("global");
+
+		GlobalOperation(IUndoContext context) {
+			operation.addContext(context);
+		}
+
+		@Override
+		public void addContext(IUndoContext context) {
+			operation.addContext(context);
+		}
+
+		@Override
+		public boolean canExecute() {
+			return operation.canExecute();
+		}
+
+		@Override
+		public boolean canRedo() {
+			return operation.canRedo();
+		}
+
+		@Override
+		public boolean canUndo() {
+			return operation.canUndo();
+		}
+
+		@Override
+		public void dispose() {
+			operation.dispose();
+		}
+
+		@Override
+		public IStatus execute(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+			return operation.execute(monitor, info);
+		}
+
+		@Override
+		public IUndoContext[] getContexts() {
+			return operation.getContexts();
+		}
+
+		@Override
+		public String getLabel() {
+			return operation.getLabel();
+		}
+
+		@Override
+		public boolean hasContext(IUndoContext context) {
+			return true;
+		}
+
+		@Override
+		public IStatus redo(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+			return operation.redo(monitor, info);
+		}
+
+		@Override
+		public void removeContext(IUndoContext context) {
+			operation.removeContext(context);
+		}
+
+		@Override
+		public IStatus undo(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+			return operation.undo(monitor, info);
+		}
+	}
+
+	public IndexedOperationsAPITest() {
+		super();
+	}
+
+	/**
+	 * @param name
+	 */
+	public IndexedOperationsAPITest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected IOperationHistory createHistory() {
+		return new IndexedOperationHistory();
+	}
+
+	public void testContextAddedInHistory() throws ExecutionException {
+		op1.addContext(contextB);
+		history.operationChanged(op1);
+		assertSame(history.getUndoOperation(contextB), op5);
+		history.undo(contextB, null, null);
+		history.undo(contextB, null, null);
+		assertSame(history.getUndoOperation(contextB), op1);
+	}
+
+	public void testReplaceOperation() {
+		IUndoableOperation replacement = new TestOperation("replacement");
+		replacement.addContext(contextA);
+		history.replaceOperation(op4, new IUndoableOperation[] { replacement });
+		assertSame(history.getUndoOperation(contextA), op6);
+		IUndoableOperation[] ops = history.getUndoHistory(contextA);
+		assertEquals(ops.length, 3);
+		assertSame(ops[0], op1);
+		assertSame(ops[1], replacement);
+		assertSame(ops[2], op6);
+	}
+
+	public void testOperationMatchingOtherContexts() throws ExecutionException {
+		IUndoableOperation global = new GlobalOperation(contextA);
+		history.execute(global, null, null);
+		assertSame(history.getUndoOperation(contextB), global);
+		IUndoableOperation[] ops = history.getUndoHistory(contextB);
+		assertEquals(ops.length, 3);
+		assertSame(ops[0], op2);
+		assertSame(ops[1], op5);
+		assertSame(ops[2], global);
+		history.undo(contextB, null, null);
+		assertSame(history.getRedoOperation(contextC), global);
+		assertSame(history.getUndoOperation(contextB), op5);
+	}
+}
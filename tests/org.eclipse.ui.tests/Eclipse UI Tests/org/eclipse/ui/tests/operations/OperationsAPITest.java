@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2006 IBM Corporation and others.
+ * Copyright (c) 2005, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,9 +65,16 @@ public class OperationsAPITest extends TestCase {
 		super(name);
 	}
 
+	/**
+	 * @return the history to test
+	 */
+	protected IOperationHistory createHistory() {
+		return new DefaultOperationHistory();
+	}
+
 	@Override
 	protected void setUp() throws Exception {
-		history = new DefaultOperationHistory();
+		history = createHistory();
 		contextA = new ObjectUndoContext("A");
 		contextB = new ObjectUndoContext("B");
 		contextC = new ObjectUndoContext("C");
@@ -177,6 +184,28 @@ public class OperationsAPITest extends TestCase {
 		assertSame(history.getUndoOperation(contextA), op6);
 	}
 
+	public void testMatchingContexts() throws ExecutionException {
+		// contexts for equal objects match
+		IUndoContext equalB = new ObjectUndoContext("B");
+		assertSame(history.getUndoOperation(equalB), op5);
+		assertEquals(history.getUndoHistory(equalB).length, 2);
+
+		// matches may be added after the operations
+		ObjectUndoContext parent = new ObjectUndoContext("parent");
+		assertNull(history.getUndoOperation(parent));
+		parent.addMatch(contextA);
+		assertSame(history.getUndoOperation(parent), op6);
+		assertEquals(history.getUndoHistory(parent).length, 3);
+
+		// contexts may be removed from the operations in the history
+		op6.removeContext(contextA);
+		assertSame(history.getUndoOperation(contextA), op4);
+		assertSame(history.getUndoOperation(parent), op4);
+		history.undo(parent, null, null);
+		assertSame(history.getRedoOperation(contextA), op4);
+		assertSame(history.getUndoOperation(contextA), op1);
+	}
+
 	public void testHistoryLimit() throws ExecutionException {
 		history.setLimit(contextA, 2);
 		assertTrue(history.getUndoHistory(contextA).length == 2);
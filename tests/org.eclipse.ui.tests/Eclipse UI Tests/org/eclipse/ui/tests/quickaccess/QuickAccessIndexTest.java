@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessElement;
+import org.eclipse.ui.internal.quickaccess.QuickAccessIndex;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+
+public class QuickAccessIndexTest extends TestCase {
+
+	private static final String[] LABELS = { "Problems", "Console", "Package Explorer", "Java Build Path",
+			"*Foo.java - /p/src/Foo.java", "Open Type (Ctrl+T)", "Show In - Project Explorer",
+			"General > Editors > Text Editors", "New Java Class", "Toggle Breakpoint", "JUnit Test Case" };
+
+	private static final String[] FILTERS = { "p", "pa", "pac", "package", "explorer", "java build", "jbp", "ntc",
+			"pack*expl", "ty?e", "open type (ctrl", "  console ", "views", "iews pro", "s java", "vjbp", "edit",
+			"xyz", "foo.java", "a+b" };
+
+	private TestProvider provider;
+
+	@Override
+	protected void setUp() throws Exception {
+		provider = new TestProvider(LABELS);
+	}
+
+	public void testCandidatesContainAllMatches() {
+		QuickAccessIndex index = QuickAccessIndex.update(null, provider);
+		QuickAccessElement[] elements = index.getElements();
+		for (String filter : FILTERS) {
+			Set<Integer> candidates = new HashSet<>();
+			for (int candidate : index.getCandidates(filter)) {
+				candidates.add(Integer.valueOf(candidate));
+			}
+			for (int i = 0; i < elements.length; i++) {
+				if (elements[i].match(filter, provider) != null) {
+					assertTrue("'" + filter + "' matches " + elements[i].getLabel(),
+							candidates.contains(Integer.valueOf(i)));
+				}
+			}
+		}
+	}
+
+	public void testCandidatesAreNarrowed() {
+		QuickAccessIndex index = QuickAccessIndex.update(null, provider);
+		assertEquals(2, index.getCandidates("explorer").length);
+		assertEquals(0, index.getCandidates("xyz").length);
+		// camel case initials
+		assertEquals(1, index.getCandidates("jbp").length);
+		// may match the provider name "Views"
+		assertEquals(LABELS.length, index.getCandidates("iews").length);
+	}
+
+	public void testUpdate() {
+		QuickAccessIndex index = QuickAccessIndex.update(null, provider);
+		assertSame(index, QuickAccessIndex.update(index, provider));
+		provider.reset();
+		QuickAccessIndex updated = QuickAccessIndex.update(index, provider);
+		assertNotSame(index, updated);
+		assertEquals(LABELS.length, updated.getElements().length);
+		assertEquals("Console", updated.getLabel(1));
+	}
+
+	private static class TestProvider extends QuickAccessProvider {
+
+		private final String[] labels;
+
+		TestProvider(String[] labels) {
+			this.labels = labels;
+		}
+
+		@Override
+		public String getId() {
+			return "org.eclipse.ui.tests.quickaccess.testProvider";
+		}
+
+		@Override
+		public String getName() {
+			return "Views";
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			QuickAccessElement[] elements = new QuickAccessElement[labels.length];
+			for (int i = 0; i < labels.length; i++) {
+				elements[i] = new TestElement(this, labels[i]);
+			}
+			return elements;
+		}
+
+		@Override
+		public QuickAccessElement getElementForId(String id) {
+			return null;
+		}
+
+		@Override
+		protected void doReset() {
+			// nothing to reset
+		}
+	}
+
+	private static class TestElement extends QuickAccessElement {
+
+		private final String label;
+
+		TestElement(QuickAccessProvider provider, String label) {
+			super(provider);
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+			// not executed
+		}
+	}
+}
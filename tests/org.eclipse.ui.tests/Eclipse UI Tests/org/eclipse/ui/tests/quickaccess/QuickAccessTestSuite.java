@@ -31,6 +31,7 @@ public class QuickAccessTestSuite extends TestSuite {
      */
     public QuickAccessTestSuite() {
         addTest(new TestSuite(CamelUtilTest.class));
+        addTest(new TestSuite(QuickAccessIndexTest.class));
         addTest(new TestSuite(QuickAccessDialogTest.class));
 		addTest(new TestSuite(ShellClosingTest.class));
     }